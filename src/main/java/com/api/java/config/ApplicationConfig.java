@@ -48,11 +48,12 @@ public class ApplicationConfig {
 
     /** Bean que define el mecanismo de encriptación de contraseñas.
      * BCrypt es recomendado por Spring Security para su resistencia a ataques de fuerza bruta.
+     * Cada codificación y comparación emite un {@link AuthCheckEvent} para ver en JFR el costo de BCrypt.
      * @return PasswordEncoder basado en BCrypt */
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new RecordingPasswordEncoder(new BCryptPasswordEncoder());
     }
 
     /** Bean que implementa UserDetailsService, utilizado para cargar los datos de usuario
@@ -64,4 +65,42 @@ public class ApplicationConfig {
         return username -> userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
     }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** PasswordEncoder que delega en BCrypt y registra la duración de cada operación como evento JFR. */
+
+    private record RecordingPasswordEncoder(PasswordEncoder delegate) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            AuthCheckEvent event = new AuthCheckEvent();
+            event.begin();
+            String encoded = delegate.encode(rawPassword);
+            commit(event, "BCRYPT_ENCODE", "OK");
+            return encoded;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            AuthCheckEvent event = new AuthCheckEvent();
+            event.begin();
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            commit(event, "BCRYPT_MATCH", matches ? "OK" : "MISMATCH");
+            return matches;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+
+        private static void commit(AuthCheckEvent event, String mechanism, String outcome) {
+            event.end();
+            if (!event.shouldCommit()) return;
+            event.endpoint = MetricsConfig.currentHandler();
+            event.mechanism = mechanism;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
 }
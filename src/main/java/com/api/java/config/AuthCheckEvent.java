@@ -0,0 +1,22 @@
+package com.api.java.config;
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Evento JFR de una verificación de credenciales: validación de un JWT o comparación BCrypt de una contraseña. */
+
+@Name("com.api.java.AuthCheck")
+@Label("Verificación de credenciales")
+@Category({"ProjectJava", "Seguridad"})
+@StackTrace(false)
+public class AuthCheckEvent extends jdk.jfr.Event {
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Mecanismo")
+    public String mechanism;    // JWT, BCRYPT_MATCH o BCRYPT_ENCODE
+
+    @Label("Resultado")
+    public String outcome;
+}
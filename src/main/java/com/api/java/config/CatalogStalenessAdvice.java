@@ -0,0 +1,37 @@
+package com.api.java.config;
+import com.api.java.services.CatalogDiskSnapshotService;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/** Marca las respuestas armadas con el snapshot del catálogo en disco (modo degradado por caída de la base de datos):
+ * agrega X-Catalog-Snapshot-Age con la antigüedad del snapshot en segundos y evita que se guarden en caches intermedios. */
+
+@ControllerAdvice
+public class CatalogStalenessAdvice implements ResponseBodyAdvice<Object> {
+    public static final String AGE_HEADER = "X-Catalog-Snapshot-Age";
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType, @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, @NonNull MethodParameter returnType, @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servlet
+                && servlet.getServletRequest().getAttribute(CatalogDiskSnapshotService.STALE_ATTRIBUTE) instanceof Long writtenAt) {
+            response.getHeaders().set(AGE_HEADER, String.valueOf(Math.max(0, (System.currentTimeMillis() - writtenAt) / 1000)));
+            response.getHeaders().setCacheControl(CacheControl.noStore());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,82 @@
+package com.api.java.config;
+import com.api.java.globalException.ErrorResponse;
+import com.api.java.services.AdaptiveLimiter;
+import com.api.java.services.ConcurrencyLimitService;
+import com.api.java.services.WarmupService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/** Filtro de descarte de carga: antes de validar el JWT, ocupa un lugar en el límite de concurrencia de la clase de ruta.
+ * Si no hay lugar responde de inmediato 503 con Retry-After en vez de dejar la request esperando en la cola de Tomcat,
+ * de modo que la latencia de las requests admitidas se mantiene acotada aunque la base de datos se ponga lenta. */
+
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final ConcurrencyLimitService concurrencyLimitService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitService concurrencyLimitService, ObjectMapper objectMapper,
+                                  @Value("${app.concurrency-limit.enabled:true}") boolean enabled,
+                                  @Value("${app.concurrency-limit.retry-after-s:1}") int retryAfterSeconds) {
+        this.concurrencyLimitService = concurrencyLimitService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.retryAfterSeconds = Integer.toString(retryAfterSeconds);
+    }
+
+    /** Las requests del calentamiento no pasan por el límite: sus latencias, con el código aún sin compilar, no deben
+     * fijar la latencia de referencia. */
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return WarmupService.isWarmupRequest(request);
+    }
+
+    /** Admite o rechaza la request y, si la admite, mide su duración para ajustar el límite. */
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        ConcurrencyLimitService.RouteClass routeClass = enabled ? concurrencyLimitService.classify(request) : null;
+        if (routeClass == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        AdaptiveLimiter limiter = concurrencyLimitService.limiter(routeClass);
+        if (!limiter.tryAcquire()) {
+            reject(response, routeClass);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** Responde 503 con Retry-After y el mismo formato de error que el resto de la API. */
+
+    private void reject(HttpServletResponse response, ConcurrencyLimitService.RouteClass routeClass) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                "Servidor saturado (" + routeClass.getKey() + "), reintente en " + retryAfterSeconds + " s",
+                HttpStatus.SERVICE_UNAVAILABLE.value(), "ConcurrencyLimit"));
+    }
+}
@@ -3,13 +3,17 @@ package com.api.java.config;
 import com.api.java.models.ERole;
 import com.api.java.models.RoleModel;
 import com.api.java.repositories.IRoleRepository;
+import com.api.java.services.CatalogDiskSnapshotService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 /** Componente que se ejecuta automáticamente al iniciar la aplicación.
  * Se encarga de inicializar la base de datos con los roles definidos en {@link ERole}
- * evitando duplicados si ya existen.   */
+ * evitando duplicados si ya existen. Si la base de datos no responde, el arranque continúa (el catálogo se sirve
+ * desde el snapshot en disco) y los roles se verifican en el próximo inicio. */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
@@ -19,13 +23,18 @@ public class DataInitializer implements CommandLineRunner {
      *  Si algún rol definido en ERole no existe en la base de datos, lo guarda automáticamente. */
     @Override
     public void run(String... args) {
-        for (ERole role : ERole.values()) {  // Recorre todos los valores del enum ERole
-            roleRepository.findByName(role)     // Busca si el rol ya existe; si no, lo guarda en la base de datos
-                    .orElseGet(() -> roleRepository.save(
-                            RoleModel.builder()
-                                    .name(role) // Asigna el valor del enum como nombre
-                                    .build()
-                    ));
+        try {
+            for (ERole role : ERole.values()) {  // Recorre todos los valores del enum ERole
+                roleRepository.findByName(role)     // Busca si el rol ya existe; si no, lo guarda en la base de datos
+                        .orElseGet(() -> roleRepository.save(
+                                RoleModel.builder()
+                                        .name(role) // Asigna el valor del enum como nombre
+                                        .build()
+                        ));
+            }
+        } catch (RuntimeException e) {
+            if (!CatalogDiskSnapshotService.isDatabaseUnavailable(e)) throw e;
+            log.warn("Base de datos no disponible al iniciar: no se verificaron los roles ({})", e.getMessage());
         }
     }
 }
@@ -0,0 +1,53 @@
+package com.api.java.config;
+import com.api.java.dto.DetailOrderDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/** Serializador escrito a mano para {@link DetailOrderDTO}.
+ * Escribe el producto anidado directamente con {@link ProductDTOSerializer}, sin pasar por el proveedor de serializadores. */
+
+public class DetailOrderDTOSerializer extends StdSerializer<DetailOrderDTO> {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString USER_ORDER = new SerializedString("userOrder");
+    private static final SerializedString PRODUCT_ORDER = new SerializedString("productOrder");
+    private static final SerializedString AMOUNT = new SerializedString("amount");
+    private static final SerializedString STATUS = new SerializedString("status");
+    private static final SerializedString NAME_SNAPSHOT = new SerializedString("nombreProductoSnapshot");
+    private static final SerializedString PRICE_SNAPSHOT = new SerializedString("precioUnitarioSnapshot");
+
+    public DetailOrderDTOSerializer() {
+        super(DetailOrderDTO.class);
+    }
+
+    @Override
+    public void serialize(DetailOrderDTO detail, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(detail);
+        gen.writeFieldName(ID);
+        ProductDTOSerializer.writeLong(detail.getId(), gen);
+        gen.writeFieldName(USER_ORDER);
+        ProductDTOSerializer.writeLong(detail.getUserOrder(), gen);
+        gen.writeFieldName(PRODUCT_ORDER);
+        if (detail.getProductOrder() != null) {
+            gen.writeStartObject(detail.getProductOrder());
+            ProductDTOSerializer.writeFields(detail.getProductOrder(), gen, provider);
+            gen.writeEndObject();
+        } else {
+            gen.writeNull();
+        }
+        gen.writeFieldName(AMOUNT);
+        if (detail.getAmount() != null) gen.writeNumber(detail.getAmount());
+        else gen.writeNull();
+        gen.writeFieldName(STATUS);
+        gen.writeString(detail.getStatus() != null ? detail.getStatus().name() : null);
+        gen.writeFieldName(NAME_SNAPSHOT);
+        gen.writeString(detail.getNombreProductoSnapshot());
+        gen.writeFieldName(PRICE_SNAPSHOT);
+        if (detail.getPrecioUnitarioSnapshot() != null) MoneyJsonComponent.Serializer.write(detail.getPrecioUnitarioSnapshot(), gen, provider);
+        else gen.writeNull();
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,54 @@
+package com.api.java.config;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/** Configura la emisión de eventos JFR a nivel de request.
+ * El filtro se registra primero en la cadena del contenedor, antes de Spring Security, para que el {@link RequestEvent}
+ * abarque también la validación del JWT y el descarte de carga. */
+
+@Configuration
+public class FlightRecorderConfig {
+
+    /** Registra el filtro que emite un {@link RequestEvent} por request. */
+
+    @Bean
+    public FilterRegistrationBean<RequestEventFilter> requestEventFilter() {
+        FilterRegistrationBean<RequestEventFilter> registration = new FilterRegistrationBean<>(new RequestEventFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /** Filtro que mide la request completa y la registra con el endpoint que la atendió. */
+
+    static final class RequestEventFilter extends OncePerRequestFilter {
+        @Override
+        protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+            RequestEvent event = new RequestEvent();
+            if (!event.isEnabled()) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            event.begin();
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.endpoint = MetricsConfig.handlerName(request);
+                    event.httpMethod = request.getMethod();
+                    event.status = response.getStatus();
+                    event.commit();
+                }
+            }
+        }
+    }
+}
@@ -1,16 +1,81 @@
 package com.api.java.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.api.java.dto.DetailOrderDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.dto.SparseListDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
+/** Configuración de Jackson para las respuestas de la API.
+ * En lugar de reemplazar el ObjectMapper de Spring Boot (lo que descartaría las propiedades spring.jackson.*
+ * y los @JsonComponent), aporta módulos y ajusta el builder que Boot usa para crearlo:
+ * - Serializadores escritos a mano para ProductDTO y DetailOrderDTO, los DTOs de los listados más grandes.
+ * - Módulo Blackbird: accesos a getters/setters generados con LambdaMetafactory en lugar de reflexión para el resto de los DTOs.
+ * - Pool acotado y compartido de buffers de Jackson, que sigue siendo efectivo con hilos virtuales
+ *   (el pool por defecto es por hilo y se pierde con cada hilo nuevo).
+ * - Formatos binarios CBOR (application/cbor) y Smile (application/x-jackson-smile) por negociación de contenido,
+ *   para clientes internos que consumen listados completos. Sus ObjectMapper salen del mismo builder, así que
+ *   serializan los mismos DTOs con los mismos módulos y serializadores que las respuestas JSON. */
+
+@Configuration
 public class JacksonConfig {
+    private static final int BUFFER_POOL_SIZE = 256;    // Juegos de buffers reutilizables retenidos como máximo
+
+    /** Fábrica JSON con el pool de buffers compartido. */
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer jsonFactoryCustomizer() {
+        return builder -> builder.factory(jsonFactory());
+    }
+
+    /** Accesores generados para los DTOs sin serializador propio. */
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /** Serializadores escritos a mano de los DTOs más serializados. */
+
     @Bean
-    public ObjectMapper objectMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        return objectMapper;
+    public Module hotDtoModule() {
+        SimpleModule module = new SimpleModule("hot-dtos");
+        module.addSerializer(ProductDTO.class, new ProductDTOSerializer());
+        module.addSerializer(DetailOrderDTO.class, new DetailOrderDTOSerializer());
+        module.addSerializer(SparseListDTO.class, new SparseListDTOSerializer());   // Listados con ?fields=
+        return module;
+    }
+
+    /** Convertidor CBOR para requests y respuestas; reemplaza al que Spring crearía sin los módulos de la aplicación.
+     * @param builder builder de Spring Boot (prototipo, ya con los módulos y customizers aplicados) */
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /** Convertidor Smile para requests y respuestas; reemplaza al que Spring crearía sin los módulos de la aplicación.
+     * @param builder builder de Spring Boot (prototipo, ya con los módulos y customizers aplicados) */
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /** @return fábrica JSON que recicla buffers en un pool acotado compartido entre hilos */
+
+    public static JsonFactory jsonFactory() {
+        return JsonFactory.builder().recyclerPool(JsonRecyclerPools.newBoundedPool(BUFFER_POOL_SIZE)).build();
     }
 }
@@ -0,0 +1,245 @@
+package com.api.java.config;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/** DataSource que mide, para la request en curso, la espera por una conexión del pool y el tiempo y la cantidad de
+ * sentencias JDBC ejecutadas. Envuelve al pool (HikariCP) sin reemplazarlo: unwrap sigue devolviendo el pool original,
+ * así sus propias métricas se registran igual.
+ * Las mediciones se acumulan en el hilo de la request entre {@link #begin()} y {@link #end()}; fuera de ese rango
+ * (tareas programadas, arranque) no se acumula nada.
+ * Además, mientras haya una grabación JFR activa, cada sentencia emite un {@link JdbcStatementEvent} con la forma del SQL
+ * y las filas leídas o afectadas. */
+
+public class JdbcMetricsDataSource extends DelegatingDataSource {
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_SHAPES = 2048;     // Formas SQL cacheadas (las sentencias de Hibernate son un conjunto acotado)
+    private static final Map<String, String> SHAPES = new ConcurrentHashMap<>();
+
+    /** Mediciones JDBC acumuladas de una request. */
+
+    public static final class Stats {
+        private long poolWaitNanos;     // Espera por conexiones del pool
+        private long jdbcNanos;         // Tiempo dentro de execute*
+        private int statements;         // Sentencias ejecutadas (cada executeBatch cuenta como una)
+
+        public long getPoolWaitNanos() {
+            return poolWaitNanos;
+        }
+
+        public long getJdbcNanos() {
+            return jdbcNanos;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+    }
+
+    public JdbcMetricsDataSource(DataSource target) {
+        super(target);
+    }
+
+    /** Empieza a acumular mediciones en el hilo actual. */
+
+    public static void begin() {
+        CURRENT.set(new Stats());
+    }
+
+    /** Deja de acumular en el hilo actual.
+     * @return mediciones acumuladas desde {@link #begin()}, o null si no se había empezado */
+
+    public static Stats end() {
+        Stats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    /** @return mediciones de la request en curso, o null si el hilo actual no está midiendo */
+
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection();
+        return track(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = super.getConnection(username, password);
+        return track(connection, start);
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** Registra la espera y envuelve la conexión para medir sus sentencias. */
+
+    private static Connection track(Connection connection, long start) {
+        Stats stats = CURRENT.get();
+        if (stats != null) stats.poolWaitNanos += System.nanoTime() - start;
+        return (Connection) Proxy.newProxyInstance(JdbcMetricsDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    /** Devuelve sentencias envueltas en vez de las originales, recordando el SQL de las preparadas. */
+
+    private record ConnectionHandler(Connection target) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) return identity(proxy, method, args);
+            Object result = invokeTarget(target, method, args);
+            if (result instanceof Statement statement) {
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return Proxy.newProxyInstance(JdbcMetricsDataSource.class.getClassLoader(), new Class<?>[]{type}, new StatementHandler(statement, proxy, sql));
+            }
+            return result;
+        }
+    }
+
+    /** Mide execute, executeQuery, executeUpdate, executeLargeUpdate, executeBatch y executeLargeBatch. */
+
+    private record StatementHandler(Statement target, Object connection, String sql) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) return identity(proxy, method, args);
+            if (method.getName().equals("getConnection")) return connection;    // La sentencia devuelve la conexión envuelta
+            if (!method.getName().startsWith("execute")) return invokeTarget(target, method, args);
+            Stats stats = CURRENT.get();
+            JdbcStatementEvent event = new JdbcStatementEvent();
+            boolean recording = event.isEnabled();
+            if (stats == null && !recording) return invokeTarget(target, method, args);
+
+            String statementSql = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+            long start = System.nanoTime();
+            if (recording) event.begin();
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable e) {
+                if (recording) {
+                    event.end();
+                    commit(event, statementSql, -1, e.getClass().getSimpleName());
+                }
+                throw e;
+            } finally {
+                if (stats != null) {
+                    stats.jdbcNanos += System.nanoTime() - start;
+                    stats.statements++;
+                }
+            }
+            if (!recording) return result;
+            event.end();
+            if (result instanceof ResultSet resultSet) {    // Las filas se cuentan al recorrer el ResultSet
+                return Proxy.newProxyInstance(JdbcMetricsDataSource.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                        new ResultSetHandler(resultSet, proxy, event, statementSql, new long[1]));
+            }
+            commit(event, statementSql, rowsOf(result), "OK");
+            return result;
+        }
+    }
+
+    /** Cuenta las filas leídas y registra el evento de la consulta al cerrar el ResultSet. */
+
+    private record ResultSetHandler(ResultSet target, Object statement, JdbcStatementEvent event, String sql, long[] rows) implements InvocationHandler {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) return identity(proxy, method, args);
+            switch (method.getName()) {
+                case "getStatement" -> { return statement; }
+                case "next" -> {
+                    boolean hasRow = (Boolean) invokeTarget(target, method, args);
+                    if (hasRow) rows[0]++;
+                    return hasRow;
+                }
+                case "close" -> {
+                    if (!target.isClosed()) commit(event, sql, rows[0], "OK");
+                    return invokeTarget(target, method, args);
+                }
+                default -> { return invokeTarget(target, method, args); }
+            }
+        }
+    }
+
+    /** Completa y registra un evento de sentencia ya finalizado (end), sin alterar su duración. */
+
+    private static void commit(JdbcStatementEvent event, String sql, long rows, String outcome) {
+        if (!event.shouldCommit()) return;
+        event.endpoint = MetricsConfig.currentHandler();
+        event.sql = shapeOf(sql);
+        event.rows = rows;
+        event.outcome = outcome;
+        event.commit();
+    }
+
+    /** @return filas afectadas según el resultado de execute*, o -1 si no lo indica */
+
+    private static long rowsOf(Object result) {
+        if (result instanceof Number count) return count.longValue();
+        long total = 0;
+        if (result instanceof int[] counts) for (int count : counts) total += Math.max(count, 0);
+        else if (result instanceof long[] counts) for (long count : counts) total += Math.max(count, 0);
+        else return -1;
+        return total;
+    }
+
+    /** Normaliza el SQL para agrupar sentencias iguales: literales a ?, listas IN colapsadas y espacios simples.
+     * @param sql sentencia original
+     * @return forma de la sentencia */
+
+    static String shapeOf(String sql) {
+        if (sql == null) return null;
+        String cached = SHAPES.get(sql);
+        if (cached != null) return cached;
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        if (shape.length() > 1000) shape = shape.substring(0, 1000);
+        if (SHAPES.size() < MAX_SHAPES) SHAPES.put(sql, shape);
+        return shape;
+    }
+
+    /** @return true para equals y hashCode, que se resuelven sobre el proxy (Spring compara conexiones por identidad) */
+
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class && (method.getName().equals("equals") || method.getName().equals("hashCode"));
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    /** Invoca el método sobre el objeto real propagando la excepción original. */
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.api.java.config;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Evento JFR de la ejecución de una sentencia JDBC. La duración cubre solo el execute; las filas de una consulta
+ * se cuentan mientras se recorre el ResultSet y el evento se registra al cerrarlo. */
+
+@Name("com.api.java.JdbcStatement")
+@Label("Sentencia JDBC")
+@Category({"ProjectJava", "Base de datos"})
+@StackTrace(false)
+public class JdbcStatementEvent extends jdk.jfr.Event {
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Forma SQL")
+    @Description("SQL con los literales reemplazados por ? y las listas IN colapsadas")
+    public String sql;
+
+    @Label("Filas")
+    @Description("Filas leídas o afectadas; -1 si no aplica")
+    public long rows;
+
+    @Label("Resultado")
+    public String outcome;
+}
@@ -41,9 +41,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             filterChain.doFilter(request, response);
             return;
         }
-        username = jwtService.getUsernameFromToken(token);      // Extrae el nombre de usuario del token (generalmente el email o username)
+        AuthCheckEvent event = new AuthCheckEvent();        // Evento JFR con el costo de verificar el token
+        event.begin();
+        Claims claims;
+        try {
+            claims = jwtService.getAllClaims(token);        // Verifica la firma una sola vez y obtiene todos los claims (datos embebidos en el token)
+        } catch (RuntimeException e) {
+            commit(event, e.getClass().getSimpleName());
+            throw e;
+        }
+        commit(event, "OK");
+        username = claims.getSubject();     // Nombre de usuario del token (generalmente el email o username)
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {   // Si hay un username válido y aún no se ha autenticado esta sesión
-            Claims claims = jwtService.getAllClaims(token);     // Obtiene todos los claims (datos embebidos en el token)
             @SuppressWarnings("unchecked") //  Suprime el warning del compilador
             List<String> roles = claims.get("roles", List.class);   // Extrae la lista de roles desde los claims del token
             List<GrantedAuthority> authorities = roles.stream()     // Convierte los roles en autoridades que Spring Security entiende
@@ -57,6 +66,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);    // Continúa con la cadena de filtros
     }
 
+    /** Registra la verificación del token como evento JFR (la request todavía no tiene endpoint resuelto). */
+
+    private static void commit(AuthCheckEvent event, String outcome) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.mechanism = "JWT";
+        event.outcome = outcome;
+        event.commit();
+    }
+
     /** Extrae el token JWT desde el encabezado Authorization de la request.
      * Solo lo devuelve si el encabezado empieza con "Bearer".*/
 
@@ -0,0 +1,182 @@
+package com.api.java.config;
+import com.api.java.services.AdaptiveLimiter;
+import com.api.java.services.ConcurrencyLimitService;
+import com.api.java.services.ResourceUsageService;
+import com.api.java.services.WarmupService;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.observation.ObservationPredicate;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.lang.NonNull;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/** Configura las métricas propias publicadas en /actuator/prometheus:
+ * - Etiqueta handler (Controlador.metodo) en http.server.requests, para tener un histograma por método de controlador
+ * - Por request: tiempo en JDBC, espera por conexión del pool y cantidad de sentencias, por método de controlador
+ * - Por request: tiempo de CPU y bytes asignados, por método de controlador (ver {@link ResourceUsageFilter})
+ * - Estado de los límites de concurrencia adaptativos por clase de ruta
+ * Las requests del calentamiento ({@link WarmupService#isWarmupRequest}) no se registran en ninguna de las métricas por request.
+ * Todas las etiquetas salen del código (controladores, clases de ruta), nunca de datos de la request, para que la
+ * cantidad de series quede acotada. */
+
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+    private static final String CONTROLLERS_PACKAGE = "com.api.java.controllers";
+    private static final String OTHER_HANDLER = "other";    // Swagger, errores, rutas sin controlador
+
+    private final MeterRegistry meterRegistry;
+
+    /** Envuelve el DataSource del pool para medir el tiempo JDBC y la espera por conexión de cada request. */
+
+    @Bean
+    public static BeanPostProcessor jdbcMetricsDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof JdbcMetricsDataSource)
+                        ? new JdbcMetricsDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    /** Agrega la etiqueta handler a http.server.requests. */
+
+    @Bean
+    public ServerRequestObservationConvention handlerTagConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("handler", handlerName(context.getCarrier())));
+            }
+        };
+    }
+
+    /** Excluye de http.server.requests las requests del calentamiento. */
+
+    @Bean
+    public ObservationPredicate warmupObservationPredicate() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request && WarmupService.isWarmupRequest(request.getCarrier()));
+    }
+
+    /** Registra el filtro que mide CPU y bytes asignados por request, justo después del que emite eventos JFR. */
+
+    @Bean
+    @ConditionalOnProperty(name = "app.resource-usage.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ResourceUsageFilter> resourceUsageFilter(ResourceUsageService resourceUsageService) {
+        FilterRegistrationBean<ResourceUsageFilter> registration = new FilterRegistrationBean<>(new ResourceUsageFilter(resourceUsageService));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /** Publica el estado de cada limitador de concurrencia, etiquetado por clase de ruta. */
+
+    @Bean
+    public MeterBinder concurrencyLimitMetrics(ConcurrencyLimitService concurrencyLimitService) {
+        return registry -> {
+            for (ConcurrencyLimitService.RouteClass routeClass : ConcurrencyLimitService.RouteClass.values()) {
+                AdaptiveLimiter limiter = concurrencyLimitService.limiter(routeClass);
+                String tag = routeClass.getKey();
+                Gauge.builder("app.concurrency.limit", limiter, AdaptiveLimiter::getLimit)
+                        .description("Límite de requests simultáneas vigente").tag("route_class", tag).register(registry);
+                Gauge.builder("app.concurrency.inflight", limiter, AdaptiveLimiter::getInflight)
+                        .description("Requests en curso").tag("route_class", tag).register(registry);
+                Gauge.builder("app.concurrency.rtt.short", limiter, AdaptiveLimiter::getShortRttMs)
+                        .description("Latencia promedio de la última ventana").baseUnit("milliseconds").tag("route_class", tag).register(registry);
+                Gauge.builder("app.concurrency.rtt.long", limiter, AdaptiveLimiter::getLongRttMs)
+                        .description("Latencia de referencia de largo plazo").baseUnit("milliseconds").tag("route_class", tag).register(registry);
+                FunctionCounter.builder("app.concurrency.accepted", limiter, AdaptiveLimiter::getAccepted)
+                        .description("Requests admitidas").tag("route_class", tag).register(registry);
+                FunctionCounter.builder("app.concurrency.rejected", limiter, AdaptiveLimiter::getRejected)
+                        .description("Requests rechazadas con 503").tag("route_class", tag).register(registry);
+            }
+        };
+    }
+
+    /** Registra el interceptor que acota la medición JDBC a la ejecución de cada handler. */
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new JdbcMetricsInterceptor());
+    }
+
+    /** @return "Controlador.metodo" del handler que atiende la request del hilo actual, "other" si no es un controlador
+     *          de la aplicación, o null fuera de una request o antes de resolver el handler */
+
+    public static String currentHandler() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) return null;
+        HttpServletRequest request = attributes.getRequest();
+        return request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) != null ? handlerName(request) : null;
+    }
+
+    /** @return "Controlador.metodo" para los controladores de la aplicación, u "other" */
+
+    static String handlerName(HttpServletRequest request) {
+        Object handler = request != null ? request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) : null;
+        if (handler instanceof HandlerMethod method && method.getBeanType().getPackageName().equals(CONTROLLERS_PACKAGE)) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return OTHER_HANDLER;
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** Acumula las mediciones JDBC mientras se ejecuta el handler y las registra al terminar.
+     * Corre dentro del DispatcherServlet, por lo que también mide las sub-requests de /batch, cada una en su hilo. */
+
+    private final class JdbcMetricsInterceptor implements AsyncHandlerInterceptor {
+        @Override
+        public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+            if (WarmupService.isWarmupRequest(request)) return true;    // Sin medición: afterCompletion no registra nada
+            JdbcMetricsDataSource.begin();
+            return true;
+        }
+
+        @Override
+        public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+            JdbcMetricsDataSource.end();    // Respuestas asíncronas: el hilo queda libre y no se registra una medición parcial
+        }
+
+        @Override
+        public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler, Exception ex) {
+            JdbcMetricsDataSource.Stats stats = JdbcMetricsDataSource.end();
+            if (stats == null) return;
+            String name = handlerName(request);
+            Timer.builder("app.request.jdbc.time").description("Tiempo en sentencias JDBC por request")
+                    .tag("handler", name).publishPercentileHistogram().register(meterRegistry)
+                    .record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+            Timer.builder("app.request.pool.wait").description("Espera por conexiones del pool por request")
+                    .tag("handler", name).publishPercentileHistogram().register(meterRegistry)
+                    .record(stats.getPoolWaitNanos(), TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("app.request.jdbc.statements").description("Sentencias JDBC por request")
+                    .tag("handler", name).publishPercentileHistogram().register(meterRegistry)
+                    .record(stats.getStatements());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.api.java.config;
+import com.api.java.models.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadCapability;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/** Serialización JSON de {@link Money}: se escribe como número decimal con dos decimales (18999.50)
+ * y se lee desde números o textos decimales, sin crear BigDecimal ni Double intermedios.
+ * En los formatos binarios (CBOR, Smile), que no admiten números como texto, se usa su decimal nativo.
+ * Spring Boot registra ambas clases en el ObjectMapper de la aplicación. */
+
+@JsonComponent
+public class MoneyJsonComponent {
+
+    /** Escribe el importe directamente desde sus centavos. */
+
+    public static class Serializer extends JsonSerializer<Money> {
+        private static final Object BUFFER_KEY = new Object();  // Atributo por llamada con el buffer de caracteres reutilizable
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            write(value, gen, serializers);
+        }
+
+        /** Escribe un importe como número; reutilizado por los serializadores escritos a mano de los DTOs.
+         * El buffer de caracteres se guarda como atributo de la llamada, así un listado completo usa uno solo.
+         * @param value    importe (no null)
+         * @param gen      generador de salida
+         * @param provider proveedor de la serialización en curso */
+
+        public static void write(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (!gen.canWriteFormattedNumbers()) {  // Formato binario: decimal nativo (escala 2 + centavos)
+                gen.writeNumber(value.toBigDecimal());
+                return;
+            }
+            char[] buffer = (char[]) provider.getAttribute(BUFFER_KEY);
+            if (buffer == null) {
+                buffer = new char[24];
+                provider.setAttribute(BUFFER_KEY, buffer);
+            }
+            gen.writeNumber(buffer, 0, value.writeTo(buffer, 0));
+        }
+    }
+
+    /** Lee el importe desde el texto del token numérico (o de un string), redondeando a centavos. */
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return Money.ofCents(Math.multiplyExact(parser.getLongValue(), 100));
+            }
+            if (token == JsonToken.VALUE_NUMBER_FLOAT && parser.getReadCapabilities().isEnabled(StreamReadCapability.EXACT_FLOATS)) {
+                return Money.of(parser.getDecimalValue());  // Formato binario: el valor no tiene representación textual
+            }
+            if (token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_STRING) {
+                try {
+                    return Money.valueOf(parser.getText());
+                } catch (NumberFormatException | ArithmeticException e) {
+                    return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), "importe inválido");
+                }
+            }
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+    }
+}
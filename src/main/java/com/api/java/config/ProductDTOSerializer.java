@@ -0,0 +1,62 @@
+package com.api.java.config;
+import com.api.java.dto.ProductDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/** Serializador escrito a mano para {@link ProductDTO}, el DTO más serializado de la API (listados y detalles de orden).
+ * Escribe los campos en orden fijo con nombres pre-codificados ({@link SerializedString} guarda los bytes UTF-8 ya escapados),
+ * sin reflexión ni búsqueda de serializadores por propiedad. La salida es idéntica a la del serializador por defecto. */
+
+public class ProductDTOSerializer extends StdSerializer<ProductDTO> {
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString NAME = new SerializedString("nameProduct");
+    static final SerializedString DESCRIPTION = new SerializedString("descriptionProduct");
+    static final SerializedString PRICE = new SerializedString("priceProduct");
+    static final SerializedString CATEGORY_ID = new SerializedString("categoryId");
+    static final SerializedString STOCK = new SerializedString("stockProduct");
+    static final SerializedString ACTIVO = new SerializedString("activo");
+
+    public ProductDTOSerializer() {
+        super(ProductDTO.class);
+    }
+
+    @Override
+    public void serialize(ProductDTO product, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(product);
+        writeFields(product, gen, provider);
+        gen.writeEndObject();
+    }
+
+    /** Escribe los campos del producto dentro de un objeto ya abierto.
+     * @param product  producto a escribir
+     * @param gen      generador de salida
+     * @param provider proveedor de la serialización en curso */
+
+    static void writeFields(ProductDTO product, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeFieldName(ID);
+        writeLong(product.getId(), gen);
+        gen.writeFieldName(NAME);
+        gen.writeString(product.getNameProduct());      // writeString(null) escribe null
+        gen.writeFieldName(DESCRIPTION);
+        gen.writeString(product.getDescriptionProduct());
+        gen.writeFieldName(PRICE);
+        if (product.getPriceProduct() != null) MoneyJsonComponent.Serializer.write(product.getPriceProduct(), gen, provider);
+        else gen.writeNull();
+        gen.writeFieldName(CATEGORY_ID);
+        writeLong(product.getCategoryId(), gen);
+        gen.writeFieldName(STOCK);
+        if (product.getStockProduct() != null) gen.writeNumber(product.getStockProduct());
+        else gen.writeNull();
+        gen.writeFieldName(ACTIVO);
+        gen.writeBoolean(product.isActivo());
+    }
+
+    static void writeLong(Long value, JsonGenerator gen) throws IOException {
+        if (value != null) gen.writeNumber(value);
+        else gen.writeNull();
+    }
+}
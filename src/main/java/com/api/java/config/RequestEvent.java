@@ -0,0 +1,25 @@
+package com.api.java.config;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Evento JFR de una request HTTP completa, desde el primer filtro hasta la respuesta.
+ * Los eventos de JWT, emitidos antes de conocer el endpoint, se atribuyen a la request que los contiene en el mismo hilo. */
+
+@Name("com.api.java.Request")
+@Label("Request HTTP")
+@Category({"ProjectJava", "Web"})
+@StackTrace(false)
+public class RequestEvent extends jdk.jfr.Event {
+    @Label("Endpoint")
+    @Description("Controlador.metodo que atendió la request")
+    public String endpoint;
+
+    @Label("Método HTTP")
+    public String httpMethod;
+
+    @Label("Estado")
+    public int status;
+}
@@ -0,0 +1,41 @@
+package com.api.java.config;
+import com.api.java.services.ResourceUsage;
+import com.api.java.services.ResourceUsageService;
+import com.api.java.services.WarmupService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/** Filtro que mide el tiempo de CPU y los bytes asignados de cada request (incluidas las tareas que la request reparte
+ * en otros hilos) y los registra por endpoint. Se registra al principio de la cadena del contenedor para incluir
+ * la validación del JWT y la serialización de la respuesta. */
+
+public class ResourceUsageFilter extends OncePerRequestFilter {
+    private final ResourceUsageService resourceUsageService;
+
+    public ResourceUsageFilter(ResourceUsageService resourceUsageService) {
+        this.resourceUsageService = resourceUsageService;
+    }
+
+    /** Las requests del calentamiento no se registran. */
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return WarmupService.isWarmupRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        ResourceUsage.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ResourceUsage usage = ResourceUsage.end();
+            if (usage != null) resourceUsageService.record(MetricsConfig.handlerName(request), usage.getCpuNanos(), usage.getAllocatedBytes());
+        }
+    }
+}
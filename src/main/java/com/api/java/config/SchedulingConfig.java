@@ -0,0 +1,11 @@
+package com.api.java.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Habilita la ejecución de tareas periódicas (@Scheduled), como los checkpoints del ranking de ventas. */
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
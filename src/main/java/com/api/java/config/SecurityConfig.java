@@ -20,13 +20,15 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
     private final AuthenticationProvider authenticationProvider;     // Proveedor de autenticación, puede ser personalizado para validar usuarios
     private final JwtAuthenticationFilter jwtAuthenticationFilter;   // Filtro personalizado que intercepta las requests y valida el JWT
+    private final ConcurrencyLimitFilter concurrencyLimitFilter;     // Descarte de carga por límite de concurrencia adaptativo
 
     /** Metodo principal que define la cadena de filtros de seguridad:
      * - Desactiva protección CSRF (no necesaria para APIs REST con JWT)
      * - Usa sesiones sin estado: no se guarda sesión en el servidor
-     * - Permite acceso sin autenticación a /auth/**
+     * - Permite acceso sin autenticación a /auth/**, /actuator/health y /actuator/prometheus
      * - Protege rutas /admin/** y /user/** según roles
-     * - Agrega el filtro de JWT antes del filtro de autenticación estándar */
+     * - Agrega el filtro de JWT antes del filtro de autenticación estándar
+     * - Agrega el límite de concurrencia antes del filtro de JWT, para descartar carga sin gastar en validar tokens */
 
     @Bean // Spring gestiona esta instancia como un bean
     public SecurityFilterChain filterChain(HttpSecurity httpSecurity) throws Exception {
@@ -39,6 +41,8 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(authRequest -> authRequest   // Configura las reglas de autorización por rutas
                         .requestMatchers("/auth/**").permitAll()     // Permite acceso libre a rutas de autenticación
+                        // Salud y métricas para el orquestador y Prometheus (se sirven en el puerto de administración, no expuesto al público)
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                         // Requiere rol ADMIN para acceder a /admin/**
                         .requestMatchers("/admin/**").hasRole("ADMIN")
 
@@ -50,6 +54,7 @@ public class SecurityConfig {
                 )
                 .authenticationProvider(authenticationProvider)     // Define el proveedor de autenticación personalizado
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)   // Inserta el filtro JWT antes del filtro estándar de autenticación
+                .addFilterBefore(concurrencyLimitFilter, JwtAuthenticationFilter.class)     // Rechaza con 503 cuando la clase de ruta está saturada
                 .build();   // Construye y devuelve el SecurityFilterChain final
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.api.java.config;
+import com.api.java.services.ResourceUsage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/** Agrega el encabezado Server-Timing con la CPU, los bytes asignados y el tiempo en JDBC de la request (si
+ * app.resource-usage.server-timing está activo). Se escribe justo antes de serializar el cuerpo, cuando la respuesta
+ * todavía no se envió, por lo que no incluye la serialización; las métricas sí la incluyen. */
+
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+    private final boolean enabled;
+
+    public ServerTimingAdvice(@Value("${app.resource-usage.server-timing:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean supports(@NonNull MethodParameter returnType, @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, @NonNull MethodParameter returnType, @NonNull MediaType selectedContentType,
+                                  @NonNull Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  @NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response) {
+        ResourceUsage usage = ResourceUsage.current();
+        if (usage != null) {
+            StringBuilder timing = new StringBuilder(96)
+                    .append(String.format(Locale.ROOT, "cpu;dur=%.3f, alloc;desc=\"%d B\"", usage.getCpuNanos() / 1_000_000.0, usage.getAllocatedBytes()));
+            JdbcMetricsDataSource.Stats jdbc = JdbcMetricsDataSource.current();
+            if (jdbc != null) timing.append(String.format(Locale.ROOT, ", db;dur=%.3f;desc=\"%d sentencias\"", jdbc.getJdbcNanos() / 1_000_000.0, jdbc.getStatements()));
+            response.getHeaders().add("Server-Timing", timing.toString());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,31 @@
+package com.api.java.config;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Evento JFR de una invocación a un método público de un servicio de com.api.java.services. */
+
+@Name("com.api.java.ServiceCall")
+@Label("Llamada a servicio")
+@Category({"ProjectJava", "Servicios"})
+@StackTrace(false)
+public class ServiceCallEvent extends jdk.jfr.Event {
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Servicio")
+    public String service;
+
+    @Label("Método")
+    public String method;
+
+    @Label("IDs de entidades")
+    @Description("Argumentos de tipo ID de la llamada, por ejemplo id=12, categoryId=3")
+    public String entityIds;
+
+    @Label("Resultado")
+    @Description("OK, código HTTP de la excepción de negocio o ResponseStatusException, o nombre de la excepción")
+    public String outcome;
+}
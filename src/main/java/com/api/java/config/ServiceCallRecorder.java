@@ -0,0 +1,68 @@
+package com.api.java.config;
+import com.api.java.globalException.BusinessException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.Collection;
+
+/** Aspecto que emite un {@link ServiceCallEvent} por cada invocación a un método público de los servicios.
+ * Si no hay una grabación JFR activa con el evento habilitado, solo agrega la comprobación de isEnabled. */
+
+@Aspect
+@Component
+public class ServiceCallRecorder {
+    private static final int MAX_IDS_LENGTH = 200;  // Largo máximo del texto de IDs de entidades
+
+    /** Mide la llamada y registra su resultado. */
+
+    @Around("execution(public * com.api.java.services..*.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        if (!event.isEnabled()) return joinPoint.proceed();
+        event.begin();
+        String outcome = "OK";
+        try {
+            return joinPoint.proceed();
+        } catch (BusinessException e) {
+            outcome = Integer.toString(e.getStatus().value());
+            throw e;
+        } catch (ResponseStatusException e) {
+            outcome = Integer.toString(e.getStatusCode().value());
+            throw e;
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+                event.endpoint = MetricsConfig.currentHandler();
+                event.service = signature.getDeclaringType().getSimpleName();
+                event.method = signature.getName();
+                event.entityIds = entityIds(signature.getParameterNames(), joinPoint.getArgs());
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** @return argumentos Long (o colecciones de Long) como "nombre=valor", separados por coma, o null si no hay */
+
+    private static String entityIds(String[] names, Object[] args) {
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < args.length && ids.length() < MAX_IDS_LENGTH; i++) {
+            Object arg = args[i];
+            boolean idCollection = arg instanceof Collection<?> values && !values.isEmpty() && values.iterator().next() instanceof Long;
+            if (!(arg instanceof Long) && !idCollection) continue;
+            if (!ids.isEmpty()) ids.append(", ");
+            ids.append(names != null ? names[i] : "arg" + i).append('=').append(arg);
+        }
+        if (ids.length() > MAX_IDS_LENGTH) ids.setLength(MAX_IDS_LENGTH);
+        return ids.isEmpty() ? null : ids.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.api.java.config;
+import com.api.java.dto.SparseListDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+/** Serializador de {@link SparseListDTO}: escribe un arreglo de objetos con solo los campos pedidos.
+ * Los nombres se pre-codifican una vez por listado y los campos con punto se agrupan en un objeto anidado
+ * ("productOrder.id" y "productOrder.nameProduct" se escriben dentro de "productOrder"). */
+
+public class SparseListDTOSerializer extends StdSerializer<SparseListDTO> {
+
+    public SparseListDTOSerializer() {
+        super(SparseListDTO.class);
+    }
+
+    @Override
+    public void serialize(SparseListDTO list, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        List<String> fields = list.getFields();
+        int count = fields.size();
+        String[] parents = new String[count];               // Objeto anidado de cada campo (null si es de primer nivel)
+        SerializedString[] names = new SerializedString[count];
+        for (int i = 0; i < count; i++) {
+            String field = fields.get(i);
+            int dot = field.indexOf('.');
+            parents[i] = dot < 0 ? null : field.substring(0, dot);
+            names[i] = new SerializedString(dot < 0 ? field : field.substring(dot + 1));
+        }
+
+        gen.writeStartArray(list, list.getRows().size());
+        for (Object[] row : list.getRows()) {
+            gen.writeStartObject();
+            String open = null;     // Objeto anidado abierto
+            for (int i = 0; i < count; i++) {
+                if (!Objects.equals(parents[i], open)) {
+                    if (open != null) gen.writeEndObject();
+                    if (parents[i] != null) gen.writeObjectFieldStart(parents[i]);
+                    open = parents[i];
+                }
+                gen.writeFieldName(names[i]);
+                provider.defaultSerializeValue(row[i], gen);    // Usa los serializadores registrados (Money, enums) y escribe null
+            }
+            if (open != null) gen.writeEndObject();
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+}
@@ -0,0 +1,50 @@
+package com.api.java.config;
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Evento JFR de un ajuste de stock de un producto. */
+
+@Name("com.api.java.StockAdjustment")
+@Label("Ajuste de stock")
+@Category({"ProjectJava", "Servicios"})
+@StackTrace(false)
+public class StockAdjustmentEvent extends jdk.jfr.Event {
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("ID de producto")
+    public long productId;
+
+    @Label("Stock anterior")
+    public int previousStock;
+
+    @Label("Variación")
+    public int delta;
+
+    @Label("Motivo")
+    public String reason;       // ORDER_UPDATE o PRODUCT_UPDATE
+
+    @Label("Resultado")
+    public String outcome;      // APPLIED o REJECTED
+
+    /** Finaliza el evento y lo registra si la grabación lo pide.
+     * @param productId     ID del producto
+     * @param previousStock stock antes del ajuste
+     * @param delta         variación aplicada (o pedida, si se rechazó)
+     * @param reason        motivo del ajuste
+     * @param outcome       APPLIED o REJECTED */
+
+    public void complete(long productId, int previousStock, int delta, String reason, String outcome) {
+        end();
+        if (!shouldCommit()) return;
+        this.endpoint = MetricsConfig.currentHandler();
+        this.productId = productId;
+        this.previousStock = previousStock;
+        this.delta = delta;
+        this.reason = reason;
+        this.outcome = outcome;
+        commit();
+    }
+}
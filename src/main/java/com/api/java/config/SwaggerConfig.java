@@ -1,13 +1,27 @@
 package com.api.java.config;
 
+import com.api.java.models.Money;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springdoc.core.utils.SpringDocUtils;
+
+import java.math.BigDecimal;
+
+/** Configuración de springdoc para la documentación generada en tiempo de ejecución (/v3/api-docs y Swagger UI).
+ * En producción el escaneo está desactivado y se sirve la especificación estática /openapi.json, que
+ * OpenApiSpecTests mantiene sincronizada con los controladores. */
 
 @Configuration
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "true", matchIfMissing = true)
 public class SwaggerConfig {
 
+    static {
+        SpringDocUtils.getConfig().replaceWithClass(Money.class, BigDecimal.class);     // Los importes se documentan como número decimal
+    }
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
@@ -0,0 +1,34 @@
+package com.api.java.controllers;
+import com.api.java.dto.BatchRequestDTO;
+import com.api.java.dto.BatchResponseDTO;
+import com.api.java.services.BatchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/** Controlador REST que ejecuta varias llamadas a la API en una sola request (por ejemplo, para armar una pantalla de la app móvil). */
+
+@RestController
+@RequestMapping("/batch")
+@RequiredArgsConstructor
+@Tag(name = "Lotes", description = "Ejecución de varias llamadas a la API en una sola request")
+public class BatchController {
+    private final BatchService batchService;
+
+    @Operation(summary = "Ejecutar un lote de llamadas", description = "Recibe un arreglo de sub-requests (método, ruta, cuerpo y dependencias opcionales) y devuelve el resultado de cada una en el mismo orden. " +
+            "Las independientes se ejecutan en paralelo con la autenticación del lote. Máximo 30 sub-requests por lote.")
+    @ApiResponse(responseCode = "200", description = "Lote ejecutado; cada resultado trae su propio código HTTP")
+    @ApiResponse(responseCode = "400", description = "Lote vacío, demasiado grande o con sub-requests inválidas")
+    @PostMapping
+    public ResponseEntity<List<BatchResponseDTO>> executeBatch(@io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Sub-requests del lote", required = true) @RequestBody List<BatchRequestDTO> requests,
+                                                               HttpServletRequest request, HttpServletResponse response) {
+        return ResponseEntity.ok(batchService.execute(requests, SecurityContextHolder.getContext(), request, response));
+    }
+}
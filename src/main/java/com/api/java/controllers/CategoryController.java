@@ -1,14 +1,22 @@
 package com.api.java.controllers;
 import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.PurgeJobDTO;
+import com.api.java.dto.VersionDTO;
+import com.api.java.globalException.InvalidRequestException;
 import com.api.java.services.CategoryService;
+import com.api.java.services.MultiGet;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import java.util.List;
 
 @RestController
@@ -25,16 +33,36 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.createNewCategory(categoryDTO));
     }
 
-    @Operation(summary = "Obtener todas las categorías", description = "Devuelve una lista completa de todas las categorías registradas")
-    @ApiResponse(responseCode = "200", description = "Categorías recuperadas exitosamente")
+    @Operation(summary = "Obtener todas las categorías", description = "Devuelve una lista completa de todas las categorías registradas. Con ?ids= devuelve solo esas categorías (MultiGetDTO, hasta 100 IDs) en el orden pedido. Con ?fields= solo se consultan y devuelven los campos indicados. Soporta GET condicional con ETag / Last-Modified.")
+    @ApiResponse(responseCode = "200", description = "Categorías recuperadas exitosamente", content = @Content(array = @ArraySchema(schema = @Schema(implementation = CategoryDTO.class))))
+    @ApiResponse(responseCode = "304", description = "Las categorías no cambiaron desde la versión indicada por el cliente")
+    @ApiResponse(responseCode = "400", description = "Campo desconocido en 'fields', demasiados IDs en 'ids' o ambos parámetros combinados")
     @GetMapping
-    public List<CategoryDTO> getCategotires() { return categoryService.getCategories(); }
+    public ResponseEntity<?> getCategotires(
+            @Parameter(description = "Campos a incluir, separados por coma (por defecto todos)", example = "id,categoryProducts") @RequestParam(required = false) String fields,
+            @Parameter(description = "IDs de las categorías a obtener, separados por coma", example = "3,1") @RequestParam(required = false) List<Long> ids,
+            WebRequest webRequest) {
+        if (fields != null && ids != null) throw new InvalidRequestException("No se puede combinar 'fields' con 'ids'");
+        if (ids != null) MultiGet.distinct(ids);    // Un lote inválido es 400 aunque el ETag coincida
+        VersionDTO version = categoryService.getCategoriesVersion();    // Consulta solo la versión agregada
+        if (ConditionalRequests.checkNotModified(webRequest, version)) {
+            return null;    // Spring ya respondió 304 Not Modified (con Vary: Accept)
+        }
+        Object categories = ids != null ? categoryService.getCategoriesByIds(ids)
+                : fields != null ? categoryService.getCategories(fields) : categoryService.getCategories();
+        return ResponseEntity.ok(categories);
+    }
 
     @Operation(summary = "Buscar una categoría por ID", description = "Obtiene una categoría específica según su identificador único")
     @ApiResponse(responseCode = "200", description = "Categoría encontrada")
+    @ApiResponse(responseCode = "304", description = "La categoría no cambió desde la versión indicada por el cliente")
     @ApiResponse(responseCode = "404", description = "Categoría no encontrada")
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryDTO> getCategoryById(@Parameter(description = "ID de la categoría a buscar", required = true) @PathVariable Long id) {
+    public ResponseEntity<CategoryDTO> getCategoryById(@Parameter(description = "ID de la categoría a buscar", required = true) @PathVariable Long id, WebRequest webRequest) {
+        VersionDTO version = categoryService.getCategoryVersion(id);    // Consulta solo la versión, sin cargar la entidad
+        if (ConditionalRequests.checkNotModified(webRequest, version)) {
+            return null;    // Spring ya respondió 304 Not Modified (con Vary: Accept)
+        }
         return ResponseEntity.ok(categoryService.getCategoryById(id));
     }
 
@@ -47,14 +75,14 @@ public class CategoryController {
         return ResponseEntity.ok(categoryService.searchCategory(categoryProducts));
     }
 
-    @Operation(summary = "Eliminar una categoría por ID", description = "Elimina de forma permanente una categoría usando su identificador")
-    @ApiResponse(responseCode = "200", description = "Categoría eliminada correctamente")
+    @Operation(summary = "Eliminar una categoría por ID", description = "Marca la categoría para eliminación y purga sus productos en segundo plano; el avance se consulta en /admin/purges")
+    @ApiResponse(responseCode = "202", description = "Eliminación registrada")
     @ApiResponse(responseCode = "404", description = "Categoría no encontrada")
+    @ApiResponse(responseCode = "409", description = "La categoría tiene productos con órdenes asociadas")
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteCategoryById(
+    public ResponseEntity<PurgeJobDTO> deleteCategoryById(
             @Parameter(description = "ID de la categoría a eliminar", required = true)
             @PathVariable Long id) {
-        categoryService.deleteCategoryById(id);
-        return ResponseEntity.ok("Categoría eliminada");
+        return ResponseEntity.accepted().body(categoryService.deleteCategoryById(id));
     }
 }
@@ -0,0 +1,27 @@
+package com.api.java.controllers;
+import com.api.java.dto.ConcurrencyLimitDTO;
+import com.api.java.services.ConcurrencyLimitService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/** Controlador REST para consultar el estado de los límites de concurrencia adaptativos. */
+
+@RestController
+@RequestMapping("/admin/concurrency-limits")
+@RequiredArgsConstructor
+@Tag(name = "Límites de concurrencia", description = "Estado del descarte de carga por clase de ruta")
+public class ConcurrencyLimitController {
+    private final ConcurrencyLimitService concurrencyLimitService;
+
+    @Operation(summary = "Listar límites", description = "Devuelve, por clase de ruta, el límite vigente, las requests en curso, admitidas y rechazadas, y las latencias con las que se ajusta el límite")
+    @ApiResponse(responseCode = "200", description = "Estado obtenido exitosamente")
+    @GetMapping
+    public ResponseEntity<List<ConcurrencyLimitDTO>> getLimits() {
+        return ResponseEntity.ok(concurrencyLimitService.snapshot());
+    }
+}
@@ -0,0 +1,60 @@
+package com.api.java.controllers;
+import com.api.java.dto.VersionDTO;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Comparator;
+import java.util.List;
+
+/** GET condicionales de los recursos que se sirven en JSON, CBOR y Smile.
+ * El ETag incluye el formato negociado a partir de Accept, porque un ETag fuerte identifica bytes exactos: un caché no
+ * puede revalidar una copia CBOR con el ETag de la versión JSON. Vary: Accept se envía tanto en la respuesta 200 como
+ * en la 304, para que los cachés compartidos guarden una copia por formato. */
+
+final class ConditionalRequests {
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final List<MediaType> FORMATS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, SMILE);  // En el orden de los convertidores
+
+    private ConditionalRequests() {
+    }
+
+    /** Agrega Vary: Accept y compara la versión del recurso con If-None-Match / If-Modified-Since.
+     * @param webRequest request actual
+     * @param version    versión del recurso o de la colección
+     * @return true si Spring ya respondió 304 Not Modified */
+
+    static boolean checkNotModified(WebRequest webRequest, VersionDTO version) {
+        HttpServletResponse response = webRequest instanceof NativeWebRequest nativeRequest ? nativeRequest.getNativeResponse(HttpServletResponse.class) : null;
+        if (response != null && !response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return webRequest.checkNotModified(version.toEtag() + "-" + format(webRequest.getHeader(HttpHeaders.ACCEPT)), version.lastModifiedMillis());
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** Formato que elegirá la negociación de contenido: el primero aceptado, por calidad descendente, entre JSON, CBOR y
+     * Smile. Sin Accept, con comodines o con un Accept inválido se responde JSON. */
+
+    private static String format(String accept) {
+        if (accept == null || accept.isBlank()) return FORMATS.get(0).getSubtype();
+        try {
+            List<MediaType> requested = MediaType.parseMediaTypes(accept).stream()
+                    .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())     // Orden estable: a igual calidad, el del cliente
+                    .toList();
+            for (MediaType type : requested) {
+                if (type.getQualityValue() == 0) break;
+                for (MediaType format : FORMATS) {
+                    if (type.includes(format)) return format.getSubtype();
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            // Spring responde según su propia negociación; el ETag de JSON es el del caso por defecto
+        }
+        return FORMATS.get(0).getSubtype();
+    }
+}
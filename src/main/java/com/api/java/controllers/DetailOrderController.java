@@ -1,8 +1,10 @@
 package com.api.java.controllers;
 import com.api.java.dto.DetailOrderDTO;
+import com.api.java.globalException.InvalidRequestException;
 import com.api.java.services.DetailOrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -20,10 +22,19 @@ import java.util.List;
 public class DetailOrderController {
     private final DetailOrderService detailOrderService;
 
-    @Operation(summary = "Listar todos los detalles de orden", description = "Devuelve una lista completa de los productos solicitados en todas las órdenes")
-    @ApiResponse(responseCode = "200", description = "Lista de detalles obtenida exitosamente")
+    @Operation(summary = "Listar todos los detalles de orden", description = "Devuelve una lista completa de los productos solicitados en todas las órdenes. Con ?fields= solo se consultan y devuelven los campos indicados. Admite respuestas binarias con Accept: application/cbor o application/x-jackson-smile")
+    @ApiResponse(responseCode = "200", description = "Lista de detalles obtenida exitosamente (CompactDetailOrdersDTO con compact=true)", content = @Content(array = @ArraySchema(schema = @Schema(implementation = DetailOrderDTO.class))))
+    @ApiResponse(responseCode = "400", description = "Campo desconocido en 'fields' o 'fields' combinado con 'compact'", content = @Content)
     @GetMapping
-    public List<DetailOrderDTO> getDetailOrders() { return detailOrderService.getDetailOrders();  }
+    public Object getDetailOrders(
+            @Parameter(description = "Campos a incluir, separados por coma (por defecto todos). Los del producto como productOrder.campo", example = "id,amount,status,productOrder.nameProduct") @RequestParam(required = false) String fields,
+            @Parameter(description = "Respuesta compacta: cada línea trae solo productId y los productos se envían una vez en un diccionario") @RequestParam(defaultValue = "false") boolean compact) {
+        if (compact) {
+            if (fields != null) throw new InvalidRequestException("No se puede combinar 'fields' con 'compact'");
+            return detailOrderService.getDetailOrdersCompact();
+        }
+        return fields != null ? detailOrderService.getDetailOrders(fields) : detailOrderService.getDetailOrders();
+    }
 
     @Operation(summary = "Crear nuevo detalle de orden", description = "Registra un nuevo ítem dentro de una orden de compra")
     @ApiResponse(responseCode = "200", description = "Detalle de orden creado con éxito")
@@ -42,11 +53,13 @@ public class DetailOrderController {
     }
 
     @Operation(summary = "Buscar detalles por usuario", description = "Devuelve todos los ítems de órdenes realizadas por un usuario específico")
-    @ApiResponse(responseCode = "200", description = "Detalles obtenidos para el usuario")
+    @ApiResponse(responseCode = "200", description = "Detalles obtenidos para el usuario (CompactDetailOrdersDTO con compact=true)", content = @Content(array = @ArraySchema(schema = @Schema(implementation = DetailOrderDTO.class))))
     @ApiResponse(responseCode = "404", description = "Usuario no encontrado o sin órdenes")
     @GetMapping("/user/{userOrderId}")
-    public ResponseEntity<List<DetailOrderDTO>> getDetailUserById(@Parameter(description = "ID del usuario", required = true) @PathVariable Long userOrderId) {
-        return ResponseEntity.ok(detailOrderService.getDetailUserById(userOrderId));
+    public ResponseEntity<?> getDetailUserById(
+            @Parameter(description = "ID del usuario", required = true) @PathVariable Long userOrderId,
+            @Parameter(description = "Respuesta compacta: cada línea trae solo productId y los productos se envían una vez en un diccionario") @RequestParam(defaultValue = "false") boolean compact) {
+        return ResponseEntity.ok(compact ? detailOrderService.getDetailUserByIdCompact(userOrderId) : detailOrderService.getDetailUserById(userOrderId));
     }
 
     @Operation(summary = "Actualizar detalle de orden", description = "Modifica los datos de un ítem de orden existente según su ID")
@@ -0,0 +1,51 @@
+package com.api.java.controllers;
+import com.api.java.services.FlightRecorderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/** Controlador REST para volcar la grabación JFR continua cuando hay un pico de latencia. */
+
+@RestController
+@RequestMapping("/admin/jfr")
+@RequiredArgsConstructor
+@Tag(name = "Flight Recorder", description = "Volcado de la grabación JFR continua")
+public class FlightRecorderController {
+    private final FlightRecorderService flightRecorderService;
+
+    @Operation(summary = "Volcar la grabación JFR", description = "Vuelca los últimos minutos de la grabación continua a un archivo .jfr temporal, lo descarga y lo elimina del servidor. " +
+            "Se puede resumir por endpoint con: java -cp <clases> com.api.java.services.JfrSummarizer archivo.jfr")
+    @ApiResponse(responseCode = "200", description = "Archivo .jfr generado")
+    @ApiResponse(responseCode = "503", description = "La grabación JFR no está activa")
+    @PostMapping("/dump")
+    public ResponseEntity<StreamingResponseBody> dump() throws IOException {
+        Path file = flightRecorderService.dump();   // Archivo temporal: se elimina una vez enviado
+        try {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename("recording-" + System.currentTimeMillis() + ".jfr").build().toString())
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .contentLength(Files.size(file))
+                    .body(out -> {
+                        try {
+                            Files.copy(file, out);
+                        } finally {
+                            flightRecorderService.discard(file);
+                        }
+                    });
+        } catch (IOException | RuntimeException e) {
+            flightRecorderService.discard(file);
+            throw e;
+        }
+    }
+}
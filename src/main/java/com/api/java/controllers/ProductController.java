@@ -1,14 +1,29 @@
 package com.api.java.controllers;
+import com.api.java.dto.BestSellerDTO;
+import com.api.java.dto.CatalogBrowseDTO;
 import com.api.java.dto.ProductDTO;
+import com.api.java.dto.ProductSuggestionDTO;
+import com.api.java.dto.VersionDTO;
+import com.api.java.globalException.InvalidRequestException;
+import com.api.java.models.Money;
+import com.api.java.models.SalesWindow;
+import com.api.java.services.MultiGet;
 import com.api.java.services.ProductService;
+import com.api.java.services.ProductStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.List;
 
 @RestController
@@ -17,6 +32,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductStreamService productStreamService;
 
     @Operation(summary = "Crear producto", description = "Recibe un ProductDTO y crea un nuevo producto en la base de datos.")
     @ApiResponse(responseCode = "200", description = "Producto creado exitosamente")
@@ -26,16 +42,36 @@ public class ProductController {
         return ResponseEntity.ok(productService.createProduct(productDTO));
     }
 
-    @Operation(summary = "Listar todos los productos", description = "Devuelve una lista con todos los productos registrados.")
-    @ApiResponse(responseCode = "200", description = "Lista de productos obtenida exitosamente")
+    @Operation(summary = "Listar todos los productos", description = "Devuelve una lista con todos los productos registrados. Con ?ids= devuelve solo esos productos (MultiGetDTO, hasta 100 IDs) en el orden pedido. Con ?fields= solo se consultan y devuelven los campos indicados. Soporta GET condicional con ETag / Last-Modified y respuestas binarias con Accept: application/cbor o application/x-jackson-smile.")
+    @ApiResponse(responseCode = "200", description = "Lista de productos obtenida exitosamente", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductDTO.class))))
+    @ApiResponse(responseCode = "304", description = "La lista no cambió desde la versión indicada por el cliente")
+    @ApiResponse(responseCode = "400", description = "Campo desconocido en 'fields', demasiados IDs en 'ids' o ambos parámetros combinados")
     @GetMapping
-    public List<ProductDTO> getProducts() {  return productService.getProducts();  }
+    public ResponseEntity<?> getProducts(
+            @Parameter(description = "Campos a incluir, separados por coma (por defecto todos)", example = "id,nameProduct,priceProduct") @RequestParam(required = false) String fields,
+            @Parameter(description = "IDs de los productos a obtener, separados por coma", example = "4,1,9") @RequestParam(required = false) List<Long> ids,
+            WebRequest webRequest) {
+        if (fields != null && ids != null) throw new InvalidRequestException("No se puede combinar 'fields' con 'ids'");
+        if (ids != null) MultiGet.distinct(ids);    // Un lote inválido es 400 aunque el ETag coincida
+        VersionDTO version = productService.getProductsVersion();   // La versión de la colección también cubre cualquier subconjunto
+        if (ConditionalRequests.checkNotModified(webRequest, version)) {
+            return null;    // Spring ya respondió 304 Not Modified (con Vary: Accept)
+        }
+        Object products = ids != null ? productService.getProductsByIds(ids)
+                : fields != null ? productService.getProducts(fields) : productService.getProducts();
+        return ResponseEntity.ok(products);  // ETag y Vary: Accept ya agregados para el formato negociado
+    }
 
-    @Operation(summary = "Obtener producto por ID", description = "Devuelve un producto específico según su ID.")
+    @Operation(summary = "Obtener producto por ID", description = "Devuelve un producto específico según su ID. Soporta GET condicional con ETag / Last-Modified.")
     @ApiResponse(responseCode = "200", description = "Producto encontrado")
+    @ApiResponse(responseCode = "304", description = "El producto no cambió desde la versión indicada por el cliente")
     @ApiResponse(responseCode = "404", description = "Producto no encontrado")
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@Parameter(description = "ID del producto a buscar", required = true) @PathVariable Long id) {
+    public ResponseEntity<ProductDTO> getProductById(@Parameter(description = "ID del producto a buscar", required = true) @PathVariable Long id, WebRequest webRequest) {
+        VersionDTO version = productService.getProductVersion(id);  // Consulta solo la versión, sin cargar la entidad
+        if (ConditionalRequests.checkNotModified(webRequest, version)) {
+            return null;    // Spring ya respondió 304 Not Modified (con Vary: Accept)
+        }
         return ResponseEntity.ok(productService.getProductById(id));
     }
 
@@ -55,6 +91,53 @@ public class ProductController {
         return ResponseEntity.ok(productService.searchProduct(nameProduct));
     }
 
+    @Operation(summary = "Autocompletar nombres de producto", description = "Devuelve los productos activos más vendidos cuyo nombre empieza con el texto indicado. Se resuelve en memoria.")
+    @ApiResponse(responseCode = "200", description = "Sugerencias obtenidas exitosamente")
+    @ApiResponse(responseCode = "400", description = "Límite fuera de rango (1 a 10)")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestionDTO>> suggest(
+            @Parameter(description = "Texto parcial escrito por el usuario", required = true, example = "auri") @RequestParam String q,
+            @Parameter(description = "Cantidad máxima de sugerencias (1 a 10)") @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggest(q, limit));
+    }
+
+    @Operation(summary = "Productos más vendidos", description = "Ranking en tiempo real de unidades pagadas en la última hora, día o semana, global o por categoría. Es el ranking de la instancia que responde: solo incluye las ventas confirmadas en ella.")
+    @ApiResponse(responseCode = "200", description = "Ranking obtenido exitosamente")
+    @ApiResponse(responseCode = "400", description = "Ventana o límite inválidos")
+    @GetMapping("/best-sellers")
+    public ResponseEntity<List<BestSellerDTO>> getBestSellers(
+            @Parameter(description = "Ventana de tiempo: HOUR, DAY o WEEK") @RequestParam(defaultValue = "DAY") SalesWindow window,
+            @Parameter(description = "ID de la categoría (opcional)") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Cantidad de productos (máximo 50)") @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(productService.getBestSellers(window, categoryId, limit));
+    }
+
+    @Operation(summary = "Navegar el catálogo", description = "Filtra productos activos por categoría, rango de precio y stock, ordenados por precio, con conteos por categoría e histograma de precios.")
+    @ApiResponse(responseCode = "200", description = "Página de productos obtenida exitosamente")
+    @ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos")
+    @GetMapping("/browse")
+    public ResponseEntity<CatalogBrowseDTO> browse(
+            @Parameter(description = "ID de la categoría") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Precio mínimo", example = "1000.00") @RequestParam(required = false) Money minPrice,
+            @Parameter(description = "Precio máximo", example = "50000.00") @RequestParam(required = false) Money maxPrice,
+            @Parameter(description = "Solo productos con stock disponible") @RequestParam(defaultValue = "true") boolean inStock,
+            @Parameter(description = "Orden por precio: asc o desc") @RequestParam(defaultValue = "asc") String sort,
+            @Parameter(description = "Número de página (desde 0)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Tamaño de página (máximo 100)") @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(productService.browse(categoryId, minPrice, maxPrice, inStock, sort, page, size));
+    }
+
+    @Operation(summary = "Stream de cambios de precio y stock", description = "Abre una conexión Server-Sent Events con los cambios de precio, stock y activo de los productos de una categoría o de una lista de productos (hasta 100 IDs). Cada evento 'delta' trae un arreglo de ProductDeltaDTO con el último estado de cada producto que cambió; el primero trae el estado actual. Un producto eliminado llega inactivo y sin stock.")
+    @ApiResponse(responseCode = "200", description = "Conexión abierta", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE))
+    @ApiResponse(responseCode = "400", description = "Falta 'categoryId' o 'ids', se indicaron ambos o hay demasiados IDs")
+    @ApiResponse(responseCode = "503", description = "Se alcanzó el máximo de conexiones al stream")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(
+            @Parameter(description = "ID de la categoría a seguir") @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "IDs de los productos a seguir, separados por coma", example = "4,1,9") @RequestParam(required = false) List<Long> ids) {
+        return productStreamService.subscribe(categoryId, ids);
+    }
+
     @Operation(summary = "Actualizar producto", description = "Modifica un producto existente a partir de su ID.")
     @ApiResponse(responseCode = "200", description = "Producto actualizado exitosamente")
     @ApiResponse(responseCode = "404", description = "Producto no encontrado")
@@ -0,0 +1,36 @@
+package com.api.java.controllers;
+import com.api.java.dto.PurgeJobDTO;
+import com.api.java.services.PurgeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/** Controlador REST para consultar el avance de las purgas en segundo plano (eliminación de categorías y usuarios). */
+
+@RestController
+@RequestMapping("/admin/purges")
+@RequiredArgsConstructor
+@Tag(name = "Purgas", description = "Avance de las eliminaciones en segundo plano de categorías y usuarios")
+public class PurgeController {
+    private final PurgeService purgeService;
+
+    @Operation(summary = "Listar purgas", description = "Devuelve todas las tareas de purga, de la más reciente a la más antigua")
+    @ApiResponse(responseCode = "200", description = "Tareas obtenidas exitosamente")
+    @GetMapping
+    public ResponseEntity<List<PurgeJobDTO>> getPurges() {
+        return ResponseEntity.ok(purgeService.getJobs());
+    }
+
+    @Operation(summary = "Obtener una purga por ID", description = "Devuelve el estado y el avance de una tarea de purga")
+    @ApiResponse(responseCode = "200", description = "Tarea encontrada")
+    @ApiResponse(responseCode = "404", description = "Tarea no encontrada")
+    @GetMapping("/{id}")
+    public ResponseEntity<PurgeJobDTO> getPurgeById(@Parameter(description = "ID de la tarea de purga", required = true) @PathVariable Long id) {
+        return ResponseEntity.ok(purgeService.getJob(id));
+    }
+}
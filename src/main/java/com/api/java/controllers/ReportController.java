@@ -0,0 +1,48 @@
+package com.api.java.controllers;
+import com.api.java.dto.RollupDriftDTO;
+import com.api.java.dto.SalesReportDTO;
+import com.api.java.models.OrderStatus;
+import com.api.java.models.RollupDimension;
+import com.api.java.services.SalesRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/** Controlador REST de reportes de ventas para administradores.
+ * Lee exclusivamente las tablas de resumen, sin recorrer los detalles de orden. */
+
+@RestController
+@RequestMapping("/admin/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reportes", description = "Reportes de ventas basados en resúmenes mantenidos de forma incremental")
+public class ReportController {
+    private final SalesRollupService salesRollupService;
+
+    @Operation(summary = "Ventas por dimensión", description = "Devuelve unidades e ingresos acumulados por producto, categoría o país, opcionalmente filtrados por estado de orden")
+    @ApiResponse(responseCode = "200", description = "Reporte obtenido exitosamente")
+    @GetMapping("/sales")
+    public ResponseEntity<List<SalesReportDTO>> getSales(
+            @Parameter(description = "Dimensión: PRODUCT, CATEGORY o COUNTRY", required = true) @RequestParam RollupDimension dimension,
+            @Parameter(description = "Estado de orden (opcional)") @RequestParam(required = false) OrderStatus status) {
+        return ResponseEntity.ok(salesRollupService.getReport(dimension, status));
+    }
+
+    @Operation(summary = "Ventas por estado de orden", description = "Devuelve unidades e ingresos acumulados por cada estado de orden")
+    @ApiResponse(responseCode = "200", description = "Reporte obtenido exitosamente")
+    @GetMapping("/sales/status")
+    public ResponseEntity<List<SalesReportDTO>> getSalesByStatus() {
+        return ResponseEntity.ok(salesRollupService.getReportByStatus());
+    }
+
+    @Operation(summary = "Recalcular resúmenes de ventas", description = "Recalcula los resúmenes desde los detalles de orden en bloques paralelos y reporta diferencias; con repair=true los reemplaza")
+    @ApiResponse(responseCode = "200", description = "Recálculo completado")
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<RollupDriftDTO> rebuild(@Parameter(description = "Reemplazar los resúmenes si hay diferencias") @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(salesRollupService.rebuild(repair));
+    }
+}
@@ -0,0 +1,32 @@
+package com.api.java.controllers;
+import com.api.java.dto.ResourceUsageDTO;
+import com.api.java.services.ResourceUsageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/** Controlador REST para consultar qué endpoints consumen más CPU y memoria. */
+
+@RestController
+@RequestMapping("/admin/resource-usage")
+@RequiredArgsConstructor
+@Tag(name = "Consumo de recursos", description = "CPU y bytes asignados por endpoint")
+public class ResourceUsageController {
+    private final ResourceUsageService resourceUsageService;
+
+    @Operation(summary = "Endpoints que más consumen", description = "Devuelve los endpoints con más bytes asignados (o más CPU) acumulados desde el arranque, " +
+            "con promedio y percentil 99 por request")
+    @ApiResponse(responseCode = "200", description = "Ranking obtenido exitosamente")
+    @ApiResponse(responseCode = "400", description = "Parámetros inválidos")
+    @GetMapping
+    public ResponseEntity<List<ResourceUsageDTO>> getTop(
+            @Parameter(description = "Cantidad de endpoints (1 a 50)") @RequestParam(defaultValue = "10") int top,
+            @Parameter(description = "Orden: allocated o cpu") @RequestParam(defaultValue = "allocated") String sort) {
+        return ResponseEntity.ok(resourceUsageService.top(top, sort));
+    }
+}
@@ -0,0 +1,70 @@
+package com.api.java.controllers;
+import com.api.java.dto.DetailOrderDTO;
+import com.api.java.dto.StockAvailabilityDTO;
+import com.api.java.dto.StockReservationDTO;
+import com.api.java.services.StockReservationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/reservations")
+@RequiredArgsConstructor
+@Tag(name = "Reservas de Stock", description = "Retención temporal de stock durante el checkout, con confirmación como detalle de orden o liberación")
+public class StockReservationController {
+    private final StockReservationService reservationService;
+
+    @Operation(summary = "Reservar stock", description = "Retiene unidades de un producto por un tiempo (ttlSeconds o app.reservations.default-ttl-s) sin modificar su stock, a nombre del usuario autenticado. Al vencer, las unidades vuelven a estar disponibles")
+    @ApiResponse(responseCode = "200", description = "Reserva creada en estado ACTIVE")
+    @ApiResponse(responseCode = "400", description = "Error de validación, producto inactivo o stock disponible insuficiente", content = @Content)
+    @ApiResponse(responseCode = "404", description = "Producto o usuario no encontrado", content = @Content)
+    @PostMapping
+    public ResponseEntity<StockReservationDTO> reserve(@io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Producto, cantidad y duración opcional", required = true, content = @Content(schema = @Schema(implementation = StockReservationDTO.class))) @Valid @RequestBody StockReservationDTO reservationDTO, Authentication authentication) {
+        return ResponseEntity.ok(reservationService.reserve(reservationDTO, authentication));
+    }
+
+    @Operation(summary = "Obtener reserva por ID", description = "Devuelve el estado y el vencimiento de una reserva del usuario autenticado (o de cualquiera, para ADMIN)")
+    @ApiResponse(responseCode = "200", description = "Reserva encontrada")
+    @ApiResponse(responseCode = "403", description = "La reserva pertenece a otro usuario", content = @Content)
+    @ApiResponse(responseCode = "404", description = "Reserva no encontrada", content = @Content)
+    @GetMapping("/{id}")
+    public ResponseEntity<StockReservationDTO> getReservation(@Parameter(description = "ID de la reserva", required = true) @PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(reservationService.get(id, authentication));
+    }
+
+    @Operation(summary = "Confirmar reserva", description = "Convierte una reserva vigente del usuario autenticado (o de cualquiera, para ADMIN) en un detalle de orden PENDING y descuenta del stock las unidades retenidas")
+    @ApiResponse(responseCode = "200", description = "Detalle de orden creado")
+    @ApiResponse(responseCode = "403", description = "La reserva pertenece a otro usuario", content = @Content)
+    @ApiResponse(responseCode = "404", description = "Reserva no encontrada", content = @Content)
+    @ApiResponse(responseCode = "409", description = "La reserva ya fue confirmada, liberada o venció", content = @Content)
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<DetailOrderDTO> confirm(@Parameter(description = "ID de la reserva", required = true) @PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(reservationService.confirm(id, authentication));
+    }
+
+    @Operation(summary = "Liberar reserva", description = "Devuelve al stock disponible las unidades de una reserva vigente del usuario autenticado (o de cualquiera, para ADMIN) antes de su vencimiento")
+    @ApiResponse(responseCode = "200", description = "Reserva liberada")
+    @ApiResponse(responseCode = "403", description = "La reserva pertenece a otro usuario", content = @Content)
+    @ApiResponse(responseCode = "404", description = "Reserva no encontrada", content = @Content)
+    @ApiResponse(responseCode = "409", description = "La reserva ya fue confirmada, liberada o venció", content = @Content)
+    @PostMapping("/{id}/release")
+    public ResponseEntity<StockReservationDTO> release(@Parameter(description = "ID de la reserva", required = true) @PathVariable Long id, Authentication authentication) {
+        return ResponseEntity.ok(reservationService.release(id, authentication));
+    }
+
+    @Operation(summary = "Consultar stock disponible", description = "Devuelve el stock registrado de un producto, las unidades retenidas por reservas vigentes y las que todavía pueden reservarse u ordenarse")
+    @ApiResponse(responseCode = "200", description = "Disponibilidad calculada")
+    @ApiResponse(responseCode = "404", description = "Producto no encontrado", content = @Content)
+    @GetMapping("/availability/{productId}")
+    public ResponseEntity<StockAvailabilityDTO> availability(@Parameter(description = "ID del producto", required = true) @PathVariable Long productId) {
+        return ResponseEntity.ok(reservationService.availability(productId));
+    }
+}
@@ -1,9 +1,14 @@
 package com.api.java.controllers;
+import com.api.java.dto.MultiGetDTO;
+import com.api.java.dto.PurgeJobDTO;
 import com.api.java.dto.UserDTO;
 import com.api.java.services.UserService;
 import  java.util.List;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -29,11 +34,23 @@ public class UserController {
         return ResponseEntity.ok(userService.createUser(userDTO));
     }
 
-    @Operation(summary = "Obtener todos los usuarios", description = "Devuelve una lista de todos los usuarios registrados")
-    @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida exitosamente")
+    @Operation(summary = "Obtener todos los usuarios", description = "Devuelve una lista de todos los usuarios registrados. Con ?fields= solo se consultan y devuelven los campos indicados")
+    @ApiResponse(responseCode = "200", description = "Lista de usuarios obtenida exitosamente", content = @Content(array = @ArraySchema(schema = @Schema(implementation = UserDTO.class))))
+    @ApiResponse(responseCode = "400", description = "Campo desconocido en 'fields'", content = @Content)
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/all-users")
-    public List<UserDTO> getUsers() { return userService.getUsers(); }
+    public Object getUsers(@Parameter(description = "Campos a incluir, separados por coma (por defecto todos)", example = "id,username,email") @RequestParam(required = false) String fields) {
+        return fields != null ? userService.getUsers(fields) : userService.getUsers();
+    }
+
+    @Operation(summary = "Obtener varios usuarios por ID", description = "Devuelve los usuarios indicados (hasta 100) en el orden pedido, con una sola consulta. Los IDs inexistentes se informan aparte")
+    @ApiResponse(responseCode = "200", description = "Usuarios obtenidos exitosamente")
+    @ApiResponse(responseCode = "400", description = "No se indicaron IDs o se superó el máximo", content = @Content)
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    public MultiGetDTO<UserDTO> getUsersByIds(@Parameter(description = "IDs de los usuarios, separados por coma", required = true, example = "42,7") @RequestParam List<Long> ids) {
+        return userService.getUsersByIds(ids);
+    }
 
     @Operation( summary = "Obtener usuario por ID", description = "Busca y devuelve un usuario específico según su ID")
     @ApiResponse(responseCode = "200", description = "Usuario encontrado")
@@ -53,13 +70,12 @@ public class UserController {
         return ResponseEntity.ok(userService.updateById(id, user));
     }
 
-    @Operation(summary = "Eliminar un usuario por ID", description = "Elimina un usuario específico de la base de datos según su ID")
-    @ApiResponse(responseCode = "200", description = "Usuario eliminado exitosamente")
+    @Operation(summary = "Eliminar un usuario por ID", description = "Marca el usuario para eliminación y purga sus detalles de orden en segundo plano; el avance se consulta en /admin/purges")
+    @ApiResponse(responseCode = "202", description = "Eliminación registrada")
     @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
     @PreAuthorize("hasAuthority('SUPER')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteUser(@Parameter(description = "ID del usuario a eliminar", required = true) @PathVariable Long id) {
-        userService.deleteById(id);
-        return ResponseEntity.ok("User delete");
+    public ResponseEntity<PurgeJobDTO> deleteUser(@Parameter(description = "ID del usuario a eliminar", required = true) @PathVariable Long id) {
+        return ResponseEntity.accepted().body(userService.deleteById(id));
     }
 }
\ No newline at end of file
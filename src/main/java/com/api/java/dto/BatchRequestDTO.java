@@ -0,0 +1,36 @@
+package com.api.java.dto;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/** Sub-request de un lote enviado a /batch.
+ * Se ejecuta contra los controladores existentes como si fuera una request independiente, con la misma autenticación del lote. */
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequestDTO {
+
+    @Schema(description = "Identificador de la sub-request dentro del lote (único)", example = "producto")
+    private String id;
+
+    @Schema(description = "Método HTTP: GET, POST, PUT, PATCH o DELETE", example = "GET", defaultValue = "GET")
+    private String method = "GET";
+
+    @Schema(description = "Ruta de la API, con query string opcional", example = "/product/12?fields=id,nameProduct")
+    private String path;
+
+    @Schema(description = "Encabezados opcionales (solo If-None-Match, If-Modified-Since y Accept-Language)")
+    private Map<String, String> headers;
+
+    @Schema(description = "Cuerpo JSON de la sub-request (POST, PUT, PATCH)")
+    private JsonNode body;
+
+    @Schema(description = "IDs de sub-requests anteriores del lote que deben terminar bien antes de ejecutar esta", example = "[\"alta\"]")
+    private List<String> dependsOn;
+}
@@ -0,0 +1,27 @@
+package com.api.java.dto;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/** Resultado de una sub-request de /batch. */
+
+@Data
+@AllArgsConstructor
+public class BatchResponseDTO {
+
+    @Schema(description = "Identificador de la sub-request", example = "producto")
+    private String id;
+
+    @Schema(description = "Código HTTP de la sub-request", example = "200")
+    private int status;
+
+    @Schema(description = "Encabezados relevantes de la respuesta (ETag, Last-Modified, Location, Retry-After)")
+    private Map<String, String> headers;
+
+    @Schema(description = "Cuerpo JSON de la respuesta, tal como lo devolvió el controlador")
+    @JsonRawValue   // Ya es JSON: se inserta sin volver a parsearlo ni serializarlo
+    private String body;
+}
@@ -0,0 +1,20 @@
+package com.api.java.dto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** DTO que representa un producto dentro del ranking de más vendidos. */
+
+@Data
+@AllArgsConstructor
+public class BestSellerDTO {
+
+    @Schema(description = "ID del producto", example = "101")
+    private Long productId;
+
+    @Schema(description = "Nombre actual del producto", example = "Auriculares Bluetooth")
+    private String nameProduct;
+
+    @Schema(description = "Unidades pagadas estimadas dentro de la ventana", example = "250")
+    private long units;
+}
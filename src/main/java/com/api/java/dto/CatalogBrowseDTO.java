@@ -0,0 +1,35 @@
+package com.api.java.dto;
+import com.api.java.models.Money;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/** DTO de respuesta para la navegación filtrada del catálogo.
+ * Incluye la página de productos, el total y los facets por categoría y rango de precio. */
+
+@Data
+@AllArgsConstructor
+public class CatalogBrowseDTO {
+
+    @Schema(description = "Cantidad total de productos que cumplen los filtros", example = "137")
+    private int total;
+
+    @Schema(description = "Productos de la página solicitada, ordenados por precio")
+    private List<ProductDTO> products;
+
+    @Schema(description = "Cantidad de productos por ID de categoría (sin aplicar el filtro de categoría)")
+    private Map<Long, Integer> categoryCounts;
+
+    @Schema(description = "Histograma de precios (sin aplicar el filtro de precio)")
+    private List<PriceBucket> priceHistogram;
+
+    /** Intervalo del histograma de precios.
+     * @param from  precio mínimo del intervalo (inclusive)
+     * @param to    precio máximo del intervalo (exclusive)
+     * @param count cantidad de productos en el intervalo */
+
+    public record PriceBucket(Money from, Money to, int count) {}
+}
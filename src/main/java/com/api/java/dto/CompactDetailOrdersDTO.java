@@ -0,0 +1,52 @@
+package com.api.java.dto;
+import com.api.java.models.Money;
+import com.api.java.models.OrderStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/** DTO de respuesta compacta para listados de detalles de orden (?compact=true).
+ * Cada línea referencia su producto solo por ID y los productos se envían una única vez en un diccionario,
+ * en lugar de repetir el ProductDTO completo en cada línea. */
+
+@Data
+@AllArgsConstructor
+public class CompactDetailOrdersDTO {
+
+    @Schema(description = "Detalles de orden, con el producto referenciado por ID")
+    private List<Line> lines;
+
+    @Schema(description = "Productos referenciados por las líneas, indexados por ID (sin repetir)")
+    private Map<Long, ProductDTO> products;
+
+    /** Detalle de orden sin el producto embebido.
+     * Se construye directamente desde una consulta JPQL ("select new ..."), sin cargar entidades. */
+
+    @Data
+    @AllArgsConstructor
+    public static class Line {
+        @Schema(description = "ID único del detalle de la orden", example = "1001")
+        private Long id;
+
+        @Schema(description = "ID del usuario que realizó la orden", example = "42")
+        private Long userOrder;
+
+        @Schema(description = "ID del producto (ver el diccionario products)", example = "101")
+        private Long productId;
+
+        @Schema(description = "Cantidad de unidades solicitadas del producto", example = "3")
+        private Integer amount;
+
+        @Schema(description = "Estado de la orden", example = "PENDING")
+        private OrderStatus status;
+
+        @Schema(description = "Nombre del producto en el momento de la compra", example = "Auriculares Bluetooth")
+        private String nombreProductoSnapshot;
+
+        @Schema(description = "Precio unitario del producto en el momento de la compra", example = "18999.50")
+        private Money precioUnitarioSnapshot;
+    }
+}
@@ -0,0 +1,34 @@
+package com.api.java.dto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO con el estado del límite de concurrencia adaptativo de una clase de ruta. */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConcurrencyLimitDTO {
+
+    @Schema(description = "Clase de ruta", example = "catalog-read")
+    private String routeClass;
+
+    @Schema(description = "Límite de requests simultáneas vigente", example = "48")
+    private int limit;
+
+    @Schema(description = "Requests en curso", example = "12")
+    private int inflight;
+
+    @Schema(description = "Requests admitidas desde el arranque", example = "125034")
+    private long accepted;
+
+    @Schema(description = "Requests rechazadas con 503 desde el arranque", example = "87")
+    private long rejected;
+
+    @Schema(description = "Latencia promedio de la última ventana (ms)", example = "14.2")
+    private double shortRttMs;
+
+    @Schema(description = "Latencia de referencia de largo plazo (ms)", example = "9.8")
+    private double longRttMs;
+}
@@ -1,4 +1,5 @@
 package com.api.java.dto;
+import com.api.java.models.Money;
 import com.api.java.models.OrderStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -6,8 +7,6 @@ import lombok.Data;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.*;
 
-import java.math.BigDecimal;
-
 @Data
 @AllArgsConstructor
 public class DetailOrderDTO {
@@ -36,5 +35,5 @@ public class DetailOrderDTO {
     private String nombreProductoSnapshot;
 
     @Schema(description = "Precio unitario del producto en el momento de la compra", example = "18999.50")
-    private BigDecimal precioUnitarioSnapshot;
+    private Money precioUnitarioSnapshot;
 }
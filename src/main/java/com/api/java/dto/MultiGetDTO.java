@@ -0,0 +1,21 @@
+package com.api.java.dto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/** DTO de respuesta para la consulta de varios recursos por ID (?ids=).
+ * Los encontrados se devuelven en el orden pedido y los inexistentes se informan aparte.
+ * @param <T> tipo de DTO consultado */
+
+@Data
+@AllArgsConstructor
+public class MultiGetDTO<T> {
+
+    @Schema(description = "Recursos encontrados, en el orden de los IDs pedidos (sin repetir)")
+    private List<T> items;
+
+    @Schema(description = "IDs pedidos que no existen", example = "[7, 19]")
+    private List<Long> missing;
+}
@@ -1,4 +1,6 @@
 package com.api.java.dto;
+import com.api.java.models.Money;
+import com.api.java.validation.MinMoney;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -29,8 +31,8 @@ public class ProductDTO {
     /** Precio unitario del producto. */
     @Schema(description = "Precio del producto en pesos argentinos", example = "18999.50")
     @NotNull(message = "El precio es obligatorio")
-    @Positive(message = "El precio debe ser un valor positivo")
-    private Float priceProduct;
+    @MinMoney(value = "0.00", inclusive = false, message = "El precio debe ser un valor positivo")
+    private Money priceProduct;
 
     /** ID de la categoría a la que pertenece el producto. */
     @Schema(description = "ID de la categoría asociada al producto", example = "3")
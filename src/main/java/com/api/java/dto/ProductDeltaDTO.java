@@ -0,0 +1,28 @@
+package com.api.java.dto;
+import com.api.java.models.Money;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** Estado de venta de un producto enviado por el stream de cambios (GET /product/stream): solo precio, stock y activo.
+ * Un producto eliminado se informa como inactivo y sin stock. */
+
+@Data
+@AllArgsConstructor
+public class ProductDeltaDTO {
+
+    @Schema(description = "ID del producto", example = "101")
+    private Long id;
+
+    @Schema(description = "ID de la categoría del producto", example = "3")
+    private Long categoryId;
+
+    @Schema(description = "Precio actual del producto", example = "18999.50")
+    private Money priceProduct;
+
+    @Schema(description = "Stock disponible", example = "25")
+    private Integer stockProduct;
+
+    @Schema(description = "Indica si el producto está disponible para la venta", example = "true")
+    private boolean activo;
+}
@@ -0,0 +1,17 @@
+package com.api.java.dto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** DTO mínimo devuelto por el autocompletado de productos. */
+
+@Data
+@AllArgsConstructor
+public class ProductSuggestionDTO {
+
+    @Schema(description = "ID del producto sugerido", example = "101")
+    private Long id;
+
+    @Schema(description = "Nombre del producto sugerido", example = "Auriculares Bluetooth")
+    private String nameProduct;
+}
@@ -0,0 +1,52 @@
+package com.api.java.dto;
+import com.api.java.models.PurgeStatus;
+import com.api.java.models.PurgeTarget;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/** DTO con el estado y el avance de una purga en segundo plano. */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PurgeJobDTO {
+
+    @Schema(description = "ID de la tarea de purga", example = "7", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long id;
+
+    @Schema(description = "Tipo de entidad eliminada", example = "CATEGORY")
+    private PurgeTarget target;
+
+    @Schema(description = "ID de la entidad eliminada", example = "3")
+    private Long targetId;
+
+    @Schema(description = "Estado de la tarea", example = "RUNNING")
+    private PurgeStatus status;
+
+    @Schema(description = "Cantidad de registros hijos a eliminar", example = "120000")
+    private long totalRows;
+
+    @Schema(description = "Cantidad de registros hijos eliminados hasta el momento", example = "45000")
+    private long deletedRows;
+
+    @Schema(description = "Mensaje de error, si la tarea falló")
+    private String error;
+
+    @Schema(description = "Fecha de registro de la tarea")
+    private Instant createdAt;
+
+    @Schema(description = "Fecha del último avance registrado")
+    private Instant updatedAt;
+
+    /** @return porcentaje de avance (0 a 100) */
+
+    @Schema(description = "Porcentaje de avance", example = "37.5", accessMode = Schema.AccessMode.READ_ONLY)
+    public double getProgress() {
+        if (status == PurgeStatus.COMPLETED) return 100.0;
+        return totalRows > 0 ? Math.min(100.0, deletedRows * 100.0 / totalRows) : 0.0;
+    }
+}
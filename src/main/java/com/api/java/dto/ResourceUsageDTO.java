@@ -0,0 +1,37 @@
+package com.api.java.dto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO con el consumo acumulado de CPU y memoria asignada de un endpoint. */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResourceUsageDTO {
+
+    @Schema(description = "Método de controlador (Controlador.metodo)", example = "ProductController.getProducts")
+    private String handler;
+
+    @Schema(description = "Requests medidas desde el arranque", example = "1520")
+    private long requests;
+
+    @Schema(description = "Bytes asignados en total", example = "913725440")
+    private long allocatedBytesTotal;
+
+    @Schema(description = "Bytes asignados promedio por request", example = "601135")
+    private double allocatedBytesMean;
+
+    @Schema(description = "Percentil 99 de bytes asignados por request", example = "1048576")
+    private double allocatedBytesP99;
+
+    @Schema(description = "CPU total en milisegundos", example = "5320.4")
+    private double cpuMsTotal;
+
+    @Schema(description = "CPU promedio por request en milisegundos", example = "3.5")
+    private double cpuMsMean;
+
+    @Schema(description = "Percentil 99 de CPU por request en milisegundos", example = "9.1")
+    private double cpuMsP99;
+}
@@ -0,0 +1,28 @@
+package com.api.java.dto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/** DTO con el resultado de recalcular los resúmenes de ventas y compararlos con los mantenidos incrementalmente. */
+
+@Data
+@AllArgsConstructor
+public class RollupDriftDTO {
+
+    @Schema(description = "Cantidad de bloques de IDs procesados en paralelo", example = "12")
+    private int chunks;
+
+    @Schema(description = "Cantidad de filas de resumen comparadas", example = "340")
+    private int rowsCompared;
+
+    @Schema(description = "Cantidad de filas con diferencias", example = "0")
+    private int mismatches;
+
+    @Schema(description = "Muestra de diferencias encontradas (máximo 50)")
+    private List<String> samples;
+
+    @Schema(description = "Indica si los resúmenes se reemplazaron por los valores recalculados", example = "false")
+    private boolean repaired;
+}
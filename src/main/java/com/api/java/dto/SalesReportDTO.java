@@ -0,0 +1,21 @@
+package com.api.java.dto;
+import com.api.java.models.Money;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/** DTO con las ventas acumuladas de un valor de dimensión (producto, categoría, país o estado). */
+
+@Data
+@AllArgsConstructor
+public class SalesReportDTO {
+
+    @Schema(description = "Valor de la dimensión: ID de producto/categoría, país o estado", example = "Argentina")
+    private String key;
+
+    @Schema(description = "Unidades acumuladas", example = "1250")
+    private long units;
+
+    @Schema(description = "Ingresos acumulados (precio unitario × cantidad)", example = "2374937.50")
+    private Money revenue;
+}
@@ -0,0 +1,17 @@
+package com.api.java.dto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/** Listado con solo algunos campos de un DTO (parámetro ?fields=).
+ * Los nombres de los campos se guardan una sola vez y cada fila es el arreglo de valores leído de la consulta,
+ * en el mismo orden, sin pasar por entidades ni DTOs completos. Se serializa como el listado normal (un arreglo de objetos),
+ * pero cada objeto trae solo los campos pedidos; los nombres con punto ("productOrder.nameProduct") se escriben anidados. */
+
+@Getter
+@AllArgsConstructor
+public class SparseListDTO {
+    private final List<String> fields;  // Campos incluidos, en el orden del DTO
+    private final List<Object[]> rows;  // Una fila por elemento, con un valor por campo
+}
@@ -0,0 +1,25 @@
+package com.api.java.dto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO con el stock de un producto descontando las reservas vigentes. */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockAvailabilityDTO {
+
+    @Schema(description = "ID del producto", example = "101")
+    private Long productId;
+
+    @Schema(description = "Stock registrado del producto", example = "25")
+    private int stockProduct;
+
+    @Schema(description = "Unidades retenidas por reservas vigentes", example = "3")
+    private long held;
+
+    @Schema(description = "Unidades que todavía pueden reservarse u ordenarse", example = "22")
+    private long available;
+}
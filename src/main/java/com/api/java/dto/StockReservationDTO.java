@@ -0,0 +1,46 @@
+package com.api.java.dto;
+import com.api.java.models.ReservationStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/** DTO de una reserva temporal de stock: datos para crearla y su estado. */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservationDTO {
+
+    @Schema(description = "ID de la reserva", example = "15", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long id;
+
+    @Schema(description = "ID del usuario que reserva (el autenticado)", example = "42", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long userId;
+
+    @Schema(description = "ID del producto reservado", example = "101")
+    @NotNull(message = "El producto es obligatorio")
+    private Long productId;
+
+    @Schema(description = "Unidades a retener", example = "2")
+    @NotNull(message = "La cantidad es obligatoria")
+    @Min(value = 1, message = "Debe reservarse al menos una unidad")
+    private Integer amount;
+
+    @Schema(description = "Duración de la reserva en segundos (por defecto app.reservations.default-ttl-s)", example = "600")
+    @Min(value = 1, message = "La duración debe ser de al menos un segundo")
+    private Integer ttlSeconds;
+
+    @Schema(description = "Estado de la reserva", example = "ACTIVE", accessMode = Schema.AccessMode.READ_ONLY)
+    private ReservationStatus status;
+
+    @Schema(description = "Vencimiento de la reserva", accessMode = Schema.AccessMode.READ_ONLY)
+    private Instant expiresAt;
+
+    @Schema(description = "ID del detalle de orden creado al confirmarla", example = "1001", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long detailOrderId;
+}
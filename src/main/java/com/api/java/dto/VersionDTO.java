@@ -0,0 +1,48 @@
+package com.api.java.dto;
+import lombok.Data;
+
+import java.time.Instant;
+
+/** DTO liviano con la versión de un recurso o de una colección completa.
+ * Se construye directamente desde consultas JPQL ("select new ...") para poder
+ * responder GET condicionales (If-None-Match / If-Modified-Since) sin cargar ni serializar entidades. */
+
+@Data
+public class VersionDTO {
+    private final long count;       // Cantidad de registros (1 para un recurso individual)
+    private final long version;     // Versión del registro o suma de versiones de la colección
+    private final Instant lastModified;     // Última modificación conocida (puede ser null)
+
+    /** Constructor usado para un recurso individual.
+     * @param version      versión JPA del registro
+     * @param lastModified fecha de la última modificación */
+
+    public VersionDTO(Long version, Instant lastModified) {
+        this(1L, version, lastModified);
+    }
+
+    /** Constructor usado para la versión agregada de una colección.
+     * @param count        cantidad de registros
+     * @param version      suma de las versiones de todos los registros
+     * @param lastModified fecha de modificación más reciente */
+
+    public VersionDTO(Long count, Long version, Instant lastModified) {
+        this.count = count != null ? count : 0L;
+        this.version = version != null ? version : 0L;
+        this.lastModified = lastModified;
+    }
+
+    /** Genera el valor de ETag fuerte (sin comillas, Spring las agrega).
+     * Combina cantidad, versión y fecha para que altas, bajas y modificaciones cambien el valor.
+     * @return etag del recurso o colección */
+
+    public String toEtag() {
+        return count + "-" + version + "-" + lastModifiedMillis();
+    }
+
+    /** @return fecha de modificación en milisegundos, o -1 si se desconoce */
+
+    public long lastModifiedMillis() {
+        return lastModified != null ? lastModified.toEpochMilli() : -1L;
+    }
+}
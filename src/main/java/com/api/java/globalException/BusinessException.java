@@ -0,0 +1,22 @@
+package com.api.java.globalException;
+import org.springframework.http.HttpStatus;
+
+/** Base de las excepciones de negocio: errores esperados que se informan al cliente (recurso inexistente, datos inválidos,
+ * conflicto de estado). No capturan la pila de llamadas, que en estos casos no aporta información y es la parte más
+ * costosa de crear una excepción; {@link GlobalExceptionHandler} las traduce a {@link ErrorResponse}. */
+
+public abstract class BusinessException extends RuntimeException {
+    private final HttpStatus status;     // Código HTTP con el que se responde
+
+    /** @param status  código HTTP de la respuesta
+     * @param message mensaje para el cliente */
+
+    protected BusinessException(HttpStatus status, String message) {
+        super(message, null, false, false);     // Sin pila ni supresiones
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,11 @@
+package com.api.java.globalException;
+import org.springframework.http.HttpStatus;
+
+/** La operación no se puede aplicar por el estado actual del recurso (409). */
+
+public class ConflictException extends BusinessException {
+
+    public ConflictException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
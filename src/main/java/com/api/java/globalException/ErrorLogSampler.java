@@ -0,0 +1,52 @@
+package com.api.java.globalException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Limita cuántos errores de cliente iguales se registran por segundo.
+ * Ante un cliente mal configurado o un barrido de URLs se registran los primeros de cada segundo y el resto solo se
+ * cuenta; el siguiente registro informa cuántos se omitieron. Las claves salen del código (contexto y tipo de
+ * excepción), así que la cantidad de ventanas queda acotada. */
+
+@Component
+public class ErrorLogSampler {
+    private final int perSecond;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public ErrorLogSampler(@Value("${app.error-log.client-samples-per-second:5}") int perSecond) {
+        this.perSecond = perSecond;
+    }
+
+    /** Decide si se registra un error.
+     * @param key clase de error (contexto y tipo de excepción)
+     * @return -1 si se omite; si se registra, cuántos iguales se omitieron desde el último registro */
+
+    public long sample(String key) {
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        long second = System.nanoTime() / 1_000_000_000L;
+        synchronized (window) {
+            if (window.second != second) {
+                window.second = second;
+                window.logged = 0;
+            }
+            if (window.logged >= perSecond) {
+                window.suppressed++;
+                return -1;
+            }
+            window.logged++;
+            long suppressed = window.suppressed;
+            window.suppressed = 0;
+            return suppressed;
+        }
+    }
+
+    /** Registros del segundo en curso para una clave. */
+
+    private static final class Window {
+        private long second = Long.MIN_VALUE;
+        private int logged;         // Registrados en el segundo en curso
+        private long suppressed;    // Omitidos desde el último registro
+    }
+}
@@ -1,20 +1,38 @@
 package com.api.java.globalException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.TypeMismatchException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.server.ResponseStatusException;
-import java.nio.file.AccessDeniedException;
 
 /** Manejador global de excepciones para toda la aplicación.
- * Intercepta y transforma diferentes tipos de excepciones en respuestas HTTP estandarizadas. */
+ * Intercepta y transforma diferentes tipos de excepciones en respuestas HTTP estandarizadas.
+ * Los errores de cliente (4xx) se registran en INFO, sin pila y muestreados por {@link ErrorLogSampler}; solo los errores
+ * del servidor (5xx) se registran en ERROR con la pila completa. */
 
 @Slf4j
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+    private final ErrorLogSampler errorLogSampler;
+
+    /** Maneja las excepciones de negocio ({@link NotFoundException}, {@link InvalidRequestException}, {@link ConflictException}...).
+     * @param e excepción recibida
+     * @return respuesta con detalles del error y el código de la excepción */
+
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<ErrorResponse> handleBusinessException(BusinessException e) {
+        ErrorResponse error = buildErrorResponse(e, e.getStatus());
+        logError("Negocio", e, error);
+        return ResponseEntity.status(e.getStatus()).body(error);
+    }
 
     /** Maneja excepciones de tipo {@link ResponseStatusException}.
      * @param e excepción recibida
@@ -24,7 +42,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleResponseStatusException(ResponseStatusException e) {
         HttpStatus status = HttpStatus.resolve(e.getStatusCode().value());
         ErrorResponse error = buildErrorResponse(e, status != null ? status : HttpStatus.INTERNAL_SERVER_ERROR);
-        logError("ResponseStatus", e, error.getErrorId());
+        logError("ResponseStatus", e, error);
         return ResponseEntity.status(e.getStatusCode()).body(error);
     }
 
@@ -38,7 +56,7 @@ public class GlobalExceptionHandler {
         ex.getBindingResult().getFieldErrors().forEach(fieldError ->
                 errorResponse.addValidationError(fieldError.getField(), fieldError.getDefaultMessage())
         );
-        logError("Validación", ex, errorResponse.getErrorId());
+        logError("Validación", ex, errorResponse);
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
@@ -49,7 +67,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ErrorResponse> handleJsonFormatException(HttpMessageNotReadableException ex) {
         ErrorResponse error = buildErrorResponse(ex, HttpStatus.BAD_REQUEST);
-        logError("Formato JSON inválido", ex, error.getErrorId());
+        logError("Formato JSON inválido", ex, error);
         return ResponseEntity.badRequest().body(error);
     }
 
@@ -60,19 +78,33 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAccessDeniedException(AccessDeniedException ex) {
         ErrorResponse error = buildErrorResponse(ex, HttpStatus.FORBIDDEN);
-        logError("AccessDenied", ex, error.getErrorId());
+        logError("AccessDenied", ex, error);
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
     }
 
+    /** Maneja credenciales inválidas en el login.
+     * @param ex excepción lanzada por el AuthenticationManager
+     * @return respuesta 401 */
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException ex) {
+        ErrorResponse error = buildErrorResponse(ex, HttpStatus.UNAUTHORIZED);
+        logError("Autenticación", ex, error);
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+    }
+
     /** Maneja todas las excepciones genéricas no contempladas explícitamente.
+     * Las excepciones de Spring MVC que ya indican su código (ruta inexistente, método no admitido, parámetro faltante
+     * o de tipo incorrecto) conservan ese código en vez de responder 500.
      * @param ex excepción inesperada
-     * @return respuesta 500 con información técnica del error */
+     * @return respuesta con información técnica del error (500 si no se conoce el código) */
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
-        ErrorResponse error = buildErrorResponse(ex, HttpStatus.INTERNAL_SERVER_ERROR);
-        logError("Error inesperado", ex, error.getErrorId());
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        HttpStatus status = statusOf(ex);
+        ErrorResponse error = buildErrorResponse(ex, status);
+        logError(status.is5xxServerError() ? "Error inesperado" : "Request inválida", ex, error);
+        return ResponseEntity.status(status).body(error);
     }
 
     /*** Genera una estructura {@link ErrorResponse} con metadatos comunes para un error.
@@ -88,12 +120,31 @@ public class GlobalExceptionHandler {
         );
     }
 
-    /** Realiza el log enriquecido de una excepción capturada.
+    /** Realiza el log enriquecido de una excepción capturada: con pila en ERROR si es un error del servidor, o en INFO
+     * sin pila y muestreado si es un error de cliente.
      * @param contexto  descripción textual del contexto del error
      * @param ex        excepción ocurrida
-     * @param errorId   identificador único del error para trazabilidad*/
+     * @param error     respuesta enviada (código e identificador único del error para trazabilidad) */
+
+    private void logError(String contexto, Exception ex, ErrorResponse error) {
+        if (error.getCode() >= 500) {
+            log.error("Contexto: {}, ID Error: {}, Mensaje: {}", contexto, error.getErrorId(), ex.getMessage(), ex);
+            return;
+        }
+        if (!log.isInfoEnabled()) return;
+        long omitted = errorLogSampler.sample(contexto + ":" + error.getExceptionType());
+        if (omitted < 0) return;
+        log.info("Contexto: {}, Código: {}, ID Error: {}, Mensaje: {}{}", contexto, error.getCode(), error.getErrorId(), ex.getMessage(),
+                omitted > 0 ? " (" + omitted + " similares omitidos)" : "");
+    }
+
+    /** @return código declarado por las excepciones de Spring, 400 para parámetros de tipo incorrecto, o 500 */
 
-    private void logError(String contexto, Exception ex, String errorId) {
-        log.error("Contexto: {}, ID Error: {}, Mensaje: {}", contexto, errorId, ex.getMessage(), ex);
+    private HttpStatus statusOf(Exception ex) {
+        if (ex instanceof org.springframework.web.ErrorResponse springError) {
+            HttpStatus status = HttpStatus.resolve(springError.getStatusCode().value());
+            if (status != null) return status;
+        }
+        return ex instanceof TypeMismatchException ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR;
     }
-}
\ No newline at end of file
+}
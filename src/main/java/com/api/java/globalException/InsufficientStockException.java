@@ -0,0 +1,10 @@
+package com.api.java.globalException;
+
+/** No hay stock suficiente para la cantidad pedida (400). */
+
+public class InsufficientStockException extends InvalidRequestException {
+
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.api.java.globalException;
+import org.springframework.http.HttpStatus;
+
+/** Los parámetros o datos de la request no son válidos (400). */
+
+public class InvalidRequestException extends BusinessException {
+
+    public InvalidRequestException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.api.java.globalException;
+import org.springframework.http.HttpStatus;
+
+/** El recurso pedido no existe (404). */
+
+public class NotFoundException extends BusinessException {
+
+    public NotFoundException(String message) {
+        super(HttpStatus.NOT_FOUND, message);
+    }
+}
@@ -2,6 +2,7 @@ package com.api.java.mapper;
 import com.api.java.dto.CategoryDTO;
 import com.api.java.models.CategoryModel;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /** Mapper de MapStruct encargado de convertir entre la entidad {@link CategoryModel} y el DTO {@link CategoryDTO}.
  * Este mapper se utiliza para separar la lógica de conversión entre capas,
@@ -17,8 +18,12 @@ public interface CategoryMapper {
     CategoryDTO categoryToCategoryDto(CategoryModel categoryModel);
 
     /** Convierte un DTO {@link CategoryDTO} a una entidad {@link CategoryModel}, normalmente para operaciones de creación o actualización.
+     * Ignora version y updatedAt, que completa Hibernate al persistir la entidad, y deleting, que solo cambia la purga.
      * @param categoryDTO el objeto recibido desde el cliente
      * @return una instancia de {@link CategoryModel} lista para persistencia */
 
+    @Mapping(target = "version", ignore = true)      // Lo administra Hibernate con @Version
+    @Mapping(target = "updatedAt", ignore = true)    // Lo completa Hibernate con @UpdateTimestamp
+    @Mapping(target = "deleting", ignore = true)     // Solo lo cambia la purga en segundo plano
     CategoryModel categoryDtoToCategory(CategoryDTO categoryDTO);
 }
\ No newline at end of file
@@ -18,6 +18,8 @@ public interface DetailOrderMapper {
      * @return DTO correspondiente al detalle de orden */
 
     @Mapping(source = "userOrder.id", target = "userOrder")
+    @Mapping(source = "nameProductSnapshot", target = "nombreProductoSnapshot")
+    @Mapping(source = "priceUnitSnapshot", target = "precioUnitarioSnapshot")
     DetailOrderDTO detailOrderToDetailOrderDto(DetailOrderModel detailOrderModel);
 
     /** Convierte un DTO de detalle de orden en una entidad JPA.
@@ -28,6 +30,9 @@ public interface DetailOrderMapper {
      * @return entidad JPA construida */
     @Named("detailOrderDtoToDetailOrder")
     @Mapping(source = "userOrder", target = "userOrder.id")
+    @Mapping(target = "paidAt", ignore = true)  // Lo fija el servicio al pasar a PAID
+    @Mapping(target = "categoryIdSnapshot", ignore = true)  // Los congela el servicio al registrar el detalle
+    @Mapping(target = "countrySnapshot", ignore = true)
     DetailOrderModel detailOrderDtoToDetailOrder(DetailOrderDTO detailOrderDTO);
 
     /** Actualiza una entidad DetailOrderModel existente con los datos del DTO.
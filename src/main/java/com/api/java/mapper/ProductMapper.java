@@ -20,12 +20,15 @@ public interface ProductMapper {
 
     /** Convierte un DTO en una entidad ProductModel.
      * Asigna el campo categoryId del DTO a la relación categoryProduct.id de la entidad.
+     * Ignora version y updatedAt, que completa Hibernate al persistir la entidad.
      * Se utiliza también como configuración base para el metodo de actualización.
      * @param productDTO DTO de entrada
      * @return entidad JPA construida a partir del DTO */
 
     @Named("productDtoToProduct")
     @Mapping(source = "categoryId", target = "categoryProduct.id")
+    @Mapping(target = "version", ignore = true)      // Lo administra Hibernate con @Version
+    @Mapping(target = "updatedAt", ignore = true)    // Lo completa Hibernate con @UpdateTimestamp
     ProductModel productDtoToProduct(ProductDTO productDTO);
 
     /** Actualiza una entidad ProductModel existente con los datos del DTO.
@@ -0,0 +1,16 @@
+package com.api.java.mapper;
+import com.api.java.dto.PurgeJobDTO;
+import com.api.java.models.PurgeJobModel;
+import org.mapstruct.Mapper;
+
+/** Mapper de MapStruct que convierte las tareas de purga {@link PurgeJobModel} en {@link PurgeJobDTO}. */
+
+@Mapper(componentModel = "spring")
+public interface PurgeJobMapper {
+
+    /** Convierte una tarea de purga a DTO.
+     * @param job entidad de la tarea
+     * @return DTO con estado y avance */
+
+    PurgeJobDTO purgeJobToDto(PurgeJobModel job);
+}
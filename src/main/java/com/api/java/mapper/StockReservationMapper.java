@@ -0,0 +1,20 @@
+package com.api.java.mapper;
+import com.api.java.dto.StockReservationDTO;
+import com.api.java.models.StockReservationModel;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/** Mapper de MapStruct que convierte las reservas de stock {@link StockReservationModel} en {@link StockReservationDTO}. */
+
+@Mapper(componentModel = "spring")
+public interface StockReservationMapper {
+
+    /** Convierte una reserva a DTO, con los IDs de usuario y producto (sin inicializar sus proxies).
+     * @param reservation entidad de la reserva
+     * @return DTO con estado y vencimiento */
+
+    @Mapping(target = "userId", source = "user.id")
+    @Mapping(target = "productId", source = "product.id")
+    @Mapping(target = "ttlSeconds", ignore = true)
+    StockReservationDTO reservationToDto(StockReservationModel reservation);
+}
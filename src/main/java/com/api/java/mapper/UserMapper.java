@@ -22,11 +22,13 @@ public interface UserMapper {
     /** Convierte un {@link UserDTO} a un {@link UserModel}, normalmente para creación.
      * Nota: Aunque se mapea el campo "role", en la práctica se ignora este valor, ya que el servicio
      * se encarga de asignar manualmente las entidades {@link RoleModel}.
+     * Ignora "deleting", que solo cambia la purga en segundo plano.
      * @param userDTO el DTO recibido desde una petición (JSON)
      * @return la entidad de usuario parcialmente armada, lista para completar roles y persistir */
 
     @Named("UserDtoToUser")
     @Mapping(source = "role", target = "role")
+    @Mapping(target = "deleting", ignore = true)     // Solo lo cambia la purga en segundo plano
     UserModel UserDtoToUser(UserDTO userDTO);
 
     /** Actualiza un {@link UserModel} existente con datos provenientes de un {@link UserDTO}.
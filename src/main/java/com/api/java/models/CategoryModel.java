@@ -3,7 +3,9 @@ package com.api.java.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,6 +23,17 @@ public class CategoryModel {
     @NotBlank
     private String categoryProducts; //Nombre de la categoría.
 
+    @Column(nullable = false) // Marcada para eliminación: una purga en segundo plano está borrando sus productos
+    private boolean deleting;
+
     @OneToMany(mappedBy = "categoryProduct", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ProductModel> products = new ArrayList<>();
+
+    @Version // Versión incrementada en cada escritura, usada como ETag
+    @Column(nullable = false)
+    private long version;
+
+    @UpdateTimestamp // Fecha de la última modificación, usada como Last-Modified
+    @Column
+    private Instant updatedAt;
 }
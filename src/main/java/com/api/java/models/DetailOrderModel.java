@@ -4,7 +4,8 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
-import java.math.BigDecimal;
+import java.time.Instant;
+
 
 /** Entidad JPA que representa un detalle de una orden.
  * Cada instancia corresponde a un producto solicitado por un usuario, con su cantidad y estado de procesamiento.*/
@@ -61,7 +62,24 @@ public class DetailOrderModel {
     /** Precio unitario del producto en el momento de la compra (desnormalizado). */
 
     @Column(nullable = false)
-    private BigDecimal priceUnitSnapshot;
+    private Money priceUnitSnapshot;
+
+    /** Categoría del producto en el momento de la compra (desnormalizada).
+     * Los resúmenes de ventas y el ranking de más vendidos restan el aporte de la orden de esta categoría, aunque el producto cambie después. */
+
+    @Column
+    private Long categoryIdSnapshot;
+
+    /** País del usuario en el momento de la compra (desnormalizado), con el mismo fin que la categoría. */
+
+    @Column
+    private String countrySnapshot;
+
+    /** Momento en que el detalle pasó a PAID, o null si no está pagado.
+     * Las cancelaciones y eliminaciones restan del ranking de más vendidos en el intervalo de este momento. */
+
+    @Column
+    private Instant paidAt;
 
 
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.api.java.models;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/** Entidad JPA que registra la escritura de un producto, una categoría o un usuario, en la misma transacción que la escritura.
+ * Cada instancia de la aplicación lee el log en orden de ID (su marca de agua) para actualizar sus estructuras en memoria
+ * con los cambios hechos por las demás. Los registros se eliminan pasado el tiempo de retención. */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "invalidation_log", indexes = @Index(name = "idx_invalidation_log_created_at", columnList = "createdAt"))
+public class InvalidationLogModel {
+    /** Posición en el log, creciente según el orden de inserción. */
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Tipo de la entidad escrita. */
+
+    @Column(nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    private InvalidationTarget target;
+
+    /** ID de la entidad escrita. */
+
+    @Column(nullable = false, name = "entity_id")
+    private Long entityId;
+
+    /** Instancia que hizo la escritura (ya la aplicó en memoria, por lo que omite el registro al leer el log). */
+
+    @Column(nullable = false, length = 36)
+    private String node;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,8 @@
+package com.api.java.models;
+
+/** Tipos de entidad cuyas escrituras se registran en el log de invalidación entre instancias. */
+public enum InvalidationTarget {
+    PRODUCT,    // Producto: snapshot columnar del catálogo y autocompletado
+    CATEGORY,   // Categoría
+    USER        // Usuario
+}
@@ -0,0 +1,159 @@
+package com.api.java.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/** Importe monetario de punto fijo expresado en centavos (unidades menores, escala 2) sobre un {@code long}.
+ * Reemplaza a Float y BigDecimal en modelos y DTOs: la aritmética de precios y totales se hace con enteros
+ * exactos (con control de desbordamiento) y sin crear BigDecimal intermedios. En la base de datos se sigue
+ * guardando como DECIMAL mediante {@link MoneyConverter}; en JSON se expone como número ("18999.50").
+ * @param cents importe en centavos */
+
+public record Money(long cents) implements Comparable<Money> {
+    public static final int SCALE = 2;              // Decimales de la moneda
+    public static final Money ZERO = new Money(0);  // Importe nulo, compartido
+
+    /** Crea un importe a partir de centavos.
+     * @param cents importe en centavos
+     * @return importe */
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /** Obtiene los centavos de un importe que puede ser null.
+     * @param money importe (puede ser null)
+     * @return centavos, o 0 si es null */
+
+    public static long centsOf(Money money) {
+        return money != null ? money.cents : 0L;
+    }
+
+    /** Convierte un decimal a importe, redondeando a centavos (HALF_UP).
+     * @param amount importe decimal (puede ser null)
+     * @return importe, o null si el valor es null */
+
+    public static Money of(BigDecimal amount) {
+        return amount != null ? ofCents(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact()) : null;
+    }
+
+    /** Interpreta un importe en texto decimal ("18999.5", "-3", "10.00") sin pasar por BigDecimal.
+     * Los decimales más allá del centavo se redondean (HALF_UP). Spring lo usa para convertir parámetros de request.
+     * @param text importe en texto
+     * @return importe
+     * @throws NumberFormatException si el texto no es un decimal válido */
+
+    public static Money valueOf(String text) {
+        String value = text.trim();
+        int length = value.length();
+        int i = 0;
+        boolean negative = false;
+        if (i < length && (value.charAt(i) == '-' || value.charAt(i) == '+')) negative = value.charAt(i++) == '-';
+        long units = 0;
+        int digits = 0;
+        for (; i < length && value.charAt(i) != '.'; i++, digits++) {
+            units = Math.addExact(Math.multiplyExact(units, 10), digit(value, i));
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        if (i < length) {   // Parte decimal
+            for (i++; i < length; i++, fractionDigits++) {
+                int d = digit(value, i);
+                if (fractionDigits < SCALE) fraction = fraction * 10 + d;
+                else if (fractionDigits == SCALE) roundUp = d >= 5;
+            }
+        }
+        if (digits == 0 && fractionDigits == 0) throw new NumberFormatException("Importe inválido: " + text);
+        for (int f = Math.min(fractionDigits, SCALE); f < SCALE; f++) fraction *= 10;
+        long cents = Math.addExact(Math.multiplyExact(units, 100), fraction + (roundUp ? 1 : 0));
+        return ofCents(negative ? -cents : cents);
+    }
+
+    /** @return importe como decimal con escala 2 (para la base de datos o cálculos externos) */
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /** @param other importe a sumar
+     * @return suma exacta */
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /** @param other importe a restar
+     * @return diferencia exacta */
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /** @param quantity cantidad de unidades
+     * @return importe multiplicado por la cantidad */
+
+    public Money times(long quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    /** @return true si el importe es mayor que cero */
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    /** @return true si el importe es menor que cero */
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    /** Escribe el importe en texto decimal con dos decimales, sin BigDecimal.
+     * @param out destino (al menos 22 caracteres libres desde offset)
+     * @param offset posición inicial
+     * @return cantidad de caracteres escritos */
+
+    public int writeTo(char[] out, int offset) {
+        int pos = offset;
+        long value = cents;
+        if (value < 0) {
+            out[pos++] = '-';
+            if (value == Long.MIN_VALUE) throw new ArithmeticException("Importe fuera de rango");
+            value = -value;
+        }
+        long units = value / 100;
+        int fraction = (int) (value % 100);
+        int start = pos;
+        do {
+            out[pos++] = (char) ('0' + units % 10);
+            units /= 10;
+        } while (units > 0);
+        for (int l = start, r = pos - 1; l < r; l++, r--) {     // Los dígitos se generaron al revés
+            char tmp = out[l];
+            out[l] = out[r];
+            out[r] = tmp;
+        }
+        out[pos++] = '.';
+        out[pos++] = (char) ('0' + fraction / 10);
+        out[pos++] = (char) ('0' + fraction % 10);
+        return pos - offset;
+    }
+
+    @Override
+    public String toString() {
+        char[] buffer = new char[24];
+        return new String(buffer, 0, writeTo(buffer, 0));
+    }
+
+    private static int digit(String value, int i) {
+        char c = value.charAt(i);
+        if (c < '0' || c > '9') throw new NumberFormatException("Importe inválido: " + value);
+        return c - '0';
+    }
+}
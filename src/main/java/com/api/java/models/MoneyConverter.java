@@ -0,0 +1,22 @@
+package com.api.java.models;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/** Conversor JPA entre {@link Money} y la columna DECIMAL(…, 2) existente.
+ * Se aplica automáticamente a todos los atributos de tipo Money, por lo que el esquema de la base de datos no cambia. */
+
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money != null ? money.toBigDecimal() : null;
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal value) {
+        return Money.of(value);
+    }
+}
@@ -2,8 +2,10 @@ package com.api.java.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import com.api.java.validation.MinMoney;
+import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -41,9 +43,9 @@ public class ProductModel {
      * No puede ser nulo y debe ser un valor positivo igual o mayor a 0.00.*/
 
     @NotNull(message = "El precio es obligatorio")
-    @DecimalMin(value = "0.00", message = "El precio debe ser igual o mayor a 0.00")
+    @MinMoney(value = "0.00", message = "El precio debe ser igual o mayor a 0.00")
     @Column
-    private BigDecimal priceProduct;
+    private Money priceProduct;
 
     /** Categoría a la que pertenece el producto.
      * Relación Many-to-One con CategoryModel.
@@ -73,4 +75,18 @@ public class ProductModel {
 
     @OneToMany(mappedBy = "productOrder")
     private List<DetailOrderModel> detailOrders = new ArrayList<>();
+
+    /** Versión del registro, incrementada por Hibernate en cada escritura.
+     * Se usa como ETag fuerte para responder GET condicionales sin cargar la entidad. */
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /** Fecha y hora de la última modificación del producto.
+     * Se expone como cabecera Last-Modified. */
+
+    @UpdateTimestamp
+    @Column
+    private Instant updatedAt;
 }
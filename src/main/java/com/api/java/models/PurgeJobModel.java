@@ -0,0 +1,72 @@
+package com.api.java.models;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/** Entidad JPA que registra una purga en segundo plano de una categoría o un usuario.
+ * El avance se guarda en la misma transacción que cada bloque eliminado, por lo que la tarea
+ * puede retomarse tras un reinicio sin repetir ni perder trabajo. */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "purge_job")
+public class PurgeJobModel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Tipo de la entidad padre a eliminar. */
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private PurgeTarget target;
+
+    /** ID de la entidad padre a eliminar. */
+
+    @Column(nullable = false, name = "target_id")
+    private Long targetId;
+
+    /** Estado actual de la tarea. */
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private PurgeStatus status;
+
+    /** Cantidad de hijos a eliminar, calculada al registrar la tarea. */
+
+    @Column(nullable = false)
+    private long totalRows;
+
+    /** Cantidad de hijos eliminados hasta el momento. */
+
+    @Column(nullable = false)
+    private long deletedRows;
+
+    /** Mensaje del error que detuvo la tarea, si lo hubo. */
+
+    @Column(length = 500)
+    private String error;
+
+    /** Instancia que procesa la tarea; otra solo puede reclamarla cuando vence su plazo. */
+
+    @Column(length = 64)
+    private String owner;
+
+    /** Vencimiento del reclamo de la instancia dueña; se renueva en cada bloque. */
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column
+    private Instant updatedAt;
+}
@@ -0,0 +1,11 @@
+package com.api.java.models;
+
+/** Estados de una tarea de purga en segundo plano. */
+public enum PurgeStatus {
+    PENDING,    // Registrada, aún no comenzó
+    RUNNING,    // Eliminando hijos por bloques (se retoma tras un reinicio)
+    COMPLETED,  // Hijos y entidad padre eliminados
+    FAILED,     // Detenida por un error; ver el mensaje registrado
+    CANCELLED,  // Cancelada porque la entidad recibió órdenes antes de eliminar ningún hijo; se restauró intacta
+    PARTIAL     // Detenida porque la entidad recibió órdenes después de eliminar algunos hijos (deletedRows); se restauró con los que quedaban
+}
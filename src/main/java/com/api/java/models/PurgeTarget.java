@@ -0,0 +1,7 @@
+package com.api.java.models;
+
+/** Tipos de entidad padre que se eliminan mediante una purga en segundo plano. */
+public enum PurgeTarget {
+    CATEGORY,   // Categoría: se eliminan sus productos por bloques
+    USER        // Usuario: se eliminan sus detalles de orden por bloques
+}
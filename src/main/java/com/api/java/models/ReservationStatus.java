@@ -0,0 +1,9 @@
+package com.api.java.models;
+
+/** Estados de una reserva temporal de stock. */
+public enum ReservationStatus {
+    ACTIVE,     // Retiene stock hasta confirmarse, liberarse o vencer
+    CONFIRMED,  // Convertida en un detalle de orden (el stock se descontó)
+    RELEASED,   // Liberada por el cliente antes de vencer
+    EXPIRED     // Venció sin confirmarse
+}
@@ -0,0 +1,8 @@
+package com.api.java.models;
+
+/** Dimensiones por las que se acumulan las ventas en las tablas de resumen (rollups). */
+public enum RollupDimension {
+    PRODUCT,    // Por ID de producto
+    CATEGORY,   // Por ID de categoría del producto
+    COUNTRY     // Por país del usuario que realizó la orden
+}
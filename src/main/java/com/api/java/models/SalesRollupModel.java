@@ -0,0 +1,46 @@
+package com.api.java.models;
+import jakarta.persistence.*;
+import lombok.*;
+
+
+/** Entidad JPA con las ventas acumuladas (unidades e ingresos) por dimensión y estado de orden.
+ * Se mantiene de forma incremental en la misma transacción que cada alta, modificación o baja de un detalle de orden,
+ * de modo que los reportes no necesitan recorrer la tabla de detalles. */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "sales_rollup", uniqueConstraints = @UniqueConstraint(columnNames = {"dimension", "dimension_key", "status"}))
+public class SalesRollupModel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Dimensión del acumulado (producto, categoría o país). */
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private RollupDimension dimension;
+
+    /** Valor de la dimensión: ID de producto o categoría, o nombre del país. */
+
+    @Column(nullable = false, name = "dimension_key")
+    private String dimensionKey;
+
+    /** Estado de las órdenes acumuladas en esta fila. */
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    /** Unidades acumuladas (suma de amount). */
+
+    @Column(nullable = false)
+    private long units;
+
+    /** Ingresos acumulados (suma de priceUnitSnapshot × amount). */
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Money revenue;
+}
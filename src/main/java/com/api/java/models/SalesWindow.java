@@ -0,0 +1,8 @@
+package com.api.java.models;
+
+/** Ventanas deslizantes de tiempo disponibles para el ranking de productos más vendidos. */
+public enum SalesWindow {
+    HOUR,   // Última hora, en intervalos de un minuto
+    DAY,    // Último día, en intervalos de una hora
+    WEEK    // Última semana, en intervalos de un día
+}
@@ -0,0 +1,65 @@
+package com.api.java.models;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/** Entidad JPA que registra una reserva temporal de stock (por ejemplo, un carrito durante el checkout).
+ * Mientras está activa y no venció, sus unidades se descuentan del stock disponible sin modificar stockProduct;
+ * al confirmarse se convierte en un detalle de orden. */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "stock_reservation", indexes = {
+        @Index(name = "idx_stock_reservation_product_status", columnList = "product_id, status, expires_at"),   // Stock retenido por producto
+        @Index(name = "idx_stock_reservation_status_expires", columnList = "status, expires_at")})              // Reservas vivas al arrancar
+public class StockReservationModel {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Usuario que reserva. */
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", referencedColumnName = "id")
+    private UserModel user;
+
+    /** Producto reservado. */
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "product_id", referencedColumnName = "id")
+    private ProductModel product;
+
+    /** Unidades retenidas. */
+
+    @Column(nullable = false)
+    private int amount;
+
+    /** Estado actual de la reserva. */
+
+    @Column(nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    private ReservationStatus status;
+
+    /** Vencimiento: desde ese momento deja de retener stock aunque su estado aún no se haya actualizado. */
+
+    @Column(nullable = false, name = "expires_at")
+    private Instant expiresAt;
+
+    /** Detalle de orden creado al confirmarla. */
+
+    @Column(name = "detail_order_id")
+    private Long detailOrderId;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column
+    private Instant updatedAt;
+}
@@ -69,6 +69,10 @@ public class UserModel implements UserDetails {
     @JoinTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "roles_id"))
     private Set<RoleModel> role;
 
+    /** Marcado para eliminación: una purga en segundo plano está borrando sus detalles de orden. */
+    @Column(nullable = false)
+    private boolean deleting;
+
     @OneToMany(mappedBy = "userOrder", cascade = CascadeType.REMOVE, orphanRemoval = true)
     private List<DetailOrderModel> detailOrders = new ArrayList<>();
 
@@ -82,7 +86,7 @@ public class UserModel implements UserDetails {
                 .collect(Collectors.toSet());   // Se recolectan las autoridades en un Set para evitar duplicados
     }
 
-    // Métodos requeridos por la interfaz UserDetails, asumidos como siempre válidos:
+    // Métodos requeridos por la interfaz UserDetails, asumidos como siempre válidos (salvo isEnabled):
 
     @Override
     public boolean isAccountNonExpired() {
@@ -101,7 +105,7 @@ public class UserModel implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true; // La cuenta está activa
+        return !deleting; // La cuenta está activa salvo que se esté eliminando
     }
 
 }
\ No newline at end of file
@@ -1,9 +1,15 @@
 package com.api.java.repositories;
+import com.api.java.dto.VersionDTO;
 import com.api.java.models.CategoryModel;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /** Repositorio de acceso a datos para la entidad {@link CategoryModel}.
  *
@@ -18,4 +24,49 @@ public interface ICategoryRepository extends JpaRepository<CategoryModel, Long>
      * @return lista de categorías que coinciden con el texto especificado */
 
     List<CategoryModel> findByCategoryProducts(String categoryProducts);
+
+    /** Obtiene las categorías que no están marcadas para eliminación.
+     * @return categorías visibles */
+
+    List<CategoryModel> findByDeletingFalse();
+
+    /** Obtiene las categorías visibles de un lote de IDs con una sola consulta.
+     * @param ids IDs de categoría
+     * @return categorías encontradas (en cualquier orden) */
+
+    List<CategoryModel> findByIdInAndDeletingFalse(Collection<Long> ids);
+
+    /** Obtiene las categorías visibles, sin instanciar entidades, para escribir el snapshot del catálogo en disco.
+     * @return filas con id, nombre, versión y fecha de modificación, ordenadas por ID */
+
+    @Query("select c.id, c.categoryProducts, c.version, c.updatedAt from CategoryModel c where c.deleting = false order by c.id")
+    List<Object[]> findSnapshotRows();
+
+    /** Indica si una categoría está marcada para eliminación (purga en curso).
+     * @param id ID de la categoría
+     * @return true si se está eliminando */
+
+    boolean existsByIdAndDeletingTrue(Long id);
+
+    /** Obtiene solo la versión y la fecha de modificación de una categoría, sin cargar la entidad.
+     * @param id ID de la categoría
+     * @return versión de la categoría, vacío si no existe */
+
+    @Query("select new com.api.java.dto.VersionDTO(c.version, c.updatedAt) from CategoryModel c where c.id = :id")
+    Optional<VersionDTO> findVersionById(Long id);
+
+    /** Calcula la versión agregada de todas las categorías en una única consulta.
+     * @return cantidad, suma de versiones y última modificación */
+
+    @Query("select new com.api.java.dto.VersionDTO(count(c), coalesce(sum(c.version), 0L), max(c.updatedAt)) from CategoryModel c")
+    VersionDTO findCollectionVersion();
+
+    /** Obtiene una categoría bloqueando su fila hasta el fin de la transacción (fin de la purga: no se le pueden agregar
+     * productos mientras se comprueba que no le quedan).
+     * @param id ID de la categoría
+     * @return la categoría, si existe */
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from CategoryModel c where c.id = :id")
+    Optional<CategoryModel> findByIdForUpdate(Long id);
 }
@@ -1,9 +1,14 @@
 package com.api.java.repositories;
 
+import com.api.java.dto.CompactDetailOrdersDTO;
 import com.api.java.models.DetailOrderModel;
+import com.api.java.models.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /** Repositorio JPA para la entidad DetailOrderModel.
@@ -18,4 +23,102 @@ public interface IDetailOrderRepository extends JpaRepository<DetailOrderModel,
      * @return lista de detalles de orden asociados al usuario especificado */
 
     List<DetailOrderModel> findByUserOrder_Id(Long userOrderId);
+
+    /** Obtiene todos los detalles de orden como líneas compactas (producto solo por ID), sin cargar entidades ni productos.
+     * @return líneas en orden de ID */
+
+    @Query("select new com.api.java.dto.CompactDetailOrdersDTO$Line(d.id, d.userOrder.id, d.productOrder.id, d.amount, d.status, d.nameProductSnapshot, d.priceUnitSnapshot) " +
+            "from DetailOrderModel d order by d.id")
+    List<CompactDetailOrdersDTO.Line> findCompactLines();
+
+    /** Obtiene los detalles de orden de un usuario como líneas compactas (producto solo por ID).
+     * @param userOrderId ID del usuario
+     * @return líneas en orden de ID */
+
+    @Query("select new com.api.java.dto.CompactDetailOrdersDTO$Line(d.id, d.userOrder.id, d.productOrder.id, d.amount, d.status, d.nameProductSnapshot, d.priceUnitSnapshot) " +
+            "from DetailOrderModel d where d.userOrder.id = :userOrderId order by d.id")
+    List<CompactDetailOrdersDTO.Line> findCompactLinesByUserId(Long userOrderId);
+
+    /** Suma las unidades vendidas (órdenes no canceladas) agrupadas por producto.
+     * Se usa una única vez al iniciar para rankear el autocompletado por popularidad.
+     * @return filas con id de producto y unidades vendidas */
+
+    @Query("select d.productOrder.id, sum(d.amount) from DetailOrderModel d where d.status is null or d.status <> com.api.java.models.OrderStatus.CANCELLED group by d.productOrder.id")
+    List<Object[]> sumUnitsSoldByProduct();
+
+    /** Obtiene el menor ID de detalle de orden (0 si la tabla está vacía). */
+
+    @Query("select coalesce(min(d.id), 0) from DetailOrderModel d")
+    Long findMinId();
+
+    /** Obtiene el mayor ID de detalle de orden (0 si la tabla está vacía). */
+
+    @Query("select coalesce(max(d.id), 0) from DetailOrderModel d")
+    Long findMaxId();
+
+    /** Agrega las ventas de un rango de IDs por producto, categoría y país congelados en el detalle, y estado.
+     * Se usa para recalcular los resúmenes de ventas en bloques independientes.
+     * @param fromId ID inicial (inclusive)
+     * @param toId   ID final (inclusive)
+     * @return filas con productId, categoryId, país, estado, unidades e ingresos en centavos */
+
+    @Query("select p.id, d.categoryIdSnapshot, d.countrySnapshot, d.status, sum(d.amount), sum(d.amount * d.priceUnitSnapshot * 100) " +
+            "from DetailOrderModel d left join d.productOrder p " +
+            "where d.id between :fromId and :toId group by p.id, d.categoryIdSnapshot, d.countrySnapshot, d.status")
+    List<Object[]> aggregateSalesBetween(Long fromId, Long toId);
+
+    /** Agrega las ventas de una sola fila de resumen: las de un estado (sin estado cuenta como PENDING) filtradas por
+     * producto, categoría o país (los filtros nulos no se aplican). Se usa para corregir una fila bajo su bloqueo.
+     * @return una fila con unidades e ingresos en centavos */
+
+    @Query("select coalesce(sum(d.amount), 0), coalesce(sum(d.amount * d.priceUnitSnapshot * 100), 0) " +
+            "from DetailOrderModel d left join d.productOrder p " +
+            "where coalesce(d.status, com.api.java.models.OrderStatus.PENDING) = :status " +
+            "and (:productId is null or p.id = :productId) and (:categoryId is null or d.categoryIdSnapshot = :categoryId) " +
+            "and (:country is null or d.countrySnapshot = :country)")
+    List<Object[]> aggregateSalesFor(OrderStatus status, Long productId, Long categoryId, String country);
+
+    /** Obtiene detalles de orden como proyección (purga por bloques): id, productId, categoryId y país congelados, estado,
+     * cantidad, precio unitario y momento del pago.
+     * @param ids IDs de los detalles
+     * @return filas en orden de ID */
+
+    @Query("select d.id, p.id, d.categoryIdSnapshot, d.countrySnapshot, d.status, d.amount, d.priceUnitSnapshot, d.paidAt " +
+            "from DetailOrderModel d join d.productOrder p where d.id in :ids order by d.id")
+    List<Object[]> findSalesRowsByIds(Collection<Long> ids);
+
+    /** Obtiene un bloque de IDs de detalles de un usuario, en orden ascendente, bloqueando sus filas hasta el fin de la
+     * transacción (purga por bloques): una baja o modificación concurrente no puede restar el mismo aporte dos veces.
+     * @param userId ID del usuario
+     * @param limit  tamaño máximo del bloque
+     * @return IDs de detalles */
+
+    @Query(value = "select id from detail_order where user_id = :userId order by id limit :limit for update", nativeQuery = true)
+    List<Long> lockIdsByUserId(Long userId, int limit);
+
+    /** Elimina detalles de orden por ID con una única sentencia.
+     * @param ids IDs de los detalles
+     * @return cantidad de filas eliminadas */
+
+    @Modifying
+    @Query("delete from DetailOrderModel d where d.id in :ids")
+    int deleteByIds(Collection<Long> ids);
+
+    /** Cuenta los detalles de orden de un usuario.
+     * @param userId ID del usuario
+     * @return cantidad de detalles */
+
+    long countByUserOrder_Id(Long userId);
+
+    /** Indica si algún producto de una categoría tiene detalles de orden asociados.
+     * @param categoryId ID de la categoría
+     * @return true si existen órdenes que referencian productos de la categoría */
+
+    boolean existsByProductOrder_CategoryProduct_Id(Long categoryId);
+
+    /** Indica si alguno de los productos tiene detalles de orden asociados.
+     * @param productIds IDs de los productos
+     * @return true si existen órdenes que los referencian */
+
+    boolean existsByProductOrder_IdIn(Collection<Long> productIds);
 }
@@ -0,0 +1,43 @@
+package com.api.java.repositories;
+import com.api.java.models.InvalidationLogModel;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/** Repositorio del log de invalidación entre instancias ({@link InvalidationLogModel}). */
+
+@Repository
+public interface IInvalidationLogRepository extends JpaRepository<InvalidationLogModel, Long> {
+
+    /** Registros posteriores a una marca de agua, en orden (recorre la clave primaria).
+     * @param id    marca de agua
+     * @param limit cantidad máxima de registros
+     * @return registros con ID mayor al indicado */
+
+    List<InvalidationLogModel> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /** Registros de IDs puntuales (huecos de la marca de agua que pueden confirmarse tarde).
+     * @param ids IDs buscados
+     * @return registros encontrados */
+
+    List<InvalidationLogModel> findByIdIn(Collection<Long> ids);
+
+    /** @return ID del último registro, o 0 si el log está vacío */
+
+    @Query("select coalesce(max(l.id), 0L) from InvalidationLogModel l")
+    long findMaxId();
+
+    /** Elimina los registros anteriores a una fecha.
+     * @param before fecha límite
+     * @return registros eliminados */
+
+    @Modifying
+    @Query("delete from InvalidationLogModel l where l.createdAt < :before")
+    int deleteOlderThan(Instant before);
+}
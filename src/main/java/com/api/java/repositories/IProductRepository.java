@@ -1,9 +1,15 @@
 package com.api.java.repositories;
+import com.api.java.dto.VersionDTO;
 import com.api.java.models.ProductModel;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /** Repositorio JPA para la entidad ProductModel.
  * Extiende JpaRepository para proporcionar operaciones CRUD estándar, además de consultas personalizadas definidas por nombre de metodo. */
@@ -21,4 +27,79 @@ public interface IProductRepository extends JpaRepository<ProductModel, Long> {
      * @return lista de productos pertenecientes a esa categoría */
 
     List<ProductModel> findByCategoryProduct_Id(Long categoryId);
+
+    /** Obtiene solo la versión y la fecha de modificación de un producto, sin cargar la entidad.
+     * @param id ID del producto
+     * @return versión del producto, vacío si no existe */
+
+    @Query("select new com.api.java.dto.VersionDTO(p.version, p.updatedAt) from ProductModel p where p.id = :id")
+    Optional<VersionDTO> findVersionById(Long id);
+
+    /** Calcula la versión agregada de todo el catálogo de productos en una única consulta.
+     * @return cantidad, suma de versiones y última modificación */
+
+    @Query("select new com.api.java.dto.VersionDTO(count(p), coalesce(sum(p.version), 0L), max(p.updatedAt)) from ProductModel p")
+    VersionDTO findCollectionVersion();
+
+    /** Obtiene las columnas mínimas del catálogo para construir el snapshot en memoria, sin instanciar entidades.
+     * @return filas con id, id de categoría, precio, stock, flag activo y versión */
+
+    @Query("select p.id, p.categoryProduct.id, p.priceProduct, p.stockProduct, p.activo, p.version from ProductModel p")
+    List<Object[]> findCatalogRows();
+
+    /** Obtiene las columnas del snapshot del catálogo de algunos productos (escritos en otra instancia).
+     * @param ids IDs de los productos
+     * @return filas con id, id de categoría, precio, stock, flag activo y versión de los productos que existen */
+
+    @Query("select p.id, p.categoryProduct.id, p.priceProduct, p.stockProduct, p.activo, p.version from ProductModel p where p.id in :ids")
+    List<Object[]> findCatalogRowsByIds(Collection<Long> ids);
+
+    /** Obtiene todos los productos, sin instanciar entidades, para escribir el snapshot del catálogo en disco.
+     * @return filas con id, id de categoría, nombre, descripción, precio, stock, activo, versión y fecha de modificación, ordenadas por ID */
+
+    @Query("select p.id, p.categoryProduct.id, p.nameProduct, p.descriptionProduct, p.priceProduct, p.stockProduct, p.activo, p.version, p.updatedAt from ProductModel p order by p.id")
+    List<Object[]> findSnapshotRows();
+
+    /** Obtiene ID y nombre de los productos activos para construir el índice de autocompletado.
+     * @return filas con id y nombre */
+
+    @Query("select p.id, p.nameProduct from ProductModel p where p.activo = true")
+    List<Object[]> findActiveNames();
+
+    /** Obtiene ID, nombre y flag activo de algunos productos para actualizar el índice de autocompletado.
+     * @param ids IDs de los productos
+     * @return filas con id, nombre y activo de los productos que existen */
+
+    @Query("select p.id, p.nameProduct, p.activo from ProductModel p where p.id in :ids")
+    List<Object[]> findNamesByIds(Collection<Long> ids);
+
+    /** Obtiene los IDs de los productos de una categoría sin cargar las entidades.
+     * @param categoryId ID de la categoría
+     * @return IDs de productos de la categoría */
+
+    @Query("select p.id from ProductModel p where p.categoryProduct.id = :categoryId")
+    List<Long> findIdsByCategoryId(Long categoryId);
+
+    /** Obtiene un bloque de IDs de productos de una categoría, en orden ascendente, bloqueando sus filas hasta el fin de la
+     * transacción (purga por bloques): una orden nueva sobre esos productos espera o ya está confirmada y se detecta.
+     * @param categoryId ID de la categoría
+     * @param limit      tamaño máximo del bloque
+     * @return IDs de productos */
+
+    @Query(value = "select id from product where category_id = :categoryId order by id limit :limit for update", nativeQuery = true)
+    List<Long> lockIdsByCategoryId(Long categoryId, int limit);
+
+    /** Obtiene un producto bloqueando su fila hasta el fin de la transacción, para validar stock y reservas sin carreras.
+     * @param id ID del producto
+     * @return el producto, si existe */
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from ProductModel p where p.id = :id")
+    Optional<ProductModel> findByIdForUpdate(Long id);
+
+    /** Cuenta los productos de una categoría.
+     * @param categoryId ID de la categoría
+     * @return cantidad de productos */
+
+    long countByCategoryProduct_Id(Long categoryId);
 }
@@ -0,0 +1,62 @@
+package com.api.java.repositories;
+import com.api.java.models.PurgeJobModel;
+import com.api.java.models.PurgeStatus;
+import com.api.java.models.PurgeTarget;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/** Repositorio de acceso a datos para las tareas de purga en segundo plano ({@link PurgeJobModel}). */
+
+@Repository
+public interface IPurgeJobRepository extends JpaRepository<PurgeJobModel, Long> {
+
+    /** Tareas en alguno de los estados indicados, en orden de registro.
+     * @param statuses estados buscados
+     * @return tareas encontradas */
+
+    List<PurgeJobModel> findByStatusInOrderByIdAsc(Collection<PurgeStatus> statuses);
+
+    /** Tarea activa (o en cualquiera de los estados indicados) para una entidad padre.
+     * @param target   tipo de entidad
+     * @param targetId ID de la entidad
+     * @param statuses estados buscados
+     * @return la tarea más antigua que coincide, si existe */
+
+    Optional<PurgeJobModel> findFirstByTargetAndTargetIdAndStatusInOrderByIdAsc(PurgeTarget target, Long targetId, Collection<PurgeStatus> statuses);
+
+    /** Tareas registradas, de la más reciente a la más antigua.
+     * @return todas las tareas */
+
+    List<PurgeJobModel> findAllByOrderByIdDesc();
+
+    /** Reclama una tarea activa para una instancia, de forma atómica: solo si no tiene dueño, ya es suya o venció el plazo
+     * de su dueño (instancia caída).
+     * @param id         ID de la tarea
+     * @param owner      instancia que la reclama
+     * @param now        momento actual
+     * @param leaseUntil vencimiento del reclamo
+     * @return 1 si la tarea quedó reclamada, 0 si la procesa otra instancia o ya no está activa */
+
+    @Modifying
+    @Query("update PurgeJobModel j set j.status = com.api.java.models.PurgeStatus.RUNNING, j.owner = :owner, j.leaseUntil = :leaseUntil " +
+            "where j.id = :id and j.status in (com.api.java.models.PurgeStatus.PENDING, com.api.java.models.PurgeStatus.RUNNING) " +
+            "and (j.owner is null or j.owner = :owner or j.leaseUntil < :now)")
+    int claim(Long id, String owner, Instant now, Instant leaseUntil);
+
+    /** Obtiene una tarea bloqueando su fila hasta el fin de la transacción (un bloque de la purga por vez).
+     * @param id ID de la tarea
+     * @return la tarea, si existe */
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from PurgeJobModel j where j.id = :id")
+    Optional<PurgeJobModel> findByIdForUpdate(Long id);
+}
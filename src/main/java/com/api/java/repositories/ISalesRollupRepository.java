@@ -0,0 +1,58 @@
+package com.api.java.repositories;
+
+import com.api.java.models.OrderStatus;
+import com.api.java.models.RollupDimension;
+import com.api.java.models.SalesRollupModel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/** Repositorio JPA para las tablas de resumen de ventas {@link SalesRollupModel}. */
+@Repository
+public interface ISalesRollupRepository extends JpaRepository<SalesRollupModel, Long> {
+
+    /** Suma unidades e ingresos a una fila del resumen, creándola si todavía no existe, en una sola sentencia atómica
+     * sobre la clave única (dos primeras ventas concurrentes de la misma combinación no chocan). Bloquea la fila hasta el
+     * fin de la transacción.
+     * @param dimension    nombre de la dimensión ({@link RollupDimension})
+     * @param dimensionKey valor de la dimensión
+     * @param status       nombre del estado de orden ({@link OrderStatus})
+     * @param units        unidades a sumar
+     * @param revenue      ingresos a sumar
+     * @return filas afectadas */
+
+    @Modifying
+    @Query(value = "insert into sales_rollup (dimension, dimension_key, status, units, revenue) values (:dimension, :dimensionKey, :status, :units, :revenue) " +
+            "on duplicate key update units = units + :units, revenue = revenue + :revenue", nativeQuery = true)
+    int upsert(String dimension, String dimensionKey, String status, long units, BigDecimal revenue);
+
+    /** Obtiene unidades e ingresos de una fila del resumen, sin cargar la entidad.
+     * @return filas con unidades e ingresos (vacía si la fila no existe) */
+
+    @Query("select r.units, r.revenue from SalesRollupModel r where r.dimension = :dimension and r.dimensionKey = :dimensionKey and r.status = :status")
+    List<Object[]> findTotals(RollupDimension dimension, String dimensionKey, OrderStatus status);
+
+    /** Elimina una fila del resumen.
+     * @return filas eliminadas */
+
+    @Modifying
+    @Query("delete from SalesRollupModel r where r.dimension = :dimension and r.dimensionKey = :dimensionKey and r.status = :status")
+    int deleteByKey(RollupDimension dimension, String dimensionKey, OrderStatus status);
+
+    /** Obtiene todas las filas de una dimensión.
+     * @param dimension dimensión a consultar
+     * @return filas del resumen */
+
+    List<SalesRollupModel> findByDimension(RollupDimension dimension);
+
+    /** Obtiene las filas de una dimensión para un estado de orden.
+     * @param dimension dimensión a consultar
+     * @param status    estado de orden
+     * @return filas del resumen */
+
+    List<SalesRollupModel> findByDimensionAndStatus(RollupDimension dimension, OrderStatus status);
+}
@@ -0,0 +1,77 @@
+package com.api.java.repositories;
+import com.api.java.models.StockReservationModel;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/** Repositorio de las reservas temporales de stock ({@link StockReservationModel}). */
+
+@Repository
+public interface IStockReservationRepository extends JpaRepository<StockReservationModel, Long> {
+
+    /** Obtiene una reserva bloqueando su fila hasta el fin de la transacción (confirmación y liberación concurrentes).
+     * @param id ID de la reserva
+     * @return la reserva, si existe */
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from StockReservationModel r where r.id = :id")
+    Optional<StockReservationModel> findByIdForUpdate(Long id);
+
+    /** Suma las unidades retenidas por las reservas vigentes de un producto (recorre el índice por producto y estado).
+     * @param productId ID del producto
+     * @param now       momento actual: las reservas vencidas no retienen stock aunque sigan ACTIVE
+     * @return unidades retenidas */
+
+    @Query("select coalesce(sum(r.amount), 0L) from StockReservationModel r where r.product.id = :productId " +
+            "and r.status = com.api.java.models.ReservationStatus.ACTIVE and r.expiresAt > :now")
+    long sumHeldByProductId(Long productId, Instant now);
+
+    /** Obtiene ID y vencimiento de las reservas vigentes, para cargarlas en memoria al arrancar.
+     * @param now momento actual
+     * @return filas con id y vencimiento */
+
+    @Query("select r.id, r.expiresAt from StockReservationModel r where r.status = com.api.java.models.ReservationStatus.ACTIVE and r.expiresAt > :now")
+    List<Object[]> findLive(Instant now);
+
+    /** Marca como vencidas las reservas indicadas que sigan activas.
+     * @param ids IDs de las reservas vencidas
+     * @return cantidad de reservas actualizadas */
+
+    @Modifying
+    @Query("update StockReservationModel r set r.status = com.api.java.models.ReservationStatus.EXPIRED " +
+            "where r.id in :ids and r.status = com.api.java.models.ReservationStatus.ACTIVE")
+    int expireByIds(Collection<Long> ids);
+
+    /** Marca como vencidas las reservas activas cuyo vencimiento ya pasó (por ejemplo, mientras la aplicación estaba detenida).
+     * @param now momento actual
+     * @return cantidad de reservas actualizadas */
+
+    @Modifying
+    @Query("update StockReservationModel r set r.status = com.api.java.models.ReservationStatus.EXPIRED " +
+            "where r.status = com.api.java.models.ReservationStatus.ACTIVE and r.expiresAt <= :now")
+    int expireOverdue(Instant now);
+
+    /** Elimina las reservas de los productos indicados (cualquiera sea su estado), antes de purgarlos.
+     * @param productIds IDs de los productos
+     * @return cantidad de reservas eliminadas */
+
+    @Modifying
+    @Query("delete from StockReservationModel r where r.product.id in :productIds")
+    int deleteByProductIds(Collection<Long> productIds);
+
+    /** Elimina las reservas de un usuario (cualquiera sea su estado), antes de eliminarlo.
+     * @param userId ID del usuario
+     * @return cantidad de reservas eliminadas */
+
+    @Modifying
+    @Query("delete from StockReservationModel r where r.user.id = :userId")
+    int deleteByUserId(Long userId);
+}
@@ -1,8 +1,15 @@
 package com.api.java.repositories;
 
 import com.api.java.models.UserModel;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /** Repositorio JPA para operaciones con la entidad UserModel.
@@ -22,4 +29,46 @@ public interface IUserRepository extends JpaRepository<UserModel, Long> {
      * @return un Optional con el usuario, si existe*/
 
     Optional<UserModel> findByUsername(String username);
+
+    /** Obtiene solo el país de un usuario, sin cargar la entidad ni sus roles.
+     * @param id ID del usuario
+     * @return un Optional con el país, si el usuario existe*/
+
+    @Query("select u.country from UserModel u where u.id = :id")
+    Optional<String> findCountryById(Long id);
+
+    /** Obtiene los usuarios que no están marcados para eliminación.
+     * @return usuarios visibles */
+
+    List<UserModel> findByDeletingFalse();
+
+    /** Obtiene los usuarios visibles de un lote de IDs, con sus roles en la misma consulta.
+     * @param ids IDs de usuario
+     * @return usuarios encontrados (en cualquier orden) */
+
+    @EntityGraph(attributePaths = "role")
+    List<UserModel> findByIdInAndDeletingFalse(Collection<Long> ids);
+
+    /** Obtiene los roles de todos los usuarios visibles, sin cargar las entidades.
+     * @return pares ID de usuario, nombre del rol */
+
+    @Query("select u.id, r.name from UserModel u join u.role r where u.deleting = false")
+    List<Object[]> findRoleNamesOfVisibleUsers();
+
+    /** Elimina las asignaciones de roles de un usuario con una única sentencia (tabla intermedia user_roles).
+     * @param userId ID del usuario
+     * @return filas eliminadas */
+
+    @Modifying
+    @Query(value = "delete from user_roles where user_id = :userId", nativeQuery = true)
+    int deleteRolesByUserId(Long userId);
+
+    /** Obtiene un usuario bloqueando su fila hasta el fin de la transacción (fin de la purga: no se le pueden agregar
+     * órdenes mientras se comprueba que no le quedan).
+     * @param id ID del usuario
+     * @return el usuario, si existe */
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from UserModel u where u.id = :id")
+    Optional<UserModel> findByIdForUpdate(Long id);
 }
@@ -0,0 +1,96 @@
+package com.api.java.repositories;
+import com.api.java.dto.SparseListDTO;
+import com.api.java.globalException.InvalidRequestException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Consultas de listados con un subconjunto de columnas (parámetro ?fields=).
+ * Cada listado declara sus campos seleccionables como nombre del DTO -> expresión JPQL; la consulta se arma
+ * seleccionando solo las expresiones de los campos pedidos (consulta de tuplas), así la base de datos no lee
+ * ni envía las columnas restantes y no se crean entidades ni DTOs completos. Los nombres de campo se validan
+ * contra esa lista blanca, por lo que el texto del request nunca llega a la consulta. */
+
+@Repository
+public class SparseFieldQuery {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Campos seleccionables de un listado.
+     * El orden de declaración es el orden del DTO y el de la salida. Un campo "padre.hijo" se puede pedir
+     * individualmente o en bloque por su prefijo ("productOrder" incluye todos los "productOrder.*"). */
+
+    public static final class Fields {
+        private final String from;                  // Entidad y alias de la consulta ("ProductModel p")
+        private final String where;                 // Condición fija del listado (puede ser null)
+        private final Map<String, String> paths;    // Campo del DTO -> expresión JPQL
+
+        /** @param from          entidad y alias de la consulta
+         * @param where         condición fija del listado (null si no tiene)
+         * @param fieldsAndPaths pares nombre de campo, expresión JPQL */
+
+        public Fields(String from, String where, String... fieldsAndPaths) {
+            this.from = from;
+            this.where = where;
+            this.paths = new LinkedHashMap<>();
+            for (int i = 0; i < fieldsAndPaths.length; i += 2) paths.put(fieldsAndPaths[i], fieldsAndPaths[i + 1]);
+        }
+
+        /** Interpreta el parámetro ?fields= y devuelve los campos pedidos, sin repetir y en el orden del DTO.
+         * @param fields nombres separados por coma
+         * @return campos a consultar
+         * @throws InvalidRequestException 400 si algún campo no existe o no se pidió ninguno */
+
+        public List<String> parse(String fields) {
+            Set<String> requested = new LinkedHashSet<>();
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (name.isEmpty()) continue;
+                boolean found = paths.containsKey(name);
+                for (String path : paths.keySet()) {
+                    if (path.startsWith(name + ".")) {  // Prefijo de un objeto anidado: se incluyen todos sus campos
+                        requested.add(path);
+                        found = true;
+                    }
+                }
+                if (!found) {
+                    throw new InvalidRequestException("Campo desconocido '" + name + "'. Campos disponibles: " + String.join(", ", paths.keySet()));
+                }
+                if (paths.containsKey(name)) requested.add(name);
+            }
+            if (requested.isEmpty()) throw new InvalidRequestException("Debe indicar al menos un campo en 'fields'");
+            List<String> ordered = new ArrayList<>(requested.size());
+            for (String path : paths.keySet()) if (requested.contains(path)) ordered.add(path);
+            return ordered;
+        }
+    }
+
+    /** Ejecuta el listado seleccionando solo las columnas de los campos indicados, ordenado por ID.
+     * @param definition campos seleccionables del listado
+     * @param fields     campos ya validados con {@link Fields#parse(String)}
+     * @return filas con un valor por campo, en el mismo orden */
+
+    public SparseListDTO list(Fields definition, List<String> fields) {
+        StringBuilder jpql = new StringBuilder("select ");
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) jpql.append(", ");
+            jpql.append(definition.paths.get(fields.get(i)));
+        }
+        jpql.append(" from ").append(definition.from);
+        if (definition.where != null) jpql.append(" where ").append(definition.where);
+        jpql.append(" order by ").append(definition.from.substring(definition.from.lastIndexOf(' ') + 1)).append(".id");
+
+        List<Tuple> tuples = entityManager.createQuery(jpql.toString(), Tuple.class).getResultList();
+        List<Object[]> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) rows.add(tuple.toArray());
+        return new SparseListDTO(fields, rows);
+    }
+}
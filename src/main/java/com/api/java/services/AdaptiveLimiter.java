@@ -0,0 +1,137 @@
+package com.api.java.services;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Límite de concurrencia adaptativo por gradiente de latencia (estilo Gradient2/Vegas).
+ * Compara la latencia reciente (promedio de una ventana corta) con una latencia de referencia de largo plazo (media móvil lenta):
+ * si la reciente crece, el límite se reduce en proporción (como mucho a la mitad por ventana); si se mantiene, el límite
+ * crece con una cola de holgura de raíz cuadrada del límite. Así, cuando la base de datos se pone lenta, el límite baja
+ * antes de que las requests se acumulen en Tomcat, y vuelve a subir cuando la latencia se recupera.
+ * Solo se ajusta con carga real: si hubo menos de la mitad del límite en uso, la ventana no lo aumenta. */
+
+public final class AdaptiveLimiter {
+    private static final double TOLERANCE = 1.5;        // Aumento de latencia tolerado antes de reducir el límite
+    private static final double SMOOTHING = 0.2;        // Peso del nuevo límite calculado frente al actual
+    private static final double LONG_RTT_WEIGHT = 0.01; // Peso de cada ventana en la latencia de referencia (~100 ventanas)
+    private static final long WINDOW_MIN_NANOS = 100_000_000L;     // Duración mínima de una ventana (100 ms)
+    private static final long WINDOW_MAX_NANOS = 1_000_000_000L;   // Se cierra la ventana aunque tenga pocas muestras (1 s)
+    private static final int WINDOW_MIN_SAMPLES = 5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;          // Límite estimado (se admite mientras inflight < limit)
+    private volatile double longRttNanos;   // Latencia de referencia (0 hasta la primera ventana)
+    private volatile double shortRttNanos;  // Latencia promedio de la última ventana
+
+    // Ventana de muestras en curso (protegida por this)
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInflight;
+
+    /** @param initialLimit límite inicial
+     * @param minLimit     límite mínimo (nunca se rechaza por debajo de este nivel de concurrencia)
+     * @param maxLimit     límite máximo */
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) throw new IllegalArgumentException("Límites inválidos: min=" + minLimit + ", max=" + maxLimit);
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /** Intenta ocupar un lugar sin esperar.
+     * @return true si la request puede ejecutarse; en ese caso debe llamarse a {@link #release(long)} al terminar */
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /** Libera el lugar ocupado y registra la latencia de la request.
+     * @param rttNanos duración de la request en nanosegundos */
+
+    public void release(long rttNanos) {
+        int inflightAtEnd = inflight.getAndDecrement();
+        synchronized (this) {
+            windowRttSum += rttNanos;
+            windowSamples++;
+            windowMaxInflight = Math.max(windowMaxInflight, inflightAtEnd);
+            long now = System.nanoTime();
+            long elapsed = now - windowStart;
+            if (elapsed >= WINDOW_MAX_NANOS || (elapsed >= WINDOW_MIN_NANOS && windowSamples >= WINDOW_MIN_SAMPLES)) {
+                update((double) windowRttSum / windowSamples, windowMaxInflight);
+                windowStart = now;
+                windowRttSum = 0;
+                windowSamples = 0;
+                windowMaxInflight = 0;
+            }
+        }
+    }
+
+    /** @return límite actual */
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /** @return requests en curso */
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /** @return requests admitidas desde el arranque */
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    /** @return requests rechazadas desde el arranque */
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /** @return latencia de referencia en milisegundos */
+
+    public double getLongRttMs() {
+        return longRttNanos / 1_000_000.0;
+    }
+
+    /** @return latencia promedio de la última ventana en milisegundos */
+
+    public double getShortRttMs() {
+        return shortRttNanos / 1_000_000.0;
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** Recalcula el límite al cerrar una ventana. Se llama con el monitor tomado. */
+
+    private void update(double shortRtt, int maxInflight) {
+        shortRttNanos = shortRtt;
+        double longRtt = longRttNanos == 0 ? shortRtt : longRttNanos * (1 - LONG_RTT_WEIGHT) + shortRtt * LONG_RTT_WEIGHT;
+        if (longRtt / shortRtt > 2) longRtt *= 0.95;     // Tras un pico largo, la referencia baja rápido para volver a crecer
+        longRttNanos = longRtt;
+
+        double current = limit;
+        if (maxInflight < current / 2) return;          // Sin carga suficiente la latencia no dice nada del límite
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
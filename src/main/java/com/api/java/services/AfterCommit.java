@@ -0,0 +1,28 @@
+package com.api.java.services;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Utilidad para aplicar efectos en memoria (snapshots, índices, contadores) solo cuando la transacción confirma,
+ * evitando que un rollback deje estructuras en memoria desalineadas con la base de datos. */
+
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /** Ejecuta la acción tras el commit de la transacción actual, o inmediatamente si no hay transacción activa.
+     * @param action acción a ejecutar */
+
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -3,10 +3,13 @@ import com.api.java.dto.AuthResponse;
 import com.api.java.dto.LoginRequest;
 import com.api.java.dto.RegisterRequest;
 import com.api.java.models.ERole;
+import com.api.java.models.InvalidationTarget;
 import com.api.java.models.RoleModel;
 import com.api.java.models.UserModel;
 import com.api.java.repositories.IRoleRepository;
 import com.api.java.repositories.IUserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -27,11 +30,13 @@ public class AuthService {
     private final IRoleRepository roleRepository;       // Repositorio para acceder a roles (como ROLE_USER, ROLE_ADMIN, etc.)
     private final PasswordEncoder passwordEncoder;      // Bean que codifica contraseñas de forma segura usando BCrypt
     private final AuthenticationManager authenticationManager;      // Bean que gestiona la autenticación por username y contraseña
+    private final InvalidationLogService invalidationLog;       // Avisa el alta a las demás instancias
 
     /** Autentica al usuario con sus credenciales y genera un token JWT si son válidas.
      * @param request objeto con username y contraseña enviados por el cliente
      * @return objeto AuthResponse con el token JWT generado */
 
+    @Timed(value = "app.service", histogram = true)
     public AuthResponse login(LoginRequest request) {
         authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));      // Realiza autenticación con username y password usando el AuthenticationManager
 
@@ -49,6 +54,8 @@ public class AuthService {
      * @param request objeto con los datos personales del nuevo usuario
      * @return objeto AuthResponse con el token JWT generado */
 
+    @Timed(value = "app.service", histogram = true)
+    @Transactional
     public AuthResponse register(RegisterRequest request) {
         RoleModel userRole = roleRepository.findByName(ERole.USER)      // Busca el rol USER en la base de datos
                 .orElseThrow(() -> new RuntimeException("Rol USER no encontrado"));
@@ -66,6 +73,7 @@ public class AuthService {
                 .role(roles)         // Asigna el rol USER
                 .build();
         userRepository.save(user);      // Persiste el usuario en la base de datos
+        invalidationLog.append(InvalidationTarget.USER, user.getId());      // Lo avisa a las demás instancias en la misma transacción
 
         return AuthResponse.builder()       // Genera el token JWT para el nuevo usuario
                 .token(jwtService.getToken(user))
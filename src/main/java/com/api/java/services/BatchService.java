@@ -0,0 +1,229 @@
+package com.api.java.services;
+import com.api.java.dto.BatchRequestDTO;
+import com.api.java.dto.BatchResponseDTO;
+import com.api.java.globalException.ErrorResponse;
+import com.api.java.globalException.InvalidRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/** Servicio que ejecuta los lotes de /batch.
+ * Cada sub-request se despacha dentro del proceso, en un pool de hilos de plataforma propio del lote, a través de la cadena de filtros de seguridad
+ * y del DispatcherServlet, por lo que pasa por las mismas reglas de autorización, validaciones y manejo de errores que una
+ * request normal. La autenticación se hace una sola vez (el JWT del lote): cada sub-request recibe el SecurityContext ya
+ * autenticado como atributo, que es de donde lo lee la configuración sin estado, y no vuelve a validar el token.
+ * Las sub-requests sin dependencias se ejecutan en paralelo, acotadas por un máximo de concurrencia por lote (el tamaño
+ * del pool); las que declaran dependsOn esperan a que sus dependencias terminen bien. Los hilos son de plataforma y no
+ * virtuales para que {@link ResourceUsage} mida la CPU y las asignaciones de cada sub-request y las sume al lote. El pool
+ * atiende en orden de envío y una sub-request solo depende de anteriores, así que cuando una espera, su dependencia ya
+ * tomó un hilo: la espera no puede bloquear al lote. Al vencer el plazo del lote las pendientes se
+ * interrumpen y se informan con 504 sin esperar a que terminen; su resultado tardío se descarta. */
+
+@Slf4j
+@Service
+public class BatchService {
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "PATCH", "DELETE");   // Métodos admitidos
+    private static final Set<String> FORWARDED_HEADERS = Set.of("if-none-match", "if-modified-since", "accept-language");   // Encabezados aceptados del cliente
+    private static final List<String> RETURNED_HEADERS = List.of(HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED, HttpHeaders.LOCATION, HttpHeaders.RETRY_AFTER);
+
+    private final DispatcherServlet dispatcherServlet;  // Despacho a los controladores existentes
+    private final Filter securityFilterChain;           // Cadena de Spring Security (autorización por ruta, manejo de 401/403)
+    private final ObjectMapper objectMapper;            // Cuerpos JSON de las sub-requests
+    private final RequestAttributeSecurityContextRepository contextRepository = new RequestAttributeSecurityContextRepository();
+    private final int maxRequests;      // Sub-requests máximas por lote
+    private final int maxConcurrency;   // Hilos del pool de un lote: sub-requests simultáneas (acota las conexiones a la base de datos)
+    private final long timeoutMs;       // Tiempo máximo de un lote
+
+    public BatchService(DispatcherServlet dispatcherServlet, @Qualifier("springSecurityFilterChain") Filter securityFilterChain,
+                        ObjectMapper objectMapper,
+                        @Value("${app.batch.max-requests:30}") int maxRequests,
+                        @Value("${app.batch.max-concurrency:8}") int maxConcurrency,
+                        @Value("${app.batch.timeout-ms:10000}") long timeoutMs) {
+        this.dispatcherServlet = dispatcherServlet;
+        this.securityFilterChain = securityFilterChain;
+        this.objectMapper = objectMapper;
+        this.maxRequests = maxRequests;
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /** Ejecuta un lote y devuelve un resultado por sub-request, en el mismo orden.
+     * Las sub-requests que no terminan a tiempo se interrumpen y se informan con 504.
+     * @param requests sub-requests del lote
+     * @param context  contexto de seguridad ya autenticado del lote
+     * @param batch    request del lote
+     * @param response respuesta del lote (no se escribe en ella)
+     * @return resultados de las sub-requests
+     * @throws InvalidRequestException 400 si el lote no es válido */
+
+    public List<BatchResponseDTO> execute(List<BatchRequestDTO> requests, SecurityContext context,
+                                          HttpServletRequest batch, HttpServletResponse response) {
+        validate(requests);
+        Map<String, CompletableFuture<BatchResponseDTO>> results = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxConcurrency, requests.size()),
+                Thread.ofPlatform().name("batch-", 0).daemon().factory());      // Hilos de plataforma: ResourceUsage mide su CPU
+        boolean finished = false;
+        try {
+            for (BatchRequestDTO request : requests) {
+                List<CompletableFuture<BatchResponseDTO>> dependencies = new ArrayList<>();
+                if (request.getDependsOn() != null) request.getDependsOn().forEach(id -> dependencies.add(results.get(id)));
+                CompletableFuture<BatchResponseDTO> result = new CompletableFuture<>();
+                results.put(request.getId(), result);
+                executor.submit(ResourceUsage.wrap(() -> result.complete(run(request, dependencies, context, batch, response))));
+            }
+            CompletableFuture.allOf(results.values().toArray(CompletableFuture[]::new)).get(timeoutMs, TimeUnit.MILLISECONDS);
+            finished = true;
+        } catch (TimeoutException e) {
+            log.warn("Lote de {} sub-requests superó {} ms; se interrumpen las pendientes", requests.size(), timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());  // run() no lanza excepciones: siempre completa con un resultado
+        } finally {
+            if (finished) executor.close();     // Todas completaron su resultado: solo resta que los hilos terminen
+            else executor.shutdownNow();        // Se interrumpen las pendientes sin esperarlas: el lote responde en el plazo
+        }
+
+        List<BatchResponseDTO> responses = new ArrayList<>(results.size());
+        results.forEach((id, result) -> responses.add(result.isDone() ? result.join()
+                : error(id, HttpStatus.GATEWAY_TIMEOUT, "La sub-request no terminó dentro del tiempo del lote")));
+        return responses;
+    }
+
+    // ========================================================
+    // MÉTODOS AUXILIARES PRIVADOS
+    // ========================================================
+
+    /** Valida tamaño del lote, IDs, métodos, rutas y dependencias (solo hacia sub-requests anteriores, sin ciclos). */
+
+    private void validate(List<BatchRequestDTO> requests) {
+        if (requests == null || requests.isEmpty()) throw new InvalidRequestException("El lote está vacío");
+        if (requests.size() > maxRequests) {
+            throw new InvalidRequestException("Un lote admite hasta " + maxRequests + " sub-requests (se enviaron " + requests.size() + ")");
+        }
+        Set<String> seen = new HashSet<>();
+        for (BatchRequestDTO request : requests) {
+            String id = request.getId();
+            if (id == null || id.isBlank()) throw new InvalidRequestException("Cada sub-request debe tener un id");
+            if (request.getMethod() == null || !METHODS.contains(request.getMethod().toUpperCase())) {
+                throw new InvalidRequestException("Sub-request '" + id + "': método no admitido " + request.getMethod());
+            }
+            String path = request.getPath();
+            if (path == null || !path.startsWith("/") || path.startsWith("/batch")) {
+                throw new InvalidRequestException("Sub-request '" + id + "': ruta inválida " + path);
+            }
+            if (request.getDependsOn() != null) {
+                for (String dependency : request.getDependsOn()) {
+                    if (!seen.contains(dependency)) {
+                        throw new InvalidRequestException("Sub-request '" + id + "': solo puede depender de sub-requests anteriores del lote (" + dependency + ")");
+                    }
+                }
+            }
+            if (!seen.add(id)) throw new InvalidRequestException("ID de sub-request repetido: " + id);
+        }
+    }
+
+    /** Espera las dependencias y despacha la sub-request. Nunca lanza excepciones. */
+
+    private BatchResponseDTO run(BatchRequestDTO request, List<CompletableFuture<BatchResponseDTO>> dependencies,
+                                 SecurityContext context, HttpServletRequest batch, HttpServletResponse response) {
+        try {
+            for (CompletableFuture<BatchResponseDTO> dependency : dependencies) {
+                BatchResponseDTO result = dependency.get();
+                if (result.getStatus() >= 400) {
+                    return error(request.getId(), HttpStatus.FAILED_DEPENDENCY, "La sub-request '" + result.getId() + "' de la que depende terminó con " + result.getStatus());
+                }
+            }
+            return dispatch(request, context, batch, response);
+        } catch (InterruptedException e) {
+            return error(request.getId(), HttpStatus.GATEWAY_TIMEOUT, "La sub-request no terminó dentro del tiempo del lote");
+        } catch (Exception e) {
+            log.error("Error al ejecutar la sub-request {} {} del lote: {}", request.getMethod(), request.getPath(), e.getMessage(), e);
+            return error(request.getId(), HttpStatus.INTERNAL_SERVER_ERROR, "Error inesperado al ejecutar la sub-request");
+        }
+    }
+
+    /** Ejecuta una sub-request por la cadena de seguridad y el DispatcherServlet y captura su respuesta. */
+
+    private BatchResponseDTO dispatch(BatchRequestDTO request, SecurityContext context, HttpServletRequest batch, HttpServletResponse response) throws Exception {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);     // Los resultados se embeben como JSON
+        if (batch.getHeader(HttpHeaders.ACCEPT_LANGUAGE) != null) headers.put(HttpHeaders.ACCEPT_LANGUAGE, batch.getHeader(HttpHeaders.ACCEPT_LANGUAGE));
+        if (request.getHeaders() != null) {
+            request.getHeaders().forEach((name, value) -> {
+                if (FORWARDED_HEADERS.contains(name.toLowerCase())) headers.put(name, value);
+            });
+        }
+        byte[] body = null;
+        if (request.getBody() != null && !request.getBody().isNull()) {
+            body = objectMapper.writeValueAsBytes(request.getBody());
+            headers.put(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        }
+
+        BatchSubRequest subRequest = new BatchSubRequest(batch, request.getMethod().toUpperCase(), request.getPath(), headers, body);
+        BatchSubResponse subResponse = new BatchSubResponse(response);
+        contextRepository.saveContext(context, subRequest, subResponse);   // La cadena de seguridad lo carga sin revalidar el JWT
+        securityFilterChain.doFilter(subRequest, subResponse, dispatcherServlet::service);
+
+        Map<String, String> returned = new LinkedHashMap<>();
+        for (String name : RETURNED_HEADERS) {
+            if (subResponse.getHeader(name) != null) returned.put(name, subResponse.getHeader(name));
+        }
+        return new BatchResponseDTO(request.getId(), subResponse.getStatus(), returned, bodyOf(subResponse));
+    }
+
+    /** Cuerpo de la sub-request como JSON: se reutiliza tal cual si ya es JSON, se envuelve como texto si no,
+     * y los errores enviados con sendError (por ejemplo 403 de la cadena de seguridad) se expresan como ErrorResponse. */
+
+    private String bodyOf(BatchSubResponse response) throws JsonProcessingException {
+        byte[] body = response.getBody();
+        if (body.length == 0) {
+            if (response.getStatus() < 400) return null;
+            HttpStatus status = HttpStatus.resolve(response.getStatus());
+            String message = response.getErrorMessage() != null ? response.getErrorMessage() : status != null ? status.getReasonPhrase() : "Error";
+            return objectMapper.writeValueAsString(new ErrorResponse(message, response.getStatus(), "BatchSubRequest"));
+        }
+        Charset charset = Charset.forName(response.getCharacterEncoding(), StandardCharsets.UTF_8);
+        String text = new String(body, charset);
+        String contentType = response.getContentType();
+        boolean json = contentType != null && (contentType.startsWith(MediaType.APPLICATION_JSON_VALUE) || contentType.contains("+json"));
+        return json ? text : objectMapper.writeValueAsString(text);
+    }
+
+    /** Resultado de error generado por el propio lote (dependencia fallida, tiempo agotado, error inesperado). */
+
+    private BatchResponseDTO error(String id, HttpStatus status, String message) {
+        try {
+            return new BatchResponseDTO(id, status.value(), Map.of(), objectMapper.writeValueAsString(new ErrorResponse(message, status.value(), "BatchSubRequest")));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.api.java.services;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Request interna de una sub-request de /batch.
+ * Toma de la request del lote solo los datos de conexión (host, esquema, IP); método, ruta, parámetros,
+ * encabezados, cuerpo y atributos son propios, así varias sub-requests pueden atravesar en paralelo
+ * la cadena de seguridad y el DispatcherServlet sin compartir estado. */
+
+class BatchSubRequest extends HttpServletRequestWrapper {
+    private final String method;
+    private final String path;          // Ruta sin query string, relativa al contexto
+    private final String queryString;
+    private final Map<String, String[]> parameters = new LinkedHashMap<>();
+    private final Map<String, String> headers = new LinkedCaseInsensitiveMap<>();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final byte[] body;
+
+    /** @param batch   request del lote
+     * @param method  método HTTP
+     * @param uri     ruta con query string opcional
+     * @param headers encabezados de la sub-request
+     * @param body    cuerpo JSON (puede ser null) */
+
+    BatchSubRequest(HttpServletRequest batch, String method, String uri, Map<String, String> headers, byte[] body) {
+        super(batch);
+        this.method = method;
+        int query = uri.indexOf('?');
+        this.path = query < 0 ? uri : uri.substring(0, query);
+        this.queryString = query < 0 ? null : uri.substring(query + 1);
+        if (queryString != null) {
+            for (String pair : queryString.split("&")) {
+                if (pair.isEmpty()) continue;
+                int eq = pair.indexOf('=');
+                String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+                String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+                parameters.merge(name, new String[]{value}, (a, b) -> {
+                    String[] merged = new String[a.length + 1];
+                    System.arraycopy(a, 0, merged, 0, a.length);
+                    merged[a.length] = b[0];
+                    return merged;
+                });
+            }
+        }
+        this.headers.putAll(headers);
+        this.body = body != null ? body : new byte[0];
+    }
+
+    @Override public String getMethod() { return method; }
+    @Override public String getRequestURI() { return getContextPath() + path; }
+    @Override public StringBuffer getRequestURL() {
+        StringBuffer url = new StringBuffer(getScheme()).append("://").append(getServerName());
+        if (getServerPort() > 0) url.append(':').append(getServerPort());
+        return url.append(getRequestURI());
+    }
+    @Override public String getServletPath() { return path; }     // DispatcherServlet mapeado en "/"
+    @Override public String getPathInfo() { return null; }
+    @Override public String getQueryString() { return queryString; }
+
+    @Override public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values != null ? values[0] : null;
+    }
+    @Override public Map<String, String[]> getParameterMap() { return Collections.unmodifiableMap(parameters); }
+    @Override public Enumeration<String> getParameterNames() { return Collections.enumeration(parameters.keySet()); }
+    @Override public String[] getParameterValues(String name) { return parameters.get(name); }
+
+    @Override public String getHeader(String name) { return headers.get(name); }
+    @Override public Enumeration<String> getHeaders(String name) {
+        String value = headers.get(name);
+        return Collections.enumeration(value != null ? List.of(value) : List.of());
+    }
+    @Override public Enumeration<String> getHeaderNames() { return Collections.enumeration(headers.keySet()); }
+    @Override public int getIntHeader(String name) {
+        String value = headers.get(name);
+        return value != null ? Integer.parseInt(value) : -1;
+    }
+    @Override public long getDateHeader(String name) {
+        String value = headers.get(name);
+        if (value == null) return -1;
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Fecha inválida en el encabezado " + name + ": " + value);
+        }
+    }
+
+    @Override public String getContentType() { return headers.get("Content-Type"); }
+    @Override public int getContentLength() { return body.length; }
+    @Override public long getContentLengthLong() { return body.length; }
+    @Override public String getCharacterEncoding() { return body.length > 0 ? StandardCharsets.UTF_8.name() : null; }
+    @Override public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override public boolean isFinished() { return in.available() == 0; }
+            @Override public boolean isReady() { return true; }
+            @Override public void setReadListener(ReadListener listener) { throw new UnsupportedOperationException(); }
+            @Override public int read() { return in.read(); }
+            @Override public int read(byte[] b, int off, int len) { return in.read(b, off, len); }
+        };
+    }
+    @Override public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    @Override public Object getAttribute(String name) { return attributes.get(name); }
+    @Override public Enumeration<String> getAttributeNames() { return Collections.enumeration(attributes.keySet()); }
+    @Override public void setAttribute(String name, Object value) {
+        if (value == null) attributes.remove(name);
+        else attributes.put(name, value);
+    }
+    @Override public void removeAttribute(String name) { attributes.remove(name); }
+
+    @Override public boolean isAsyncSupported() { return false; }
+}
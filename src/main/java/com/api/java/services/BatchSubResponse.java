@@ -0,0 +1,137 @@
+package com.api.java.services;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/** Respuesta interna de una sub-request de /batch: guarda estado, encabezados y cuerpo en memoria
+ * en lugar de escribirlos en la respuesta del lote. */
+
+class BatchSubResponse extends HttpServletResponseWrapper {
+    private final Map<String, List<String>> headers = new LinkedCaseInsensitiveMap<>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private int status = SC_OK;
+    private String errorMessage;    // Mensaje de sendError, si lo hubo
+    private String contentType;
+    private String characterEncoding;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    private boolean committed;
+
+    BatchSubResponse(HttpServletResponse batch) {
+        super(batch);
+    }
+
+    /** @return cuerpo escrito por el controlador */
+
+    byte[] getBody() {
+        if (writer != null) writer.flush();
+        return body.toByteArray();
+    }
+
+    /** @return mensaje indicado en sendError, o null */
+
+    String getErrorMessage() {
+        return errorMessage;
+    }
+
+    @Override public void setStatus(int sc) { if (!committed) status = sc; }
+    @Override public int getStatus() { return status; }
+    @Override public void sendError(int sc) { sendError(sc, null); }
+    @Override public void sendError(int sc, String msg) {
+        status = sc;
+        errorMessage = msg;
+        body.reset();
+        committed = true;
+    }
+    @Override public void sendRedirect(String location) {
+        status = SC_FOUND;
+        setHeader("Location", location);
+        committed = true;
+    }
+
+    @Override public boolean containsHeader(String name) { return headers.containsKey(name); }
+    @Override public String getHeader(String name) {
+        List<String> values = headers.get(name);
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+    @Override public Collection<String> getHeaders(String name) { return headers.getOrDefault(name, List.of()); }
+    @Override public Collection<String> getHeaderNames() { return headers.keySet(); }
+    @Override public void setHeader(String name, String value) {
+        if ("Content-Type".equalsIgnoreCase(name)) { setContentType(value); return; }
+        List<String> values = new ArrayList<>(1);
+        values.add(value);
+        headers.put(name, values);
+    }
+    @Override public void addHeader(String name, String value) {
+        if ("Content-Type".equalsIgnoreCase(name)) { setContentType(value); return; }
+        headers.computeIfAbsent(name, n -> new ArrayList<>(1)).add(value);
+    }
+    @Override public void setIntHeader(String name, int value) { setHeader(name, Integer.toString(value)); }
+    @Override public void addIntHeader(String name, int value) { addHeader(name, Integer.toString(value)); }
+    @Override public void setDateHeader(String name, long date) { setHeader(name, formatDate(date)); }
+    @Override public void addDateHeader(String name, long date) { addHeader(name, formatDate(date)); }
+    @Override public void addCookie(Cookie cookie) { }  // La API no usa cookies: se descartan
+
+    @Override public void setContentType(String type) {
+        contentType = type;
+        int charset = type != null ? type.toLowerCase().indexOf("charset=") : -1;
+        if (charset >= 0) characterEncoding = type.substring(charset + 8).trim();
+    }
+    @Override public String getContentType() { return contentType; }
+    @Override public void setCharacterEncoding(String charset) { characterEncoding = charset; }
+    @Override public String getCharacterEncoding() { return characterEncoding != null ? characterEncoding : StandardCharsets.UTF_8.name(); }
+    @Override public void setContentLength(int len) { }
+    @Override public void setContentLengthLong(long len) { }
+
+    @Override public ServletOutputStream getOutputStream() {
+        if (outputStream == null) {
+            outputStream = new ServletOutputStream() {
+                @Override public boolean isReady() { return true; }
+                @Override public void setWriteListener(WriteListener listener) { throw new UnsupportedOperationException(); }
+                @Override public void write(int b) { body.write(b); }
+                @Override public void write(byte[] b, int off, int len) { body.write(b, off, len); }
+            };
+        }
+        return outputStream;
+    }
+    @Override public PrintWriter getWriter() {
+        if (writer == null) writer = new PrintWriter(new OutputStreamWriter(body, Charset.forName(getCharacterEncoding())));
+        return writer;
+    }
+
+    @Override public void setBufferSize(int size) { }
+    @Override public int getBufferSize() { return Integer.MAX_VALUE; }
+    @Override public void flushBuffer() {
+        if (writer != null) writer.flush();
+        committed = true;
+    }
+    @Override public void resetBuffer() { body.reset(); }
+    @Override public void reset() {
+        body.reset();
+        headers.clear();
+        status = SC_OK;
+        contentType = null;
+        characterEncoding = null;
+    }
+    @Override public boolean isCommitted() { return committed; }
+
+    private static String formatDate(long epochMillis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC));
+    }
+}
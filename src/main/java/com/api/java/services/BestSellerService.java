@@ -0,0 +1,358 @@
+package com.api.java.services;
+import com.api.java.models.SalesWindow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Ranking en tiempo real de los productos más vendidos, global y por categoría.
+ * Usa resúmenes Space-Saving (arreglos primitivos de tamaño fijo) repartidos en intervalos de tiempo:
+ * 60 de un minuto (última hora), 24 de una hora (último día) y 7 de un día (última semana).
+ * Consultar una ventana combina los intervalos vigentes, sin tocar la tabla de detalles de orden.
+ * Cada venta se suma en el intervalo de su pago, y una cancelación o eliminación la resta de ese mismo intervalo.
+ * El estado se guarda periódicamente en un archivo de checkpoint y se recupera al reiniciar.
+ * Los rankings por categoría se limitan a las app.best-sellers.max-categories categorías con ventas más recientes
+ * (cada uno ocupa hasta ~190 KB); una categoría desalojada o purgada vuelve a empezar desde cero.
+ * El ranking es local a cada instancia: solo cuenta las ventas confirmadas en ella (no se comparte por el log de
+ * invalidación), así que con varias instancias detrás del balanceador cada una responde con su parte del tráfico. */
+
+@Slf4j
+@Service
+public class BestSellerService {
+    private static final int CAPACITY = 128;    // Productos monitoreados por intervalo (debe superar el top pedido)
+    private static final int CHECKPOINT_MAGIC = 0x42534B31; // Cabecera del archivo de checkpoint ("BSK1")
+    private static final long GLOBAL = -1L;     // Clave del ranking global dentro del checkpoint
+
+    private final Path checkpointPath;  // Archivo donde se guardan los checkpoints
+    private final int maxCategories;    // Rankings por categoría conservados en memoria
+    private WindowedSketch global = new WindowedSketch();   // Ranking global
+    private final Map<Long, WindowedSketch> categories;     // Rankings por ID de categoría, del menos al más reciente
+
+    public BestSellerService(@Value("${app.best-sellers.checkpoint-path:data/best-sellers.bin}") String checkpointPath,
+                             @Value("${app.best-sellers.max-categories:64}") int maxCategories) {
+        this.checkpointPath = Paths.get(checkpointPath);
+        this.maxCategories = maxCategories;
+        this.categories = new LinkedHashMap<>(16, 0.75f, true) {   // Orden de acceso: desaloja la categoría usada hace más tiempo
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, WindowedSketch> eldest) {
+                return size() > BestSellerService.this.maxCategories;
+            }
+        };
+    }
+
+    /** Registra unidades de un producto que se pagan en este momento.
+     * @param productId  ID del producto
+     * @param categoryId ID de la categoría del producto (puede ser null)
+     * @param units      unidades pagadas */
+
+    public void record(long productId, Long categoryId, long units) {
+        record(productId, categoryId, units, Instant.now());
+    }
+
+    /** Registra una variación de unidades pagadas de un producto en el intervalo de su pago: positiva al pagarse,
+     * negativa al cancelarse o eliminarse. Si ese intervalo ya salió de una ventana, esa ventana no se modifica.
+     * @param productId  ID del producto
+     * @param categoryId ID de la categoría del producto (puede ser null)
+     * @param units      unidades a sumar o restar
+     * @param paidAt     momento del pago (null si se desconoce: no se registra nada) */
+
+    public void record(long productId, Long categoryId, long units, Instant paidAt) {
+        if (units == 0 || paidAt == null) return;
+        long at = paidAt.toEpochMilli();
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                global.add(productId, units, at);
+                if (categoryId != null) {
+                    WindowedSketch sketch = categories.get(categoryId);
+                    if (sketch == null && units < 0) return;    // Categoría desalojada: no hay ventas que restar
+                    if (sketch == null) categories.put(categoryId, sketch = new WindowedSketch());
+                    sketch.add(productId, units, at);
+                }
+            }
+        });
+    }
+
+    /** Devuelve los productos más vendidos de una ventana, ordenados por unidades estimadas.
+     * @param window     ventana de tiempo
+     * @param categoryId categoría a consultar, o null para el ranking global
+     * @param limit      cantidad máxima de productos
+     * @return pares [productId, unidades] ordenados de mayor a menor */
+
+    public synchronized long[][] top(SalesWindow window, Long categoryId, int limit) {
+        WindowedSketch sketch = categoryId != null ? categories.get(categoryId) : global;
+        if (sketch == null) return new long[0][];
+        return sketch.top(window, limit, System.currentTimeMillis());
+    }
+
+    /** Descarta el ranking de una categoría eliminada, tras el commit de la transacción que la elimina.
+     * @param categoryId ID de la categoría */
+
+    public void forgetCategory(long categoryId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                categories.remove(categoryId);
+            }
+        });
+    }
+
+    /** Guarda un checkpoint periódico del ranking en disco. */
+
+    @Scheduled(fixedDelayString = "${app.best-sellers.checkpoint-interval-ms:60000}", initialDelayString = "${app.best-sellers.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        try {
+            Path parent = checkpointPath.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Path temp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                synchronized (this) {
+                    out.writeInt(CHECKPOINT_MAGIC);
+                    out.writeInt(categories.size() + 1);
+                    out.writeLong(GLOBAL);
+                    global.write(out);
+                    for (Map.Entry<Long, WindowedSketch> entry : categories.entrySet()) {   // Del menos al más reciente
+                        out.writeLong(entry.getKey());
+                        entry.getValue().write(out);
+                    }
+                }
+            }
+            Files.move(temp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);  // Reemplazo atómico: nunca queda un archivo a medias
+        } catch (IOException e) {
+            log.warn("No se pudo guardar el checkpoint del ranking de ventas en {}: {}", checkpointPath, e.getMessage());
+        }
+    }
+
+    /** Restaura el último checkpoint al iniciar la aplicación, si existe. */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (!Files.exists(checkpointPath)) return;
+        try (InputStream file = Files.newInputStream(checkpointPath);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+            if (in.readInt() != CHECKPOINT_MAGIC) {
+                log.warn("Checkpoint del ranking de ventas con formato desconocido: {}", checkpointPath);
+                return;
+            }
+            int count = in.readInt();
+            WindowedSketch restoredGlobal = new WindowedSketch();
+            Map<Long, WindowedSketch> restored = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                long key = in.readLong();
+                WindowedSketch sketch = WindowedSketch.read(in);
+                if (key == GLOBAL) restoredGlobal = sketch;
+                else restored.put(key, sketch);
+            }
+            synchronized (this) {
+                global = restoredGlobal;
+                categories.clear();
+                categories.putAll(restored);    // Respeta el orden guardado; si el límite bajó, se desalojan las más antiguas
+            }
+            log.info("Ranking de ventas restaurado desde {} ({} rankings)", checkpointPath, count);
+        } catch (IOException e) {
+            log.warn("No se pudo restaurar el checkpoint del ranking de ventas: {}", e.getMessage());
+        }
+    }
+
+    /** Guarda un último checkpoint al detener la aplicación. */
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+
+    // ========================================================
+    // ESTRUCTURAS INTERNAS
+    // ========================================================
+
+    /** Conjunto de anillos de intervalos (hora, día y semana) para un mismo ranking. */
+
+    private static final class WindowedSketch {
+        private final Ring minutes = new Ring(60, 60_000L);         // Última hora
+        private final Ring hours = new Ring(24, 3_600_000L);        // Último día
+        private final Ring days = new Ring(7, 86_400_000L);         // Última semana
+
+        void add(long productId, long units, long at) {
+            minutes.add(productId, units, at);
+            hours.add(productId, units, at);
+            days.add(productId, units, at);
+        }
+
+        long[][] top(SalesWindow window, int limit, long now) {
+            Ring ring = switch (window) {
+                case HOUR -> minutes;
+                case DAY -> hours;
+                case WEEK -> days;
+            };
+            return ring.top(limit, now);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            minutes.write(out);
+            hours.write(out);
+            days.write(out);
+        }
+
+        static WindowedSketch read(DataInputStream in) throws IOException {
+            WindowedSketch sketch = new WindowedSketch();
+            sketch.minutes.read(in);
+            sketch.hours.read(in);
+            sketch.days.read(in);
+            return sketch;
+        }
+    }
+
+    /** Anillo circular de resúmenes Space-Saving; cada posición cubre un intervalo de tiempo fijo. */
+
+    private static final class Ring {
+        private final long width;       // Duración de cada intervalo en milisegundos
+        private final long[] epochs;    // Número de intervalo al que pertenece cada posición
+        private final SpaceSaving[] slots;
+
+        Ring(int size, long width) {
+            this.width = width;
+            this.epochs = new long[size];
+            this.slots = new SpaceSaving[size];
+            Arrays.fill(epochs, -1L);
+            for (int i = 0; i < size; i++) slots[i] = new SpaceSaving();
+        }
+
+        void add(long productId, long units, long at) {
+            long epoch = at / width;
+            int slot = (int) (epoch % slots.length);
+            if (epochs[slot] > epoch) return;   // La posición ya se reutilizó para un intervalo posterior: la venta salió de la ventana
+            if (epochs[slot] < epoch) {     // El intervalo anterior quedó fuera de la ventana: se reutiliza
+                slots[slot].clear();
+                epochs[slot] = epoch;
+            }
+            slots[slot].add(productId, units);
+        }
+
+        long[][] top(int limit, long now) {
+            long current = now / width;
+            long oldest = current - slots.length + 1;
+            Map<Long, Long> merged = new HashMap<>();
+            for (int i = 0; i < slots.length; i++) {
+                if (epochs[i] >= oldest && epochs[i] <= current) slots[i].mergeInto(merged);
+            }
+            return merged.entrySet().stream()
+                    .filter(e -> e.getValue() > 0)
+                    .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                    .limit(limit)
+                    .map(e -> new long[]{e.getKey(), e.getValue()})
+                    .toArray(long[][]::new);
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(slots.length);
+            for (int i = 0; i < slots.length; i++) {
+                out.writeLong(epochs[i]);
+                slots[i].write(out);
+            }
+        }
+
+        void read(DataInputStream in) throws IOException {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                long epoch = in.readLong();
+                SpaceSaving slot = SpaceSaving.read(in);
+                if (i < slots.length) {
+                    epochs[i] = epoch;
+                    slots[i] = slot;
+                }
+            }
+        }
+    }
+
+    /** Resumen Space-Saving de capacidad fija sobre arreglos primitivos.
+     * Al llegar un producto no monitoreado con el resumen lleno, reemplaza al de menor conteo heredando ese conteo
+     * (sobreestimación acotada por el mínimo). Las cancelaciones restan solo a productos monitoreados, sin bajar de cero.
+ * Los arreglos se reservan con la primera venta, así que los intervalos sin ventas no ocupan memoria. */
+
+    private static final class SpaceSaving {
+        private long[] keys;
+        private long[] counts;
+        private int size;
+
+        void add(long key, long units) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == key) {
+                    counts[i] = Math.max(0, counts[i] + units);    // Un conteo negativo le ganaría el desalojo a cualquier producto nuevo
+                    return;
+                }
+            }
+            if (units < 0) return;  // Cancelación de un producto ya desalojado: no hay conteo que corregir
+            if (keys == null) {
+                keys = new long[CAPACITY];
+                counts = new long[CAPACITY];
+            }
+            if (size < CAPACITY) {
+                keys[size] = key;
+                counts[size++] = units;
+                return;
+            }
+            int min = 0;
+            for (int i = 1; i < size; i++) {
+                if (counts[i] < counts[min]) min = i;
+            }
+            keys[min] = key;
+            counts[min] += units;
+        }
+
+        void mergeInto(Map<Long, Long> merged) {
+            for (int i = 0; i < size; i++) {
+                merged.merge(keys[i], counts[i], Long::sum);
+            }
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeLong(keys[i]);
+                out.writeLong(counts[i]);
+            }
+        }
+
+        static SpaceSaving read(DataInputStream in) throws IOException {
+            SpaceSaving summary = new SpaceSaving();
+            int size = in.readInt();
+            if (size > 0) {
+                summary.keys = new long[CAPACITY];
+                summary.counts = new long[CAPACITY];
+            }
+            for (int i = 0; i < size; i++) {
+                long key = in.readLong();
+                long count = in.readLong();
+                if (i < CAPACITY) {
+                    summary.keys[i] = key;
+                    summary.counts[i] = count;
+                    summary.size++;
+                }
+            }
+            return summary;
+        }
+    }
+}
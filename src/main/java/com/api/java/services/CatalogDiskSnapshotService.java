@@ -0,0 +1,538 @@
+package com.api.java.services;
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.dto.VersionDTO;
+import com.api.java.models.Money;
+import com.api.java.repositories.ICategoryRepository;
+import com.api.java.repositories.IProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/** Snapshot binario de productos y categorías en un archivo mapeado en memoria.
+ * Se reescribe periódicamente (solo si el catálogo cambió) y se mapea al crear el servicio, sin deserializar nada:
+ * las lecturas acceden directamente a las páginas del archivo, con filas de ancho fijo ordenadas por ID (búsqueda binaria)
+ * y un bloque final con los textos en UTF-8.
+ * Cumple dos funciones:
+ * 1. Arranque en caliente: si la base de datos no responde al iniciar, el snapshot columnar y el autocompletado se cargan del archivo
+ * 2. Modo degradado de solo lectura: cuando una lectura del catálogo falla por falta de conexión, las siguientes se sirven
+ *    desde el archivo (con el encabezado X-Catalog-Snapshot-Age) hasta que una verificación periódica vuelve a conectarse.
+ *    Las escrituras siguen fallando mientras tanto.
+ * Formato: cabecera de 80 bytes, filas de categorías (32 bytes), filas de productos (64 bytes) y textos. */
+
+@Slf4j
+@Service
+public class CatalogDiskSnapshotService {
+    /** Atributo de la request con la fecha (ms) del snapshot usado para responderla. */
+    public static final String STALE_ATTRIBUTE = CatalogDiskSnapshotService.class.getName() + ".writtenAt";
+
+    private static final int MAGIC = 0x43415431;    // Cabecera del archivo ("CAT1")
+    private static final int FORMAT = 1;            // Versión del formato
+    private static final int HEADER_BYTES = 80;
+    private static final int CATEGORY_ROW = 32;     // id, versión, modificación, texto del nombre
+    private static final int PRODUCT_ROW = 64;      // id, categoría, precio, versión, modificación, stock, flags, nombre y descripción
+    private static final int ACTIVE = 1;            // Flags de la fila de producto
+    private static final int NO_PRICE = 2;
+    private static final int NO_STOCK = 4;
+    private static final int NO_CATEGORY = 8;
+
+    private final IProductRepository productRepository;
+    private final ICategoryRepository categoryRepository;
+    private final TransactionTemplate readOnlyTransaction;  // Lectura consistente de productos, categorías y versiones
+    private final DataSource dataSource;                    // Verificación de la conexión durante una caída
+    private final ApplicationEventPublisher events;
+    private final Path path;            // Archivo del snapshot
+    private final AtomicBoolean databaseUp = new AtomicBoolean(true);
+    private volatile Mapped mapped;     // Último snapshot mapeado, o null si no hay archivo
+
+    /** Evento publicado cuando la base de datos vuelve a responder después de una caída. */
+
+    public record DatabaseRecovered() {
+    }
+
+    /** Snapshot mapeado: el buffer y los datos de su cabecera. */
+
+    private record Mapped(ByteBuffer buffer, long writtenAt, int categories, int products, int textStart,
+                          VersionDTO productsVersion, VersionDTO categoriesVersion) {
+        int categoryRow(int i) {
+            return HEADER_BYTES + i * CATEGORY_ROW;
+        }
+
+        int productRow(int i) {
+            return HEADER_BYTES + categories * CATEGORY_ROW + i * PRODUCT_ROW;
+        }
+    }
+
+    /** Contenido leído de la base de datos para escribir un snapshot. */
+
+    private record Contents(VersionDTO productsVersion, VersionDTO categoriesVersion, List<Object[]> categoryRows, List<Object[]> productRows) {
+    }
+
+    public CatalogDiskSnapshotService(IProductRepository productRepository, ICategoryRepository categoryRepository,
+                                      PlatformTransactionManager transactionManager, DataSource dataSource, ApplicationEventPublisher events,
+                                      @Value("${app.catalog-disk-snapshot.path:data/catalog.bin}") String path) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.dataSource = dataSource;
+        this.events = events;
+        this.path = Paths.get(path);
+    }
+
+    /** Mapea el último snapshot guardado, si existe. Se hace al crear el servicio para que esté disponible
+     * antes de las cargas de ApplicationReadyEvent. */
+
+    @PostConstruct
+    public void open() {
+        if (!Files.exists(path)) return;
+        try {
+            mapped = map(path);
+            log.info("Snapshot del catálogo en disco mapeado desde {} ({} productos, {} categorías, escrito {})",
+                    path, mapped.products(), mapped.categories(), Instant.ofEpochMilli(mapped.writtenAt()));
+        } catch (IOException e) {
+            log.warn("No se pudo mapear el snapshot del catálogo en {}: {}", path, e.getMessage());
+        }
+    }
+
+    /** Ejecuta una lectura del catálogo contra la base de datos o, si no está disponible, contra el snapshot.
+     * Solo las fallas de conexión activan el modo degradado; cualquier otro error se propaga.
+     * @param database lectura normal
+     * @param snapshot lectura equivalente sobre el snapshot
+     * @return resultado de la lectura */
+
+    public <T> T read(Supplier<T> database, Supplier<T> snapshot) {
+        Mapped current = mapped;
+        if (current == null || databaseUp.get()) {
+            try {
+                return database.get();
+            } catch (RuntimeException e) {
+                if (current == null || !isDatabaseUnavailable(e)) throw e;
+                markDown(e);
+            }
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) request.setAttribute(STALE_ATTRIBUTE, current.writtenAt(), RequestAttributes.SCOPE_REQUEST);
+        return snapshot.get();
+    }
+
+    /** Escribe un nuevo snapshot si el catálogo cambió desde el último. Durante una caída no se escribe,
+     * para no reemplazar el último snapshot bueno. */
+
+    @Scheduled(fixedDelayString = "${app.catalog-disk-snapshot.interval-ms:60000}", initialDelayString = "${app.catalog-disk-snapshot.initial-delay-ms:10000}")
+    public void write() {
+        if (!databaseUp.get()) return;
+        try {
+            Contents contents = readOnlyTransaction.execute(status -> readContents(mapped));
+            if (contents == null) return;   // Sin cambios
+            long start = System.nanoTime();
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            long bytes = encode(temp, contents, System.currentTimeMillis());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);  // Los mapeos del archivo anterior siguen válidos
+            mapped = map(path);
+            log.info("Snapshot del catálogo en disco escrito en {} ms: {} productos, {} categorías, {} bytes",
+                    (System.nanoTime() - start) / 1_000_000, contents.productRows().size(), contents.categoryRows().size(), bytes);
+        } catch (IOException e) {
+            log.warn("No se pudo escribir el snapshot del catálogo en {}: {}", path, e.getMessage());
+        } catch (RuntimeException e) {
+            if (!isDatabaseUnavailable(e)) throw e;
+            if (mapped != null) markDown(e);
+        }
+    }
+
+    /** Durante una caída, verifica periódicamente si la base de datos vuelve a entregar conexiones. */
+
+    @Scheduled(fixedDelayString = "${app.catalog-disk-snapshot.probe-interval-ms:5000}")
+    public void probe() {
+        if (databaseUp.get()) return;
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(2)) return;
+        } catch (SQLException e) {
+            return;
+        }
+        if (databaseUp.compareAndSet(false, true)) {
+            log.info("Base de datos disponible de nuevo: el catálogo vuelve a leerse de la base de datos");
+            events.publishEvent(new DatabaseRecovered());
+        }
+    }
+
+    /** @return true si las lecturas del catálogo van a la base de datos (no hay una caída detectada) */
+
+    public boolean isDatabaseUp() {
+        return databaseUp.get();
+    }
+
+    /** @return fecha del snapshot mapeado, o null si no hay */
+
+    public Instant getWrittenAt() {
+        Mapped current = mapped;
+        return current != null ? Instant.ofEpochMilli(current.writtenAt()) : null;
+    }
+
+    // ========================================================
+    // LECTURAS SOBRE EL SNAPSHOT
+    // ========================================================
+
+    /** @return todos los productos, ordenados por ID */
+
+    public List<ProductDTO> getProducts() {
+        Mapped m = require();
+        List<ProductDTO> products = new ArrayList<>(m.products());
+        for (int i = 0; i < m.products(); i++) products.add(product(m, m.productRow(i)));
+        return products;
+    }
+
+    /** @param id ID del producto
+     * @return producto, vacío si no estaba en el snapshot */
+
+    public Optional<ProductDTO> findProduct(long id) {
+        Mapped m = require();
+        int row = findProductRow(m, id);
+        return row >= 0 ? Optional.of(product(m, row)) : Optional.empty();
+    }
+
+    /** @param ids IDs de producto
+     * @return productos encontrados (en cualquier orden) */
+
+    public List<ProductDTO> findProducts(Collection<Long> ids) {
+        Mapped m = require();
+        List<ProductDTO> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            int row = id != null ? findProductRow(m, id) : -1;
+            if (row >= 0) products.add(product(m, row));
+        }
+        return products;
+    }
+
+    /** @param categoryId ID de la categoría
+     * @return productos de la categoría */
+
+    public List<ProductDTO> getProductsByCategory(long categoryId) {
+        Mapped m = require();
+        List<ProductDTO> products = new ArrayList<>();
+        for (int i = 0; i < m.products(); i++) {
+            int row = m.productRow(i);
+            if ((m.buffer().getInt(row + 44) & NO_CATEGORY) == 0 && m.buffer().getLong(row + 8) == categoryId) products.add(product(m, row));
+        }
+        return products;
+    }
+
+    /** @param id ID del producto
+     * @return versión del producto, vacío si no estaba en el snapshot */
+
+    public Optional<VersionDTO> findProductVersion(long id) {
+        Mapped m = require();
+        int row = findProductRow(m, id);
+        return row >= 0 ? Optional.of(new VersionDTO(m.buffer().getLong(row + 24), instant(m.buffer().getLong(row + 32)))) : Optional.empty();
+    }
+
+    /** @return versión agregada de los productos al momento del snapshot (igual a la que daba la base de datos) */
+
+    public VersionDTO getProductsVersion() {
+        return require().productsVersion();
+    }
+
+    /** @return filas id, categoría, precio, stock, activo y versión, con el mismo formato que {@link IProductRepository#findCatalogRows()} */
+
+    public List<Object[]> getCatalogRows() {
+        Mapped m = require();
+        ByteBuffer b = m.buffer();
+        List<Object[]> rows = new ArrayList<>(m.products());
+        for (int i = 0; i < m.products(); i++) {
+            int row = m.productRow(i);
+            int flags = b.getInt(row + 44);
+            rows.add(new Object[]{b.getLong(row), (flags & NO_CATEGORY) != 0 ? null : b.getLong(row + 8),
+                    (flags & NO_PRICE) != 0 ? null : Money.ofCents(b.getLong(row + 16)),
+                    (flags & NO_STOCK) != 0 ? null : b.getInt(row + 40), (flags & ACTIVE) != 0, b.getLong(row + 24)});
+        }
+        return rows;
+    }
+
+    /** @return filas id y nombre de los productos activos, con el mismo formato que {@link IProductRepository#findActiveNames()} */
+
+    public List<Object[]> getActiveNames() {
+        Mapped m = require();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < m.products(); i++) {
+            int row = m.productRow(i);
+            if ((m.buffer().getInt(row + 44) & ACTIVE) != 0) rows.add(new Object[]{m.buffer().getLong(row), text(m, row + 48)});
+        }
+        return rows;
+    }
+
+    /** @return categorías visibles, ordenadas por ID */
+
+    public List<CategoryDTO> getCategories() {
+        Mapped m = require();
+        List<CategoryDTO> categories = new ArrayList<>(m.categories());
+        for (int i = 0; i < m.categories(); i++) categories.add(category(m, m.categoryRow(i)));
+        return categories;
+    }
+
+    /** @param id ID de la categoría
+     * @return categoría, vacía si no estaba en el snapshot o se estaba eliminando */
+
+    public Optional<CategoryDTO> findCategory(long id) {
+        Mapped m = require();
+        int row = findCategoryRow(m, id);
+        return row >= 0 ? Optional.of(category(m, row)) : Optional.empty();
+    }
+
+    /** @param ids IDs de categoría
+     * @return categorías encontradas (en cualquier orden) */
+
+    public List<CategoryDTO> findCategories(Collection<Long> ids) {
+        Mapped m = require();
+        List<CategoryDTO> categories = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            int row = id != null ? findCategoryRow(m, id) : -1;
+            if (row >= 0) categories.add(category(m, row));
+        }
+        return categories;
+    }
+
+    /** @param id ID de la categoría
+     * @return versión de la categoría, vacío si no estaba en el snapshot */
+
+    public Optional<VersionDTO> findCategoryVersion(long id) {
+        Mapped m = require();
+        int row = findCategoryRow(m, id);
+        return row >= 0 ? Optional.of(new VersionDTO(m.buffer().getLong(row + 8), instant(m.buffer().getLong(row + 16)))) : Optional.empty();
+    }
+
+    /** @return versión agregada de las categorías al momento del snapshot */
+
+    public VersionDTO getCategoriesVersion() {
+        return require().categoriesVersion();
+    }
+
+    /** Indica si una excepción se debe a que la base de datos no entrega conexiones (y no a un error de la consulta).
+     * @param e excepción de una lectura
+     * @return true si alguna de sus causas es una falla de conexión */
+
+    public static boolean isDatabaseUnavailable(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof DataAccessResourceFailureException || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientConnectionException || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof ConnectException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ========================================================
+    // MÉTODOS AUXILIARES PRIVADOS
+    // ========================================================
+
+    private void markDown(RuntimeException e) {
+        if (databaseUp.compareAndSet(true, false)) {
+            log.warn("Base de datos no disponible ({}): el catálogo se sirve en solo lectura desde el snapshot escrito {}",
+                    e.getMessage(), getWrittenAt());
+        }
+    }
+
+    private Mapped require() {
+        Mapped current = mapped;
+        if (current == null) throw new IllegalStateException("No hay un snapshot del catálogo en disco");
+        return current;
+    }
+
+    /** Lee productos, categorías y sus versiones agregadas. Debe ejecutarse en una transacción.
+     * @return contenido a escribir, o null si las versiones coinciden con las del snapshot actual */
+
+    private Contents readContents(Mapped current) {
+        VersionDTO productsVersion = productRepository.findCollectionVersion();
+        VersionDTO categoriesVersion = categoryRepository.findCollectionVersion();
+        if (current != null && productsVersion.toEtag().equals(current.productsVersion().toEtag())
+                && categoriesVersion.toEtag().equals(current.categoriesVersion().toEtag())) {
+            return null;
+        }
+        return new Contents(productsVersion, categoriesVersion, categoryRepository.findSnapshotRows(), productRepository.findSnapshotRows());
+    }
+
+    /** Escribe el snapshot en un archivo nuevo a través de un mapeo de lectura y escritura.
+     * @return tamaño del archivo */
+
+    private static long encode(Path target, Contents contents, long writtenAt) throws IOException {
+        List<Object[]> categories = contents.categoryRows();   // id, nombre, versión, modificación (ordenadas por ID)
+        List<Object[]> products = contents.productRows();      // id, categoría, nombre, descripción, precio, stock, activo, versión, modificación
+        ByteArrayOutputStream texts = new ByteArrayOutputStream();
+        int[] categoryTexts = new int[categories.size() * 2];
+        for (int i = 0; i < categories.size(); i++) addText(texts, (String) categories.get(i)[1], categoryTexts, i * 2);
+        int[] productTexts = new int[products.size() * 4];
+        for (int i = 0; i < products.size(); i++) {
+            addText(texts, (String) products.get(i)[2], productTexts, i * 4);
+            addText(texts, (String) products.get(i)[3], productTexts, i * 4 + 2);
+        }
+        long size = HEADER_BYTES + (long) categories.size() * CATEGORY_ROW + (long) products.size() * PRODUCT_ROW + texts.size();
+        if (size > Integer.MAX_VALUE) throw new IOException("El catálogo no entra en un único mapeo (" + size + " bytes)");
+
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(FORMAT).putLong(writtenAt).putInt(categories.size()).putInt(products.size());
+            putVersion(out, contents.productsVersion());
+            putVersion(out, contents.categoriesVersion());
+            out.putLong(0L);    // Reservado
+            for (int i = 0; i < categories.size(); i++) {
+                Object[] row = categories.get(i);
+                out.putLong((Long) row[0]).putLong((Long) row[2]).putLong(millis((Instant) row[3]))
+                        .putInt(categoryTexts[i * 2]).putInt(categoryTexts[i * 2 + 1]);
+            }
+            for (int i = 0; i < products.size(); i++) {
+                Object[] row = products.get(i);
+                Long categoryId = (Long) row[1];
+                Money price = (Money) row[4];
+                Integer stock = (Integer) row[5];
+                int flags = (Boolean) row[6] ? ACTIVE : 0;
+                if (price == null) flags |= NO_PRICE;
+                if (stock == null) flags |= NO_STOCK;
+                if (categoryId == null) flags |= NO_CATEGORY;
+                out.putLong((Long) row[0]).putLong(categoryId != null ? categoryId : 0L).putLong(Money.centsOf(price))
+                        .putLong((Long) row[7]).putLong(millis((Instant) row[8])).putInt(stock != null ? stock : 0).putInt(flags)
+                        .putInt(productTexts[i * 4]).putInt(productTexts[i * 4 + 1]).putInt(productTexts[i * 4 + 2]).putInt(productTexts[i * 4 + 3]);
+            }
+            out.put(texts.toByteArray());
+            out.force();
+        }
+        return size;
+    }
+
+    /** Agrega un texto al bloque de textos y guarda su posición y longitud (-1 si es null). */
+
+    private static void addText(ByteArrayOutputStream texts, String value, int[] positions, int at) {
+        if (value == null) {
+            positions[at] = 0;
+            positions[at + 1] = -1;
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        positions[at] = texts.size();
+        positions[at + 1] = bytes.length;
+        texts.writeBytes(bytes);
+    }
+
+    private static void putVersion(ByteBuffer out, VersionDTO version) {
+        out.putLong(version.getCount()).putLong(version.getVersion()).putLong(version.lastModifiedMillis());
+    }
+
+    /** Mapea un snapshot en modo solo lectura y valida su cabecera. */
+
+    private static Mapped map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) throw new IOException("tamaño inválido (" + size + " bytes)");
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);     // El mapeo sigue válido al cerrar el canal
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) throw new IOException("formato desconocido");
+            int categories = buffer.getInt(16);
+            int products = buffer.getInt(20);
+            long textStart = HEADER_BYTES + (long) categories * CATEGORY_ROW + (long) products * PRODUCT_ROW;
+            if (categories < 0 || products < 0 || textStart > size) throw new IOException("cabecera inconsistente");
+            return new Mapped(buffer, buffer.getLong(8), categories, products, (int) textStart, version(buffer, 24), version(buffer, 48));
+        }
+    }
+
+    private static VersionDTO version(ByteBuffer buffer, int at) {
+        return new VersionDTO(buffer.getLong(at), buffer.getLong(at + 8), instant(buffer.getLong(at + 16)));
+    }
+
+    /** Búsqueda binaria de un producto por ID.
+     * @return posición de la fila en el buffer, o -1 */
+
+    private static int findProductRow(Mapped m, long id) {
+        int low = 0;
+        int high = m.products() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long current = m.buffer().getLong(m.productRow(mid));
+            if (current < id) low = mid + 1;
+            else if (current > id) high = mid - 1;
+            else return m.productRow(mid);
+        }
+        return -1;
+    }
+
+    /** Búsqueda binaria de una categoría por ID.
+     * @return posición de la fila en el buffer, o -1 */
+
+    private static int findCategoryRow(Mapped m, long id) {
+        int low = 0;
+        int high = m.categories() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long current = m.buffer().getLong(m.categoryRow(mid));
+            if (current < id) low = mid + 1;
+            else if (current > id) high = mid - 1;
+            else return m.categoryRow(mid);
+        }
+        return -1;
+    }
+
+    private static ProductDTO product(Mapped m, int row) {
+        ByteBuffer b = m.buffer();
+        int flags = b.getInt(row + 44);
+        return new ProductDTO(b.getLong(row), text(m, row + 48), text(m, row + 56),
+                (flags & NO_PRICE) != 0 ? null : Money.ofCents(b.getLong(row + 16)),
+                (flags & NO_CATEGORY) != 0 ? null : b.getLong(row + 8),
+                (flags & NO_STOCK) != 0 ? null : b.getInt(row + 40), (flags & ACTIVE) != 0);
+    }
+
+    private static CategoryDTO category(Mapped m, int row) {
+        return new CategoryDTO(m.buffer().getLong(row), text(m, row + 24));
+    }
+
+    /** Decodifica el texto cuya posición y longitud están en la fila a partir de at. */
+
+    private static String text(Mapped m, int at) {
+        int length = m.buffer().getInt(at + 4);
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        m.buffer().get(m.textStart() + m.buffer().getInt(at), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long millis(Instant instant) {
+        return instant != null ? instant.toEpochMilli() : -1L;
+    }
+
+    private static Instant instant(long millis) {
+        return millis >= 0 ? Instant.ofEpochMilli(millis) : null;
+    }
+}
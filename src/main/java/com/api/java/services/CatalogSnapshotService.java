@@ -0,0 +1,412 @@
+package com.api.java.services;
+import com.api.java.dto.ProductDeltaDTO;
+import com.api.java.models.Money;
+import com.api.java.models.ProductModel;
+import com.api.java.repositories.IProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/** Snapshot columnar en memoria del catálogo de productos.
+ * Guarda id, versión, categoría, precio en centavos y stock en arreglos primitivos paralelos y el flag "activo" en un BitSet,
+ * de modo que los filtros por categoría, rango de precio y stock se resuelven con recorridos secuenciales
+ * (aptos para auto-vectorización del JIT) sin consultar la base de datos. Las categorías se codifican además con un
+ * diccionario denso para contar los facets en un arreglo de enteros, sin boxing por fila.
+ * Se carga al iniciar la aplicación (desde el snapshot en disco si la base de datos no responde, y de nuevo cuando vuelve)
+ * y se actualiza de forma incremental desde las escrituras de productos; cada cambio de precio, stock, activo o categoría
+ * se publica como {@link ProductChanged} (stream de cambios en {@link ProductStreamService}).
+ * Las escrituras que llegan fuera de orden (una versión menor a la ya aplicada) se descartan. */
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogSnapshotService {
+    private static final int INITIAL_CAPACITY = 1024;   // Capacidad inicial de las columnas
+    private static final int HISTOGRAM_BUCKETS = 10;    // Cantidad de intervalos del histograma de precios
+    private static final int INITIAL_CATEGORIES = 64;   // Capacidad inicial del diccionario de categorías
+
+    private final IProductRepository productRepository; // Repositorio usado solo para la carga inicial
+    private final CatalogDiskSnapshotService diskSnapshot; // Carga inicial alternativa durante una caída de la base de datos
+    private final ApplicationEventPublisher events; // Publica los cambios aplicados sobre el snapshot
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();  // Lecturas concurrentes, escrituras exclusivas
+    private final Map<Long, Integer> rowById = new HashMap<>();     // Posición (fila) de cada producto dentro de las columnas
+    private final Map<Long, Integer> slotByCategory = new HashMap<>();  // Diccionario: posición densa de cada categoría
+
+    private long[] ids = new long[INITIAL_CAPACITY];            // Columna de IDs de producto
+    private long[] versions = new long[INITIAL_CAPACITY];       // Columna de versiones (@Version) aplicadas
+    private long[] categoryIds = new long[INITIAL_CAPACITY];    // Columna de IDs de categoría
+    private int[] categorySlots = new int[INITIAL_CAPACITY];    // Columna de posiciones de categoría en el diccionario
+    private long[] priceCents = new long[INITIAL_CAPACITY];     // Columna de precios en centavos
+    private int[] stocks = new int[INITIAL_CAPACITY];           // Columna de stock disponible
+    private final BitSet active = new BitSet(INITIAL_CAPACITY); // Bit por fila: producto activo
+    private int size;   // Cantidad de filas ocupadas
+    private long[] slotCategories = new long[INITIAL_CATEGORIES];  // Categoría de cada posición del diccionario
+    private int slotCount;  // Cantidad de posiciones ocupadas del diccionario
+
+    /** Resultado de una búsqueda sobre el snapshot.
+     * @param total            cantidad total de productos que cumplen todos los filtros
+     * @param productIds       IDs de la página solicitada, en el orden de precio pedido
+     * @param categoryCounts   cantidad de productos por categoría (ignorando el filtro de categoría)
+     * @param priceHistogram   conteos por intervalo de precio (ignorando el filtro de precio)
+     * @param histogramMinCents precio mínimo del histograma, en centavos
+     * @param histogramStepCents ancho de cada intervalo del histograma, en centavos */
+
+    public record BrowseResult(int total, List<Long> productIds, Map<Long, Integer> categoryCounts,
+                               int[] priceHistogram, long histogramMinCents, long histogramStepCents) {}
+
+    /** Cambio de precio, stock, activo o categoría de un producto, publicado después de aplicarlo (tras el commit).
+     * @param delta              estado nuevo del producto
+     * @param previousCategoryId categoría anterior si el producto cambió de categoría, o null */
+
+    public record ProductChanged(ProductDeltaDTO delta, Long previousCategoryId) {}
+
+    /** Carga completa del snapshot al arrancar la aplicación, usando una proyección sin entidades.
+     * Se repite cuando la base de datos vuelve después de una caída, por si se cargó desde el snapshot en disco. */
+
+    @EventListener({ApplicationReadyEvent.class, CatalogDiskSnapshotService.DatabaseRecovered.class})
+    public void load() {
+        List<Object[]> rows = diskSnapshot.read(productRepository::findCatalogRows, diskSnapshot::getCatalogRows);  // id, categoría, precio, stock, activo, versión
+        lock.writeLock().lock();
+        try {
+            rowById.clear();
+            slotByCategory.clear();
+            active.clear();
+            size = 0;
+            slotCount = 0;
+            for (Object[] row : rows) apply(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Snapshot del catálogo cargado con {} productos", rows.size());
+    }
+
+    /** Registra la escritura de un producto. Los valores se leen de la entidad cuando la transacción confirma
+     * (o inmediatamente si no hay transacción activa), junto con la versión que Hibernate le asignó al hacer flush;
+     * si otra escritura más nueva del mismo producto ya se aplicó, esta se descarta.
+     * @param product entidad recién guardada */
+
+    public void onProductWritten(ProductModel product) {
+        AfterCommit.run(() -> {
+            Long categoryId = product.getCategoryProduct() != null ? product.getCategoryProduct().getId() : null;
+            int stock = product.getStockProduct() != null ? product.getStockProduct() : 0;
+            ProductChanged changed;
+            lock.writeLock().lock();
+            try {
+                changed = apply(product.getId(), product.getVersion(), categoryId, Money.centsOf(product.getPriceProduct()), stock, product.isActivo());
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (changed != null) events.publishEvent(changed);
+        });
+    }
+
+    /** Vuelve a leer los productos escritos en otra instancia y quita los que ya no existen.
+     * @param event IDs escritos, recibidos del log de invalidación */
+
+    @EventListener(condition = "#event.target() == T(com.api.java.models.InvalidationTarget).PRODUCT")
+    public void onInvalidated(InvalidationLogService.Invalidated event) {
+        List<Object[]> rows = productRepository.findCatalogRowsByIds(event.ids());   // id, categoría, precio, stock, activo, versión
+        Set<Long> missing = new HashSet<>(event.ids());
+        List<ProductChanged> changes = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : rows) {
+                missing.remove((Long) row[0]);
+                ProductChanged changed = apply(row);
+                if (changed != null) changes.add(changed);
+            }
+            for (Long id : missing) {
+                ProductChanged changed = remove(id);
+                if (changed != null) changes.add(changed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changes.forEach(events::publishEvent);
+    }
+
+    /** Elimina del snapshot productos borrados (por ejemplo, un bloque de la purga de una categoría).
+     * @param productIds IDs de los productos eliminados */
+
+    public void onProductsDeleted(List<Long> productIds) {
+        AfterCommit.run(() -> {
+            List<ProductChanged> changes = new ArrayList<>(productIds.size());
+            lock.writeLock().lock();
+            try {
+                for (Long id : productIds) {
+                    ProductChanged changed = remove(id);
+                    if (changed != null) changes.add(changed);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            changes.forEach(events::publishEvent);
+        });
+    }
+
+    /** Estado actual de algunos productos, para el estado inicial de una suscripción al stream de cambios.
+     * @param productIds IDs de los productos (los que no existen se omiten)
+     * @return precio, stock y activo de cada producto */
+
+    public List<ProductDeltaDTO> current(Collection<Long> productIds) {
+        lock.readLock().lock();
+        try {
+            List<ProductDeltaDTO> result = new ArrayList<>(productIds.size());
+            for (Long id : productIds) {
+                Integer row = rowById.get(id);
+                if (row != null) result.add(deltaOf(row));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Estado actual de los productos de una categoría, para el estado inicial de una suscripción al stream de cambios.
+     * @param categoryId ID de la categoría
+     * @return precio, stock y activo de cada producto de la categoría */
+
+    public List<ProductDeltaDTO> currentByCategory(long categoryId) {
+        lock.readLock().lock();
+        try {
+            List<ProductDeltaDTO> result = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                if (categoryIds[row] == categoryId) result.add(deltaOf(row));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Filtra, ordena por precio y pagina el catálogo, calculando además los facets por categoría e histograma de precios.
+     * @param categoryId categoría requerida (null para todas)
+     * @param minCents   precio mínimo en centavos (inclusive)
+     * @param maxCents   precio máximo en centavos (inclusive)
+     * @param inStock    si es true, solo productos con stock mayor a 0
+     * @param descending orden descendente por precio
+     * @param page       número de página (desde 0)
+     * @param pageSize   tamaño de página
+     * @return resultado con IDs de la página y facets */
+
+    public BrowseResult browse(Long categoryId, long minCents, long maxCents, boolean inStock, boolean descending, int page, int pageSize) {
+        lock.readLock().lock();
+        try {
+            int n = size;
+            boolean anyCategory = categoryId == null;
+            long category = anyCategory ? 0L : categoryId;
+
+            // Primera pasada: filtros base (activo y stock), compartidos por resultado y facets
+            int[] matched = new int[n];
+            int matchedCount = 0;
+            int[] slotCounts = new int[slotCount];  // Facet de categoría por posición del diccionario
+            long histMin = Long.MAX_VALUE;
+            long histMax = Long.MIN_VALUE;
+            for (int row = active.nextSetBit(0); row >= 0 && row < n; row = active.nextSetBit(row + 1)) {
+                if (inStock && stocks[row] <= 0) continue;
+                long price = priceCents[row];
+                boolean priceOk = price >= minCents && price <= maxCents;
+                boolean categoryOk = anyCategory || categoryIds[row] == category;
+                if (priceOk) slotCounts[categorySlots[row]]++;   // Facet de categoría: ignora el filtro de categoría
+                if (categoryOk) {   // Rango del histograma: ignora el filtro de precio
+                    if (price < histMin) histMin = price;
+                    if (price > histMax) histMax = price;
+                }
+                if (priceOk && categoryOk) matched[matchedCount++] = row;
+            }
+
+            // Segunda pasada: histograma de precios sobre el rango observado
+            int[] histogram = new int[HISTOGRAM_BUCKETS];
+            long step = 0;
+            if (histMin <= histMax) {
+                step = Math.max(1, (histMax - histMin) / HISTOGRAM_BUCKETS + 1);
+                for (int row = active.nextSetBit(0); row >= 0 && row < n; row = active.nextSetBit(row + 1)) {
+                    if (inStock && stocks[row] <= 0) continue;
+                    if (!anyCategory && categoryIds[row] != category) continue;
+                    histogram[(int) ((priceCents[row] - histMin) / step)]++;
+                }
+            } else {
+                histMin = 0;
+            }
+
+            Map<Long, Integer> categoryCounts = new LinkedHashMap<>();  // Se arma una vez por categoría, no por fila
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slotCounts[slot] > 0) categoryCounts.put(slotCategories[slot], slotCounts[slot]);
+            }
+
+            sortByPrice(matched, 0, matchedCount - 1);
+            int from = (int) Math.min((long) page * pageSize, matchedCount);    // En long: una página muy alta no desborda
+            int to = Math.min(from + pageSize, matchedCount);
+            Long[] pageIds = new Long[to - from];
+            for (int i = from; i < to; i++) {
+                int position = descending ? matchedCount - 1 - i : i;
+                pageIds[i - from] = ids[matched[position]];
+            }
+            return new BrowseResult(matchedCount, List.of(pageIds), categoryCounts, histogram, histMin, step);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================================================
+    // MÉTODOS AUXILIARES PRIVADOS
+    // ========================================================
+
+    /** Aplica una fila leída de la base de datos o del snapshot en disco (id, categoría, precio, stock, activo, versión).
+     * Debe llamarse con el lock de escritura tomado. */
+
+    private ProductChanged apply(Object[] row) {
+        return apply((Long) row[0], (Long) row[5], (Long) row[1], Money.centsOf((Money) row[2]), row[3] != null ? (Integer) row[3] : 0, (Boolean) row[4]);
+    }
+
+    /** Inserta o actualiza una fila. Debe llamarse con el lock de escritura tomado.
+     * @return el cambio a publicar, o null si la fila ya tenía esos valores o ya tiene una versión más nueva */
+
+    private ProductChanged apply(long id, long version, Long categoryId, long cents, int stock, boolean isActive) {
+        long category = categoryId != null ? categoryId : 0L;
+        Integer row = rowById.get(id);
+        Long previousCategoryId = null;
+        if (row == null) {
+            ensureCapacity(size + 1);
+            row = size++;
+            rowById.put(id, row);
+            ids[row] = id;
+        } else if (version < versions[row]) {
+            return null;    // Escritura vieja que confirmó después de una más nueva
+        } else if (categoryIds[row] == category && priceCents[row] == cents && stocks[row] == stock && active.get(row) == isActive) {
+            versions[row] = version;
+            return null;
+        } else if (categoryIds[row] != category && categoryIds[row] != 0L) {
+            previousCategoryId = categoryIds[row];
+        }
+        versions[row] = version;
+        categoryIds[row] = category;
+        categorySlots[row] = slotOf(category);
+        priceCents[row] = cents;
+        stocks[row] = stock;
+        active.set(row, isActive);
+        return new ProductChanged(deltaOf(row), previousCategoryId);
+    }
+
+    /** Elimina la fila de un producto, si existe. Debe llamarse con el lock de escritura tomado.
+     * @return el cambio a publicar (producto inactivo y sin stock), o null si no estaba en el snapshot */
+
+    private ProductChanged remove(long id) {
+        Integer row = rowById.get(id);
+        if (row == null) return null;
+        ProductDeltaDTO last = deltaOf(row);
+        removeRow(row);
+        return new ProductChanged(new ProductDeltaDTO(id, last.getCategoryId(), last.getPriceProduct(), 0, false), null);
+    }
+
+    /** Copia precio, stock y activo de una fila. Debe llamarse con algún lock tomado. */
+
+    private ProductDeltaDTO deltaOf(int row) {
+        return new ProductDeltaDTO(ids[row], categoryIds[row] != 0L ? categoryIds[row] : null, Money.ofCents(priceCents[row]),
+                stocks[row], active.get(row));
+    }
+
+    /** Elimina una fila moviendo la última a su lugar. Debe llamarse con el lock de escritura tomado. */
+
+    private void removeRow(int row) {
+        int last = --size;
+        rowById.remove(ids[row]);
+        if (row != last) {
+            ids[row] = ids[last];
+            versions[row] = versions[last];
+            categoryIds[row] = categoryIds[last];
+            categorySlots[row] = categorySlots[last];
+            priceCents[row] = priceCents[last];
+            stocks[row] = stocks[last];
+            active.set(row, active.get(last));
+            rowById.put(ids[row], row);
+        }
+        active.clear(last);
+    }
+
+    /** Duplica la capacidad de las columnas cuando se llenan. */
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) return;
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        categorySlots = Arrays.copyOf(categorySlots, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        stocks = Arrays.copyOf(stocks, capacity);
+    }
+
+    /** Devuelve la posición de una categoría en el diccionario, agregándola si es nueva.
+     * Las posiciones no se reutilizan hasta la próxima carga completa. */
+
+    private int slotOf(long category) {
+        Integer slot = slotByCategory.get(category);
+        if (slot != null) return slot;
+        if (slotCount == slotCategories.length) slotCategories = Arrays.copyOf(slotCategories, slotCount * 2);
+        slotCategories[slotCount] = category;
+        slotByCategory.put(category, slotCount);
+        return slotCount++;
+    }
+
+    /** Quicksort sobre índices de fila usando la columna de precios como clave (desempate por ID),
+     * evitando el boxing que implicaría un Comparator sobre Integer. */
+
+    private void sortByPrice(int[] rows, int low, int high) {
+        while (low < high) {
+            if (high - low < 16) {  // Inserción para rangos pequeños
+                for (int i = low + 1; i <= high; i++) {
+                    int current = rows[i];
+                    int j = i - 1;
+                    while (j >= low && greater(rows[j], current)) {
+                        rows[j + 1] = rows[j];
+                        j--;
+                    }
+                    rows[j + 1] = current;
+                }
+                return;
+            }
+            int pivot = rows[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (greater(pivot, rows[i])) i++;
+                while (greater(rows[j], pivot)) j--;
+                if (i <= j) {
+                    int tmp = rows[i];
+                    rows[i++] = rows[j];
+                    rows[j--] = tmp;
+                }
+            }
+            if (j - low < high - i) {   // Recursión sobre la mitad menor para acotar la pila
+                sortByPrice(rows, low, j);
+                low = i;
+            } else {
+                sortByPrice(rows, i, high);
+                high = j;
+            }
+        }
+    }
+
+    /** Compara dos filas por precio y luego por ID. */
+
+    private boolean greater(int a, int b) {
+        return priceCents[a] > priceCents[b] || (priceCents[a] == priceCents[b] && ids[a] > ids[b]);
+    }
+}
@@ -1,50 +1,97 @@
 package com.api.java.services;
 import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.MultiGetDTO;
+import com.api.java.dto.PurgeJobDTO;
+import com.api.java.dto.SparseListDTO;
+import com.api.java.dto.VersionDTO;
+import com.api.java.globalException.ConflictException;
+import com.api.java.globalException.InvalidRequestException;
+import com.api.java.globalException.NotFoundException;
 import com.api.java.mapper.CategoryMapper;
 import com.api.java.models.CategoryModel;
+import com.api.java.models.InvalidationTarget;
+import com.api.java.models.PurgeTarget;
 import com.api.java.repositories.ICategoryRepository;
+import com.api.java.repositories.IDetailOrderRepository;
+import com.api.java.repositories.IProductRepository;
+import com.api.java.repositories.SparseFieldQuery;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /** Servicio que encapsula la lógica de negocio relacionada con las categorías de productos.
- *  Proporciona operaciones para crear, obtener, buscar y eliminar categorías. */
+ *  Proporciona operaciones para crear, obtener, buscar y eliminar categorías. Las lecturas principales pueden servirse
+ *  desde el snapshot en disco mientras la base de datos no esté disponible (ver {@link CatalogDiskSnapshotService}). */
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
+    /** Campos de CategoryDTO seleccionables con ?fields= y su columna. */
+    private static final SparseFieldQuery.Fields CATEGORY_FIELDS = new SparseFieldQuery.Fields("CategoryModel c", "c.deleting = false",
+            "id", "c.id",
+            "categoryProducts", "c.categoryProducts");
+
     private final ICategoryRepository categoryRepository; // Repositorio para acceder a los datos de la entidad CategoryModel
     private final CategoryMapper categoryMapper; // Mapper para convertir entre CategoryDTO y CategoryModel
+    private final IProductRepository productRepository; // Para contar los productos que se eliminarán
+    private final IDetailOrderRepository detailOrderRepository; // Para detectar productos con órdenes asociadas
+    private final PurgeService purgeService; // Purga en segundo plano de los productos de la categoría
+    private final SparseFieldQuery sparseFieldQuery; // Listados con solo las columnas pedidas
+    private final CatalogDiskSnapshotService diskSnapshot; // Snapshot en disco para lecturas durante una caída de la base de datos
+    private final InvalidationLogService invalidationLog; // Avisa las escrituras a las demás instancias
 
     /** Crea una nueva categoría a partir del DTO recibido.
      * @param categoryDTO DTO con los datos a registrar
      * @return DTO con los datos de la categoría creada (incluye ID) */
 
+    @Transactional
     public CategoryDTO createNewCategory(CategoryDTO categoryDTO) {
         CategoryModel categoryModel = categoryMapper.categoryDtoToCategory(categoryDTO); // Convierte el DTO en entidad
-        return categoryMapper.categoryToCategoryDto(categoryRepository.save(categoryModel)); // Guarda la entidad en la base de datos y convierte la entidad guardada de nuevo en DTO para retornar
+        CategoryModel saved = categoryRepository.save(categoryModel); // Guarda la entidad en la base de datos
+        invalidationLog.append(InvalidationTarget.CATEGORY, saved.getId()); // Lo avisa a las demás instancias en la misma transacción
+        return categoryMapper.categoryToCategoryDto(saved); // Convierte la entidad guardada de nuevo en DTO para retornar
     }
 
     /** Obtiene todas las categorías registradas.
      * @return lista de categorías convertidas a DTO */
 
     public List<CategoryDTO> getCategories() {
-        return categoryRepository.findAll().stream() // Obtiene todas las entidades y las convierte en un Stream
+        return diskSnapshot.read(() -> categoryRepository.findByDeletingFalse().stream() // Obtiene las categorías no marcadas para eliminación y las convierte en un Stream
                 .map(categoryMapper::categoryToCategoryDto) // Mapea cada CategoryModel a CategoryDTO
-                .collect(Collectors.toList()); // Recolecta los DTOs en una lista
+                .collect(Collectors.toList()), diskSnapshot::getCategories); // Recolecta los DTOs en una lista
+    }
+
+    /** Obtiene las categorías con solo los campos indicados, leyendo únicamente sus columnas.
+     * @param fields campos de CategoryDTO separados por coma
+     * @return listado reducido
+     * @throws InvalidRequestException 400 si algún campo no existe */
+
+    public SparseListDTO getCategories(String fields) {
+        return sparseFieldQuery.list(CATEGORY_FIELDS, CATEGORY_FIELDS.parse(fields));
+    }
+
+    /** Obtiene varias categorías por ID con una sola consulta. Las que se están eliminando se informan como inexistentes.
+     * @param ids IDs pedidos (hasta {@link MultiGet#MAX_IDS} distintos)
+     * @return categorías en el orden pedido y los IDs inexistentes
+     * @throws InvalidRequestException 400 si no hay IDs o son demasiados */
+
+    public MultiGetDTO<CategoryDTO> getCategoriesByIds(List<Long> ids) {
+        return diskSnapshot.read(() -> MultiGet.resolve(ids, categoryRepository::findByIdInAndDeletingFalse, CategoryModel::getId, categoryMapper::categoryToCategoryDto),
+                () -> MultiGet.resolve(ids, diskSnapshot::findCategories, CategoryDTO::getId, Function.identity()));
     }
 
     /** Busca una categoría por su ID.
      *
      * @param id identificador único de la categoría
      * @return DTO de la categoría encontrada
-     * @throws ResponseStatusException si la categoría no existe */
+     * @throws NotFoundException si la categoría no existe */
 
     public CategoryDTO getCategoryById(Long id) {
-        return categoryMapper.categoryToCategoryDto(throwResponse(id));// Si la encuentra, mapea la entidad a DTO y la retorna
+        return diskSnapshot.read(() -> categoryMapper.categoryToCategoryDto(throwResponse(id)), // Si la encuentra, mapea la entidad a DTO y la retorna
+                () -> diskSnapshot.findCategory(id).orElseThrow(() -> notFound(id)));
     }
 
     /** Busca categorías cuyo nombre sea exactamente igual al parámetro recibido.
@@ -55,25 +102,59 @@ public class CategoryService {
     public List<CategoryDTO> searchCategory(String categoryProducts) {
         return categoryRepository.findByCategoryProducts(categoryProducts) // Ejecuta la búsqueda en el repositorio y transforma directamente el resultado a DTOs
                 .stream() // Convierte la lista en un flujo
+                .filter(category -> !category.isDeleting()) // Descarta las categorías que se están eliminando
                 .map(categoryMapper::categoryToCategoryDto) // Mapea cada entidad a DTO
                 .collect(Collectors.toList()); // Recolecta el resultado en una lista
     }
 
-    /** Elimina una categoría por su ID si existe.
+    /** Marca una categoría para eliminación y registra la purga en segundo plano de sus productos.
+     * La categoría deja de listarse de inmediato; la entidad se elimina cuando la purga termina.
+     * Repetir la eliminación de una categoría en curso devuelve la misma tarea.
      * @param id identificador de la categoría a eliminar
-     * @throws ResponseStatusException si la categoría no existe */
+     * @return tarea de purga con su avance
+     * @throws NotFoundException si la categoría no existe
+     * @throws ConflictException si alguno de sus productos tiene órdenes asociadas */
 
-    public void deleteCategoryById(Long id) {
-        if (!categoryRepository.existsById(id)) { // Verifica si la categoría existe
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Categoría con ID " + id + " no encontrada");
+    @Transactional
+    public PurgeJobDTO deleteCategoryById(Long id) {
+        CategoryModel category = categoryRepository.findById(id) // Verifica si la categoría existe (aunque ya se esté eliminando)
+                .orElseThrow(() -> new NotFoundException("Categoría con ID " + id + " no encontrada"));
+        if (!category.isDeleting()) {
+            if (detailOrderRepository.existsByProductOrder_CategoryProduct_Id(id)) { // Los detalles de orden referencian a los productos
+                throw new ConflictException("La categoría con ID " + id + " tiene productos con órdenes asociadas");
+            }
+            category.setDeleting(true); // La marca oculta la categoría mientras se purgan sus productos
+            categoryRepository.save(category);
+            invalidationLog.append(InvalidationTarget.CATEGORY, id); // Lo avisa a las demás instancias
         }
-        categoryRepository.deleteById(id); // Si existe, la elimina de la base de datos
+        return purgeService.enqueue(PurgeTarget.CATEGORY, id, productRepository.countByCategoryProduct_Id(id));
+    }
+
+    /** Obtiene la versión de una categoría sin cargar la entidad, para responder GET condicionales.
+     * @param id ID de la categoría
+     * @return versión y fecha de modificación de la categoría
+     * @throws NotFoundException si la categoría no existe */
+
+    public VersionDTO getCategoryVersion(Long id) {
+        return diskSnapshot.read(() -> categoryRepository.findVersionById(id), () -> diskSnapshot.findCategoryVersion(id))
+                .orElseThrow(() -> notFound(id));
+    }
+
+    /** Obtiene la versión agregada del listado de categorías con una única consulta de agregación.
+     * @return versión de la colección de categorías */
+
+    public VersionDTO getCategoriesVersion() {
+        return diskSnapshot.read(categoryRepository::findCollectionVersion, diskSnapshot::getCategoriesVersion);
     }
 
     /** Metodo reutilizable que obtiene una categoría por su ID o lanza una excepción 404 si no existe.
      * @param id ID de la categoría
      * @return entidad encontrada
-     * @throws ResponseStatusException si no se encuentra */
+     * @throws NotFoundException si no se encuentra */
 
-    private CategoryModel throwResponse(Long id) {  return categoryRepository.findById(id) .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Categoría con ID " + id + " no encontrada"));  }
+    private CategoryModel throwResponse(Long id) {  return categoryRepository.findById(id).filter(category -> !category.isDeleting()) .orElseThrow(() -> notFound(id));  }
+
+    private static NotFoundException notFound(Long id) {
+        return new NotFoundException("Categoría con ID " + id + " no encontrada");
+    }
 }
\ No newline at end of file
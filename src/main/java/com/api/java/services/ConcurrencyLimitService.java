@@ -0,0 +1,89 @@
+package com.api.java.services;
+import com.api.java.dto.ConcurrencyLimitDTO;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/** Servicio que mantiene un límite de concurrencia adaptativo por clase de ruta.
+ * Cada clase se limita por separado para que una degradación en una (por ejemplo, escrituras de pedidos lentas por bloqueos
+ * en la base de datos, o un pico de logins que consume CPU en BCrypt) no deje sin capacidad a las demás. */
+
+@Service
+public class ConcurrencyLimitService {
+
+    /** Clases de ruta con límite propio. Los valores por defecto se pueden cambiar con
+     * app.concurrency-limit.&lt;clave&gt;.initial, .min y .max. */
+
+    public enum RouteClass {
+        AUTH("auth", 16, 2, 64),                      // /auth/** (login y registro, acotados por CPU de BCrypt)
+        CATALOG_READ("catalog-read", 50, 4, 400),     // Lecturas (GET/HEAD) de catálogo y pedidos
+        CHECKOUT_WRITE("checkout-write", 20, 2, 100), // Escrituras de detalles de orden y reservas de stock
+        ADMIN("admin", 8, 1, 32);                     // /admin/**, /users/** y demás escrituras de administración
+
+        private final String key;
+        private final int initialLimit;
+        private final int minLimit;
+        private final int maxLimit;
+
+        RouteClass(String key, int initialLimit, int minLimit, int maxLimit) {
+            this.key = key;
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private final Map<RouteClass, AdaptiveLimiter> limiters = new EnumMap<>(RouteClass.class);
+
+    public ConcurrencyLimitService(Environment environment) {
+        for (RouteClass routeClass : RouteClass.values()) {
+            String prefix = "app.concurrency-limit." + routeClass.key + ".";
+            limiters.put(routeClass, new AdaptiveLimiter(
+                    environment.getProperty(prefix + "initial", Integer.class, routeClass.initialLimit),
+                    environment.getProperty(prefix + "min", Integer.class, routeClass.minLimit),
+                    environment.getProperty(prefix + "max", Integer.class, routeClass.maxLimit)));
+        }
+    }
+
+    /** Clasifica una request según su ruta y método.
+     * @param request request entrante
+     * @return clase de ruta, o null si la request no se limita (/batch: se limitan sus sub-requests una a una;
+     *         /actuator: la salud y las métricas deben responder aun con el servidor saturado) */
+
+    public RouteClass classify(HttpServletRequest request) {
+        String path = request.getServletPath();
+        String method = request.getMethod();
+        boolean read = "GET".equals(method) || "HEAD".equals(method);
+        if (path.startsWith("/auth/")) return RouteClass.AUTH;
+        if (path.equals("/batch") || path.startsWith("/actuator/")) return null;
+        if (path.startsWith("/admin/") || path.startsWith("/users")) return RouteClass.ADMIN;
+        if (read) return RouteClass.CATALOG_READ;
+        if (path.startsWith("/detail-order") || path.startsWith("/reservations")) return RouteClass.CHECKOUT_WRITE;
+        return RouteClass.ADMIN;    // Altas y cambios de productos y categorías
+    }
+
+    /** @param routeClass clase de ruta
+     * @return limitador de la clase */
+
+    public AdaptiveLimiter limiter(RouteClass routeClass) {
+        return limiters.get(routeClass);
+    }
+
+    /** @return estado actual de cada limitador */
+
+    public List<ConcurrencyLimitDTO> snapshot() {
+        List<ConcurrencyLimitDTO> result = new ArrayList<>(limiters.size());
+        limiters.forEach((routeClass, limiter) -> result.add(new ConcurrencyLimitDTO(routeClass.key, limiter.getLimit(),
+                limiter.getInflight(), limiter.getAccepted(), limiter.getRejected(), limiter.getShortRttMs(), limiter.getLongRttMs())));
+        return result;
+    }
+}
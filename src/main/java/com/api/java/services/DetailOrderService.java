@@ -1,18 +1,36 @@
 package com.api.java.services;
+import com.api.java.config.StockAdjustmentEvent;
+import com.api.java.dto.CompactDetailOrdersDTO;
 import com.api.java.dto.DetailOrderDTO;
 import com.api.java.dto.ProductDTO;
+import com.api.java.dto.SparseListDTO;
+import com.api.java.globalException.InsufficientStockException;
+import com.api.java.globalException.InvalidRequestException;
+import com.api.java.globalException.NotFoundException;
 import com.api.java.mapper.DetailOrderMapper;
+import com.api.java.mapper.ProductMapper;
 import com.api.java.models.DetailOrderModel;
+import com.api.java.models.InvalidationTarget;
+import com.api.java.models.OrderStatus;
 import com.api.java.models.ProductModel;
+import com.api.java.models.UserModel;
 import com.api.java.repositories.IDetailOrderRepository;
 import com.api.java.repositories.IProductRepository;
+import com.api.java.repositories.IStockReservationRepository;
+import com.api.java.repositories.IUserRepository;
+import com.api.java.repositories.SparseFieldQuery;
 import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 
@@ -22,9 +40,36 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class DetailOrderService {
+    /** Campos de DetailOrderDTO seleccionables con ?fields= y su columna.
+     * Los del producto se piden como "productOrder.campo" (o "productOrder" para todos); solo "productOrder.id"
+     * se resuelve con la clave foránea, el resto agrega un único join con product. */
+    private static final SparseFieldQuery.Fields DETAIL_ORDER_FIELDS = new SparseFieldQuery.Fields("DetailOrderModel d", null,
+            "id", "d.id",
+            "userOrder", "d.userOrder.id",
+            "productOrder.id", "d.productOrder.id",
+            "productOrder.nameProduct", "d.productOrder.nameProduct",
+            "productOrder.descriptionProduct", "d.productOrder.descriptionProduct",
+            "productOrder.priceProduct", "d.productOrder.priceProduct",
+            "productOrder.categoryId", "d.productOrder.categoryProduct.id",
+            "productOrder.stockProduct", "d.productOrder.stockProduct",
+            "productOrder.activo", "d.productOrder.activo",
+            "amount", "d.amount",
+            "status", "d.status",
+            "nombreProductoSnapshot", "d.nameProductSnapshot",
+            "precioUnitarioSnapshot", "d.priceUnitSnapshot");
+
     private final IDetailOrderRepository detailOrderRepository;  //Repositorio JPA que maneja la persistencia de DetailOrderModel.
     private final DetailOrderMapper detailOrderMapper;  // Mapper encargado de convertir entre entidades y DTOs de detalle de orden.
     private final IProductRepository productRepository;
+    private final CatalogSnapshotService catalogSnapshot;   // Snapshot del catálogo, se actualiza con los cambios de stock
+    private final ProductSuggestService suggestService;     // Autocompletado, rankeado por unidades vendidas
+    private final BestSellerService bestSellerService;      // Ranking en tiempo real de productos más vendidos
+    private final SalesRollupService salesRollupService;    // Resúmenes de ventas mantenidos en la misma transacción
+    private final IUserRepository userRepository;           // Consulta del país del usuario para los resúmenes
+    private final SparseFieldQuery sparseFieldQuery;        // Listados con solo las columnas pedidas
+    private final ProductMapper productMapper;              // Productos del diccionario de las respuestas compactas
+    private final InvalidationLogService invalidationLog;   // Avisa los cambios de stock a las demás instancias
+    private final IStockReservationRepository reservationRepository;    // Stock retenido por reservas vigentes
 
     /**
      * Obtiene todos los detalles de órdenes registrados en el sistema.
@@ -32,12 +77,38 @@ public class DetailOrderService {
      * @return lista de objetos DetailOrderDTO
      */
 
+    @Timed(value = "app.service", histogram = true)
     public List<DetailOrderDTO> getDetailOrders() {
         return detailOrderRepository.findAll().stream()     // Recupera todas las entidades desde la base de datos
                 .map(detailOrderMapper::detailOrderToDetailOrderDto)    // Convierte cada entidad a DTO
                 .collect(Collectors.toList());  // Agrupa en una lista
     }
 
+    /**
+     * Obtiene todos los detalles de orden con solo los campos indicados, leyendo únicamente sus columnas.
+     *
+     * @param fields campos de DetailOrderDTO separados por coma (ej. "id,amount,productOrder.nameProduct")
+     * @return listado reducido
+     * @throws InvalidRequestException 400 si algún campo no existe
+     */
+
+    @Timed(value = "app.service", histogram = true)
+    public SparseListDTO getDetailOrders(String fields) {
+        return sparseFieldQuery.list(DETAIL_ORDER_FIELDS, DETAIL_ORDER_FIELDS.parse(fields));
+    }
+
+    /**
+     * Obtiene todos los detalles de orden en formato compacto: cada línea trae solo el ID del producto
+     * y los productos distintos se envían una vez.
+     *
+     * @return líneas y diccionario de productos
+     */
+
+    @Timed(value = "app.service", histogram = true)
+    public CompactDetailOrdersDTO getDetailOrdersCompact() {
+        return withProducts(detailOrderRepository.findCompactLines());
+    }
+
     /**
      * Crea un nuevo detalle de orden en la base de datos.
      *
@@ -45,12 +116,34 @@ public class DetailOrderService {
      * @return DTO del detalle de orden creado
      */
 
+    @Timed(value = "app.service", histogram = true)
+    @Transactional
     public DetailOrderDTO newDetailOrder(DetailOrderDTO detailOrderDTO) {
-        validateProductActiveStock(detailOrderDTO.getProductOrder(), detailOrderDTO.getAmount());
+        ProductModel product = validateProductActiveStock(detailOrderDTO.getProductOrder(), detailOrderDTO.getAmount());
 
         DetailOrderModel entity = detailOrderMapper.detailOrderDtoToDetailOrder(detailOrderDTO);    // Convierte el DTO a entidad JPA
-        DetailOrderModel saved = detailOrderRepository.save(entity);    // Guarda la entidad en base de datos
-        return detailOrderMapper.detailOrderToDetailOrderDto(saved);    // Convierte la entidad guardada nuevamente a DTO para la respuesta
+        return register(entity, product);
+    }
+
+    /**
+     * Crea el detalle de orden de una reserva confirmada y descuenta del stock las unidades que la reserva retenía.
+     * Debe llamarse dentro de la transacción que marca la reserva como confirmada (así ya no cuenta como retenida).
+     *
+     * @param user      usuario de la reserva
+     * @param productId ID del producto reservado
+     * @param amount    unidades reservadas
+     * @return DTO del detalle de orden creado, en estado PENDING
+     */
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public DetailOrderDTO newDetailOrderFromReservation(UserModel user, Long productId, int amount) {
+        ProductModel product = validateProductActiveStock(productId, amount);
+        DetailOrderModel entity = new DetailOrderModel();
+        entity.setUserOrder(user);
+        entity.setAmount(amount);
+        entity.setStatus(OrderStatus.PENDING);
+        adjustStock(productId, 0, amount, "RESERVATION_CONFIRM");     // La reserva se convierte en venta: ahora sí se descuenta el stock
+        return register(entity, product);
     }
 
     /**
@@ -60,6 +153,7 @@ public class DetailOrderService {
      * @return DTO correspondiente al ID solicitado
      */
 
+    @Timed(value = "app.service", histogram = true)
     public DetailOrderDTO getDetailById(Long id) {
         return detailOrderMapper.detailOrderToDetailOrderDto(throwResponse(id));
     }     // Lanza excepción si no existe, si existe lo retorna como DTO
@@ -72,12 +166,25 @@ public class DetailOrderService {
      * @return lista de detalles de órdenes correspondientes al usuario
      */
 
+    @Timed(value = "app.service", histogram = true)
     public List<DetailOrderDTO> getDetailUserById(Long userOrderId) {
         return detailOrderRepository.findByUserOrder_Id(userOrderId).stream()   // Consulta el repositorio filtrando por ID de usuario
                 .map(detailOrderMapper::detailOrderToDetailOrderDto)    // Mapea cada resultado a DTO
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Obtiene los detalles de orden de un usuario en formato compacto.
+     *
+     * @param userOrderId ID del usuario
+     * @return líneas del usuario y diccionario de productos
+     */
+
+    @Timed(value = "app.service", histogram = true)
+    public CompactDetailOrdersDTO getDetailUserByIdCompact(Long userOrderId) {
+        return withProducts(detailOrderRepository.findCompactLinesByUserId(userOrderId));
+    }
+
     /**
      * Actualiza un detalle de orden existente con nuevos valores.
      *
@@ -86,6 +193,7 @@ public class DetailOrderService {
      * @return DTO actualizado luego de persistir
      */
 
+    @Timed(value = "app.service", histogram = true)
     @Transactional
     public DetailOrderDTO updateDetailById(Long id, DetailOrderDTO detailOrderDTO) {
         DetailOrderModel existingDetail = throwResponse(id);    // Obtener el detalle actual desde la base de datos
@@ -94,11 +202,28 @@ public class DetailOrderService {
         ProductDTO productDTO = detailOrderDTO.getProductOrder();
         Integer newAmount = detailOrderDTO.getAmount();
         Integer previousAmount = existingDetail.getAmount();
+        long previousUnits = unitsSold(existingDetail.getStatus(), previousAmount);    // Unidades que ya contaban en el ranking
+        long previousPaid = paidUnits(existingDetail.getStatus(), previousAmount);     // Unidades pagadas antes del cambio de estado
+        OrderStatus previousStatus = existingDetail.getStatus();
+        Instant previousPaidAt = existingDetail.getPaidAt();    // Intervalo del ranking donde se sumó lo pagado
+        SalesRollupService.SalesFact previousFact = factOf(existingDetail);     // Aporte a los resúmenes antes del cambio
 
         validateChangeAmount(productDTO, previousAmount, newAmount);   // Validar producto y stock según la diferencia
         detailOrderMapper.updateDetailOrderFromDto(detailOrderDTO, existingDetail);  // Actualizar los campos del detalle con el mapper
+        if (existingDetail.getStatus() != OrderStatus.PAID) existingDetail.setPaidAt(null);
+        else if (previousStatus != OrderStatus.PAID) existingDetail.setPaidAt(Instant.now());     // Se paga ahora
         DetailOrderModel saved = detailOrderRepository.save(existingDetail);    // Guardar el detalle actualizado
-        adjustStock(productDTO.getId(), previousAmount, newAmount);   // Ajustar el stock del producto
+        salesRollupService.onOrderChanged(previousFact, factOf(saved));     // Resta el aporte anterior y suma el nuevo
+        adjustStock(productDTO.getId(), previousAmount, newAmount, "ORDER_UPDATE");   // Ajustar el stock del producto
+        suggestService.onSale(productDTO.getId(), unitsSold(saved.getStatus(), saved.getAmount()) - previousUnits);    // Ajusta el ranking del autocompletado
+        Long categoryId = saved.getCategoryIdSnapshot();    // La categoría en la que se sumó la venta
+        long paid = paidUnits(saved.getStatus(), saved.getAmount());
+        if (Objects.equals(previousPaidAt, saved.getPaidAt())) {
+            bestSellerService.record(productDTO.getId(), categoryId, paid - previousPaid, previousPaidAt);    // Cambio de cantidad de una orden ya pagada
+        } else {
+            bestSellerService.record(productDTO.getId(), categoryId, -previousPaid, previousPaidAt);    // CANCELLED resta lo pagado de su intervalo
+            bestSellerService.record(productDTO.getId(), categoryId, paid, saved.getPaidAt());   // PAID suma en el intervalo actual
+        }
         return detailOrderMapper.detailOrderToDetailOrderDto(saved);
     }
 
@@ -108,11 +233,14 @@ public class DetailOrderService {
      * @param id ID del registro a eliminar
      */
 
+    @Timed(value = "app.service", histogram = true)
+    @Transactional
     public void deleteById(Long id) {
-        if (!detailOrderRepository.existsById(id)) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Detalle de orden con id " + id + " no encontrado");
-        }     // Valida existencia del registro antes de eliminar
-        detailOrderRepository.deleteById(id);   // Elimina el registro
+        DetailOrderModel existing = detailOrderRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Detalle de orden con id " + id + " no encontrado"));     // Valida existencia del registro antes de eliminar
+        salesRollupService.onOrderChanged(factOf(existing), null);  // Resta su aporte a los resúmenes de ventas
+        bestSellerService.record(existing.getProductOrder().getId(), existing.getCategoryIdSnapshot(), -paidUnits(existing.getStatus(), existing.getAmount()), existing.getPaidAt());   // Y lo pagado, del intervalo en que se sumó
+        detailOrderRepository.delete(existing);   // Elimina el registro
     }
 
     /**
@@ -123,34 +251,71 @@ public class DetailOrderService {
      */
 
     private DetailOrderModel throwResponse(Long id) {
-        return detailOrderRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Detalles de la Orden con ID " + id + " no encontrado"));
+        return detailOrderRepository.findById(id).orElseThrow(() -> new NotFoundException("Detalles de la Orden con ID " + id + " no encontrado"));
+    }
+
+    /** Guarda un detalle de orden nuevo con el producto ya validado y suma su aporte a resúmenes y rankings.
+     * @param entity  detalle a guardar
+     * @param product producto validado
+     * @return DTO del detalle guardado */
+
+    private DetailOrderDTO register(DetailOrderModel entity, ProductModel product) {
+        entity.setProductOrder(product);    // Usa el producto persistido, no el armado desde el DTO
+        entity.setNameProductSnapshot(product.getNameProduct());    // Congela nombre y precio al momento de la compra
+        entity.setPriceUnitSnapshot(product.getPriceProduct());
+        entity.setCategoryIdSnapshot(categoryIdOf(product));    // Y la categoría y el país con los que suma a los resúmenes
+        Long userId = entity.getUserOrder() != null ? entity.getUserOrder().getId() : null;
+        entity.setCountrySnapshot(userId != null ? userRepository.findCountryById(userId).orElse(null) : null);
+        if (entity.getStatus() == OrderStatus.PAID) entity.setPaidAt(Instant.now());
+        DetailOrderModel saved = detailOrderRepository.save(entity);    // Guarda la entidad en base de datos
+        salesRollupService.onOrderChanged(null, factOf(saved));     // Suma el aporte a los resúmenes de ventas
+        suggestService.onSale(saved.getProductOrder().getId(), unitsSold(saved.getStatus(), saved.getAmount()));   // Suma la venta al ranking del autocompletado
+        bestSellerService.record(product.getId(), saved.getCategoryIdSnapshot(), paidUnits(saved.getStatus(), saved.getAmount()), saved.getPaidAt());    // Si nace pagada, suma al ranking de más vendidos
+        return detailOrderMapper.detailOrderToDetailOrderDto(saved);    // Convierte la entidad guardada nuevamente a DTO para la respuesta
     }
 
     /** Valida que el producto exista, esté activo y tenga stock suficiente.
      * Lanza una excepción si no cumple las condiciones.
      * @param productDTO         DTO del producto a validar
-     * @param requestAmount cantidad de unidades que se desean ordenar*/
+     * @param requestAmount cantidad de unidades que se desean ordenar
+     * @return producto validado*/
 
-    private void validateProductActiveStock(ProductDTO productDTO, Integer requestAmount) {
+    private ProductModel validateProductActiveStock(ProductDTO productDTO, Integer requestAmount) {
         if (productDTO == null || productDTO.getId() == null) {     // Verifica que el DTO del producto no sea nulo y que contenga un ID válido
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El producto es obligatorio");
+            throw new InvalidRequestException("El producto es obligatorio");
         }
+        return validateProductActiveStock(productDTO.getId(), requestAmount);
+    }
+
+    /** Valida que el producto exista, esté activo y que su stock disponible (descontando las reservas vigentes) alcance.
+     * Bloquea la fila del producto hasta el fin de la transacción, de modo que una reserva u otra orden concurrente
+     * no pueda usar las mismas unidades.
+     * @param productId     ID del producto
+     * @param requestAmount cantidad de unidades que se desean ordenar
+     * @return producto validado */
 
-        ProductModel product = productRepository.findById(productDTO.getId())   // Busca el producto en la base de datos usando su ID,  si no se encuentra, lanza una excepción 404
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado"));
+    private ProductModel validateProductActiveStock(Long productId, Integer requestAmount) {
+        ProductModel product = productRepository.findByIdForUpdate(productId)   // Busca el producto en la base de datos usando su ID,  si no se encuentra, lanza una excepción 404
+                .orElseThrow(() -> new NotFoundException("Producto no encontrado"));
 
         if (!product.isActivo()) {     // Verifica si el producto está marcado como activo y si está inactivo, no se permite realizar pedidos con él
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El producto está inactivo y no puede ser ordenado");
+            throw new InvalidRequestException("El producto está inactivo y no puede ser ordenado");
+        }
+
+        if (product.getCategoryProduct() != null && product.getCategoryProduct().isDeleting()) {    // La categoría se está purgando: la fila del producto ya está bloqueada, así que la purga no puede eliminarlo a la vez
+            throw new InvalidRequestException("La categoría del producto se está eliminando y no puede ser ordenado");
         }
 
         if (requestAmount == null || requestAmount < 1) {     // Verifica que la cantidad solicitada no sea nula ni menor a 1 ,esto asegura que se solicite al menos una unidad
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La cantidad solicitada debe ser al menos 1 unidad");
+            throw new InvalidRequestException("La cantidad solicitada debe ser al menos 1 unidad");
         }
 
-        if (product.getStockProduct() < requestAmount) {  // Verifica que el stock disponible sea suficiente para cubrir la cantidad solicitada. Si no hay suficiente stock, lanza una excepción con un mensaje detallado
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                    "Stock insuficiente: disponible " + product.getStockProduct() + ", solicitado " + requestAmount);
+        long available = product.getStockProduct() - reservationRepository.sumHeldByProductId(productId, Instant.now());     // Las reservas vigentes retienen stock
+        if (available < requestAmount) {  // Verifica que el stock disponible sea suficiente para cubrir la cantidad solicitada. Si no hay suficiente stock, lanza una excepción con un mensaje detallado
+            throw new InsufficientStockException(
+                    "Stock insuficiente: disponible " + Math.max(0, available) + ", solicitado " + requestAmount);
         }
+        return product;
     }
 
     /** Valida que el producto esté activo y tenga stock suficiente si se aumenta la cantidad.
@@ -167,25 +332,83 @@ public class DetailOrderService {
         }
     }
 
+    /** Unidades que cuentan como vendidas para el ranking de popularidad (las órdenes canceladas no suman).
+     * @param status estado del detalle
+     * @param amount cantidad del detalle
+     * @return unidades vendidas */
+
+    private long unitsSold(OrderStatus status, Integer amount) {
+        return status == OrderStatus.CANCELLED || amount == null ? 0L : amount;
+    }
+
+    /** Unidades que cuentan para el ranking de más vendidos: solo las órdenes pagadas.
+     * @param status estado del detalle
+     * @param amount cantidad del detalle
+     * @return unidades pagadas */
+
+    private long paidUnits(OrderStatus status, Integer amount) {
+        return status == OrderStatus.PAID && amount != null ? amount : 0L;
+    }
+
+    /** Construye el aporte de un detalle a los resúmenes de ventas (producto, categoría, país y estado).
+     * La categoría y el país son los congelados al registrar el detalle, no los actuales del producto y el usuario.
+     * @param detail detalle de orden
+     * @return aporte del detalle */
+
+    private SalesRollupService.SalesFact factOf(DetailOrderModel detail) {
+        ProductModel product = detail.getProductOrder();
+        return new SalesRollupService.SalesFact(product != null ? product.getId() : null, detail.getCategoryIdSnapshot(), detail.getCountrySnapshot(),
+                detail.getStatus(), detail.getAmount() != null ? detail.getAmount() : 0, detail.getPriceUnitSnapshot());
+    }
+
+    /** Obtiene el ID de categoría de un producto sin inicializar el proxy de la categoría.
+     * @param product producto
+     * @return ID de la categoría o null */
+
+    private Long categoryIdOf(ProductModel product) {
+        return product != null && product.getCategoryProduct() != null ? product.getCategoryProduct().getId() : null;
+    }
+
     /** Ajusta el stock del producto según la diferencia entre la cantidad anterior y la nueva.
      * @param productId ID del producto
      * @param previousAmount cantidad registrada antes de la actualización
-     * @param newAmount nueva cantidad solicitada */
+     * @param newAmount nueva cantidad solicitada
+     * @param reason motivo registrado en el evento JFR */
 
-    private void adjustStock(Long productId, int previousAmount, int newAmount) {
+    private void adjustStock(Long productId, int previousAmount, int newAmount, String reason) {
+        StockAdjustmentEvent event = new StockAdjustmentEvent();     // Evento JFR del ajuste
+        event.begin();
         ProductModel product = productRepository.findById(productId)   // Busca el producto en la base de datos usando su ID, si no se encuentra, lanza una excepción 404 (NOT_FOUND).
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado"));
+                .orElseThrow(() -> new NotFoundException("Producto no encontrado"));
 
         int difference = newAmount - previousAmount;      // Calcula la diferencia entre la nueva cantidad y la anterior. Si es positiva, significa que se están solicitando más unidades (hay que descontar más stock) y si es negativa, significa que se están solicitando menos unidades (hay que devolver stock).
 
         int newStock = product.getStockProduct() - difference;       // Calcula el nuevo stock restando la diferencia al stock actual.
 
         if (newStock < 0) {   // Verifica que el nuevo stock no sea negativo, si lo es, lanza una excepción 400 (BAD_REQUEST) indicando que no hay suficiente stock.
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+            event.complete(productId, product.getStockProduct(), -difference, reason, "REJECTED");
+            throw new InsufficientStockException(
                     "Stock insuficiente para actualizar la orden. Disponible: " + product.getStockProduct());
         }
 
+        int previousStock = product.getStockProduct();
         product.setStockProduct(newStock);   // Actualiza el stock del producto con el nuevo valor calculado.
-        productRepository.save(product);   // Persiste el cambio en la base de datos.
+        catalogSnapshot.onProductWritten(productRepository.save(product));   // Persiste el cambio en la base de datos y lo refleja en el snapshot.
+        invalidationLog.append(InvalidationTarget.PRODUCT, productId);     // Avisa el nuevo stock a las demás instancias
+        event.complete(productId, previousStock, -difference, reason, "APPLIED");
+    }
+
+    /** Completa las líneas compactas con el diccionario de sus productos distintos, leídos en una sola consulta.
+     * @param lines líneas con el producto referenciado por ID
+     * @return líneas y productos indexados por ID */
+
+    private CompactDetailOrdersDTO withProducts(List<CompactDetailOrdersDTO.Line> lines) {
+        Set<Long> productIds = new HashSet<>();
+        for (CompactDetailOrdersDTO.Line line : lines) productIds.add(line.getProductId());
+        Map<Long, ProductDTO> products = new TreeMap<>();
+        for (ProductModel product : productRepository.findAllById(productIds)) {    // Un único SELECT ... WHERE id IN (...)
+            products.put(product.getId(), productMapper.productToProductDto(product));
+        }
+        return new CompactDetailOrdersDTO(lines, products);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.api.java.services;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+
+/** Mantiene una grabación JFR continua desde el arranque, con la configuración "default" de la JDK (menos de 1% de
+ * sobrecarga) más los eventos propios de la aplicación: requests, llamadas a servicios, sentencias JDBC,
+ * verificaciones de credenciales y ajustes de stock.
+ * La grabación se guarda en disco acotada por antigüedad y tamaño; un administrador puede volcarla a un archivo .jfr
+ * cuando hay un pico de latencia y analizarla luego con {@link JfrSummarizer} o JDK Mission Control.
+ * Cada volcado es un archivo temporal que se elimina después de descargarlo, así los volcados no se acumulan en disco;
+ * los que quedaron de una descarga interrumpida por un reinicio se eliminan al arrancar. */
+
+@Slf4j
+@Service
+public class FlightRecorderService {
+    private static final String[] APP_EVENTS = {"com.api.java.Request", "com.api.java.ServiceCall", "com.api.java.JdbcStatement",
+            "com.api.java.AuthCheck", "com.api.java.StockAdjustment"};
+    private static final String DUMP_PREFIX = "recording-";
+    private static final String DUMP_SUFFIX = ".jfr";
+
+    private final boolean enabled;
+    private final Duration maxAge;      // Antigüedad máxima de los datos conservados
+    private final long maxSizeBytes;    // Tamaño máximo en disco de la grabación continua
+    private final Path dumpDir;         // Directorio de los volcados temporales
+    private Recording recording;
+
+    public FlightRecorderService(@Value("${app.jfr.enabled:true}") boolean enabled,
+                                 @Value("${app.jfr.max-age:30m}") Duration maxAge,
+                                 @Value("${app.jfr.max-size-mb:100}") long maxSizeMb,
+                                 @Value("${app.jfr.dump-dir:data/jfr}") String dumpDir) {
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.dumpDir = Paths.get(dumpDir);
+    }
+
+    /** Inicia la grabación continua. */
+
+    @PostConstruct
+    void start() {
+        deleteLeftoverDumps();
+        if (!enabled) return;
+        try {
+            Recording continuous = new Recording(Configuration.getConfiguration("default"));
+            for (String event : APP_EVENTS) continuous.enable(event);
+            continuous.setName("ProjectJava");
+            continuous.setToDisk(true);
+            continuous.setMaxAge(maxAge);
+            continuous.setMaxSize(maxSizeBytes);
+            continuous.start();
+            recording = continuous;
+            log.info("Grabación JFR continua iniciada (antigüedad máxima {}, tamaño máximo {} MB)", maxAge, maxSizeBytes / (1024 * 1024));
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            log.warn("No se pudo iniciar la grabación JFR continua: {}", e.getMessage());
+        }
+    }
+
+    /** Vuelca el contenido actual de la grabación continua a un archivo temporal del directorio de volcados.
+     * Quien lo pide debe eliminarlo con {@link #discard(Path)} después de enviarlo.
+     * @return archivo .jfr temporal
+     * @throws ResponseStatusException 503 si la grabación no está activa */
+
+    public Path dump() {
+        Recording current = recording;
+        if (current == null) throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "La grabación JFR no está activa");
+        Path file = null;
+        try {
+            Files.createDirectories(dumpDir);
+            file = Files.createTempFile(dumpDir, DUMP_PREFIX, DUMP_SUFFIX);
+            current.dump(file);
+            return file;
+        } catch (IOException e) {
+            discard(file);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "No se pudo volcar la grabación JFR: " + e.getMessage(), e);
+        }
+    }
+
+    /** Elimina un volcado ya enviado (o que no se pudo enviar).
+     * @param file archivo devuelto por {@link #dump()}; se ignora si es null */
+
+    public void discard(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el volcado JFR {}: {}", file, e.getMessage());
+        }
+    }
+
+    /** Detiene la grabación al cerrar la aplicación. */
+
+    @PreDestroy
+    void stop() {
+        if (recording != null) recording.close();
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** Elimina los volcados que quedaron de descargas interrumpidas. */
+
+    private void deleteLeftoverDumps() {
+        if (!Files.isDirectory(dumpDir)) return;
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(dumpDir, DUMP_PREFIX + "*" + DUMP_SUFFIX)) {
+            for (Path file : leftovers) discard(file);
+        } catch (IOException e) {
+            log.warn("No se pudieron revisar los volcados JFR de {}: {}", dumpDir, e.getMessage());
+        }
+    }
+}
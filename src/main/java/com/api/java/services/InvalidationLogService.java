@@ -0,0 +1,174 @@
+package com.api.java.services;
+import com.api.java.models.InvalidationLogModel;
+import com.api.java.models.InvalidationTarget;
+import com.api.java.repositories.IInvalidationLogRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/** Invalidación de estructuras en memoria entre instancias a través de la base de datos, sin un broker externo.
+ * Las escrituras de productos, categorías y usuarios agregan un registro al log en su misma transacción; cada instancia lee
+ * periódicamente los registros posteriores a su marca de agua (el último ID procesado) con una consulta sobre la clave primaria
+ * y publica un {@link Invalidated} por tipo de entidad con los IDs escritos por otras instancias. Los listeners releen esas
+ * claves (el snapshot columnar del catálogo y el autocompletado, para productos).
+ * Un ID asignado puede confirmarse después que uno mayor (transacciones concurrentes), así que los IDs salteados se guardan
+ * como huecos y se vuelven a buscar en cada lectura hasta que aparecen o vence app.invalidation.gap-timeout-ms (rollback).
+ * La demora está acotada por el intervalo de lectura; se mide en app.invalidation.lag. */
+
+@Slf4j
+@Service
+public class InvalidationLogService {
+    private static final int MAX_GAP = 1000;    // Saltos de ID mayores no se registran como huecos (reinicio del contador, réplicas)
+
+    private final IInvalidationLogRepository logRepository;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactionTemplate;  // Limpieza de registros vencidos
+    private final Timer lag;            // Demora entre la escritura y su aplicación en esta instancia
+    private final String node;          // Identificador de esta instancia
+    private final int batchSize;        // Registros leídos por consulta
+    private final long gapTimeoutMs;    // Espera máxima por un ID salteado
+    private final long retentionMs;     // Antigüedad a partir de la cual se eliminan los registros
+    private final Map<Long, Long> gaps = new HashMap<>();   // ID salteado -> momento en que se detectó (ms)
+    private long highWaterMark = -1;    // Último ID procesado; -1 hasta leer el inicial
+
+    /** Claves escritas por otra instancia.
+     * @param target tipo de entidad
+     * @param ids    IDs escritos */
+
+    public record Invalidated(InvalidationTarget target, Set<Long> ids) {
+    }
+
+    public InvalidationLogService(IInvalidationLogRepository logRepository, ApplicationEventPublisher events,
+                                  TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                  @Value("${app.invalidation.node-id:}") String node,
+                                  @Value("${app.invalidation.batch-size:500}") int batchSize,
+                                  @Value("${app.invalidation.gap-timeout-ms:60000}") long gapTimeoutMs,
+                                  @Value("${app.invalidation.retention-ms:3600000}") long retentionMs) {
+        this.logRepository = logRepository;
+        this.events = events;
+        this.transactionTemplate = transactionTemplate;
+        this.lag = Timer.builder("app.invalidation.lag").description("Demora entre una escritura en otra instancia y su aplicación en esta")
+                .publishPercentileHistogram().register(meterRegistry);
+        this.node = node.isBlank() ? UUID.randomUUID().toString() : node;
+        this.batchSize = batchSize;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.retentionMs = retentionMs;
+    }
+
+    /** Registra la escritura de una entidad. Debe llamarse dentro de la transacción de la escritura.
+     * @param target tipo de entidad
+     * @param id     ID de la entidad */
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void append(InvalidationTarget target, Long id) {
+        logRepository.save(new InvalidationLogModel(null, target, id, node, null));
+    }
+
+    /** Registra la escritura (o eliminación) de varias entidades del mismo tipo, dentro de la transacción de la escritura.
+     * @param target tipo de entidad
+     * @param ids    IDs de las entidades */
+
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void appendAll(InvalidationTarget target, Collection<Long> ids) {
+        List<InvalidationLogModel> entries = new ArrayList<>(ids.size());
+        for (Long id : ids) entries.add(new InvalidationLogModel(null, target, id, node, null));
+        logRepository.saveAll(entries);
+    }
+
+    /** Toma la marca de agua inicial antes de las cargas completas de ApplicationReadyEvent: lo escrito después se vuelve
+     * a aplicar (las relecturas son idempotentes) y lo anterior ya está incluido en la carga. */
+
+    @EventListener(ApplicationStartedEvent.class)
+    public synchronized void start() {
+        try {
+            highWaterMark = logRepository.findMaxId();
+        } catch (RuntimeException e) {
+            if (!CatalogDiskSnapshotService.isDatabaseUnavailable(e)) throw e;
+            log.warn("Base de datos no disponible: el log de invalidación se empieza a leer cuando vuelva");
+        }
+    }
+
+    /** Lee los registros nuevos y los huecos pendientes y publica las claves escritas por otras instancias. */
+
+    @Scheduled(fixedDelayString = "${app.invalidation.poll-interval-ms:500}", initialDelayString = "${app.invalidation.poll-interval-ms:500}")
+    public synchronized void poll() {
+        try {
+            if (highWaterMark < 0) {
+                highWaterMark = logRepository.findMaxId();
+                return;
+            }
+            long now = System.currentTimeMillis();
+            List<InvalidationLogModel> entries = new ArrayList<>();
+            if (!gaps.isEmpty()) {
+                for (InvalidationLogModel entry : logRepository.findByIdIn(gaps.keySet())) {
+                    gaps.remove(entry.getId());
+                    entries.add(entry);
+                }
+                gaps.values().removeIf(detected -> now - detected > gapTimeoutMs);     // Transacción revertida: el ID no aparecerá
+            }
+            List<InvalidationLogModel> batch;
+            do {
+                batch = logRepository.findByIdGreaterThanOrderByIdAsc(highWaterMark, Limit.of(batchSize));
+                for (InvalidationLogModel entry : batch) {
+                    if (entry.getId() - highWaterMark <= MAX_GAP) {
+                        for (long missing = highWaterMark + 1; missing < entry.getId(); missing++) gaps.put(missing, now);
+                    }
+                    highWaterMark = entry.getId();
+                    entries.add(entry);
+                }
+            } while (batch.size() == batchSize);
+            dispatch(entries, now);
+        } catch (RuntimeException e) {
+            if (!CatalogDiskSnapshotService.isDatabaseUnavailable(e)) throw e;     // Durante una caída se reintenta en la próxima lectura
+        }
+    }
+
+    /** Elimina los registros más antiguos que el tiempo de retención. */
+
+    @Scheduled(fixedDelayString = "${app.invalidation.cleanup-interval-ms:600000}", initialDelayString = "${app.invalidation.cleanup-interval-ms:600000}")
+    public void cleanup() {
+        Integer deleted = transactionTemplate.execute(status -> logRepository.deleteOlderThan(Instant.now().minusMillis(retentionMs)));
+        if (deleted != null && deleted > 0) log.debug("Log de invalidación: {} registros vencidos eliminados", deleted);
+    }
+
+    /** @return identificador de esta instancia en el log */
+
+    public String getNode() {
+        return node;
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** Agrupa por tipo las claves escritas por otras instancias y publica un evento por tipo. */
+
+    private void dispatch(List<InvalidationLogModel> entries, long now) {
+        Map<InvalidationTarget, Set<Long>> byTarget = new EnumMap<>(InvalidationTarget.class);
+        for (InvalidationLogModel entry : entries) {
+            if (node.equals(entry.getNode())) continue;     // Esta instancia ya aplicó su propia escritura tras el commit
+            byTarget.computeIfAbsent(entry.getTarget(), k -> new LinkedHashSet<>()).add(entry.getEntityId());
+            if (entry.getCreatedAt() != null) lag.record(Duration.ofMillis(Math.max(0, now - entry.getCreatedAt().toEpochMilli())));
+        }
+        byTarget.forEach((target, ids) -> events.publishEvent(new Invalidated(target, ids)));
+    }
+}
@@ -0,0 +1,215 @@
+package com.api.java.services;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/** Herramienta fuera de línea que resume un archivo .jfr (volcado con POST /admin/jfr/dump) por endpoint:
+ * requests, percentiles de latencia y, por request, tiempo en servicios (solo llamadas externas), en JDBC, sentencias, filas, verificaciones de
+ * credenciales y ajustes de stock; además, las formas SQL que más tiempo consumieron en cada endpoint.
+ * Los eventos sin endpoint (validación del JWT antes del despacho) se atribuyen a la request que los contiene en el mismo hilo.
+ * Solo usa la JDK, así que se puede ejecutar sin el resto de la aplicación:
+ * java -cp target/classes com.api.java.services.JfrSummarizer recording.jfr */
+
+public final class JfrSummarizer {
+    private static final String UNKNOWN = "(sin endpoint)";
+    private static final int TOP_SQL = 3;   // Formas SQL listadas por endpoint
+
+    private JfrSummarizer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: java -cp <clases> com.api.java.services.JfrSummarizer archivo.jfr");
+            System.exit(2);
+        }
+        System.out.print(summarize(Path.of(args[0])));
+    }
+
+    /** Lee un archivo .jfr y arma el resumen por endpoint.
+     * @param file archivo .jfr
+     * @return resumen en texto
+     * @throws IOException si no se puede leer el archivo */
+
+    public static String summarize(Path file) throws IOException {
+        List<RecordedEvent> requests = new ArrayList<>();
+        List<RecordedEvent> others = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            String name = event.getEventType().getName();
+            if (name.equals("com.api.java.Request")) requests.add(event);
+            else if (name.startsWith("com.api.java.")) others.add(event);
+        }
+
+        Map<String, EndpointStats> stats = new TreeMap<>();
+        Map<Long, List<RecordedEvent>> requestsByThread = new HashMap<>();
+        for (RecordedEvent request : requests) {
+            stats.computeIfAbsent(request.getString("endpoint"), EndpointStats::new).addRequest(request);
+            requestsByThread.computeIfAbsent(threadId(request), k -> new ArrayList<>()).add(request);
+        }
+        for (List<RecordedEvent> list : requestsByThread.values()) list.sort(Comparator.comparing(RecordedEvent::getStartTime));
+
+        Set<RecordedEvent> nested = nestedServiceCalls(others);
+        for (RecordedEvent event : others) {
+            String endpoint = event.hasField("endpoint") ? event.getString("endpoint") : null;
+            if (endpoint == null) endpoint = enclosingEndpoint(requestsByThread.get(threadId(event)), event.getStartTime());
+            stats.computeIfAbsent(endpoint, EndpointStats::new).add(event, nested.contains(event));
+        }
+        return format(stats.values());
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** @return llamadas a servicio hechas desde otra llamada a servicio del mismo hilo (su tiempo ya está en la externa) */
+
+    private static Set<RecordedEvent> nestedServiceCalls(List<RecordedEvent> events) {
+        Map<Long, List<RecordedEvent>> byThread = new HashMap<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("com.api.java.ServiceCall")) {
+                byThread.computeIfAbsent(threadId(event), k -> new ArrayList<>()).add(event);
+            }
+        }
+        Set<RecordedEvent> nested = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<RecordedEvent> calls : byThread.values()) {
+            calls.sort(Comparator.comparing(RecordedEvent::getStartTime));
+            Instant outerEnd = Instant.MIN;
+            for (RecordedEvent call : calls) {
+                if (call.getStartTime().isBefore(outerEnd)) nested.add(call);
+                else outerEnd = call.getEndTime();
+            }
+        }
+        return nested;
+    }
+
+    /** @return endpoint de la request del mismo hilo que contiene el instante indicado */
+
+    private static String enclosingEndpoint(List<RecordedEvent> threadRequests, Instant start) {
+        if (threadRequests == null) return UNKNOWN;
+        int low = 0;
+        int high = threadRequests.size() - 1;
+        RecordedEvent candidate = null;
+        while (low <= high) {   // Última request que empezó antes del evento
+            int mid = (low + high) >>> 1;
+            if (!threadRequests.get(mid).getStartTime().isAfter(start)) {
+                candidate = threadRequests.get(mid);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return candidate != null && !candidate.getEndTime().isBefore(start) ? candidate.getString("endpoint") : UNKNOWN;
+    }
+
+    private static long threadId(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        return thread != null ? thread.getJavaThreadId() : -1;
+    }
+
+    /** Arma la tabla de resultados, con los endpoints de más tiempo total primero. */
+
+    private static String format(Iterable<EndpointStats> all) {
+        List<EndpointStats> sorted = new ArrayList<>();
+        all.forEach(sorted::add);
+        sorted.sort(Comparator.comparingLong((EndpointStats s) -> s.totalNanos).reversed());
+
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "%-48s %8s %9s %9s %9s %10s %10s %8s %9s %10s %6s%n", "endpoint", "requests",
+                "p50 ms", "p99 ms", "max ms", "serv ms/r", "jdbc ms/r", "sql/r", "filas/r", "auth ms/r", "stock"));
+        for (EndpointStats s : sorted) {
+            int n = Math.max(1, s.durations.size());
+            Collections.sort(s.durations);
+            out.append(String.format(Locale.ROOT, "%-48s %8d %9.2f %9.2f %9.2f %10.2f %10.2f %8.1f %9.1f %10.2f %6d%n",
+                    abbreviate(s.endpoint, 48), s.durations.size(), ms(percentile(s.durations, 0.50)), ms(percentile(s.durations, 0.99)),
+                    ms(percentile(s.durations, 1.0)), ms(s.serviceNanos) / n, ms(s.jdbcNanos) / n, (double) s.statements / n,
+                    (double) s.rows / n, ms(s.authNanos) / n, s.stockAdjustments));
+        }
+        for (EndpointStats s : sorted) {
+            if (s.sqlNanos.isEmpty() && s.failures.isEmpty()) continue;
+            out.append(System.lineSeparator()).append(s.endpoint).append(System.lineSeparator());
+            s.sqlNanos.entrySet().stream()
+                    .sorted(Map.Entry.<String, long[]>comparingByValue(Comparator.comparingLong(v -> v[0])).reversed())
+                    .limit(TOP_SQL)
+                    .forEach(e -> out.append(String.format(Locale.ROOT, "  %9.2f ms %6d x  %s%n", ms(e.getValue()[0]), e.getValue()[1], abbreviate(e.getKey(), 160))));
+            s.failures.forEach((outcome, count) -> out.append(String.format(Locale.ROOT, "  %6d x resultado %s%n", count, outcome)));
+        }
+        return out.toString();
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.ceil(p * sorted.size()) - 1;     // Método nearest-rank
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String abbreviate(String text, int max) {
+        return text == null ? UNKNOWN : text.length() <= max ? text : text.substring(0, max - 3) + "...";
+    }
+
+    /** Acumulados de un endpoint. */
+
+    private static final class EndpointStats {
+        private final String endpoint;
+        private final List<Long> durations = new ArrayList<>();     // Duración de cada request (ns)
+        private final Map<String, long[]> sqlNanos = new HashMap<>();  // Forma SQL -> [tiempo total, ejecuciones]
+        private final Map<String, Integer> failures = new TreeMap<>(); // Resultados distintos de OK en servicios y JDBC
+        private long totalNanos;
+        private long serviceNanos;
+        private long jdbcNanos;
+        private long statements;
+        private long rows;
+        private long authNanos;
+        private int stockAdjustments;
+
+        EndpointStats(String endpoint) {
+            this.endpoint = endpoint != null ? endpoint : UNKNOWN;
+        }
+
+        void addRequest(RecordedEvent request) {
+            long nanos = request.getDuration().toNanos();
+            durations.add(nanos);
+            totalNanos += nanos;
+        }
+
+        void add(RecordedEvent event, boolean nestedCall) {
+            long nanos = event.getDuration().toNanos();
+            switch (event.getEventType().getName()) {
+                case "com.api.java.ServiceCall" -> {
+                    if (!nestedCall) serviceNanos += nanos;
+                    countFailure(event.getString("service") + "." + event.getString("method"), event.getString("outcome"));
+                }
+                case "com.api.java.JdbcStatement" -> {
+                    jdbcNanos += nanos;
+                    statements++;
+                    rows += Math.max(0, event.getLong("rows"));
+                    long[] sql = sqlNanos.computeIfAbsent(String.valueOf(event.getString("sql")), k -> new long[2]);
+                    sql[0] += nanos;
+                    sql[1]++;
+                    countFailure("JDBC", event.getString("outcome"));
+                }
+                case "com.api.java.AuthCheck" -> authNanos += nanos;
+                case "com.api.java.StockAdjustment" -> stockAdjustments++;
+                default -> { }
+            }
+        }
+
+        private void countFailure(String source, String outcome) {
+            if (outcome != null && !outcome.equals("OK")) failures.merge(source + " -> " + outcome, 1, Integer::sum);
+        }
+    }
+}
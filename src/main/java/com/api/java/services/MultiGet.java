@@ -0,0 +1,63 @@
+package com.api.java.services;
+import com.api.java.dto.MultiGetDTO;
+import com.api.java.globalException.InvalidRequestException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/** Utilidad para resolver varios recursos por ID con una sola consulta (endpoints con ?ids=).
+ * Valida el tamaño del lote, elimina IDs repetidos, ordena el resultado según el pedido
+ * y separa los IDs que no existen. */
+
+public final class MultiGet {
+    public static final int MAX_IDS = 100;  // IDs distintos admitidos por consulta
+
+    private MultiGet() {
+    }
+
+    /** Resuelve un lote de IDs.
+     * @param ids    IDs pedidos (pueden repetirse)
+     * @param loader consulta única que carga las entidades existentes de los IDs indicados
+     * @param idOf   obtiene el ID de una entidad
+     * @param toDto  convierte una entidad a DTO
+     * @return DTOs en el orden pedido y los IDs no encontrados
+     * @throws InvalidRequestException 400 si no hay IDs o se supera {@link #MAX_IDS} */
+
+    public static <M, D> MultiGetDTO<D> resolve(List<Long> ids, Function<Collection<Long>, List<M>> loader,
+                                                Function<M, Long> idOf, Function<M, D> toDto) {
+        Set<Long> requested = distinct(ids);
+
+        Map<Long, M> found = new HashMap<>();
+        for (M entity : loader.apply(requested)) found.put(idOf.apply(entity), entity);
+        List<D> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            M entity = found.get(id);
+            if (entity != null) items.add(toDto.apply(entity));
+            else missing.add(id);
+        }
+        return new MultiGetDTO<>(items, missing);
+    }
+
+    /** Valida un lote de IDs y elimina los repetidos, sin consultar nada.
+     * Los controladores la usan antes del GET condicional para que un lote inválido responda 400 y no 304.
+     * @param ids IDs pedidos (pueden repetirse)
+     * @return IDs distintos en el orden pedido
+     * @throws InvalidRequestException 400 si no hay IDs o se supera {@link #MAX_IDS} */
+
+    public static Set<Long> distinct(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>();    // Orden del pedido, sin repetidos
+        for (Long id : ids) if (id != null) requested.add(id);
+        if (requested.isEmpty()) throw new InvalidRequestException("Debe indicar al menos un ID en 'ids'");
+        if (requested.size() > MAX_IDS) {
+            throw new InvalidRequestException("Se pueden consultar hasta " + MAX_IDS + " IDs por vez (se pidieron " + requested.size() + ")");
+        }
+        return requested;
+    }
+}
@@ -1,70 +1,214 @@
 package com.api.java.services;
+import com.api.java.config.StockAdjustmentEvent;
+import com.api.java.dto.BestSellerDTO;
+import com.api.java.dto.CatalogBrowseDTO;
+import com.api.java.dto.MultiGetDTO;
 import com.api.java.dto.ProductDTO;
+import com.api.java.dto.ProductSuggestionDTO;
+import com.api.java.dto.SparseListDTO;
+import com.api.java.dto.VersionDTO;
+import com.api.java.globalException.ConflictException;
+import com.api.java.globalException.InvalidRequestException;
+import com.api.java.globalException.NotFoundException;
 import com.api.java.mapper.ProductMapper;
+import com.api.java.models.InvalidationTarget;
+import com.api.java.models.Money;
 import com.api.java.models.ProductModel;
+import com.api.java.models.SalesWindow;
+import com.api.java.repositories.ICategoryRepository;
 import com.api.java.repositories.IProductRepository;
+import com.api.java.repositories.SparseFieldQuery;
 import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /** Servicio responsable de gestionar la lógica de negocio relacionada con productos.
- * Ofrece operaciones CRUD y búsquedas filtradas. */
+ * Ofrece operaciones CRUD y búsquedas filtradas. Las lecturas principales pueden servirse desde el snapshot en disco
+ * mientras la base de datos no esté disponible (ver {@link CatalogDiskSnapshotService}). */
 @Service
 @RequiredArgsConstructor
 public class ProductService {
+    /** Campos de ProductDTO seleccionables con ?fields= y su columna. */
+    private static final SparseFieldQuery.Fields PRODUCT_FIELDS = new SparseFieldQuery.Fields("ProductModel p", null,
+            "id", "p.id",
+            "nameProduct", "p.nameProduct",
+            "descriptionProduct", "p.descriptionProduct",
+            "priceProduct", "p.priceProduct",
+            "categoryId", "p.categoryProduct.id",   // Clave foránea, sin join
+            "stockProduct", "p.stockProduct",
+            "activo", "p.activo");
+
     private final IProductRepository productRepository; // Repositorio para acceder a los datos de la entidad ProductModel
     private final ProductMapper productMapper; // Mapper para convertir entre ProductDTO y ProductModel
+    private final CatalogSnapshotService catalogSnapshot; // Snapshot columnar del catálogo, actualizado en cada escritura
+    private final CatalogDiskSnapshotService diskSnapshot; // Snapshot en disco para lecturas durante una caída de la base de datos
+    private final ProductSuggestService suggestService; // Índice de autocompletado por nombre
+    private final BestSellerService bestSellerService; // Ranking en tiempo real de más vendidos
+    private final ICategoryRepository categoryRepository; // Para rechazar productos en categorías que se están eliminando
+    private final SparseFieldQuery sparseFieldQuery; // Listados con solo las columnas pedidas
+    private final InvalidationLogService invalidationLog; // Avisa las escrituras a las demás instancias
 
     /** Crea un nuevo producto en la base de datos.
      * @param productDTO DTO recibido desde el controlador
      * @return el producto guardado en formato DTO */
 
+    @Timed(value = "app.service", histogram = true)
+    @Transactional
     public ProductDTO createProduct(ProductDTO productDTO) {
+        rejectDeletingCategory(productDTO.getCategoryId());    // La categoría no puede estar en plena purga
         ProductModel entity = productMapper.productDtoToProduct(productDTO);    // Convierte el DTO a entidad JPA
         ProductModel saved = productRepository.save(entity);    // Guarda la entidad en la base de datos
+        invalidationLog.append(InvalidationTarget.PRODUCT, saved.getId());     // Lo avisa a las demás instancias en la misma transacción
+        catalogSnapshot.onProductWritten(saved);    // Refleja el alta en el snapshot del catálogo
+        suggestService.onProductWritten(saved);     // Y en el índice de autocompletado
         return productMapper.productToProductDto(saved);    // Convierte la entidad guardada de nuevo a DTO
     }
 
     /** Devuelve todos los productos existentes.
      * @return lista de productos en formato DTO */
 
+    @Timed(value = "app.service", histogram = true)
     public List<ProductDTO> getProducts() {
-        return productRepository.findAll().stream() // Obtiene todos los productos, los mapea a DTO y retorna la lista
+        return diskSnapshot.read(() -> productRepository.findAll().stream() // Obtiene todos los productos, los mapea a DTO y retorna la lista
                 .map(productMapper::productToProductDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), diskSnapshot::getProducts);
+    }
+
+    /** Devuelve todos los productos con solo los campos indicados, leyendo únicamente sus columnas.
+     * @param fields campos de ProductDTO separados por coma (ej. "id,nameProduct,priceProduct")
+     * @return listado reducido
+     * @throws InvalidRequestException 400 si algún campo no existe */
+
+    @Timed(value = "app.service", histogram = true)
+    public SparseListDTO getProducts(String fields) {
+        return sparseFieldQuery.list(PRODUCT_FIELDS, PRODUCT_FIELDS.parse(fields));
+    }
+
+    /** Obtiene varios productos por ID con una sola consulta.
+     * @param ids IDs pedidos (hasta {@link MultiGet#MAX_IDS} distintos)
+     * @return productos en el orden pedido y los IDs inexistentes
+     * @throws InvalidRequestException 400 si no hay IDs o son demasiados */
+
+    @Timed(value = "app.service", histogram = true)
+    public MultiGetDTO<ProductDTO> getProductsByIds(List<Long> ids) {
+        return diskSnapshot.read(() -> MultiGet.resolve(ids, productRepository::findAllById, ProductModel::getId, productMapper::productToProductDto),
+                () -> MultiGet.resolve(ids, diskSnapshot::findProducts, ProductDTO::getId, Function.identity()));
     }
 
     /** Busca y retorna un producto por su ID.
      * @param id ID del producto
      * @return producto correspondiente en formato DTO */
 
+    @Timed(value = "app.service", histogram = true)
     public ProductDTO getProductById(Long id) {
-        ProductModel product = throwResponse(id);   // Busca la entidad o lanza una excepción 404 si no existe
-        return productMapper.productToProductDto(product);      // Mapea la entidad a DTO y la retorna
+        return diskSnapshot.read(() -> productMapper.productToProductDto(throwResponse(id)),  // Busca la entidad (o 404) y la mapea a DTO
+                () -> diskSnapshot.findProduct(id).orElseThrow(() -> notFound(id)));
     }
 
     /** Busca productos por nombre exacto.
      * @param nameProduct nombre del producto a buscar
      * @return lista de productos coincidentes */
 
+    @Timed(value = "app.service", histogram = true)
     public List<ProductDTO> searchProduct(String nameProduct) {
         return productRepository.findByNameProduct(nameProduct).stream() // Consulta el repositorio y mapea los resultados a DTO
                 .map(productMapper::productToProductDto)
                 .collect(Collectors.toList());
     }
 
+    /** Sugiere productos activos cuyo nombre (o alguna de sus palabras) empieza con el prefijo, ordenados por ventas.
+     * Se resuelve en memoria, sin consultar la base de datos.
+     * @param prefix texto parcial escrito por el usuario
+     * @param limit  cantidad máxima de sugerencias (1 a {@link ProductSuggestService#TOP_K})
+     * @return lista de sugerencias
+     * @throws InvalidRequestException 400 si el límite está fuera de rango */
+
+    @Timed(value = "app.service", histogram = true)
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > ProductSuggestService.TOP_K) {
+            throw new InvalidRequestException("El límite debe estar entre 1 y " + ProductSuggestService.TOP_K);
+        }
+        return suggestService.suggest(prefix, limit);
+    }
+
+    /** Devuelve los productos más vendidos (unidades pagadas) en una ventana de tiempo, global o por categoría.
+     * El ranking se lee del sketch en memoria; solo los nombres se cargan con una consulta por IDs.
+     * @param window     ventana de tiempo (última hora, día o semana)
+     * @param categoryId categoría opcional
+     * @param limit      cantidad máxima de productos (1 a 50)
+     * @return ranking de productos */
+
+    @Timed(value = "app.service", histogram = true)
+    public List<BestSellerDTO> getBestSellers(SalesWindow window, Long categoryId, int limit) {
+        if (limit < 1 || limit > 50) {
+            throw new InvalidRequestException("El límite debe estar entre 1 y 50");
+        }
+        long[][] ranking = bestSellerService.top(window, categoryId, limit);
+        List<Long> ids = Arrays.stream(ranking).map(row -> row[0]).collect(Collectors.toList());
+        Map<Long, String> names = diskSnapshot.read(
+                () -> productRepository.findAllById(ids).stream().collect(Collectors.toMap(ProductModel::getId, ProductModel::getNameProduct)),
+                () -> diskSnapshot.findProducts(ids).stream().collect(Collectors.toMap(ProductDTO::getId, ProductDTO::getNameProduct)));
+        return Arrays.stream(ranking)
+                .map(row -> new BestSellerDTO(row[0], names.get(row[0]), row[1]))
+                .collect(Collectors.toList());
+    }
+
     /** Obtiene productos filtrados por categoría.
      * @param categoryId ID de la categoría
      * @return lista de productos en esa categoría */
 
+    @Timed(value = "app.service", histogram = true)
     public List<ProductDTO> getProdCategoryById(Long categoryId) {
-        return productRepository.findByCategoryProduct_Id(categoryId).stream()  // Filtra por ID de categoría y convierte a DTO
+        return diskSnapshot.read(() -> productRepository.findByCategoryProduct_Id(categoryId).stream()  // Filtra por ID de categoría y convierte a DTO
                 .map(productMapper::productToProductDto)
+                .collect(Collectors.toList()), () -> diskSnapshot.getProductsByCategory(categoryId));
+    }
+
+    /** Navega el catálogo filtrando por categoría, rango de precio y stock, ordenado por precio.
+     * El filtrado, orden y facets se resuelven sobre el snapshot columnar en memoria; solo la página
+     * resultante se carga desde la base con una única consulta por IDs.
+     * @param categoryId ID de categoría (opcional)
+     * @param minPrice   precio mínimo (opcional)
+     * @param maxPrice   precio máximo (opcional)
+     * @param inStock    si es true, solo productos con stock disponible
+     * @param sort       "asc" o "desc"
+     * @param page       número de página (desde 0)
+     * @param size       tamaño de página (1 a 100)
+     * @return página de productos activos con facets por categoría e histograma de precios */
+
+    @Timed(value = "app.service", histogram = true)
+    public CatalogBrowseDTO browse(Long categoryId, Money minPrice, Money maxPrice, boolean inStock, String sort, int page, int size) {
+        if (page < 0 || size < 1 || size > 100) {
+            throw new InvalidRequestException("Paginación inválida: page >= 0 y size entre 1 y 100");
+        }
+        long minCents = minPrice != null ? minPrice.cents() : Long.MIN_VALUE;
+        long maxCents = maxPrice != null ? maxPrice.cents() : Long.MAX_VALUE;
+        CatalogSnapshotService.BrowseResult result = catalogSnapshot.browse(categoryId, minCents, maxCents, inStock, "desc".equalsIgnoreCase(sort), page, size);
+
+        Map<Long, ProductDTO> byId = diskSnapshot.read(   // Carga solo la página en una consulta
+                () -> productRepository.findAllById(result.productIds()).stream().map(productMapper::productToProductDto).toList(),
+                () -> diskSnapshot.findProducts(result.productIds())).stream()
+                .collect(Collectors.toMap(ProductDTO::getId, Function.identity()));
+        List<ProductDTO> products = result.productIds().stream()    // Respeta el orden calculado en el snapshot
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+
+        List<CatalogBrowseDTO.PriceBucket> histogram = new ArrayList<>();
+        int[] counts = result.priceHistogram();
+        for (int i = 0; i < counts.length; i++) {
+            long from = result.histogramMinCents() + i * result.histogramStepCents();
+            histogram.add(new CatalogBrowseDTO.PriceBucket(Money.ofCents(from), Money.ofCents(from + result.histogramStepCents()), counts[i]));
+        }
+        return new CatalogBrowseDTO(result.total(), products, result.categoryCounts(), histogram);
     }
 
     /** Actualiza los datos de un producto existente.
@@ -72,37 +216,90 @@ public class ProductService {
      * @param updateProd DTO con los nuevos valores
      * @return producto actualizado en formato DTO */
 
+    @Timed(value = "app.service", histogram = true)
     @Transactional
     public ProductDTO updateProdById(Long id, ProductDTO updateProd) {
+        StockAdjustmentEvent event = new StockAdjustmentEvent();     // Evento JFR, solo se registra si cambia el stock
+        event.begin();
         ProductModel existing = throwResponse(id);      // Valida la existencia del producto original
+        rejectDeletingCategory(updateProd.getCategoryId());     // No se puede mover a una categoría en plena purga
+        Integer previousStock = existing.getStockProduct();
         productMapper.updateProductFromDto(updateProd, existing);   // Aplica los cambios del DTO sobre la entidad existente
-        return productMapper.productToProductDto(productRepository.save(existing));     // Guarda la entidad actualizada y convierte a DTO antes de retornar
+        ProductModel saved = productRepository.save(existing);  // Guarda la entidad actualizada
+        if (!Objects.equals(saved.getStockProduct(), previousStock)) {
+            int before = previousStock != null ? previousStock : 0;
+            int after = saved.getStockProduct() != null ? saved.getStockProduct() : 0;
+            event.complete(id, before, after - before, "PRODUCT_UPDATE", "APPLIED");
+        }
+        invalidationLog.append(InvalidationTarget.PRODUCT, id);     // Lo avisa a las demás instancias en la misma transacción
+        catalogSnapshot.onProductWritten(saved);    // Refleja la modificación en el snapshot del catálogo
+        suggestService.onProductWritten(saved);     // Y en el índice de autocompletado (posible renombre)
+        return productMapper.productToProductDto(saved);     // Convierte a DTO antes de retornar
     }
 
     /** Reactiva un producto previamente desactivado, marcándolo como disponible para la venta.
      *
      * @param id ID del producto a reactivar */
 
+    @Transactional
     public void activateProdById(Long id) {
         ProductModel product = throwResponse(id); // Reutiliza el metodo auxiliar para validar existencia
         product.setActivo(true);                 // Marca el producto como activo
-        productRepository.save(product);         // Persiste el cambio
+        ProductModel saved = productRepository.save(product);   // Persiste el cambio
+        invalidationLog.append(InvalidationTarget.PRODUCT, id);     // Lo avisa a las demás instancias
+        catalogSnapshot.onProductWritten(saved);    // Lo refleja en el snapshot del catálogo
+        suggestService.onProductWritten(saved);     // Y lo vuelve a sugerir en el autocompletado
     }
 
     /** Desactiva un producto de la base de datos por su ID.
      *
      * @param id ID del producto */
 
+    @Transactional
     public void desactivateProdById(Long id) {
         ProductModel product = throwResponse(id);    // Reutiliza el metodo auxiliar para validar existencia
         product.setActivo(false);   // Marca el producto como desactivado
-        productRepository.save(product);    // Persiste el cambio
+        ProductModel saved = productRepository.save(product);   // Persiste el cambio
+        invalidationLog.append(InvalidationTarget.PRODUCT, id);     // Lo avisa a las demás instancias
+        catalogSnapshot.onProductWritten(saved);    // Lo refleja en el snapshot del catálogo
+        suggestService.onProductWritten(saved);     // Y deja de sugerirlo en el autocompletado
+    }
+
+    /** Obtiene la versión de un producto sin cargar la entidad, para responder GET condicionales.
+     * La versión la incrementa Hibernate (@Version) en cada escritura del producto.
+     * @param id ID del producto
+     * @return versión y fecha de modificación del producto */
 
+    public VersionDTO getProductVersion(Long id) {
+        return diskSnapshot.read(() -> productRepository.findVersionById(id), () -> diskSnapshot.findProductVersion(id))
+                .orElseThrow(() -> notFound(id));
+    }
+
+    /** Obtiene la versión agregada del listado de productos con una única consulta de agregación.
+     * @return versión de la colección de productos */
+
+    public VersionDTO getProductsVersion() {
+        return diskSnapshot.read(productRepository::findCollectionVersion, diskSnapshot::getProductsVersion);
+    }
+
+    /** Rechaza altas o cambios de productos hacia una categoría marcada para eliminación,
+     * ya que la purga en curso debe poder vaciarla por completo.
+     * @param categoryId ID de la categoría destino (puede ser null)
+     * @throws ConflictException si la categoría se está eliminando */
+
+    private void rejectDeletingCategory(Long categoryId) {
+        if (categoryId != null && categoryRepository.existsByIdAndDeletingTrue(categoryId)) {
+            throw new ConflictException("La categoría con ID " + categoryId + " se está eliminando");
+        }
     }
 
     /** Metodo auxiliar privado que recupera un producto por ID o lanza una excepción 404 si no existe.
      * @param id ID del producto a buscar
      * @return entidad ProductModel */
 
-    private ProductModel throwResponse(Long id) {  return productRepository.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto con ID " + id + " no encontrado"));  }
+    private ProductModel throwResponse(Long id) {  return productRepository.findById(id).orElseThrow(() -> notFound(id));  }
+
+    private static NotFoundException notFound(Long id) {
+        return new NotFoundException("Producto con ID " + id + " no encontrado");
+    }
 }
\ No newline at end of file
@@ -0,0 +1,290 @@
+package com.api.java.services;
+import com.api.java.dto.ProductDeltaDTO;
+import com.api.java.globalException.InvalidRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Stream de cambios de precio, stock y activo de productos por Server-Sent Events (GET /product/stream), para que las
+ * tiendas no tengan que consultar GET /product cada pocos segundos.
+ * Los cambios llegan como {@link CatalogSnapshotService.ProductChanged} (escrituras de ProductService y DetailOrderService,
+ * purgas e invalidaciones de otras instancias) y se acumulan por producto: dentro de una ventana de
+ * app.product-stream.flush-interval-ms solo se envía el último estado. Al cerrar la ventana, cada cambio se serializa una sola
+ * vez y se entrega a los suscriptores de su producto o de su categoría.
+ * El envío no bloquea el reparto: cada suscriptor tiene su propia cola, también acumulada por producto, y a lo sumo un envío
+ * en curso en un hilo virtual; un cliente lento solo recibe menos eventos intermedios. */
+
+@Slf4j
+@Service
+public class ProductStreamService {
+    public static final String EVENT_NAME = "delta";    // Nombre de los eventos con cambios (data: arreglo JSON de ProductDeltaDTO)
+
+    private final CatalogSnapshotService catalogSnapshot;  // Estado inicial de cada suscripción
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;       // Duración máxima de una conexión; el cliente se reconecta
+    private final int maxSubscribers;   // Conexiones abiertas admitidas por instancia
+    private final Map<Long, Set<Subscriber>> byProduct = new ConcurrentHashMap<>();    // Suscriptores por producto
+    private final Map<Long, Set<Subscriber>> byCategory = new ConcurrentHashMap<>();   // Suscriptores por categoría
+    private final Map<Long, CatalogSnapshotService.ProductChanged> pending = new ConcurrentHashMap<>();  // Último cambio por producto en la ventana
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();   // Escrituras a los clientes
+    private final Counter sent;         // Cambios entregados (uno por producto y suscriptor)
+    private final Counter dropped;      // Suscriptores desconectados por error de escritura
+
+    public ProductStreamService(CatalogSnapshotService catalogSnapshot, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                @Value("${app.product-stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${app.product-stream.max-subscribers:10000}") int maxSubscribers) {
+        this.catalogSnapshot = catalogSnapshot;
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        Gauge.builder("app.product-stream.subscribers", subscribers, AtomicInteger::get)
+                .description("Conexiones abiertas al stream de cambios de productos").register(meterRegistry);
+        this.sent = Counter.builder("app.product-stream.deltas").description("Cambios de productos entregados a suscriptores").register(meterRegistry);
+        this.dropped = Counter.builder("app.product-stream.dropped").description("Suscriptores desconectados por error de escritura").register(meterRegistry);
+    }
+
+    /** Abre una suscripción a los cambios de una categoría o de una lista de productos.
+     * El primer evento trae el estado actual de los productos suscriptos; los siguientes, solo los que cambian.
+     * @param categoryId categoría a seguir (excluyente con ids)
+     * @param ids        productos a seguir, hasta {@link MultiGet#MAX_IDS}
+     * @return emisor SSE de la conexión
+     * @throws InvalidRequestException 400 si no se indica exactamente uno de los dos filtros o hay demasiados IDs
+     * @throws ResponseStatusException 503 si se alcanzó el máximo de conexiones */
+
+    public SseEmitter subscribe(Long categoryId, List<Long> ids) {
+        if ((categoryId == null) == (ids == null)) throw new InvalidRequestException("Debe indicar 'categoryId' o 'ids' (no ambos)");
+        Set<Long> productIds = new LinkedHashSet<>();
+        if (ids != null) {
+            for (Long id : ids) if (id != null) productIds.add(id);
+            if (productIds.isEmpty()) throw new InvalidRequestException("Debe indicar al menos un ID en 'ids'");
+            if (productIds.size() > MultiGet.MAX_IDS) {
+                throw new InvalidRequestException("Se pueden seguir hasta " + MultiGet.MAX_IDS + " productos por conexión (se pidieron " + productIds.size() + ")");
+            }
+        }
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Se alcanzó el máximo de conexiones al stream de productos");
+        }
+
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs), categoryId, productIds);
+        subscriber.emitter.onCompletion(subscriber::unregister);
+        subscriber.emitter.onTimeout(subscriber::unregister);
+        subscriber.emitter.onError(error -> subscriber.unregister());
+        if (categoryId != null) {
+            add(byCategory, categoryId, subscriber);
+        } else {
+            for (Long id : productIds) add(byProduct, id, subscriber);
+        }
+        // Estado inicial después de registrarse: un cambio que llegue en el medio no se pierde ni queda pisado por uno anterior
+        List<ProductDeltaDTO> initial = categoryId != null ? catalogSnapshot.currentByCategory(categoryId) : catalogSnapshot.current(productIds);
+        Map<Long, String> serialized = new LinkedHashMap<>();
+        for (ProductDeltaDTO delta : initial) serialized.put(delta.getId(), toJson(delta));
+        subscriber.offerInitial(serialized);
+        return subscriber.emitter;
+    }
+
+    /** Acumula un cambio hasta el próximo reparto; si hay otro pendiente del mismo producto, lo reemplaza. */
+
+    @EventListener
+    public void onProductChanged(CatalogSnapshotService.ProductChanged event) {
+        if (subscribers.get() > 0) pending.put(event.delta().getId(), event);
+    }
+
+    /** Reparte los cambios acumulados en la ventana a los suscriptores de cada producto y categoría. */
+
+    @Scheduled(fixedDelayString = "${app.product-stream.flush-interval-ms:250}")
+    public void flush() {
+        for (Long id : pending.keySet()) {
+            CatalogSnapshotService.ProductChanged event = pending.remove(id);
+            if (event == null) continue;
+            ProductDeltaDTO delta = event.delta();
+            String json = null;     // Se serializa una sola vez, y solo si alguien lo espera
+            for (Set<Subscriber> targets : List.of(subscribersOf(byProduct, id), subscribersOf(byCategory, delta.getCategoryId()),
+                    subscribersOf(byCategory, event.previousCategoryId()))) {
+                for (Subscriber subscriber : targets) {
+                    if (json == null) json = toJson(delta);
+                    subscriber.offer(id, json);
+                }
+            }
+        }
+    }
+
+    /** Envía un comentario a cada conexión para que proxies y balanceadores no la cierren por inactividad
+     * y para detectar clientes desconectados. */
+
+    @Scheduled(fixedDelayString = "${app.product-stream.heartbeat-ms:15000}", initialDelayString = "${app.product-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<Subscriber> all = new LinkedHashSet<>();
+        byProduct.values().forEach(all::addAll);
+        byCategory.values().forEach(all::addAll);
+        for (Subscriber subscriber : all) subscriber.heartbeat();
+    }
+
+    /** Cierra las conexiones abiertas al detener la aplicación. */
+
+    @PreDestroy
+    public void close() {
+        Set<Subscriber> all = new LinkedHashSet<>();
+        byProduct.values().forEach(all::addAll);
+        byCategory.values().forEach(all::addAll);
+        for (Subscriber subscriber : all) {
+            try {
+                subscriber.emitter.complete();
+            } catch (RuntimeException e) {
+                // El cliente ya se había desconectado sin que se detectara (la respuesta fue reciclada)
+            }
+        }
+        senders.shutdown();
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** Agrega un suscriptor dentro de compute, para no competir con la eliminación de conjuntos vacíos. */
+
+    private static void add(Map<Long, Set<Subscriber>> index, Long key, Subscriber subscriber) {
+        index.compute(key, (k, set) -> {
+            Set<Subscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+    }
+
+    private static Set<Subscriber> subscribersOf(Map<Long, Set<Subscriber>> index, Long key) {
+        if (key == null) return Set.of();
+        Set<Subscriber> found = index.get(key);
+        return found != null ? found : Set.of();
+    }
+
+    private String toJson(ProductDeltaDTO delta) {
+        try {
+            return objectMapper.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el cambio del producto " + delta.getId(), e);
+        }
+    }
+
+    /** Conexión abierta con su cola de cambios por enviar (el último por producto). */
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long categoryId;
+        private final Set<Long> productIds;
+        private final Map<Long, String> queued = new LinkedHashMap<>();    // Producto -> cambio serializado, guardado por this
+        private boolean sending;        // Hay un envío en curso (que también vacía lo que se encole mientras tanto)
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, Long categoryId, Set<Long> productIds) {
+            this.emitter = emitter;
+            this.categoryId = categoryId;
+            this.productIds = productIds;
+        }
+
+        /** Encola el estado inicial sin pisar cambios que ya hayan llegado (son más nuevos). Siempre envía un evento,
+         * aunque sea vacío, para que el cliente sepa que la suscripción quedó activa. */
+
+        void offerInitial(Map<Long, String> initial) {
+            synchronized (this) {
+                initial.forEach(queued::putIfAbsent);
+                if (sending || closed) return;
+                sending = true;
+            }
+            senders.execute(() -> drain(true));
+        }
+
+        void offer(Long productId, String json) {
+            synchronized (this) {
+                if (closed) return;
+                queued.put(productId, json);
+                if (sending) return;    // El envío en curso lo toma en su próxima vuelta
+                sending = true;
+            }
+            senders.execute(() -> drain(false));
+        }
+
+        void heartbeat() {
+            senders.execute(() -> {
+                try {
+                    emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    fail(e);
+                }
+            });
+        }
+
+        /** Envía lo encolado en un único evento por vuelta, hasta vaciar la cola. */
+
+        private void drain(boolean force) {
+            while (true) {
+                List<String> batch;
+                synchronized (this) {
+                    if (closed || (queued.isEmpty() && !force)) {
+                        sending = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(queued.values());
+                    queued.clear();
+                }
+                force = false;
+                try {
+                    emitter.send(SseEmitter.event().name(EVENT_NAME).data("[" + String.join(",", batch) + "]", MediaType.APPLICATION_JSON));
+                    sent.increment(batch.size());
+                } catch (IOException | IllegalStateException e) {
+                    fail(e);
+                    return;
+                }
+            }
+        }
+
+        private void fail(Exception e) {
+            log.debug("Suscriptor del stream de productos desconectado: {}", e.getMessage());
+            dropped.increment();
+            emitter.completeWithError(e);
+            unregister();
+        }
+
+        /** Quita la conexión de los índices; es idempotente (la llaman los callbacks de fin y los errores de escritura). */
+
+        void unregister() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                queued.clear();
+            }
+            subscribers.decrementAndGet();
+            if (categoryId != null) remove(byCategory, categoryId);
+            for (Long id : productIds) remove(byProduct, id);
+        }
+
+        private void remove(Map<Long, Set<Subscriber>> index, Long key) {
+            index.computeIfPresent(key, (k, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
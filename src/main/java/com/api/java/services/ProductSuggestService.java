@@ -0,0 +1,360 @@
+package com.api.java.services;
+import com.api.java.dto.ProductSuggestionDTO;
+import com.api.java.models.ProductModel;
+import com.api.java.repositories.IDetailOrderRepository;
+import com.api.java.repositories.IProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/** Servicio de autocompletado de nombres de producto.
+ * Mantiene en memoria un trie sobre los nombres normalizados (minúsculas, sin acentos) de los productos activos,
+ * indexando el nombre completo y cada palabra interna. Cada nodo guarda precalculados los K productos más vendidos
+ * de su subárbol, por lo que una sugerencia se resuelve recorriendo el prefijo y copiando esa lista.
+ * Las altas, renombres, desactivaciones y ventas actualizan solo los nodos afectados. */
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSuggestService {
+    public static final int TOP_K = 10;     // Cantidad máxima de sugerencias precalculadas por nodo
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");  // Marcas de acento a eliminar
+    private static final Pattern SPACES = Pattern.compile("\\s+");     // Espacios repetidos
+
+    private final IProductRepository productRepository;     // Carga inicial de nombres de productos activos
+    private final IDetailOrderRepository detailOrderRepository; // Carga inicial de unidades vendidas por producto
+    private final CatalogDiskSnapshotService diskSnapshot; // Nombres desde el snapshot en disco durante una caída de la base de datos
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();  // Lecturas concurrentes, escrituras exclusivas
+    private final Node root = new Node(null, '\0');     // Raíz del trie
+    private final Map<Long, Entry> entries = new HashMap<>();   // Productos indexados por ID
+    private final Map<Long, Long> sales = new HashMap<>();      // Unidades vendidas por producto (ranking)
+
+    /** Producto indexado: nombre original para mostrar y claves normalizadas insertadas en el trie. */
+
+    private record Entry(long id, String name, List<String> keys) {}
+
+    /** Nodo del trie. Los hijos se guardan en arreglos paralelos ordenados por carácter para ahorrar memoria. */
+
+    private static final class Node {
+        final Node parent;
+        final char label;
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        long[] terminals = new long[0];     // Productos cuyo nombre (o palabra) termina en este nodo
+        long[] topK = new long[0];          // Mejores K productos del subárbol, ordenados por ventas
+
+        Node(Node parent, char label) {
+            this.parent = parent;
+            this.label = label;
+        }
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int i = Arrays.binarySearch(labels, c);
+            if (i >= 0) return children[i];
+            int at = -i - 1;
+            Node created = new Node(this, c);
+            labels = insert(labels, at, c);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = created;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+            return created;
+        }
+
+        void removeChild(Node child) {
+            int i = Arrays.binarySearch(labels, child.label);
+            if (i < 0) return;
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, i);
+            System.arraycopy(labels, i + 1, newLabels, i, labels.length - i - 1);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+
+        boolean isEmpty() {
+            return children.length == 0 && terminals.length == 0;
+        }
+
+        private static char[] insert(char[] array, int at, char value) {
+            char[] grown = new char[array.length + 1];
+            System.arraycopy(array, 0, grown, 0, at);
+            grown[at] = value;
+            System.arraycopy(array, at, grown, at + 1, array.length - at);
+            return grown;
+        }
+    }
+
+    /** Construye el índice completo al iniciar la aplicación. Si la base de datos no responde, usa los nombres del
+     * snapshot en disco (sin ventas) y lo reconstruye cuando la base de datos vuelve. */
+
+    @EventListener({ApplicationReadyEvent.class, CatalogDiskSnapshotService.DatabaseRecovered.class})
+    public void load() {
+        List<Object[]> sold = diskSnapshot.read(detailOrderRepository::sumUnitsSoldByProduct, List::of);   // productId, unidades
+        List<Object[]> names = diskSnapshot.read(productRepository::findActiveNames, diskSnapshot::getActiveNames);     // id, nombre
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : List.copyOf(entries.values())) unindex(entry);   // Recarga: parte de un índice vacío
+            sales.clear();
+            for (Object[] row : sold) {
+                sales.put((Long) row[0], ((Number) row[1]).longValue());
+            }
+            for (Object[] row : names) {
+                index((Long) row[0], (String) row[1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Índice de autocompletado cargado con {} productos", names.size());
+    }
+
+    /** Devuelve las sugerencias para un prefijo, ordenadas por popularidad.
+     * @param prefix texto escrito por el usuario
+     * @param limit  cantidad máxima de sugerencias (hasta {@link #TOP_K})
+     * @return productos sugeridos */
+
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) return List.of();
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) return List.of();
+            int n = Math.min(Math.min(limit, TOP_K), node.topK.length);
+            List<ProductSuggestionDTO> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                Entry entry = entries.get(node.topK[i]);
+                result.add(new ProductSuggestionDTO(entry.id(), entry.name()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Refleja en el índice el alta, renombre, activación o desactivación de un producto tras el commit.
+     * @param product entidad recién guardada */
+
+    public void onProductWritten(ProductModel product) {
+        long id = product.getId();
+        String name = product.getNameProduct();
+        boolean active = product.isActivo();
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                Entry current = entries.get(id);
+                if (current != null && active && current.name().equals(name)) return;  // Sin cambios que afecten al índice
+                if (current != null) unindex(current);
+                if (active) index(id, name);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /** Vuelve a leer nombre y estado de los productos escritos en otra instancia; los que ya no existen salen del índice.
+     * Las ventas registradas en otras instancias no se reflejan en el ranking hasta la próxima carga completa.
+     * @param event IDs escritos, recibidos del log de invalidación */
+
+    @EventListener(condition = "#event.target() == T(com.api.java.models.InvalidationTarget).PRODUCT")
+    public void onInvalidated(InvalidationLogService.Invalidated event) {
+        List<Object[]> rows = productRepository.findNamesByIds(event.ids());     // id, nombre, activo
+        Set<Long> missing = new HashSet<>(event.ids());
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : rows) {
+                long id = (Long) row[0];
+                missing.remove(id);
+                Entry current = entries.get(id);
+                if (current != null) unindex(current);
+                if ((Boolean) row[2]) index(id, (String) row[1]);
+            }
+            for (Long id : missing) {
+                Entry current = entries.get(id);
+                if (current != null) unindex(current);
+                sales.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Quita del índice los productos eliminados (por ejemplo, al borrar su categoría).
+     * @param productIds IDs eliminados */
+
+    public void onProductsDeleted(List<Long> productIds) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                for (Long id : productIds) {
+                    Entry current = entries.get(id);
+                    if (current != null) unindex(current);
+                    sales.remove(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /** Suma (o resta, si es negativo) unidades vendidas a un producto y reordena los nodos de su nombre.
+     * @param productId ID del producto
+     * @param units     unidades vendidas */
+
+    public void onSale(long productId, long units) {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                sales.merge(productId, units, Long::sum);
+                Entry current = entries.get(productId);
+                if (current != null) {
+                    for (String key : current.keys()) refreshPath(find(key));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /** Normaliza un texto para indexarlo o buscarlo: sin acentos, en minúsculas y con espacios simples.
+     * @param text texto original
+     * @return texto normalizado */
+
+    public static String normalize(String text) {
+        if (text == null) return "";
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    // ========================================================
+    // MÉTODOS AUXILIARES PRIVADOS
+    // ========================================================
+
+    /** Inserta un producto bajo el nombre completo y bajo cada palabra interna. Requiere el lock de escritura. */
+
+    private void index(long id, String name) {
+        String normalized = normalize(name);
+        if (normalized.isEmpty()) return;
+        Set<String> keys = new HashSet<>();
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            keys.add(normalized.substring(i + 1));  // Permite sugerir "auriculares bluetooth" al escribir "blue"
+        }
+        entries.put(id, new Entry(id, name, List.copyOf(keys)));
+        for (String key : keys) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+            }
+            node.terminals = append(node.terminals, id);
+            refreshPath(node);
+        }
+    }
+
+    /** Quita un producto del trie, podando los nodos que quedan vacíos. Requiere el lock de escritura. */
+
+    private void unindex(Entry entry) {
+        entries.remove(entry.id());
+        for (String key : entry.keys()) {
+            Node node = find(key);
+            if (node == null) continue;
+            node.terminals = remove(node.terminals, entry.id());
+            while (node.parent != null && node.isEmpty()) {     // Poda de ramas vacías
+                Node parent = node.parent;
+                parent.removeChild(node);
+                node = parent;
+            }
+            refreshPath(node);
+        }
+    }
+
+    /** Recalcula el top-K de un nodo y de todos sus ancestros, combinando las listas de los hijos y los productos terminales.
+     * Como cada hijo ya guarda el top-K exacto de su subárbol, la combinación es exacta. */
+
+    private void refreshPath(Node node) {
+        for (Node current = node; current != null; current = current.parent) {
+            long[] best = new long[TOP_K];
+            int count = 0;
+            count = mergeInto(best, count, current.terminals);
+            for (Node child : current.children) {
+                count = mergeInto(best, count, child.topK);
+            }
+            current.topK = Arrays.copyOf(best, count);
+        }
+    }
+
+    /** Inserta candidatos en una lista acotada ordenada por ventas (desc) y luego por ID, sin duplicados. */
+
+    private int mergeInto(long[] best, int count, long[] candidates) {
+        for (long candidate : candidates) {
+            boolean duplicate = false;
+            for (int i = 0; i < count; i++) {
+                if (best[i] == candidate) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (duplicate) continue;
+            long score = sales.getOrDefault(candidate, 0L);
+            int at = count;
+            while (at > 0 && ranksBefore(score, candidate, best[at - 1])) at--;
+            if (at >= TOP_K) continue;
+            int moved = Math.min(count, TOP_K - 1) - at;
+            System.arraycopy(best, at, best, at + 1, moved);
+            best[at] = candidate;
+            if (count < TOP_K) count++;
+        }
+        return count;
+    }
+
+    private boolean ranksBefore(long score, long id, long other) {
+        long otherScore = sales.getOrDefault(other, 0L);
+        return score > otherScore || (score == otherScore && id < other);
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        return node;
+    }
+
+    private static long[] append(long[] array, long value) {
+        for (long existing : array) {
+            if (existing == value) return array;
+        }
+        long[] grown = Arrays.copyOf(array, array.length + 1);
+        grown[array.length] = value;
+        return grown;
+    }
+
+    private static long[] remove(long[] array, long value) {
+        return Arrays.stream(array).filter(v -> v != value).toArray();
+    }
+}
@@ -0,0 +1,290 @@
+package com.api.java.services;
+import com.api.java.dto.PurgeJobDTO;
+import com.api.java.globalException.NotFoundException;
+import com.api.java.mapper.PurgeJobMapper;
+import com.api.java.models.InvalidationTarget;
+import com.api.java.models.Money;
+import com.api.java.models.OrderStatus;
+import com.api.java.models.PurgeJobModel;
+import com.api.java.models.PurgeStatus;
+import com.api.java.models.PurgeTarget;
+import com.api.java.repositories.ICategoryRepository;
+import com.api.java.repositories.IDetailOrderRepository;
+import com.api.java.repositories.IProductRepository;
+import com.api.java.repositories.IPurgeJobRepository;
+import com.api.java.repositories.IStockReservationRepository;
+import com.api.java.repositories.IUserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/** Servicio de purga en segundo plano de categorías y usuarios.
+ * Eliminar una categoría o un usuario solo lo marca como "en eliminación" y registra una tarea; un proceso periódico
+ * borra sus hijos (productos o detalles de orden) en bloques acotados, cada uno en su propia transacción corta junto con
+ * el avance de la tarea, y al final elimina la entidad padre. Como el avance queda en base de datos, las tareas
+ * interrumpidas por un reinicio se retoman en la siguiente ejecución.
+ * Con varias instancias, cada una reclama la tarea de forma atómica antes de procesarla (dueño y plazo en la tarea) y cada
+ * bloque bloquea la fila de la tarea y verifica que siga siendo suya, así que dos instancias nunca eliminan ni restan de los
+ * resúmenes los mismos hijos. Si la instancia dueña se cae, otra la retoma cuando vence app.purge.lease-ms. */
+
+@Slf4j
+@Service
+public class PurgeService {
+    private static final Set<PurgeStatus> ACTIVE = EnumSet.of(PurgeStatus.PENDING, PurgeStatus.RUNNING);   // Tareas por procesar
+
+    private final IPurgeJobRepository purgeJobRepository;       // Registro y avance de las tareas
+    private final ICategoryRepository categoryRepository;       // Categorías a eliminar
+    private final IProductRepository productRepository;         // Productos de las categorías
+    private final IUserRepository userRepository;               // Usuarios a eliminar
+    private final IDetailOrderRepository detailOrderRepository; // Detalles de orden de los usuarios
+    private final IStockReservationRepository reservationRepository;    // Reservas de stock de los productos y usuarios eliminados
+    private final PurgeJobMapper purgeJobMapper;                // Conversión de tareas a DTO
+    private final CatalogSnapshotService catalogSnapshot;       // Se quitan los productos eliminados
+    private final ProductSuggestService suggestService;         // Se quitan los productos eliminados
+    private final SalesRollupService salesRollupService;        // Se resta el aporte de los detalles eliminados
+    private final BestSellerService bestSellerService;          // Se resta lo pagado y se descartan los rankings de categorías eliminadas
+    private final InvalidationLogService invalidationLog;       // Avisa las eliminaciones a las demás instancias
+    private final TransactionTemplate transactionTemplate;      // Una transacción por bloque
+    private final int chunkSize;    // Hijos eliminados por transacción
+    private final long pauseMs;     // Pausa entre bloques para no acaparar la base de datos
+    private final long leaseMs;     // Plazo del reclamo de una tarea; se renueva en cada bloque
+    private final String node;      // Identificador de esta instancia (dueña de las tareas que reclama)
+
+    public PurgeService(IPurgeJobRepository purgeJobRepository, ICategoryRepository categoryRepository,
+                        IProductRepository productRepository, IUserRepository userRepository,
+                        IDetailOrderRepository detailOrderRepository, IStockReservationRepository reservationRepository,
+                        PurgeJobMapper purgeJobMapper,
+                        CatalogSnapshotService catalogSnapshot, ProductSuggestService suggestService,
+                        SalesRollupService salesRollupService, BestSellerService bestSellerService,
+                        InvalidationLogService invalidationLog,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${app.purge.chunk-size:500}") int chunkSize,
+                        @Value("${app.purge.pause-ms:50}") long pauseMs,
+                        @Value("${app.purge.lease-ms:60000}") long leaseMs) {
+        this.purgeJobRepository = purgeJobRepository;
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.detailOrderRepository = detailOrderRepository;
+        this.reservationRepository = reservationRepository;
+        this.purgeJobMapper = purgeJobMapper;
+        this.catalogSnapshot = catalogSnapshot;
+        this.suggestService = suggestService;
+        this.salesRollupService = salesRollupService;
+        this.bestSellerService = bestSellerService;
+        this.invalidationLog = invalidationLog;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+        this.leaseMs = leaseMs;
+        this.node = invalidationLog.getNode();
+    }
+
+    /** Registra la purga de una entidad padre ya marcada como "en eliminación".
+     * Si ya existe una tarea activa para la misma entidad, la devuelve en lugar de crear otra.
+     * Debe llamarse dentro de la transacción que marca la entidad.
+     * @param target    tipo de entidad
+     * @param targetId  ID de la entidad
+     * @param totalRows cantidad de hijos a eliminar
+     * @return tarea registrada */
+
+    public PurgeJobDTO enqueue(PurgeTarget target, Long targetId, long totalRows) {
+        PurgeJobModel job = purgeJobRepository.findFirstByTargetAndTargetIdAndStatusInOrderByIdAsc(target, targetId, ACTIVE)
+                .orElseGet(() -> purgeJobRepository.save(new PurgeJobModel(null, target, targetId, PurgeStatus.PENDING, totalRows, 0, null, null, null, null, null)));
+        return purgeJobMapper.purgeJobToDto(job);
+    }
+
+    /** Devuelve la tarea activa de una entidad padre, si existe.
+     * @param target   tipo de entidad
+     * @param targetId ID de la entidad
+     * @return tarea activa
+     * @throws NotFoundException si no hay una tarea activa */
+
+    public PurgeJobDTO getActiveJob(PurgeTarget target, Long targetId) {
+        return purgeJobRepository.findFirstByTargetAndTargetIdAndStatusInOrderByIdAsc(target, targetId, ACTIVE)
+                .map(purgeJobMapper::purgeJobToDto)
+                .orElseThrow(() -> new NotFoundException("No hay una purga activa para " + target + " " + targetId));
+    }
+
+    /** Obtiene todas las tareas de purga, de la más reciente a la más antigua.
+     * @return tareas con su avance */
+
+    public List<PurgeJobDTO> getJobs() {
+        return purgeJobRepository.findAllByOrderByIdDesc().stream()
+                .map(purgeJobMapper::purgeJobToDto)
+                .collect(Collectors.toList());
+    }
+
+    /** Obtiene una tarea de purga por su ID.
+     * @param id ID de la tarea
+     * @return tarea con su avance
+     * @throws NotFoundException si no existe */
+
+    public PurgeJobDTO getJob(Long id) {
+        return purgeJobRepository.findById(id)
+                .map(purgeJobMapper::purgeJobToDto)
+                .orElseThrow(() -> new NotFoundException("Tarea de purga con ID " + id + " no encontrada"));
+    }
+
+    /** Procesa las tareas pendientes o interrumpidas (incluidas las que quedaron a medias antes de un reinicio) que esta
+     * instancia logra reclamar. */
+
+    @Scheduled(fixedDelayString = "${app.purge.poll-interval-ms:2000}", initialDelayString = "${app.purge.poll-interval-ms:2000}")
+    public void processPending() {
+        for (PurgeJobModel job : purgeJobRepository.findByStatusInOrderByIdAsc(ACTIVE)) {
+            if (!claim(job.getId())) continue;     // La procesa otra instancia
+            try {
+                run(job.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;     // Se retoma en la próxima ejecución (o en otra instancia cuando vence el plazo)
+            } catch (RuntimeException e) {
+                log.error("Purga {} de {} {} detenida: {}", job.getId(), job.getTarget(), job.getTargetId(), e.getMessage(), e);
+                transactionTemplate.executeWithoutResult(status -> purgeJobRepository.findByIdForUpdate(job.getId())
+                        .filter(failed -> ACTIVE.contains(failed.getStatus()) && node.equals(failed.getOwner()))
+                        .ifPresent(failed -> {
+                            failed.setStatus(PurgeStatus.FAILED);
+                            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                            failed.setError(message.length() > 500 ? message.substring(0, 500) : message);
+                        }));
+            }
+        }
+    }
+
+    // ========================================================
+    // MÉTODOS AUXILIARES PRIVADOS
+    // ========================================================
+
+    /** Reclama una tarea para esta instancia si no tiene dueño, ya es suya o venció el plazo de su dueño. */
+
+    private boolean claim(Long jobId) {
+        Instant now = Instant.now();
+        Integer claimed = transactionTemplate.execute(status -> purgeJobRepository.claim(jobId, node, now, now.plusMillis(leaseMs)));
+        return claimed != null && claimed == 1;
+    }
+
+    /** Elimina los hijos de una tarea bloque a bloque y, cuando no quedan, la entidad padre. */
+
+    private void run(Long jobId) throws InterruptedException {
+        while (true) {
+            Boolean finished = transactionTemplate.execute(status -> step(jobId));
+            if (Boolean.TRUE.equals(finished)) return;
+            if (pauseMs > 0) Thread.sleep(pauseMs);
+        }
+    }
+
+    /** Procesa un bloque de una tarea en la transacción actual, con la fila de la tarea bloqueada.
+     * @return true si la tarea terminó, se detuvo o dejó de pertenecer a esta instancia */
+
+    private boolean step(Long jobId) {
+        PurgeJobModel job = purgeJobRepository.findByIdForUpdate(jobId).orElseThrow();
+        if (!ACTIVE.contains(job.getStatus()) || !node.equals(job.getOwner())) {
+            log.warn("Purga {} reclamada por otra instancia ({}); se deja de procesar", jobId, job.getOwner());
+            return true;
+        }
+        job.setLeaseUntil(Instant.now().plusMillis(leaseMs));   // Se renueva junto con el bloque
+        int deleted = switch (job.getTarget()) {
+            case CATEGORY -> deleteProductChunk(job);
+            case USER -> deleteDetailOrderChunk(job.getTargetId());
+        };
+        if (deleted < 0) return true;   // Detenida (CANCELLED o PARTIAL)
+        if (deleted > 0) {  // El avance se confirma junto con el bloque eliminado
+            job.setDeletedRows(job.getDeletedRows() + deleted);
+            return false;
+        }
+        if (!deleteParent(job)) return false;   // Aparecieron hijos nuevos: se eliminan en otra vuelta
+        job.setStatus(PurgeStatus.COMPLETED);
+        log.info("Purga {} de {} {} completada: {} registros eliminados", jobId, job.getTarget(), job.getTargetId(), job.getDeletedRows());
+        return true;
+    }
+
+    /** Elimina un bloque de productos de una categoría y los quita de los índices en memoria tras el commit.
+     * Las filas quedan bloqueadas antes de comprobar que no tienen órdenes: si una orden se confirmó entre la marca de
+     * eliminación y este bloque, la purga se detiene y la categoría se restaura en lugar de fallar por la clave foránea.
+     * Los bloques anteriores ya se confirmaron, así que la tarea queda PARTIAL con los productos eliminados (o CANCELLED
+     * si todavía no se había eliminado ninguno) para que la categoría a medio vaciar no pase por una cancelación limpia.
+     * @return productos eliminados, o -1 si la purga se detuvo */
+
+    private int deleteProductChunk(PurgeJobModel job) {
+        Long categoryId = job.getTargetId();
+        List<Long> ids = productRepository.lockIdsByCategoryId(categoryId, chunkSize);
+        if (ids.isEmpty()) return 0;
+        if (detailOrderRepository.existsByProductOrder_IdIn(ids)) {
+            boolean partial = job.getDeletedRows() > 0;
+            job.setStatus(partial ? PurgeStatus.PARTIAL : PurgeStatus.CANCELLED);
+            job.setError(partial
+                    ? "La categoría recibió órdenes durante la purga; se eliminaron " + job.getDeletedRows() + " productos y se restauró con los que le quedaban"
+                    : "La categoría recibió órdenes antes de eliminar sus productos; se restauró sin cambios");
+            categoryRepository.findById(categoryId).ifPresent(category -> category.setDeleting(false));
+            invalidationLog.append(InvalidationTarget.CATEGORY, categoryId);
+            log.warn("Purga {} de la categoría {} detenida ({}, {} productos eliminados): sus productos tienen órdenes",
+                    job.getId(), categoryId, job.getStatus(), job.getDeletedRows());
+            return -1;
+        }
+        reservationRepository.deleteByProductIds(ids);  // Las reservas referencian al producto; su vencimiento en memoria ya no actualiza nada
+        productRepository.deleteAllByIdInBatch(ids);    // Un único DELETE ... WHERE id IN (...)
+        invalidationLog.appendAll(InvalidationTarget.PRODUCT, ids);
+        catalogSnapshot.onProductsDeleted(ids);
+        suggestService.onProductsDeleted(ids);
+        return ids.size();
+    }
+
+    /** Elimina un bloque de detalles de orden de un usuario, restando su aporte a los resúmenes de ventas y lo pagado del
+     * ranking de más vendidos (tras el commit). Las filas se bloquean antes de leer su aporte, así que solo se resta lo que
+     * esta transacción elimina. */
+
+    private int deleteDetailOrderChunk(Long userId) {
+        List<Long> ids = detailOrderRepository.lockIdsByUserId(userId, chunkSize);
+        if (ids.isEmpty()) return 0;
+        List<SalesRollupService.SalesFact> facts = new ArrayList<>(ids.size());
+        List<Object[]> rows = detailOrderRepository.findSalesRowsByIds(ids);    // id, producto, categoría, país, estado, cantidad, precio, pago
+        for (Object[] row : rows) {
+            Integer amount = (Integer) row[5];
+            facts.add(new SalesRollupService.SalesFact((Long) row[1], (Long) row[2], (String) row[3], (OrderStatus) row[4],
+                    amount != null ? amount : 0, (Money) row[6]));
+        }
+        int deleted = detailOrderRepository.deleteByIds(ids);    // Un único DELETE ... WHERE id IN (...)
+        if (deleted != ids.size() || facts.size() != ids.size()) {
+            throw new IllegalStateException("Se bloquearon " + ids.size() + " detalles pero se eliminaron " + deleted);  // Revierte el bloque
+        }
+        salesRollupService.onOrdersDeleted(facts);
+        for (Object[] row : rows) {
+            if (row[4] == OrderStatus.PAID && row[5] != null) bestSellerService.record((Long) row[1], (Long) row[2], -(Integer) row[5], (Instant) row[7]);
+        }
+        return deleted;
+    }
+
+    /** Elimina la entidad padre una vez que no le quedan hijos. Bloquea su fila antes de comprobarlo, de modo que un hijo
+     * agregado a último momento se detecta (y se purga en otra vuelta) en lugar de hacer fallar la clave foránea.
+     * @return false si aparecieron hijos nuevos */
+
+    private boolean deleteParent(PurgeJobModel job) {
+        switch (job.getTarget()) {
+            case CATEGORY -> {
+                if (categoryRepository.findByIdForUpdate(job.getTargetId()).isPresent()
+                        && productRepository.countByCategoryProduct_Id(job.getTargetId()) > 0) return false;
+                categoryRepository.deleteAllByIdInBatch(List.of(job.getTargetId()));
+                invalidationLog.append(InvalidationTarget.CATEGORY, job.getTargetId());
+                bestSellerService.forgetCategory(job.getTargetId());    // Libera su ranking tras el commit
+            }
+            case USER -> {
+                if (userRepository.findByIdForUpdate(job.getTargetId()).isPresent()
+                        && detailOrderRepository.countByUserOrder_Id(job.getTargetId()) > 0) return false;
+                reservationRepository.deleteByUserId(job.getTargetId());    // Las reservas referencian al usuario
+                userRepository.deleteRolesByUserId(job.getTargetId());
+                userRepository.deleteAllByIdInBatch(List.of(job.getTargetId()));
+                invalidationLog.append(InvalidationTarget.USER, job.getTargetId());
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,137 @@
+package com.api.java.services;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Acumula el tiempo de CPU y los bytes asignados en el heap por una request, medidos con el ThreadMXBean de la JVM.
+ * La request se mide en su propio hilo entre {@link #begin()} y {@link #end()}; el trabajo que pasa a otros hilos
+ * (sub-requests de /batch, recálculo paralelo de resúmenes) se envuelve con {@link #wrap(Callable)}, que mide la parte
+ * ejecutada en cada hilo y la suma a la request que la originó.
+ * En JDK 21 los hilos virtuales no informan CPU ni asignaciones: lo que corre en ellos se cuenta como no medido, por eso
+ * el trabajo que debe medirse se reparte en hilos de plataforma. */
+
+public final class ResourceUsage {
+    private static final com.sun.management.ThreadMXBean THREADS = threadMXBean();
+    private static final ThreadLocal<ResourceUsage> CURRENT = new ThreadLocal<>();
+
+    private final Thread owner;         // Hilo de la request
+    private final long startCpuNanos;
+    private final long startAllocatedBytes;
+    private final LongAdder cpuNanos = new LongAdder();         // CPU de lo terminado (hilo propio al cerrar y tareas en otros hilos)
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder unmeasuredTasks = new LongAdder();  // Tareas en hilos sin soporte de medición
+    private volatile boolean ended;
+
+    private ResourceUsage() {
+        owner = Thread.currentThread();
+        startCpuNanos = cpuTime();
+        startAllocatedBytes = allocatedBytes();
+    }
+
+    /** Empieza a medir la request del hilo actual.
+     * @return acumulador de la request */
+
+    public static ResourceUsage begin() {
+        ResourceUsage usage = new ResourceUsage();
+        CURRENT.set(usage);
+        return usage;
+    }
+
+    /** Termina la medición del hilo actual y suma lo consumido en él.
+     * @return acumulador de la request, o null si el hilo no estaba midiendo */
+
+    public static ResourceUsage end() {
+        ResourceUsage usage = CURRENT.get();
+        CURRENT.remove();
+        if (usage == null || usage.owner != Thread.currentThread()) return usage;
+        usage.addOwnThread();
+        usage.ended = true;
+        return usage;
+    }
+
+    /** @return acumulador de la request del hilo actual, o null */
+
+    public static ResourceUsage current() {
+        return CURRENT.get();
+    }
+
+    /** Envuelve una tarea para que lo que consuma en otro hilo se sume a la request actual.
+     * @param task tarea a ejecutar en otro hilo
+     * @return tarea envuelta, o la misma si no hay una request midiendo */
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        ResourceUsage usage = CURRENT.get();
+        if (usage == null) return task;
+        return () -> {
+            ResourceUsage previous = CURRENT.get();
+            CURRENT.set(usage);     // Si la tarea vuelve a repartir trabajo, también se suma a la misma request
+            long cpu = cpuTime();
+            long allocated = allocatedBytes();
+            try {
+                return task.call();
+            } finally {
+                usage.addDelta(cpu, cpuTime(), allocated, allocatedBytes());
+                if (previous != null) CURRENT.set(previous);
+                else CURRENT.remove();
+            }
+        };
+    }
+
+    /** @return nanosegundos de CPU consumidos hasta ahora (incluye el hilo propio si se consulta desde él antes de {@link #end()}) */
+
+    public long getCpuNanos() {
+        long total = cpuNanos.sum();
+        if (!ended && owner == Thread.currentThread()) total += Math.max(0, cpuTime() - startCpuNanos);
+        return total;
+    }
+
+    /** @return bytes asignados hasta ahora (incluye el hilo propio si se consulta desde él antes de {@link #end()}) */
+
+    public long getAllocatedBytes() {
+        long total = allocatedBytes.sum();
+        if (!ended && owner == Thread.currentThread()) total += Math.max(0, allocatedBytes() - startAllocatedBytes);
+        return total;
+    }
+
+    /** @return tareas que corrieron en hilos sin medición (sus recursos no están incluidos) */
+
+    public long getUnmeasuredTasks() {
+        return unmeasuredTasks.sum();
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    private void addOwnThread() {
+        addDelta(startCpuNanos, cpuTime(), startAllocatedBytes, allocatedBytes());
+    }
+
+    private void addDelta(long cpuBefore, long cpuAfter, long allocatedBefore, long allocatedAfter) {
+        if (cpuBefore < 0 || cpuAfter < 0 || allocatedBefore < 0 || allocatedAfter < 0) {
+            unmeasuredTasks.increment();
+            return;
+        }
+        cpuNanos.add(cpuAfter - cpuBefore);
+        allocatedBytes.add(allocatedAfter - allocatedBefore);
+    }
+
+    /** @return CPU del hilo actual en nanosegundos, o -1 si no se puede medir (hilo virtual o JVM sin soporte) */
+
+    private static long cpuTime() {
+        return THREADS != null && THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    /** @return bytes asignados por el hilo actual, o -1 si no se puede medir */
+
+    private static long allocatedBytes() {
+        return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /** Obtiene el ThreadMXBean extendido de HotSpot y activa las mediciones de CPU y asignaciones por hilo. */
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)) return null;
+        if (threads.isThreadCpuTimeSupported() && !threads.isThreadCpuTimeEnabled()) threads.setThreadCpuTimeEnabled(true);
+        if (threads.isThreadAllocatedMemorySupported() && !threads.isThreadAllocatedMemoryEnabled()) threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+}
@@ -0,0 +1,89 @@
+package com.api.java.services;
+import com.api.java.dto.ResourceUsageDTO;
+import com.api.java.globalException.InvalidRequestException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/** Servicio que agrega por endpoint el tiempo de CPU y los bytes asignados de cada request en histogramas
+ * (app.request.cpu y app.request.allocated, publicados en /actuator/prometheus) y arma el ranking de endpoints
+ * que más consumen. */
+
+@Service
+@RequiredArgsConstructor
+public class ResourceUsageService {
+    private static final int MAX_TOP = 50;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();  // Por handler; acotado por los métodos de controlador
+
+    /** Histogramas de un endpoint. */
+
+    private record Meters(String handler, Timer cpu, DistributionSummary allocated) {
+    }
+
+    /** Registra el consumo de una request.
+     * @param handler        Controlador.metodo que la atendió
+     * @param cpuNanos       CPU consumida en nanosegundos
+     * @param allocatedBytes bytes asignados en el heap */
+
+    public void record(String handler, long cpuNanos, long allocatedBytes) {
+        Meters endpoint = meters.computeIfAbsent(handler, this::register);
+        endpoint.cpu().record(cpuNanos, TimeUnit.NANOSECONDS);
+        endpoint.allocated().record(allocatedBytes);
+    }
+
+    /** Devuelve los endpoints que más consumen.
+     * @param limit cantidad de endpoints (1 a 50)
+     * @param sort  "allocated" (bytes asignados en total) o "cpu" (CPU total)
+     * @return endpoints ordenados de mayor a menor consumo
+     * @throws InvalidRequestException 400 si los parámetros no son válidos */
+
+    public List<ResourceUsageDTO> top(int limit, String sort) {
+        if (limit < 1 || limit > MAX_TOP) throw new InvalidRequestException("El parámetro 'top' debe estar entre 1 y " + MAX_TOP);
+        Comparator<ResourceUsageDTO> order = switch (sort) {
+            case "allocated" -> Comparator.comparingLong(ResourceUsageDTO::getAllocatedBytesTotal);
+            case "cpu" -> Comparator.comparingDouble(ResourceUsageDTO::getCpuMsTotal);
+            default -> throw new InvalidRequestException("Orden desconocido '" + sort + "'. Valores válidos: allocated, cpu");
+        };
+        List<ResourceUsageDTO> result = new ArrayList<>(meters.size());
+        for (Meters endpoint : meters.values()) {
+            HistogramSnapshot cpu = endpoint.cpu().takeSnapshot();
+            HistogramSnapshot allocated = endpoint.allocated().takeSnapshot();
+            result.add(new ResourceUsageDTO(endpoint.handler(), allocated.count(), (long) allocated.total(), allocated.mean(), p99(allocated, 1),
+                    cpu.total(TimeUnit.MILLISECONDS), cpu.mean(TimeUnit.MILLISECONDS), p99(cpu, 1_000_000)));
+        }
+        result.sort(order.reversed());
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    private Meters register(String handler) {
+        Timer cpu = Timer.builder("app.request.cpu").description("Tiempo de CPU por request, incluido el trabajo en otros hilos")
+                .tag("handler", handler).publishPercentileHistogram().publishPercentiles(0.99).register(meterRegistry);
+        DistributionSummary allocated = DistributionSummary.builder("app.request.allocated").description("Bytes asignados en el heap por request")
+                .baseUnit("bytes").tag("handler", handler).publishPercentileHistogram().publishPercentiles(0.99).register(meterRegistry);
+        return new Meters(handler, cpu, allocated);
+    }
+
+    /** @return percentil 99 del snapshot dividido por la escala indicada (1e6 para pasar de ns a ms en los timers) */
+
+    private static double p99(HistogramSnapshot snapshot, double scale) {
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            if (percentile.percentile() == 0.99) return percentile.value() / scale;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,245 @@
+package com.api.java.services;
+import com.api.java.dto.RollupDriftDTO;
+import com.api.java.dto.SalesReportDTO;
+import com.api.java.models.Money;
+import com.api.java.models.OrderStatus;
+import com.api.java.models.RollupDimension;
+import com.api.java.models.SalesRollupModel;
+import com.api.java.repositories.IDetailOrderRepository;
+import com.api.java.repositories.ISalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Servicio que mantiene y consulta los resúmenes de ventas (rollups) por producto, categoría, país y estado.
+ * Cada alta, modificación o baja de un detalle de orden resta su aporte anterior y suma el nuevo dentro de la misma
+ * transacción, por lo que los reportes leen solo la tabla de resumen. Incluye un recálculo en bloques paralelos
+ * para detectar (y opcionalmente corregir) diferencias; la corrección se hace fila por fila bajo su bloqueo, sin
+ * detener las escrituras. */
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+    private static final long REBUILD_CHUNK_SIZE = 5_000;   // IDs de detalle por bloque de recálculo
+    private static final int REBUILD_THREADS = 4;           // Bloques procesados en paralelo (acota las conexiones usadas)
+    private static final int MAX_DRIFT_SAMPLES = 50;        // Diferencias máximas incluidas en el reporte
+
+    private final ISalesRollupRepository rollupRepository;      // Tablas de resumen
+    private final IDetailOrderRepository detailOrderRepository; // Fuente de verdad para el recálculo
+    private final TransactionTemplate transactionTemplate;      // Una transacción por fila corregida
+
+    /** Aporte de un detalle de orden a los resúmenes.
+     * @param productId  ID del producto
+     * @param categoryId ID de la categoría del producto
+     * @param country    país del usuario
+     * @param status     estado del detalle
+     * @param amount     unidades
+     * @param unitPrice  precio unitario congelado al momento de la compra */
+
+    public record SalesFact(Long productId, Long categoryId, String country, OrderStatus status, int amount, Money unitPrice) {}
+
+    private record RollupKey(RollupDimension dimension, String key, OrderStatus status) {}
+
+    /** Unidades e ingresos (en centavos) acumulados; la suma es aritmética entera exacta. */
+
+    private record Totals(long units, long revenueCents) {
+        Totals plus(Totals other) {
+            return new Totals(units + other.units, Math.addExact(revenueCents, other.revenueCents));
+        }
+    }
+
+    /** Aplica el cambio de un detalle de orden: resta el aporte anterior y suma el nuevo.
+     * Debe llamarse dentro de la transacción que modifica el detalle.
+     * @param before aporte previo (null en un alta)
+     * @param after  aporte nuevo (null en una baja) */
+
+    public void onOrderChanged(SalesFact before, SalesFact after) {
+        if (before != null) apply(before, -1);
+        if (after != null) apply(after, 1);
+    }
+
+    /** Resta el aporte de un bloque de detalles eliminados, agrupando por clave para emitir
+     * una sola actualización por fila de resumen. Debe llamarse dentro de la transacción que los elimina.
+     * @param facts aportes de los detalles eliminados */
+
+    public void onOrdersDeleted(List<SalesFact> facts) {
+        Map<RollupKey, Totals> removed = new HashMap<>();
+        for (SalesFact fact : facts) {
+            Totals totals = contributionOf(fact, 1);
+            for (RollupKey key : keysOf(fact)) removed.merge(key, totals, Totals::plus);
+        }
+        removed.forEach((key, totals) -> increment(key, -totals.units(), -totals.revenueCents()));
+    }
+
+    /** Devuelve las ventas acumuladas de una dimensión, opcionalmente filtradas por estado.
+     * @param dimension dimensión a reportar
+     * @param status    estado de orden (null para todos)
+     * @return filas ordenadas por ingresos descendentes */
+
+    public List<SalesReportDTO> getReport(RollupDimension dimension, OrderStatus status) {
+        List<SalesRollupModel> rows = status != null
+                ? rollupRepository.findByDimensionAndStatus(dimension, status)
+                : rollupRepository.findByDimension(dimension);
+        return group(rows, SalesRollupModel::getDimensionKey);
+    }
+
+    /** Devuelve las ventas acumuladas por estado de orden (a partir de la dimensión producto, que cubre todas las órdenes).
+     * @return filas por estado */
+
+    public List<SalesReportDTO> getReportByStatus() {
+        return group(rollupRepository.findByDimension(RollupDimension.PRODUCT), row -> row.getStatus().name());
+    }
+
+    /** Recalcula los resúmenes desde los detalles de orden, en bloques de IDs procesados en paralelo,
+     * y los compara con los valores mantenidos incrementalmente.
+     * @param repair si es true, corrige las filas con diferencias (ver {@link #repair})
+     * @return reporte de diferencias */
+
+    public RollupDriftDTO rebuild(boolean repair) {
+        long minId = detailOrderRepository.findMinId();
+        long maxId = detailOrderRepository.findMaxId();
+        List<long[]> ranges = new ArrayList<>();
+        for (long from = minId; maxId > 0 && from <= maxId; from += REBUILD_CHUNK_SIZE) {
+            ranges.add(new long[]{from, Math.min(from + REBUILD_CHUNK_SIZE - 1, maxId)});
+        }
+
+        Map<RollupKey, Totals> recomputed = new ConcurrentHashMap<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(REBUILD_THREADS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long[] range : ranges) {
+                futures.add(pool.submit(ResourceUsage.wrap(() -> {
+                    for (Object[] row : detailOrderRepository.aggregateSalesBetween(range[0], range[1])) {
+                        SalesFact fact = new SalesFact((Long) row[0], (Long) row[1], (String) row[2], (OrderStatus) row[3], 0, null);
+                        Totals totals = new Totals(((Number) row[4]).longValue(), ((Number) row[5]).longValue());
+                        for (RollupKey key : keysOf(fact)) recomputed.merge(key, totals, Totals::plus);
+                    }
+                    return null;
+                })));
+            }
+            for (Future<?> future : futures) future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Recálculo de resúmenes interrumpido");
+        } catch (ExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error al recalcular resúmenes: " + e.getCause().getMessage());
+        }
+
+        Map<RollupKey, Totals> stored = new HashMap<>();
+        for (SalesRollupModel row : rollupRepository.findAll()) {
+            stored.put(new RollupKey(row.getDimension(), row.getDimensionKey(), row.getStatus()), new Totals(row.getUnits(), Money.centsOf(row.getRevenue())));
+        }
+        Set<RollupKey> allKeys = new HashSet<>(stored.keySet());
+        allKeys.addAll(recomputed.keySet());
+        List<String> samples = new ArrayList<>();
+        int mismatches = 0;
+        Totals zero = new Totals(0, 0);
+        List<RollupKey> drifted = new ArrayList<>();
+        for (RollupKey key : allKeys) {
+            Totals expected = recomputed.getOrDefault(key, zero);
+            Totals actual = stored.getOrDefault(key, zero);
+            if (!expected.equals(actual)) {
+                mismatches++;
+                drifted.add(key);
+                if (samples.size() < MAX_DRIFT_SAMPLES) {
+                    samples.add(key.dimension() + "/" + key.key() + "/" + key.status() + ": esperado " + expected.units() + " u. / " + Money.ofCents(expected.revenueCents())
+                            + ", registrado " + actual.units() + " u. / " + Money.ofCents(actual.revenueCents()));
+                }
+            }
+        }
+        log.info("Recálculo de resúmenes de ventas: {} bloques, {} filas comparadas, {} diferencias", ranges.size(), allKeys.size(), mismatches);
+
+        boolean repaired = repair && mismatches > 0;
+        if (repaired) {
+            for (RollupKey key : drifted) transactionTemplate.executeWithoutResult(status -> repair(key));
+        }
+        return new RollupDriftDTO(ranges.size(), allKeys.size(), mismatches, samples, repaired);
+    }
+
+    // ========================================================
+    // MÉTODOS AUXILIARES PRIVADOS
+    // ========================================================
+
+    /** Suma (sign = 1) o resta (sign = -1) el aporte de un detalle en cada dimensión. */
+
+    private void apply(SalesFact fact, int sign) {
+        Totals totals = contributionOf(fact, sign);
+        for (RollupKey key : keysOf(fact)) increment(key, totals.units(), totals.revenueCents());
+    }
+
+    /** Unidades e ingresos que aporta un detalle, con el signo indicado. */
+
+    private Totals contributionOf(SalesFact fact, int sign) {
+        long units = (long) sign * fact.amount();
+        return new Totals(units, Math.multiplyExact(Money.centsOf(fact.unitPrice()), units));
+    }
+
+    /** Suma unidades e ingresos a una fila de resumen, creándola si todavía no existe (upsert atómico). */
+
+    private void increment(RollupKey key, long units, long revenueCents) {
+        rollupRepository.upsert(key.dimension().name(), key.key(), key.status().name(), units, Money.ofCents(revenueCents).toBigDecimal());
+    }
+
+    /** Corrige una fila de resumen sin reemplazar la tabla. Debe llamarse en su propia transacción.
+     * Primero bloquea la fila (creándola si falta) y recién entonces vuelve a agregar sus ventas desde los detalles: una
+     * escritura ya confirmada queda incluida en el agregado, y una en curso espera el bloqueo y suma su aporte después
+     * de la corrección. Así el valor esperado y el registrado se leen de forma consistente y se aplica solo la diferencia. */
+
+    private void repair(RollupKey key) {
+        increment(key, 0, 0);   // Bloquea la fila hasta el commit
+        Long productId = key.dimension() == RollupDimension.PRODUCT ? Long.valueOf(key.key()) : null;
+        Long categoryId = key.dimension() == RollupDimension.CATEGORY ? Long.valueOf(key.key()) : null;
+        String country = key.dimension() == RollupDimension.COUNTRY ? key.key() : null;
+        Object[] row = detailOrderRepository.aggregateSalesFor(key.status(), productId, categoryId, country).get(0);
+        Totals expected = new Totals(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        Object[] current = rollupRepository.findTotals(key.dimension(), key.key(), key.status()).get(0);
+        Totals actual = new Totals((Long) current[0], Money.centsOf((Money) current[1]));
+        if (expected.units() == 0 && expected.revenueCents() == 0) {
+            rollupRepository.deleteByKey(key.dimension(), key.key(), key.status());     // Sin ventas: la fila sobra
+        } else if (!expected.equals(actual)) {
+            increment(key, expected.units() - actual.units(), expected.revenueCents() - actual.revenueCents());
+        }
+    }
+
+    /** Claves de resumen a las que aporta un detalle (una por dimensión con valor conocido). */
+
+    private List<RollupKey> keysOf(SalesFact fact) {
+        OrderStatus status = fact.status() != null ? fact.status() : OrderStatus.PENDING;   // Un detalle sin estado se considera pendiente
+        List<RollupKey> keys = new ArrayList<>(3);
+        if (fact.productId() != null) keys.add(new RollupKey(RollupDimension.PRODUCT, fact.productId().toString(), status));
+        if (fact.categoryId() != null) keys.add(new RollupKey(RollupDimension.CATEGORY, fact.categoryId().toString(), status));
+        if (fact.country() != null) keys.add(new RollupKey(RollupDimension.COUNTRY, fact.country(), status));
+        return keys;
+    }
+
+    /** Agrupa filas de resumen por una clave, sumando unidades e ingresos, y ordena por ingresos descendentes. */
+
+    private List<SalesReportDTO> group(List<SalesRollupModel> rows, Function<SalesRollupModel, String> keyFn) {
+        Map<String, Totals> grouped = new HashMap<>();
+        for (SalesRollupModel row : rows) {
+            grouped.merge(keyFn.apply(row), new Totals(row.getUnits(), Money.centsOf(row.getRevenue())), Totals::plus);
+        }
+        return grouped.entrySet().stream()
+                .map(e -> new SalesReportDTO(e.getKey(), e.getValue().units(), Money.ofCents(e.getValue().revenueCents())))
+                .sorted(Comparator.comparing(SalesReportDTO::getRevenue).reversed())
+                .collect(Collectors.toList());
+    }
+}
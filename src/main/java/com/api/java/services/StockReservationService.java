@@ -0,0 +1,313 @@
+package com.api.java.services;
+import com.api.java.dto.DetailOrderDTO;
+import com.api.java.dto.StockAvailabilityDTO;
+import com.api.java.dto.StockReservationDTO;
+import com.api.java.globalException.ConflictException;
+import com.api.java.globalException.InsufficientStockException;
+import com.api.java.globalException.InvalidRequestException;
+import com.api.java.globalException.NotFoundException;
+import com.api.java.mapper.StockReservationMapper;
+import com.api.java.models.ProductModel;
+import com.api.java.models.ReservationStatus;
+import com.api.java.models.StockReservationModel;
+import com.api.java.models.UserModel;
+import com.api.java.repositories.IProductRepository;
+import com.api.java.repositories.IStockReservationRepository;
+import com.api.java.repositories.IUserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Reservas temporales de stock (carritos durante el checkout): retienen unidades por un tiempo sin modificar stockProduct
+ * y luego se confirman como un detalle de orden o se liberan.
+ * La base de datos es la fuente de verdad: el stock disponible es stockProduct menos la suma de las reservas ACTIVE con
+ * vencimiento futuro, calculada bajo el bloqueo de la fila del producto, así que es correcto entre instancias y una reserva
+ * vencida deja de retener stock en el acto aunque su estado no se haya actualizado.
+ * El cambio de estado a EXPIRED lo hace una {@link TimingWheel} en memoria con las reservas vivas de esta instancia: cada tick
+ * cuesta O(1) más las reservas que vencen, sin recorrer la tabla. Una reserva deja de seguirse recién cuando el UPDATE que
+ * la marca se confirma; si falla (por ejemplo, con la base de datos caída) se reprograma con una espera creciente, sin
+ * depender de que se publique {@link CatalogDiskSnapshotService.DatabaseRecovered}. Al arrancar (o al volver la base de
+ * datos) se marcan las reservas vencidas y se cargan en la rueda las vigentes.
+ * Cada reserva pertenece al usuario autenticado que la crea; solo él o un ADMIN pueden consultarla, confirmarla o liberarla. */
+
+@Slf4j
+@Service
+public class StockReservationService {
+    private static final int EXPIRE_CHUNK = 1000;   // IDs por UPDATE al marcar reservas vencidas
+    private static final String ADMIN = "ROLE_ADMIN";   // Autoridad que puede operar reservas de otros usuarios
+
+    private final IStockReservationRepository reservationRepository;
+    private final IProductRepository productRepository;
+    private final IUserRepository userRepository;
+    private final DetailOrderService detailOrderService;
+    private final StockReservationMapper reservationMapper;
+    private final TransactionTemplate transactionTemplate;  // Una transacción por bloque de vencimientos
+    private final long defaultTtlS;     // Duración de una reserva sin ttlSeconds
+    private final long maxTtlS;         // Duración máxima admitida
+    private final long tickMs;          // Resolución de la rueda; primera espera antes de reintentar un vencimiento
+    private final long maxRetryMs;      // Espera máxima entre reintentos de vencimientos fallidos
+    private long retryMs;               // Espera del próximo reintento; se duplica con cada fallo seguido (solo la usa expire)
+    private final TimingWheel wheel;    // Vencimientos de las reservas vivas; se accede con su propio lock
+    private final Map<Long, TimingWheel.Timeout> holds = new HashMap<>();  // ID de reserva -> vencimiento programado (bajo el lock de wheel)
+    private final Counter expired;      // Reservas marcadas como vencidas
+
+    public StockReservationService(IStockReservationRepository reservationRepository, IProductRepository productRepository,
+                                   IUserRepository userRepository, DetailOrderService detailOrderService,
+                                   StockReservationMapper reservationMapper, TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.reservations.default-ttl-s:600}") long defaultTtlS,
+                                   @Value("${app.reservations.max-ttl-s:3600}") long maxTtlS,
+                                   @Value("${app.reservations.tick-ms:250}") long tickMs,
+                                   @Value("${app.reservations.wheel-slots:64}") int wheelSlots,
+                                   @Value("${app.reservations.wheel-levels:4}") int wheelLevels,
+                                   @Value("${app.reservations.max-retry-ms:30000}") long maxRetryMs) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.detailOrderService = detailOrderService;
+        this.reservationMapper = reservationMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultTtlS = defaultTtlS;
+        this.maxTtlS = maxTtlS;
+        this.tickMs = tickMs;
+        this.maxRetryMs = maxRetryMs;
+        this.retryMs = tickMs;
+        this.wheel = new TimingWheel(tickMs, wheelSlots, wheelLevels, System.currentTimeMillis());
+        Gauge.builder("app.reservations.active", this, StockReservationService::tracked)
+                .description("Reservas de stock vigentes seguidas por esta instancia").register(meterRegistry);
+        this.expired = Counter.builder("app.reservations.expired").description("Reservas de stock marcadas como vencidas").register(meterRegistry);
+    }
+
+    /** Reserva unidades de un producto por un tiempo a nombre del usuario autenticado.
+     * @param dto       producto, cantidad y duración opcional (el userId recibido se ignora)
+     * @param requester usuario autenticado, dueño de la reserva
+     * @return reserva creada, en estado ACTIVE
+     * @throws InvalidRequestException 400 si la duración supera el máximo o el producto está inactivo
+     * @throws InsufficientStockException 400 si el stock disponible no alcanza
+     * @throws NotFoundException 404 si el producto o el usuario no existen */
+
+    @Transactional
+    public StockReservationDTO reserve(StockReservationDTO dto, Authentication requester) {
+        long ttlS = dto.getTtlSeconds() != null ? dto.getTtlSeconds() : defaultTtlS;
+        if (ttlS > maxTtlS) throw new InvalidRequestException("La duración máxima de una reserva es de " + maxTtlS + " segundos");
+
+        ProductModel product = productRepository.findByIdForUpdate(dto.getProductId())     // Serializa las reservas y órdenes del producto
+                .orElseThrow(() -> new NotFoundException("Producto no encontrado"));
+        if (!product.isActivo()) throw new InvalidRequestException("El producto no está disponible para la venta");
+        UserModel user = userRepository.findByUsername(requester.getName())
+                .filter(UserModel::isEnabled)
+                .orElseThrow(() -> new NotFoundException("Usuario no encontrado"));
+
+        Instant now = Instant.now();
+        long available = product.getStockProduct() - reservationRepository.sumHeldByProductId(product.getId(), now);
+        if (available < dto.getAmount()) {
+            throw new InsufficientStockException("Stock insuficiente: disponible " + Math.max(0, available) + ", solicitado " + dto.getAmount());
+        }
+
+        StockReservationModel reservation = new StockReservationModel();
+        reservation.setUser(user);
+        reservation.setProduct(product);
+        reservation.setAmount(dto.getAmount());
+        reservation.setStatus(ReservationStatus.ACTIVE);
+        reservation.setExpiresAt(now.plusSeconds(ttlS));
+        StockReservationModel saved = reservationRepository.save(reservation);
+        AfterCommit.run(() -> track(saved.getId(), saved.getExpiresAt()));
+        return reservationMapper.reservationToDto(saved);
+    }
+
+    /** Obtiene una reserva.
+     * @param id        ID de la reserva
+     * @param requester usuario autenticado
+     * @return la reserva; si venció y el tick aún no la marcó, se informa como EXPIRED
+     * @throws AccessDeniedException 403 si la reserva es de otro usuario y el solicitante no es ADMIN
+     * @throws NotFoundException 404 si no existe */
+
+    public StockReservationDTO get(Long id, Authentication requester) {
+        StockReservationModel reservation = find(id);
+        requireOwner(reservation, requester);
+        StockReservationDTO dto = reservationMapper.reservationToDto(reservation);
+        if (dto.getStatus() == ReservationStatus.ACTIVE && !dto.getExpiresAt().isAfter(Instant.now())) dto.setStatus(ReservationStatus.EXPIRED);
+        return dto;
+    }
+
+    /** Confirma una reserva vigente: crea el detalle de orden (PENDING) y descuenta del stock las unidades retenidas.
+     * @param id        ID de la reserva
+     * @param requester usuario autenticado
+     * @return detalle de orden creado
+     * @throws AccessDeniedException 403 si la reserva es de otro usuario y el solicitante no es ADMIN
+     * @throws ConflictException 409 si la reserva ya no está vigente
+     * @throws NotFoundException 404 si no existe */
+
+    @Transactional
+    public DetailOrderDTO confirm(Long id, Authentication requester) {
+        StockReservationModel reservation = reservationRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new NotFoundException("Reserva no encontrada"));
+        requireOwner(reservation, requester);
+        requireLive(reservation);
+        reservation.setStatus(ReservationStatus.CONFIRMED);     // Antes de validar el stock: deja de contarse como retenida
+        reservationRepository.saveAndFlush(reservation);
+        DetailOrderDTO created = detailOrderService.newDetailOrderFromReservation(reservation.getUser(), reservation.getProduct().getId(), reservation.getAmount());
+        reservation.setDetailOrderId(created.getId());
+        AfterCommit.run(() -> untrack(id));
+        return created;
+    }
+
+    /** Libera una reserva vigente antes de su vencimiento.
+     * @param id        ID de la reserva
+     * @param requester usuario autenticado
+     * @return la reserva en estado RELEASED
+     * @throws AccessDeniedException 403 si la reserva es de otro usuario y el solicitante no es ADMIN
+     * @throws ConflictException 409 si la reserva ya no está vigente
+     * @throws NotFoundException 404 si no existe */
+
+    @Transactional
+    public StockReservationDTO release(Long id, Authentication requester) {
+        StockReservationModel reservation = reservationRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new NotFoundException("Reserva no encontrada"));
+        requireOwner(reservation, requester);
+        requireLive(reservation);
+        reservation.setStatus(ReservationStatus.RELEASED);
+        AfterCommit.run(() -> untrack(id));
+        return reservationMapper.reservationToDto(reservationRepository.save(reservation));
+    }
+
+    /** Calcula el stock disponible de un producto descontando las reservas vigentes.
+     * @param productId ID del producto
+     * @return stock registrado, retenido y disponible
+     * @throws NotFoundException 404 si el producto no existe */
+
+    public StockAvailabilityDTO availability(Long productId) {
+        ProductModel product = productRepository.findById(productId)
+                .orElseThrow(() -> new NotFoundException("Producto no encontrado"));
+        long held = reservationRepository.sumHeldByProductId(productId, Instant.now());
+        return new StockAvailabilityDTO(productId, product.getStockProduct(), held, Math.max(0, product.getStockProduct() - held));
+    }
+
+    /** Avanza la rueda de tiempo y marca como EXPIRED las reservas vencidas que sigan activas. Cada bloque deja de seguirse
+     * cuando su UPDATE se confirma; si falla, las reservas del bloque y las siguientes se reprograman con una espera que se
+     * duplica con cada fallo seguido (hasta app.reservations.max-retry-ms). Mientras tanto ya no retienen stock. */
+
+    @Scheduled(fixedDelayString = "${app.reservations.tick-ms:250}")
+    public void expire() {
+        List<Long> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(System.currentTimeMillis(), due::add);    // Siguen en holds hasta confirmar el UPDATE
+        }
+        if (due.isEmpty()) return;
+        int from = 0;
+        try {
+            for (; from < due.size(); from += EXPIRE_CHUNK) {
+                List<Long> chunk = due.subList(from, Math.min(from + EXPIRE_CHUNK, due.size()));
+                Integer updated = transactionTemplate.execute(status -> reservationRepository.expireByIds(chunk));
+                if (updated != null) expired.increment(updated);
+                synchronized (wheel) {
+                    holds.keySet().removeAll(chunk);
+                }
+            }
+            retryMs = tickMs;
+        } catch (RuntimeException e) {
+            List<Long> pending = due.subList(from, due.size());
+            long delayMs = retryMs;
+            retryMs = Math.min(maxRetryMs, retryMs * 2);
+            reschedule(pending, System.currentTimeMillis() + delayMs);
+            if (!CatalogDiskSnapshotService.isDatabaseUnavailable(e)) throw e;
+            log.warn("Base de datos no disponible: {} reservas vencidas se reintentan en {} ms", pending.size(), delayMs);
+        }
+    }
+
+    /** Marca las reservas que vencieron mientras la instancia estaba detenida y carga las vigentes en la rueda de tiempo.
+     * Se repite al volver la base de datos; cargar una reserva ya seguida no la duplica. */
+
+    @EventListener({ApplicationReadyEvent.class, CatalogDiskSnapshotService.DatabaseRecovered.class})
+    public void load() {
+        try {
+            Instant now = Instant.now();
+            Integer overdue = transactionTemplate.execute(status -> reservationRepository.expireOverdue(now));
+            if (overdue != null && overdue > 0) expired.increment(overdue);
+            List<Object[]> live = reservationRepository.findLive(now);
+            for (Object[] row : live) track((Long) row[0], (Instant) row[1]);
+            log.info("Reservas de stock: {} vigentes cargadas, {} vencidas marcadas", live.size(), overdue);
+        } catch (RuntimeException e) {
+            if (!CatalogDiskSnapshotService.isDatabaseUnavailable(e)) throw e;
+            log.warn("Base de datos no disponible: las reservas vigentes se cargan cuando vuelva");
+        }
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** Busca una reserva o lanza una excepción 404. */
+
+    private StockReservationModel find(Long id) {
+        return reservationRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Reserva no encontrada"));
+    }
+
+    /** Verifica que la reserva pertenezca al usuario autenticado, salvo que sea ADMIN.
+     * Compara IDs sin inicializar el usuario de la reserva. */
+
+    private void requireOwner(StockReservationModel reservation, Authentication requester) {
+        if (requester.getAuthorities().stream().anyMatch(authority -> ADMIN.equals(authority.getAuthority()))) return;
+        Long requesterId = userRepository.findByUsername(requester.getName()).map(UserModel::getId).orElse(null);
+        if (!reservation.getUser().getId().equals(requesterId)) throw new AccessDeniedException("La reserva pertenece a otro usuario");
+    }
+
+    /** Verifica que la reserva siga activa y sin vencer. */
+
+    private static void requireLive(StockReservationModel reservation) {
+        if (reservation.getStatus() != ReservationStatus.ACTIVE || !reservation.getExpiresAt().isAfter(Instant.now())) {
+            ReservationStatus status = reservation.getStatus() == ReservationStatus.ACTIVE ? ReservationStatus.EXPIRED : reservation.getStatus();
+            throw new ConflictException("La reserva no está vigente (estado " + status + ")");
+        }
+    }
+
+    /** Programa el vencimiento de una reserva, si todavía no está programado. */
+
+    private void track(Long id, Instant expiresAt) {
+        synchronized (wheel) {
+            if (!holds.containsKey(id)) holds.put(id, wheel.schedule(id, expiresAt.toEpochMilli()));
+        }
+    }
+
+    /** Vuelve a programar reservas vencidas cuyo UPDATE falló, salvo las confirmadas o liberadas mientras tanto. */
+
+    private void reschedule(List<Long> ids, long deadlineMs) {
+        synchronized (wheel) {
+            for (Long id : ids) {
+                if (holds.containsKey(id)) holds.put(id, wheel.schedule(id, deadlineMs));
+            }
+        }
+    }
+
+    /** Cancela el vencimiento programado de una reserva confirmada o liberada. */
+
+    private void untrack(Long id) {
+        synchronized (wheel) {
+            TimingWheel.Timeout timeout = holds.remove(id);
+            if (timeout != null) wheel.cancel(timeout);
+        }
+    }
+
+    /** @return reservas seguidas por la rueda de tiempo */
+
+    private int tracked() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+}
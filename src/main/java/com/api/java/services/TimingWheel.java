@@ -0,0 +1,177 @@
+package com.api.java.services;
+
+import java.util.function.LongConsumer;
+
+/** Rueda de tiempo jerárquica (Varghese y Lauck) para vencimientos: programar y cancelar cuestan O(1) y avanzar un tick
+ * cuesta O(1) más lo que vence, sin importar cuántos vencimientos haya pendientes.
+ * Hay varios niveles de slots por potencias del tamaño de la rueda: el nivel 0 tiene un slot por tick, el nivel 1 un slot
+ * cada "slots" ticks, etc. Un vencimiento se ubica en el nivel más bajo que lo alcanza y, cuando el tiempo llega a su bloque,
+ * se redistribuye a un nivel inferior; cada entrada se mueve a lo sumo una vez por nivel.
+ * No es thread-safe: se usa con un lock externo. */
+
+public final class TimingWheel {
+    private final long startMs;     // Origen de los ticks
+    private final long tickMs;      // Resolución
+    private final int bits;         // log2 de los slots por nivel
+    private final int mask;         // Slots por nivel - 1
+    private final long maxDelta;    // Ticks alcanzables por el nivel más alto; más allá se reprograma al vencer
+    private final Slot[][] slots;   // [nivel][slot]
+    private long currentTick;       // Último tick procesado
+    private int size;               // Vencimientos pendientes
+
+    /** Vencimiento programado; permite cancelarlo en O(1). */
+
+    public static final class Timeout {
+        private final long key;
+        private final long deadlineTick;
+        private Slot slot;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(long key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /** @return clave indicada al programarlo */
+
+        public long getKey() {
+            return key;
+        }
+    }
+
+    /** Lista doblemente enlazada de los vencimientos de un slot. */
+
+    private static final class Slot {
+        private Timeout head;
+
+        void add(Timeout timeout) {
+            timeout.slot = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) head.prev = timeout;
+            head = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev != null) timeout.prev.next = timeout.next;
+            else head = timeout.next;
+            if (timeout.next != null) timeout.next.prev = timeout.prev;
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        /** Vacía el slot y devuelve su primera entrada (siguen enlazadas por next). */
+
+        Timeout drain() {
+            Timeout first = head;
+            head = null;
+            return first;
+        }
+    }
+
+    /** @param tickMs resolución en milisegundos
+     * @param slots  slots por nivel (potencia de 2)
+     * @param levels cantidad de niveles; alcance = tickMs * slots^levels
+     * @param nowMs  momento actual, origen de los ticks */
+
+    public TimingWheel(long tickMs, int slots, int levels, long nowMs) {
+        if (tickMs < 1 || slots < 2 || Integer.bitCount(slots) != 1 || levels < 1 || (long) Integer.numberOfTrailingZeros(slots) * levels > 62) {
+            throw new IllegalArgumentException("Configuración de rueda de tiempo inválida: tick " + tickMs + " ms, " + slots + " slots, " + levels + " niveles");
+        }
+        this.startMs = nowMs;
+        this.tickMs = tickMs;
+        this.bits = Integer.numberOfTrailingZeros(slots);
+        this.mask = slots - 1;
+        this.maxDelta = (1L << (bits * levels)) - 1;
+        this.slots = new Slot[levels][slots];
+        for (Slot[] level : this.slots) {
+            for (int i = 0; i < slots; i++) level[i] = new Slot();
+        }
+    }
+
+    /** Programa un vencimiento. Si el momento ya pasó, vence en el próximo tick.
+     * @param key        clave devuelta al vencer
+     * @param deadlineMs momento de vencimiento (epoch en milisegundos)
+     * @return vencimiento programado */
+
+    public Timeout schedule(long key, long deadlineMs) {
+        long tick = Math.max(currentTick + 1, Math.ceilDiv(deadlineMs - startMs, tickMs));   // Nunca antes de tiempo
+        Timeout timeout = new Timeout(key, tick);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /** Cancela un vencimiento pendiente; no hace nada si ya venció o fue cancelado.
+     * @param timeout vencimiento a cancelar */
+
+    public void cancel(Timeout timeout) {
+        if (timeout.slot == null) return;
+        timeout.slot.remove(timeout);
+        size--;
+    }
+
+    /** Avanza hasta el momento indicado y entrega las claves vencidas.
+     * @param nowMs   momento actual (epoch en milisegundos)
+     * @param expired recibe la clave de cada vencimiento
+     * @return cantidad de vencimientos entregados */
+
+    public int advance(long nowMs, LongConsumer expired) {
+        long target = Math.floorDiv(nowMs - startMs, tickMs);
+        int count = 0;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = slots.length - 1; level >= 1; level--) {     // Primero los niveles altos: bajan a slots que se procesan en este tick
+                if ((currentTick & ((1L << (bits * level)) - 1)) == 0) cascade(level);
+            }
+            for (Timeout timeout = slots[0][(int) (currentTick & mask)].drain(); timeout != null; ) {
+                Timeout next = timeout.next;
+                timeout.slot = null;
+                timeout.prev = null;
+                timeout.next = null;
+                if (timeout.deadlineTick > currentTick) {
+                    place(timeout);     // Más lejos que el alcance de la rueda: sigue esperando
+                } else {
+                    size--;
+                    count++;
+                    expired.accept(timeout.key);
+                }
+                timeout = next;
+            }
+        }
+        return count;
+    }
+
+    /** @return vencimientos pendientes */
+
+    public int size() {
+        return size;
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    /** Ubica un vencimiento en el nivel más bajo que alcanza su tick (o en el extremo de la rueda si queda más lejos). */
+
+    private void place(Timeout timeout) {
+        long tick = Math.min(timeout.deadlineTick, currentTick + maxDelta);
+        long delta = tick - currentTick;
+        int level = 0;
+        while (level < slots.length - 1 && (delta >>> (bits * (level + 1))) != 0) level++;
+        slots[level][(int) ((tick >>> (bits * level)) & mask)].add(timeout);
+    }
+
+    /** Redistribuye el slot actual de un nivel a los niveles inferiores. */
+
+    private void cascade(int level) {
+        for (Timeout timeout = slots[level][(int) ((currentTick >>> (bits * level)) & mask)].drain(); timeout != null; ) {
+            Timeout next = timeout.next;
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+            place(timeout);
+            timeout = next;
+        }
+    }
+}
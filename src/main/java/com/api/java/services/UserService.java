@@ -1,19 +1,29 @@
 package com.api.java.services;
+import com.api.java.dto.MultiGetDTO;
+import com.api.java.dto.PurgeJobDTO;
+import com.api.java.dto.SparseListDTO;
 import com.api.java.dto.UserDTO;
+import com.api.java.globalException.InvalidRequestException;
+import com.api.java.globalException.NotFoundException;
 import com.api.java.mapper.RoleMapper;
 import com.api.java.mapper.UserMapper;
 import com.api.java.models.ERole;
+import com.api.java.models.InvalidationTarget;
+import com.api.java.models.PurgeTarget;
 import com.api.java.models.RoleModel;
 import com.api.java.models.UserModel;
+import com.api.java.repositories.IDetailOrderRepository;
 import com.api.java.repositories.IRoleRepository;
 import com.api.java.repositories.IUserRepository;
+import com.api.java.repositories.SparseFieldQuery;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.server.ResponseStatusException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -21,23 +31,41 @@ import java.util.stream.Collectors;
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    /** Campos de UserDTO seleccionables con ?fields= y su columna.
+     * "role" es una colección: se consulta el ID del usuario en su lugar y después se reemplaza por sus roles. */
+    private static final SparseFieldQuery.Fields USER_FIELDS = new SparseFieldQuery.Fields("UserModel u", "u.deleting = false",
+            "id", "u.id",
+            "dni", "u.dni",
+            "username", "u.username",
+            "lastname", "u.lastname",
+            "firstname", "u.firstname",
+            "email", "u.email",
+            "password", "u.password",
+            "country", "u.country",
+            "role", "u.id");
 
     private final IUserRepository userRepository;  // Repositorio de usuarios para acceder a la base de datos
     private final UserMapper userMapper; // Mapper que convierte entre UserModel y UserDTO
     private final IRoleRepository roleRepository; // Repositorio de roles para buscar entidades RoleModel desde la base
     private final RoleMapper roleMapper; // Mapper que convierte entre RoleModel y Strings (como "USER")
     private final PasswordEncoder passwordEncoder;  // Mapper que convierte las contraseñas y en contraseñas encriptadas
+    private final IDetailOrderRepository detailOrderRepository; // Para contar los detalles de orden que se eliminarán
+    private final PurgeService purgeService; // Purga en segundo plano de los detalles de orden del usuario
+    private final SparseFieldQuery sparseFieldQuery; // Listados con solo las columnas pedidas
+    private final InvalidationLogService invalidationLog; // Avisa las escrituras a las demás instancias
 
 
     /** Crea un nuevo usuario a partir de los datos recibidos en un UserDTO.
      * @param userDTO Objeto que contiene los datos del nuevo usuario y sus roles como nombres (strings).
      * @return UserDTO con los datos del usuario creado y los roles formateados como texto. */
 
+    @Transactional
     public UserDTO createUser(UserDTO userDTO) {
         UserModel user = userMapper.UserDtoToUser(userDTO);     //  Convertimos el DTO recibido a una entidad de tipo UserModel (entidad JPA)
         Set<RoleModel> roles = resolveRolesFromNames(userDTO.getRole());    //  Resolvemos los nombres de los roles a entidades RoleModel válidas desde la base de datos
         user.setRole(roles);     // Asignamos los roles resueltos a la entidad del usuario
         UserModel savedUser = userRepository.save(user);    //  Guardamos el usuario en la base de datos mediante el repositorio
+        invalidationLog.append(InvalidationTarget.USER, savedUser.getId());     //  Lo avisamos a las demás instancias en la misma transacción
         return mapToDtoWithRoles(savedUser);     //  Convertimos la entidad persistida nuevamente a DTO, incluyendo los roles como strings
     }
 
@@ -46,15 +74,43 @@ public class UserService {
      *  * incluyendo sus roles representados como cadenas de texto.  */
 
     public List<UserDTO> getUsers() {
-        return userRepository.findAll().stream()
+        return userRepository.findByDeletingFalse().stream()   // Omite los usuarios que se están eliminando
                 .map(this::mapToDtoWithRoles)   // Convierte cada UserModel en UserDTO con roles legibles
                 .collect(Collectors.toList());  // Junta toddo en una lista
     }
 
+    /** Obtiene los usuarios con solo los campos indicados, leyendo únicamente sus columnas.
+     * Si se piden los roles, se leen todos con una sola consulta adicional.
+     * @param fields campos de UserDTO separados por coma
+     * @return listado reducido
+     * @throws InvalidRequestException 400 si algún campo no existe */
+
+    public SparseListDTO getUsers(String fields) {
+        SparseListDTO users = sparseFieldQuery.list(USER_FIELDS, USER_FIELDS.parse(fields));
+        int roleIndex = users.getFields().indexOf("role");
+        if (roleIndex >= 0) {
+            Map<Long, Set<String>> roles = new HashMap<>();
+            for (Object[] row : userRepository.findRoleNamesOfVisibleUsers()) {     // ID de usuario, rol
+                roles.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add(((ERole) row[1]).name());
+            }
+            for (Object[] row : users.getRows()) row[roleIndex] = roles.getOrDefault((Long) row[roleIndex], Set.of());
+        }
+        return users;
+    }
+
+    /** Obtiene varios usuarios por ID con una sola consulta (roles incluidos). Los que se están eliminando se informan como inexistentes.
+     * @param ids IDs pedidos (hasta {@link MultiGet#MAX_IDS} distintos)
+     * @return usuarios en el orden pedido y los IDs inexistentes
+     * @throws InvalidRequestException 400 si no hay IDs o son demasiados */
+
+    public MultiGetDTO<UserDTO> getUsersByIds(List<Long> ids) {
+        return MultiGet.resolve(ids, userRepository::findByIdInAndDeletingFalse, UserModel::getId, this::mapToDtoWithRoles);
+    }
+
     /** Busca un usuario por su ID.
      * @param id el ID del usuario
      * @return el DTO del usuario si se encuentra
-     * @throws ResponseStatusException si el usuario no existe  */
+     * @throws NotFoundException si el usuario no existe  */
 
     public UserDTO getUserById(Long id) {  return mapToDtoWithRoles (throwResponse(id)); } // Si existe, lo transforma a DTO con roles y si no, lanza excepción con 404
 
@@ -62,7 +118,7 @@ public class UserService {
      * @param id el ID del usuario a actualizar
      * @param updateData los nuevos datos para actualizar
      * @return el usuario actualizado como DTO
-     * @throws ResponseStatusException si el usuario no existe */
+     * @throws NotFoundException si el usuario no existe */
 
     @Transactional
     public UserDTO updateById(Long id, UserDTO updateData) {
@@ -74,19 +130,27 @@ public class UserService {
         }
         String encondedPass = passwordEncoder.encode(updateData.getPassword());
         user.setPassword(encondedPass);
+        invalidationLog.append(InvalidationTarget.USER, id);     //  Avisa la modificación a las demás instancias
         return mapToDtoWithRoles(userRepository.save(user));    //  Guarda el usuario actualizado en la base y convierte el resultado a DTO,
     }
 
 
-    /** Elimina un usuario por su ID.
+    /** Marca un usuario para eliminación y registra la purga en segundo plano de sus detalles de orden.
+     * El usuario deja de listarse y de poder autenticarse de inmediato; la entidad se elimina cuando la purga termina.
      * @param id el ID del usuario a eliminar
-     * @throws ResponseStatusException si el usuario no existe */
+     * @return tarea de purga con su avance
+     * @throws NotFoundException si el usuario no existe */
 
-    public void deleteById(Long id) {
-        if (!userRepository.existsById(id)) { // Verifica si el usuario existe
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Categoría con ID " + id + " no encontrada");
+    @Transactional
+    public PurgeJobDTO deleteById(Long id) {
+        UserModel user = userRepository.findById(id) // Verifica si el usuario existe (aunque ya se esté eliminando)
+                .orElseThrow(() -> new NotFoundException("Usuario con ID " + id + " no encontrado"));
+        if (!user.isDeleting()) {
+            user.setDeleting(true); // La marca lo oculta y deshabilita mientras se purgan sus órdenes
+            userRepository.save(user);
+            invalidationLog.append(InvalidationTarget.USER, id); // Lo avisa a las demás instancias
         }
-        userRepository.deleteById(id); // Si existe, lo elimina de la base de datos
+        return purgeService.enqueue(PurgeTarget.USER, id, detailOrderRepository.countByUserOrder_Id(id));
     }
 
 
@@ -105,12 +169,12 @@ public class UserService {
     /** Convierte un conjunto de nombres de rol en entidades {@link RoleModel}, validando que existan en la base de datos.
      * @param roleNames conjunto de nombres de roles como {@link String}, por ejemplo: "ADMIN", "USER"
      * @return conjunto de entidades {@link RoleModel} correspondientes
-     * @throws ResponseStatusException si algún rol no es válido o no se encuentra en la base */
+     * @throws NotFoundException si algún rol no es válido o no se encuentra en la base */
 
     private Set<RoleModel> resolveRolesFromNames(Set<String> roleNames) {
         return roleNames.stream()   // Inicia un stream sobre los nombres de roles recibidos
                 .map(roleName -> roleRepository.findByName(ERole.valueOf(roleName))     // Convierte cada string a un valor del enum ERole
-                                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Rol inválido: " + roleName)))  // Si no se encuentra en la base, lanza un error 400 con un mensaje claro
+                                .orElseThrow(() -> new InvalidRequestException("Rol inválido: " + roleName)))  // Si no se encuentra en la base, lanza un error 400 con un mensaje claro
                 .collect(Collectors.toSet());    // Junta todas las entidades RoleModel encontradas en un Set (evita duplicados)
     }
 
@@ -128,7 +192,7 @@ public class UserService {
     /** Metodo reutilizable que obtiene un usuario por su ID o lanza una excepción 404 si no existe.
      * @param id ID del usuario
      * @return entidad encontrada
-     * @throws ResponseStatusException si no se encuentra */
+     * @throws NotFoundException si no se encuentra */
 
-    private UserModel throwResponse(Long id) {  return userRepository.findById(id) .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario con ID " + id + " no encontrado"));  }
+    private UserModel throwResponse(Long id) {  return userRepository.findById(id).filter(user -> !user.isDeleting()) .orElseThrow(() -> new NotFoundException("Usuario con ID " + id + " no encontrado"));  }
 }
@@ -0,0 +1,273 @@
+package com.api.java.services;
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.models.ProductModel;
+import com.api.java.models.SalesWindow;
+import com.api.java.repositories.IProductRepository;
+import com.api.java.repositories.IRoleRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/** Servicio que calienta una instancia nueva antes de declararla lista para recibir tráfico.
+ * Cuando Spring marca la aplicación como lista, la readiness vuelve a "no acepta tráfico" y en un hilo aparte:
+ * 1. Abre las conexiones mínimas del pool (HikariCP las crea de a una y de forma perezosa)
+ * 2. Precarga roles, categorías y los productos más vendidos (páginas de la base y planes de consulta de Hibernate)
+ * 3. Repite por HTTP local una mezcla de lecturas de los endpoints más usados, con un JWT de un usuario sintético, para que
+ *    el JIT compile el camino completo (filtros, JwtService, controladores, mappers, Jackson)
+ * La readiness se restablece cuando una ronda de la mezcla queda bajo la latencia objetivo o se agota el tiempo máximo.
+ * Solo se hacen lecturas paginadas o por ID: la mezcla no modifica datos ni rankings y no recorre tablas completas.
+ * Sus requests llevan un encabezado con una clave aleatoria del proceso ({@link #isWarmupRequest}), para que no se
+ * registren en http.server.requests ni en las demás métricas por request y no fijen la latencia de referencia de los
+ * límites de concurrencia con las latencias del código todavía sin compilar. */
+
+@Slf4j
+@Service
+public class WarmupService {
+    private static final String WARMUP_USER = "warmup";   // Usuario sintético (el filtro JWT no lo busca en la base de datos)
+    private static final String WARMUP_HEADER = "X-Warmup";     // Marca las requests de la mezcla
+    private static final String WARMUP_KEY = UUID.randomUUID().toString();   // Solo este proceso la conoce: un cliente no puede imitar la marca
+
+    private final ApplicationContext context;
+    private final Environment environment;
+    private final DataSource dataSource;
+    private final JwtService jwtService;
+    private final IRoleRepository roleRepository;
+    private final IProductRepository productRepository;
+    private final CategoryService categoryService;
+    private final ProductService productService;
+    private final BestSellerService bestSellerService;
+    private final boolean enabled;
+    private final long budgetMs;        // Tiempo máximo del calentamiento
+    private final long targetP95Ms;     // Latencia objetivo (p95 de una ronda)
+    private final int minRounds;        // Rondas mínimas antes de evaluar la latencia
+    private final int concurrency;      // Requests simultáneas por ronda
+    private final int popularProducts;  // Productos precargados y consultados
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    public WarmupService(ApplicationContext context, Environment environment, DataSource dataSource, JwtService jwtService,
+                         IRoleRepository roleRepository, IProductRepository productRepository, CategoryService categoryService,
+                         ProductService productService, BestSellerService bestSellerService,
+                         @Value("${app.warmup.enabled:true}") boolean enabled,
+                         @Value("${app.warmup.budget-ms:60000}") long budgetMs,
+                         @Value("${app.warmup.target-p95-ms:25}") long targetP95Ms,
+                         @Value("${app.warmup.min-rounds:30}") int minRounds,
+                         @Value("${app.warmup.concurrency:4}") int concurrency,
+                         @Value("${app.warmup.popular-products:20}") int popularProducts) {
+        this.context = context;
+        this.environment = environment;
+        this.dataSource = dataSource;
+        this.jwtService = jwtService;
+        this.roleRepository = roleRepository;
+        this.productRepository = productRepository;
+        this.categoryService = categoryService;
+        this.productService = productService;
+        this.bestSellerService = bestSellerService;
+        this.enabled = enabled;
+        this.budgetMs = budgetMs;
+        this.targetP95Ms = targetP95Ms;
+        this.minRounds = minRounds;
+        this.concurrency = concurrency;
+        this.popularProducts = popularProducts;
+    }
+
+    /** Al quedar lista la aplicación (después de las cargas de ApplicationReadyEvent), retira la readiness y lanza el
+     * calentamiento; al terminar, la restablece. */
+
+    @EventListener
+    public void onReadiness(AvailabilityChangeEvent<ReadinessState> event) {
+        if (!enabled || event.getState() != ReadinessState.ACCEPTING_TRAFFIC || !started.compareAndSet(false, true)) return;
+        AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+        Thread.ofPlatform().name("warmup").start(() -> {
+            try {
+                warmUp();
+            } catch (Exception e) {
+                log.warn("Calentamiento interrumpido: {}", e.getMessage(), e);
+            } finally {
+                AvailabilityChangeEvent.publish(context, ReadinessState.ACCEPTING_TRAFFIC);
+            }
+        });
+    }
+
+    /** @param request request HTTP
+     * @return true si es una request de la mezcla de calentamiento de este proceso */
+
+    public static boolean isWarmupRequest(HttpServletRequest request) {
+        return WARMUP_KEY.equals(request.getHeader(WARMUP_HEADER));
+    }
+
+    // MÉTODOS AUXILIARES PRIVADOS
+
+    private void warmUp() throws InterruptedException {
+        long start = System.nanoTime();
+        int connections = openPool();
+        Preloaded preloaded = preload();
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        String summary = port != null ? replay(port, mix(preloaded), start) : "sin servidor web, sin mezcla de requests";
+        log.info("Calentamiento terminado en {} ms: {} conexiones abiertas, {} categorías y {} productos precargados, {}",
+                elapsedMs(start), connections, preloaded.categoryIds().size(), preloaded.productIds().size(), summary);
+    }
+
+    /** Abre a la vez las conexiones mínimas del pool y las devuelve.
+     * @return conexiones abiertas */
+
+    private int openPool() {
+        int target = 1;
+        try {
+            target = Math.max(1, dataSource.unwrap(HikariDataSource.class).getMinimumIdle());
+        } catch (SQLException e) {
+            // No es HikariCP: alcanza con validar una conexión
+        }
+        List<Connection> held = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                Connection connection = dataSource.getConnection();
+                held.add(connection);
+                connection.isValid(2);
+            }
+        } catch (SQLException e) {
+            log.warn("Calentamiento: no se pudieron abrir {} conexiones del pool ({} abiertas): {}", target, held.size(), e.getMessage());
+        } finally {
+            for (Connection connection : held) {
+                try {
+                    connection.close();     // Vuelve al pool, abierta
+                } catch (SQLException e) {
+                    log.debug("Calentamiento: error al devolver una conexión al pool: {}", e.getMessage());
+                }
+            }
+        }
+        return held.size();
+    }
+
+    /** IDs precargados, usados también en la mezcla de requests. */
+
+    private record Preloaded(List<Long> categoryIds, List<Long> productIds) {
+    }
+
+    /** Precarga roles, categorías y los productos más vendidos de la semana (o los primeros del catálogo si aún no hay ventas).
+     * @return IDs de las categorías y los productos precargados */
+
+    private Preloaded preload() {
+        roleRepository.findAll();
+        List<Long> categoryIds = categoryService.getCategories().stream().map(CategoryDTO::getId).toList();
+        List<Long> ids = Arrays.stream(bestSellerService.top(SalesWindow.WEEK, null, popularProducts)).map(pair -> pair[0]).collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            ids = productRepository.findAll(PageRequest.of(0, popularProducts)).map(ProductModel::getId).getContent();
+        }
+        if (!ids.isEmpty()) ids = productService.getProductsByIds(ids).getItems().stream().map(ProductDTO::getId).toList();  // Sin los borrados
+        return new Preloaded(categoryIds, ids);
+    }
+
+    /** Repite la mezcla de lecturas hasta alcanzar la latencia objetivo o agotar el tiempo.
+     * @return resumen de las rondas */
+
+    private String replay(int port, List<String> paths, long start) throws InterruptedException {
+        String token = jwtService.getToken(User.withUsername(WARMUP_USER).password("").authorities("ROLE_USER").build());
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(2)).build();
+        String base = "http://localhost:" + port;
+
+        int round = 0;
+        long p95 = -1;
+        try (ExecutorService pool = Executors.newFixedThreadPool(concurrency, Thread.ofPlatform().name("warmup-", 0).factory())) {
+            while (elapsedMs(start) < budgetMs) {
+                round++;
+                List<Future<long[]>> calls = new ArrayList<>(concurrency * paths.size());
+                for (int worker = 0; worker < concurrency; worker++) {
+                    for (String path : paths) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(base + path)).header("Authorization", "Bearer " + token)
+                                .header(WARMUP_HEADER, WARMUP_KEY)
+                                .timeout(Duration.ofSeconds(10)).GET().build();
+                        calls.add(pool.submit(() -> call(client, request)));
+                    }
+                }
+                long[] latencies = new long[calls.size()];
+                int failures = 0;
+                for (int i = 0; i < calls.size(); i++) {
+                    long[] result = await(calls.get(i));
+                    latencies[i] = result[0];
+                    if (result[1] < 200 || result[1] >= 300) failures++;
+                }
+                if (failures == calls.size()) return "mezcla cancelada: todas las requests de la ronda " + round + " fallaron";
+                Arrays.sort(latencies);
+                p95 = latencies[(int) Math.ceil(0.95 * latencies.length) - 1] / 1_000_000;
+                if (round >= minRounds && p95 <= targetP95Ms) {
+                    return round + " rondas, p95 de la última " + p95 + " ms (objetivo " + targetP95Ms + " ms)";
+                }
+            }
+        }
+        return round + " rondas, tiempo máximo agotado con p95 " + p95 + " ms (objetivo " + targetP95Ms + " ms)";
+    }
+
+    /** Lecturas paginadas o por ID de los endpoints más usados, con los productos populares y las primeras categorías.
+     * No incluye los listados completos (/product, /categories, /product/category/{id}): su costo crece con el catálogo. */
+
+    private List<String> mix(Preloaded preloaded) {
+        List<String> paths = new ArrayList<>(List.of("/product/browse", "/product/best-sellers?limit=10",
+                "/product/suggest?q=" + URLEncoder.encode("a", StandardCharsets.UTF_8)));
+        for (Long id : preloaded.categoryIds().subList(0, Math.min(2, preloaded.categoryIds().size()))) {
+            paths.add("/categories/" + id);
+            paths.add("/product/browse?categoryId=" + id);
+        }
+        List<Long> popular = preloaded.productIds();
+        if (!popular.isEmpty()) {
+            paths.add("/product?ids=" + popular.stream().map(String::valueOf).collect(Collectors.joining(",")));
+            for (Long id : popular.subList(0, Math.min(5, popular.size()))) paths.add("/product/" + id);
+        }
+        return paths;
+    }
+
+    /** @return [latencia en ns, código HTTP]; los errores de conexión cuentan como código 0 */
+
+    private static long[] call(HttpClient client, HttpRequest request) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            return new long[]{System.nanoTime() - start, status};
+        } catch (IOException e) {
+            return new long[]{System.nanoTime() - start, 0};
+        }
+    }
+
+    private static long[] await(Future<long[]> call) throws InterruptedException {
+        try {
+            return call.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,28 @@
+package com.api.java.validation;
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/** Restricción de Bean Validation para importes {@link com.api.java.models.Money}:
+ * equivalente a {@code @DecimalMin}, que no admite tipos propios. Los valores null se consideran válidos. */
+
+@Documented
+@Constraint(validatedBy = MinMoneyValidator.class)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MinMoney {
+    String message() default "El importe es menor al mínimo permitido";
+    Class<?>[] groups() default {};
+    Class<? extends Payload>[] payload() default {};
+
+    /** @return importe mínimo en texto decimal (por ejemplo "0.00") */
+    String value();
+
+    /** @return si el mínimo está permitido (false exige un importe estrictamente mayor) */
+    boolean inclusive() default true;
+}
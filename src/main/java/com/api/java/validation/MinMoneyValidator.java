@@ -0,0 +1,23 @@
+package com.api.java.validation;
+import com.api.java.models.Money;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+/** Validador de {@link MinMoney}: compara los centavos del importe con el mínimo configurado. */
+
+public class MinMoneyValidator implements ConstraintValidator<MinMoney, Money> {
+    private long minCents;      // Mínimo en centavos
+    private boolean inclusive;  // Si el mínimo es un valor permitido
+
+    @Override
+    public void initialize(MinMoney constraint) {
+        this.minCents = Money.valueOf(constraint.value()).cents();
+        this.inclusive = constraint.inclusive();
+    }
+
+    @Override
+    public boolean isValid(Money value, ConstraintValidatorContext context) {
+        if (value == null) return true;     // La obligatoriedad se valida con @NotNull
+        return inclusive ? value.cents() >= minCents : value.cents() > minCents;
+    }
+}
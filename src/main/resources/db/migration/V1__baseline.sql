@@ -0,0 +1,70 @@
+-- Esquema inicial (el que creaba Hibernate con ddl-auto antes de versionar el esquema).
+-- Los scripts V<n>__*.sql siguen el formato de Flyway y se aplican en orden antes de desplegar, por ejemplo:
+--   flyway -url=jdbc:mysql://<host>/<base> -locations=filesystem:src/main/resources/db/migration -baselineOnMigrate=true migrate
+-- En una base existente (creada por Hibernate) este script no se ejecuta: baselineOnMigrate la marca en la versión 1 y
+-- se aplican solo los siguientes. El perfil prod arranca con ddl-auto=validate y falla si falta alguno.
+
+create table category (
+    id bigint not null auto_increment,
+    category_products varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table product (
+    activo bit not null,
+    price_product decimal(38,2) not null,
+    stock_product integer not null,
+    category_id bigint not null,
+    id bigint not null auto_increment,
+    description_product varchar(600),
+    name_product varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table roles (
+    id bigint not null auto_increment,
+    name enum ('ADMIN','INVITED','USER') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table user (
+    dni integer not null,
+    id bigint not null auto_increment,
+    country varchar(255) not null,
+    email varchar(255) not null,
+    firstname varchar(255) not null,
+    lastname varchar(255) not null,
+    password varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table user_roles (
+    roles_id bigint not null,
+    user_id bigint not null,
+    primary key (roles_id, user_id)
+) engine=InnoDB;
+
+create table detail_order (
+    amount integer not null,
+    price_unit_snapshot decimal(38,2) not null,
+    id bigint not null auto_increment,
+    product_id bigint not null,
+    user_id bigint not null,
+    name_product_snapshot varchar(255) not null,
+    status enum ('CANCELLED','PAID','PENDING'),
+    primary key (id)
+) engine=InnoDB;
+
+alter table category add constraint UKdngq8po3tc3qx2d92ykj5675l unique (category_products);
+alter table product add constraint UKl13mi6rukx4xkfv63cmiib1jg unique (name_product);
+alter table user add constraint UKjq0ta6mef3p0o47ysw6sflcdl unique (dni);
+alter table user add constraint UKob8kqyqqgmefl0aco34akdtpe unique (email);
+alter table user add constraint UKkiqfjabx9puw3p1eg7kily8kg unique (password);
+alter table user add constraint UKsb8bbouer5wak8vyiiy4pf2bx unique (username);
+
+alter table product add constraint FK1mtsbur82frn64de7balymq9s foreign key (category_id) references category (id);
+alter table detail_order add constraint FKpa5tj9byco7b9xq7cqtvuar3h foreign key (product_id) references product (id);
+alter table detail_order add constraint FKojqbthfpimwg485hnfpviiffg foreign key (user_id) references user (id);
+alter table user_roles add constraint FKdbv8tdyltxa1qjmfnj9oboxse foreign key (roles_id) references roles (id);
+alter table user_roles add constraint FK55itppkw3i07do3h7qoclqd4k foreign key (user_id) references user (id);
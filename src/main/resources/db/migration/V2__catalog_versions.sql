@@ -0,0 +1,8 @@
+-- Versión (@Version) y fecha de modificación de categorías y productos, para los GET condicionales (ETag / Last-Modified)
+-- y el bloqueo optimista. Las filas existentes arrancan en la versión 0.
+
+alter table category add column version bigint not null default 0;
+alter table category add column updated_at datetime(6);
+
+alter table product add column version bigint not null default 0;
+alter table product add column updated_at datetime(6);
@@ -0,0 +1,12 @@
+-- Registro de invalidaciones que las demás instancias leen para actualizar sus índices en memoria.
+
+create table invalidation_log (
+    created_at datetime(6) not null,
+    entity_id bigint not null,
+    id bigint not null auto_increment,
+    node varchar(36) not null,
+    target enum ('CATEGORY','PRODUCT','USER') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_invalidation_log_created_at on invalidation_log (created_at);
@@ -0,0 +1,30 @@
+-- Resúmenes de ventas por producto, categoría y país, mantenidos de forma incremental.
+-- Se cargan con las órdenes existentes con la misma agregación que POST /admin/reports/sales/rebuild
+-- (detalles sin estado cuentan como PENDING); si difieren, POST /admin/reports/sales/rebuild?repair=true los recalcula.
+
+create table sales_rollup (
+    revenue decimal(19,2) not null,
+    id bigint not null auto_increment,
+    units bigint not null,
+    dimension_key varchar(255) not null,
+    dimension enum ('CATEGORY','COUNTRY','PRODUCT') not null,
+    status enum ('CANCELLED','PAID','PENDING') not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table sales_rollup add constraint uk_sales_rollup_key unique (dimension, dimension_key, status);
+
+insert into sales_rollup (dimension, dimension_key, status, units, revenue)
+select 'PRODUCT', cast(d.product_id as char), coalesce(d.status, 'PENDING'), sum(d.amount), sum(d.amount * d.price_unit_snapshot)
+from detail_order d
+group by d.product_id, coalesce(d.status, 'PENDING');
+
+insert into sales_rollup (dimension, dimension_key, status, units, revenue)
+select 'CATEGORY', cast(p.category_id as char), coalesce(d.status, 'PENDING'), sum(d.amount), sum(d.amount * d.price_unit_snapshot)
+from detail_order d join product p on p.id = d.product_id
+group by p.category_id, coalesce(d.status, 'PENDING');
+
+insert into sales_rollup (dimension, dimension_key, status, units, revenue)
+select 'COUNTRY', u.country, coalesce(d.status, 'PENDING'), sum(d.amount), sum(d.amount * d.price_unit_snapshot)
+from detail_order d join user u on u.id = d.user_id
+group by u.country, coalesce(d.status, 'PENDING');
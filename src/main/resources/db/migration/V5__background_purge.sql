@@ -0,0 +1,20 @@
+-- Eliminación en segundo plano de categorías y usuarios: marca "en eliminación" y tareas de purga reclamadas por
+-- una instancia (owner) hasta que vence su plazo (lease_until).
+
+alter table category add column deleting bit not null default 0;
+alter table user add column deleting bit not null default 0;
+
+create table purge_job (
+    created_at datetime(6),
+    deleted_rows bigint not null,
+    id bigint not null auto_increment,
+    lease_until datetime(6),
+    target_id bigint not null,
+    total_rows bigint not null,
+    updated_at datetime(6),
+    owner varchar(64),
+    error varchar(500),
+    status enum ('CANCELLED','COMPLETED','FAILED','PENDING','RUNNING') not null,
+    target enum ('CATEGORY','USER') not null,
+    primary key (id)
+) engine=InnoDB;
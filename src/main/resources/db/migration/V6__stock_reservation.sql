@@ -0,0 +1,20 @@
+-- Reservas temporales de stock durante el checkout.
+
+create table stock_reservation (
+    amount integer not null,
+    created_at datetime(6),
+    detail_order_id bigint,
+    expires_at datetime(6) not null,
+    id bigint not null auto_increment,
+    product_id bigint not null,
+    updated_at datetime(6),
+    user_id bigint not null,
+    status enum ('ACTIVE','CONFIRMED','EXPIRED','RELEASED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_stock_reservation_product_status on stock_reservation (product_id, status, expires_at);
+create index idx_stock_reservation_status_expires on stock_reservation (status, expires_at);
+
+alter table stock_reservation add constraint fk_stock_reservation_product foreign key (product_id) references product (id);
+alter table stock_reservation add constraint fk_stock_reservation_user foreign key (user_id) references user (id);
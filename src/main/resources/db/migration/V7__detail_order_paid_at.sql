@@ -0,0 +1,4 @@
+-- Momento en que se pagó cada detalle de orden, para restar una cancelación o eliminación del mismo intervalo del
+-- ranking de más vendidos en el que se sumó la venta. Las filas existentes quedan sin fecha: no se ajustan en el ranking.
+
+alter table detail_order add column paid_at datetime(6);
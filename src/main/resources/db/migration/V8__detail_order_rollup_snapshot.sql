@@ -0,0 +1,11 @@
+-- Categoría del producto y país del usuario congelados en cada detalle de orden: los resúmenes de ventas restan una
+-- cancelación o eliminación de la misma fila en la que se sumó, aunque el producto cambie de categoría o el usuario de país.
+-- Las filas existentes toman los valores actuales; si alguno cambió desde la compra, POST /admin/reports/sales/rebuild?repair=true
+-- realinea los resúmenes con las columnas nuevas.
+
+alter table detail_order add column category_id_snapshot bigint;
+alter table detail_order add column country_snapshot varchar(255);
+
+update detail_order d set
+    category_id_snapshot = (select p.category_id from product p where p.id = d.product_id),
+    country_snapshot = (select u.country from user u where u.id = d.user_id);
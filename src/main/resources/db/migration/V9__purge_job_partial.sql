@@ -0,0 +1,4 @@
+-- Estado PARTIAL de las tareas de purga: la entidad recibió órdenes después de eliminar algunos hijos y se restauró con
+-- los que quedaban (deleted_rows indica cuántos se eliminaron).
+
+alter table purge_job modify column status enum ('CANCELLED','COMPLETED','FAILED','PARTIAL','PENDING','RUNNING') not null;
@@ -0,0 +1,72 @@
+package com.api.java;
+
+import com.api.java.services.AdaptiveLimiter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica el límite de concurrencia adaptativo: rechaza al llegar al límite, lo sube mientras la latencia se mantiene
+ * con carga, lo baja cuando la latencia crece (sin pasar del mínimo) y no lo cambia sin carga suficiente. */
+
+class AdaptiveLimiterTests {
+	private static final long WINDOW_MS = 110;	// Algo más que la ventana mínima del limitador (100 ms)
+	private static final long FAST = 1_000_000L;	// 1 ms
+	private static final long SLOW = 10_000_000L;	// 10 ms
+
+	@Test
+	void rejectsAtTheLimit() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(3, 1, 10);
+		for (int i = 0; i < 3; i++) assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(3, limiter.getInflight());
+		limiter.release(FAST);
+		assertTrue(limiter.tryAcquire());
+		assertEquals(4, limiter.getAccepted());
+		assertEquals(1, limiter.getRejected());
+		assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(5, 0, 10));
+		assertEquals(10, new AdaptiveLimiter(50, 1, 10).getLimit());	// El inicial se acota al máximo
+	}
+
+	@Test
+	void followsTheLatencyUnderLoad() throws InterruptedException {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 100);
+		for (int i = 0; i < 5; i++) saturatedWindow(limiter, FAST);
+		int grown = limiter.getLimit();
+		assertTrue(grown > 10, "No creció con latencia estable: " + grown);
+
+		for (int i = 0; i < 15; i++) saturatedWindow(limiter, SLOW);
+		int shrunk = limiter.getLimit();
+		assertTrue(shrunk < 10, "No bajó con latencia 10 veces mayor: " + shrunk);
+		assertTrue(shrunk >= 2);
+		assertTrue(limiter.getShortRttMs() > limiter.getLongRttMs());
+	}
+
+	@Test
+	void doesNotGrowWithoutLoad() throws InterruptedException {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(10, 2, 100);
+		for (int window = 0; window < 5; window++) {
+			Thread.sleep(WINDOW_MS);
+			for (int i = 0; i < 5; i++) {	// Una request por vez: nunca más de la mitad del límite en uso
+				assertTrue(limiter.tryAcquire());
+				limiter.release(FAST);
+			}
+		}
+		assertEquals(10, limiter.getLimit());
+		assertEquals(1.0, limiter.getLongRttMs(), 0.001);	// La latencia se mide igual
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	/** Ocupa todo el límite durante una ventana y libera cada lugar con la latencia indicada. */
+
+	private static void saturatedWindow(AdaptiveLimiter limiter, long rttNanos) throws InterruptedException {
+		int acquired = 0;
+		while (limiter.tryAcquire()) acquired++;
+		Thread.sleep(WINDOW_MS);
+		for (int i = 0; i < acquired; i++) limiter.release(rttNanos);
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.api.java;
+
+import com.api.java.dto.BatchRequestDTO;
+import com.api.java.dto.BatchResponseDTO;
+import com.api.java.dto.CategoryDTO;
+import com.api.java.models.UserModel;
+import com.api.java.repositories.IUserRepository;
+import com.api.java.services.BatchService;
+import com.api.java.services.CategoryService;
+import com.api.java.services.ResourceUsage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica POST /batch sobre H2: un estado por sub-request (incluidas las fallidas y las que dependen de una fallida),
+ * el límite de sub-requests por lote, el plazo del lote, que responde con 504 para las pendientes sin esperarlas, y que la
+ * CPU de las sub-requests se mide y se suma al lote. */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"management.server.port=0", "spring.mvc.servlet.load-on-startup=1"})	// El lote despacha por el DispatcherServlet real
+@ActiveProfiles("test")
+class BatchTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private BatchService batchService;
+	@Autowired
+	private IUserRepository userRepository;
+	@Autowired
+	private DispatcherServlet dispatcherServlet;
+	@Autowired
+	@Qualifier("springSecurityFilterChain")
+	private Filter securityFilterChain;
+
+	private String username;
+	private String token;
+
+	@BeforeEach
+	void login() throws Exception {
+		TestUsers.Session session = TestUsers.register(restTemplate, objectMapper, "batch");
+		username = session.username();
+		token = session.token();
+	}
+
+	@Test
+	void eachSubRequestReportsItsOwnStatus() throws Exception {
+		CategoryDTO category = categoryService.createNewCategory(new CategoryDTO(null, "Lote " + UUID.randomUUID()));
+		List<BatchRequestDTO> requests = List.of(
+				request("ok", "GET", "/categories/" + category.getId(), null, null),
+				request("missing", "GET", "/categories/999999999", null, null),
+				request("invalid", "POST", "/detail-order", objectMapper.createObjectNode(), null),	// @Valid rechaza el DTO vacío
+				request("dependent", "GET", "/categories/" + category.getId(), null, List.of("missing")));
+
+		ResponseEntity<String> response = batch(requests);
+		assertEquals(200, response.getStatusCode().value());	// El lote responde 200 aunque fallen sub-requests
+
+		JsonNode results = objectMapper.readTree(response.getBody());
+		assertEquals(4, results.size());
+		assertEquals("ok", results.get(0).get("id").asText());
+		assertEquals(200, results.get(0).get("status").asInt());
+		assertEquals(category.getId(), results.get(0).get("body").get("id").asLong());
+		assertEquals(404, results.get(1).get("status").asInt());
+		assertEquals(400, results.get(2).get("status").asInt());
+		assertEquals(424, results.get(3).get("status").asInt());	// Su dependencia falló: no se ejecuta
+	}
+
+	@Test
+	void batchesOverTheSizeLimitAreRejected() throws Exception {
+		List<BatchRequestDTO> requests = new ArrayList<>();
+		for (int i = 0; i <= 30; i++) requests.add(request("r" + i, "GET", "/categories", null, null));
+
+		assertEquals(400, batch(requests).getStatusCode().value());
+	}
+
+	@Test
+	void pendingSubRequestsTimeOutWithoutBlockingTheBatch() {
+		BatchService batchService = new BatchService(dispatcherServlet, securityFilterChain, objectMapper, 30, 1, 1);	// Plazo de 1 ms, una por vez
+		UserModel user = userRepository.findByUsername(username).orElseThrow();
+		SecurityContextImpl context = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+		List<BatchRequestDTO> requests = new ArrayList<>();
+		for (int i = 0; i < 20; i++) requests.add(request("r" + i, "GET", "/categories", null, null));
+
+		long start = System.nanoTime();
+		List<BatchResponseDTO> results = batchService.execute(requests, context, new MockHttpServletRequest(), new MockHttpServletResponse());
+		long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+		assertEquals(20, results.size());
+		assertTrue(results.stream().anyMatch(result -> result.getStatus() == 504), "Ninguna sub-request venció el plazo");
+		assertTrue(elapsedMs < 2_000, () -> "El lote esperó a las sub-requests interrumpidas: " + elapsedMs + " ms");
+	}
+
+	@Test
+	void subRequestCpuIsMeasuredAndAddedToTheBatch() {
+		UserModel user = userRepository.findByUsername(username).orElseThrow();
+		SecurityContextImpl context = new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+		List<BatchRequestDTO> requests = new ArrayList<>();
+		for (int i = 0; i < 8; i++) requests.add(request("r" + i, "GET", "/categories", null, null));
+
+		ResourceUsage usage = ResourceUsage.begin();
+		try {
+			batchService.execute(requests, context, new MockHttpServletRequest(), new MockHttpServletResponse());
+			long subRequestCpu = CompletableFuture.supplyAsync(usage::getCpuNanos).join();	// Leída desde otro hilo: solo lo sumado por las sub-requests
+			assertEquals(0, usage.getUnmeasuredTasks(), "Sub-requests en hilos sin medición");
+			assertTrue(subRequestCpu > 0, "La CPU de las sub-requests no se sumó al lote");
+		} finally {
+			ResourceUsage.end();
+		}
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private ResponseEntity<String> batch(List<BatchRequestDTO> requests) throws Exception {
+		return restTemplate.exchange("/batch", HttpMethod.POST, json(objectMapper.writeValueAsString(requests), token), String.class);
+	}
+
+	private static HttpEntity<String> json(String body, String token) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		if (token != null) headers.setBearerAuth(token);
+		return new HttpEntity<>(body, headers);
+	}
+
+	private static BatchRequestDTO request(String id, String method, String path, JsonNode body, List<String> dependsOn) {
+		return new BatchRequestDTO(id, method, path, null, body, dependsOn);
+	}
+
+}
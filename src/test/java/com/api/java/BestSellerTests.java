@@ -0,0 +1,145 @@
+package com.api.java;
+
+import com.api.java.models.SalesWindow;
+import com.api.java.services.BestSellerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica el ranking de más vendidos sobre los resúmenes Space-Saving: con muchos más productos que la capacidad del
+ * resumen, los más vendidos salen en orden y nunca subestimados; las cancelaciones restan del intervalo del pago sin
+ * bajar de cero, el ranking por categoría es independiente del global, se desaloja por antigüedad o al purgar la
+ * categoría, y el checkpoint en disco se restaura igual. */
+
+class BestSellerTests {
+	private static final long[] HEAVY = {101, 102, 103, 104, 105};	// Productos más vendidos, de mayor a menor
+	private static final long TAIL = 2_000;	// Productos con una sola venta (muy por encima de la capacidad del resumen)
+	private static final int MAX_CATEGORIES = 64;	// Rankings por categoría conservados
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void heavyHittersSurviveALongTail() {
+		BestSellerService service = service();
+		Map<Long, Long> truth = new HashMap<>();
+		List<Long> stream = new ArrayList<>();
+		for (int rank = 0; rank < HEAVY.length; rank++) {
+			for (int i = 0; i < 1_000 * (HEAVY.length - rank); i++) stream.add(HEAVY[rank]);
+		}
+		for (long id = 1_000; id < 1_000 + TAIL; id++) stream.add(id);
+		Collections.shuffle(stream, new Random(42));	// Las ventas llegan intercaladas
+		for (long id : stream) {
+			service.record(id, 1L, 1);
+			truth.merge(id, 1L, Long::sum);
+		}
+
+		long[][] top = service.top(SalesWindow.HOUR, null, HEAVY.length);
+		assertEquals(HEAVY.length, top.length);
+		for (int rank = 0; rank < HEAVY.length; rank++) {
+			assertEquals(HEAVY[rank], top[rank][0], "posición " + rank);
+			assertTrue(top[rank][1] >= truth.get(HEAVY[rank]), "Space-Saving nunca subestima");
+		}
+		assertArrayEquals(top[0], service.top(SalesWindow.WEEK, 1L, 1)[0]);	// La categoría 1 tiene todas las ventas
+	}
+
+	@Test
+	void cancellationsAndCategoriesAreSeparate() {
+		BestSellerService service = service();
+		service.record(1, 10L, 5);
+		service.record(2, 10L, 3);
+		service.record(3, 20L, 4);
+		service.record(1, 10L, -4);	// Cancelación: queda en 1
+
+		assertRanking(service.top(SalesWindow.DAY, null, 10), new long[][]{{3, 4}, {2, 3}, {1, 1}});
+		assertRanking(service.top(SalesWindow.DAY, 10L, 10), new long[][]{{2, 3}, {1, 1}});
+		assertRanking(service.top(SalesWindow.DAY, 30L, 10), new long[0][]);
+
+		service.record(3, 20L, -4);	// Sin ventas netas: sale del ranking
+		assertRanking(service.top(SalesWindow.DAY, 20L, 10), new long[0][]);
+	}
+
+	@Test
+	void cancellationsSubtractFromThePaymentInterval() {
+		BestSellerService service = service();
+		Instant twoHoursAgo = Instant.now().minus(Duration.ofHours(2));
+		service.record(1, 10L, 5, twoHoursAgo);
+		service.record(2, 10L, 3);
+		assertRanking(service.top(SalesWindow.HOUR, null, 10), new long[][]{{2, 3}});	// La venta vieja ya salió de la hora
+		assertRanking(service.top(SalesWindow.DAY, null, 10), new long[][]{{1, 5}, {2, 3}});
+
+		service.record(1, 10L, -5, twoHoursAgo);	// Se cancela la venta de hace dos horas
+		assertRanking(service.top(SalesWindow.DAY, null, 10), new long[][]{{2, 3}});
+		assertRanking(service.top(SalesWindow.WEEK, 10L, 10), new long[][]{{2, 3}});
+
+		service.record(2, 10L, -1, Instant.now().minus(Duration.ofDays(8)));	// Fuera de todas las ventanas: no cambia nada
+		assertRanking(service.top(SalesWindow.WEEK, null, 10), new long[][]{{2, 3}});
+	}
+
+	@Test
+	void countsDoNotGoBelowZero() {
+		BestSellerService service = service();
+		service.record(1, 10L, 2);
+		service.record(1, 10L, -5);	// Resta más de lo sumado en el intervalo
+		service.record(1, 10L, 1);
+		assertRanking(service.top(SalesWindow.HOUR, null, 10), new long[][]{{1, 1}});
+	}
+
+	@Test
+	void leastRecentCategoriesAreEvicted() {
+		BestSellerService service = new BestSellerService(dir.resolve("best-sellers.bin").toString(), 2);
+		service.record(1, 10L, 1);
+		service.record(2, 20L, 2);
+		service.top(SalesWindow.DAY, 10L, 10);	// Consultar también la mantiene reciente
+		service.record(3, 30L, 3);
+
+		assertRanking(service.top(SalesWindow.DAY, 20L, 10), new long[0][]);	// La usada hace más tiempo
+		assertRanking(service.top(SalesWindow.DAY, 10L, 10), new long[][]{{1, 1}});
+		assertRanking(service.top(SalesWindow.DAY, 30L, 10), new long[][]{{3, 3}});
+		assertRanking(service.top(SalesWindow.DAY, null, 10), new long[][]{{3, 3}, {2, 2}, {1, 1}});	// El global no se desaloja
+
+		service.forgetCategory(30L);	// Categoría purgada
+		assertRanking(service.top(SalesWindow.DAY, 30L, 10), new long[0][]);
+	}
+
+	@Test
+	void checkpointIsRestored() {
+		String path = dir.resolve("best-sellers.bin").toString();
+		BestSellerService service = new BestSellerService(path, MAX_CATEGORIES);
+		service.record(1, 10L, 5);
+		service.record(2, 20L, 7);
+		service.checkpoint();
+
+		BestSellerService restored = new BestSellerService(path, MAX_CATEGORIES);
+		restored.restore();
+		for (SalesWindow window : SalesWindow.values()) {
+			assertRanking(restored.top(window, null, 10), service.top(window, null, 10));
+			assertRanking(restored.top(window, 20L, 10), new long[][]{{2, 7}});
+		}
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private BestSellerService service() {
+		return new BestSellerService(dir.resolve("best-sellers.bin").toString(), MAX_CATEGORIES);
+	}
+
+	private static void assertRanking(long[][] actual, long[][] expected) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) assertArrayEquals(expected[i], actual[i], "posición " + i);
+	}
+
+}
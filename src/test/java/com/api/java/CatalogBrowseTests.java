@@ -0,0 +1,116 @@
+package com.api.java;
+
+import com.api.java.dto.CatalogBrowseDTO;
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.globalException.InvalidRequestException;
+import com.api.java.models.Money;
+import com.api.java.models.ProductModel;
+import com.api.java.repositories.IProductRepository;
+import com.api.java.services.CatalogSnapshotService;
+import com.api.java.services.CategoryService;
+import com.api.java.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica la navegación del catálogo sobre el snapshot columnar (H2): filtros por categoría, precio y stock, orden por
+ * precio, páginas sin solapamiento, facets por categoría e histograma, que las escrituras se reflejen al confirmar
+ * y que una escritura que confirma fuera de orden no pise a una más nueva. */
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogBrowseTests {
+	private static final String[] PRICES = {"50.00", "10.00", "40.00", "20.00", "30.00", "10.00"};	// Incluye un empate
+
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private IProductRepository productRepository;
+	@Autowired
+	private CatalogSnapshotService catalogSnapshot;
+
+	private CategoryDTO category;
+	private final List<ProductDTO> products = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		catalogSnapshot.load();	// Otro contexto de la suite pudo recrear el esquema de la base compartida: los IDs se reutilizan y el snapshot tendría versiones viejas más altas
+		category = categoryService.createNewCategory(new CategoryDTO(null, "Navegación " + UUID.randomUUID()));
+		for (String price : PRICES) {
+			products.add(productService.createProduct(new ProductDTO(null, "Navegación " + UUID.randomUUID(), "Snapshot",
+					Money.valueOf(price), category.getId(), 3, true)));
+		}
+	}
+
+	@Test
+	void sortsAndPagesByPrice() {
+		List<Long> ascending = new ArrayList<>();
+		for (int page = 0; page < 3; page++) {
+			CatalogBrowseDTO result = browse(null, null, true, "asc", page, 2);
+			assertEquals(PRICES.length, result.getTotal());
+			assertEquals(2, result.getProducts().size());
+			result.getProducts().forEach(product -> ascending.add(product.getId()));
+		}
+		assertEquals(List.of(products.get(1).getId(), products.get(5).getId(), products.get(3).getId(), products.get(4).getId(),
+				products.get(2).getId(), products.get(0).getId()), ascending);	// Empate de precio: por ID
+		assertEquals(0, browse(null, null, true, "asc", 3, 2).getProducts().size());	// Más allá de la última página
+
+		List<Long> descending = browse(null, null, true, "desc", 0, 10).getProducts().stream().map(ProductDTO::getId).toList();
+		assertEquals(ascending.reversed(), descending);
+		assertThrows(InvalidRequestException.class, () -> browse(null, null, true, "asc", 0, 101));
+		assertThrows(InvalidRequestException.class, () -> browse(null, null, true, "asc", -1, 10));
+	}
+
+	@Test
+	void filtersAndFacets() {
+		CatalogBrowseDTO inRange = browse("20.00", "40.00", true, "asc", 0, 10);
+		assertEquals(3, inRange.getTotal());
+		assertEquals(List.of(Money.valueOf("20.00"), Money.valueOf("30.00"), Money.valueOf("40.00")),
+				inRange.getProducts().stream().map(ProductDTO::getPriceProduct).toList());
+		assertEquals(3, inRange.getCategoryCounts().get(category.getId()));
+		assertEquals(PRICES.length, inRange.getPriceHistogram().stream().mapToInt(CatalogBrowseDTO.PriceBucket::count).sum());	// Ignora el filtro de precio
+		assertEquals(Money.valueOf("10.00"), inRange.getPriceHistogram().getFirst().from());
+
+		ProductDTO soldOut = products.get(0);
+		productService.updateProdById(soldOut.getId(), new ProductDTO(null, soldOut.getNameProduct(), soldOut.getDescriptionProduct(),
+				soldOut.getPriceProduct(), category.getId(), 0, true));
+		productService.desactivateProdById(products.get(1).getId());
+		assertEquals(PRICES.length - 2, browse(null, null, true, "asc", 0, 10).getTotal());
+		assertEquals(PRICES.length - 1, browse(null, null, false, "asc", 0, 10).getTotal());	// Sin stock, pero activo
+		assertTrue(browse(null, null, false, "asc", 0, 10).getProducts().stream().noneMatch(product -> product.getId().equals(products.get(1).getId())));
+	}
+
+	@Test
+	void olderWritesDoNotOverwriteNewerOnes() {
+		ProductDTO product = products.get(2);
+		ProductModel stale = productRepository.findById(product.getId()).orElseThrow();	// Copia con la versión y el precio anteriores
+		productService.updateProdById(product.getId(), new ProductDTO(null, product.getNameProduct(), product.getDescriptionProduct(),
+				Money.valueOf("45.00"), category.getId(), 3, true));
+
+		catalogSnapshot.onProductWritten(stale);	// Llega tarde, como si su transacción confirmara después
+		List<Long> ids = browse("45.00", "45.00", true, "asc", 0, 10).getProducts().stream().map(ProductDTO::getId).toList();
+		assertEquals(List.of(product.getId()), ids);
+		assertEquals(0, browse("40.00", "40.00", true, "asc", 0, 10).getTotal());
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private CatalogBrowseDTO browse(String minPrice, String maxPrice, boolean inStock, String sort, int page, int size) {
+		return productService.browse(category.getId(), minPrice != null ? Money.valueOf(minPrice) : null,
+				maxPrice != null ? Money.valueOf(maxPrice) : null, inStock, sort, page, size);
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.api.java;
+
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.models.Money;
+import com.api.java.services.CatalogDiskSnapshotService;
+import com.api.java.services.CategoryService;
+import com.api.java.services.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica el snapshot del catálogo en disco (archivo mapeado en memoria) sobre H2: las lecturas desde el archivo dan los
+ * mismos productos, categorías y versiones que la base de datos; solo se reescribe si el catálogo cambió, y una falla de
+ * conexión pasa las lecturas al archivo hasta que la verificación periódica encuentra la base de datos de nuevo. */
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CatalogDiskSnapshotTests {
+
+	@Autowired
+	private CatalogDiskSnapshotService diskSnapshot;
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private ProductService productService;
+
+	@AfterEach
+	void databaseBackUp() {
+		diskSnapshot.probe();	// Sale del modo degradado si un test lo dejó activo
+	}
+
+	@Test
+	void snapshotMatchesTheDatabase() {
+		CategoryDTO category = categoryService.createNewCategory(new CategoryDTO(null, "Disco ñandú " + UUID.randomUUID()));
+		ProductDTO text = product("Auriculares ñandú 🎧 " + UUID.randomUUID(), "Descripción con acentos: canción", "18999.50", category, 7);
+		ProductDTO noDescription = product("Sin descripción " + UUID.randomUUID(), null, "0.01", category, 0);
+		productService.desactivateProdById(noDescription.getId());
+		diskSnapshot.write();
+
+		for (ProductDTO product : List.of(text, noDescription)) {
+			assertEquals(productService.getProductById(product.getId()), diskSnapshot.findProduct(product.getId()).orElseThrow());
+			assertEquals(productService.getProductVersion(product.getId()).getVersion(),
+					diskSnapshot.findProductVersion(product.getId()).orElseThrow().getVersion());
+		}
+		assertEquals(new HashSet<>(productService.getProdCategoryById(category.getId())), new HashSet<>(diskSnapshot.getProductsByCategory(category.getId())));
+		assertEquals(categoryService.getCategoryById(category.getId()), diskSnapshot.findCategory(category.getId()).orElseThrow());
+		assertEquals(1, diskSnapshot.findProducts(List.of(text.getId(), 999_999_999L)).size());
+		assertTrue(diskSnapshot.findProduct(999_999_999L).isEmpty());
+	}
+
+	@Test
+	void rewritesOnlyWhenTheCatalogChanges() throws InterruptedException {
+		CategoryDTO category = categoryService.createNewCategory(new CategoryDTO(null, "Disco " + UUID.randomUUID()));
+		ProductDTO product = product("Disco " + UUID.randomUUID(), "Reescritura", "10.00", category, 1);
+		diskSnapshot.write();
+		Instant writtenAt = diskSnapshot.getWrittenAt();
+
+		Thread.sleep(5);
+		diskSnapshot.write();
+		assertEquals(writtenAt, diskSnapshot.getWrittenAt());	// Sin cambios: conserva el archivo
+
+		productService.updateProdById(product.getId(), new ProductDTO(null, product.getNameProduct(), product.getDescriptionProduct(),
+				Money.valueOf("12.00"), category.getId(), 1, true));
+		diskSnapshot.write();
+		assertTrue(diskSnapshot.getWrittenAt().isAfter(writtenAt));
+		assertEquals(Money.valueOf("12.00"), diskSnapshot.findProduct(product.getId()).orElseThrow().getPriceProduct());
+	}
+
+	@Test
+	void connectionFailuresSwitchReadsToTheSnapshot() {
+		CategoryDTO category = categoryService.createNewCategory(new CategoryDTO(null, "Disco " + UUID.randomUUID()));
+		ProductDTO product = product("Disco " + UUID.randomUUID(), "Modo degradado", "5.00", category, 2);
+		diskSnapshot.write();
+
+		assertThrows(IllegalStateException.class, () -> diskSnapshot.read(() -> {
+			throw new IllegalStateException("Error de la consulta");	// No es una falla de conexión: se propaga
+		}, () -> "snapshot"));
+		assertTrue(diskSnapshot.isDatabaseUp());
+
+		assertEquals("snapshot", diskSnapshot.read(() -> {
+			throw new CannotCreateTransactionException("Sin conexión");
+		}, () -> "snapshot"));
+		assertFalse(diskSnapshot.isDatabaseUp());
+		assertEquals("snapshot", diskSnapshot.read(() -> "base de datos", () -> "snapshot"));	// Ya no intenta la base de datos
+		assertEquals(product, productService.getProductById(product.getId()));	// Servido desde el archivo
+
+		diskSnapshot.probe();
+		assertTrue(diskSnapshot.isDatabaseUp());
+		assertEquals("base de datos", diskSnapshot.read(() -> "base de datos", () -> "snapshot"));
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private ProductDTO product(String name, String description, String price, CategoryDTO category, int stock) {
+		return productService.createProduct(new ProductDTO(null, name, description, Money.valueOf(price), category.getId(), stock, true));
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.api.java;
+
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.models.Money;
+import com.api.java.services.CategoryService;
+import com.api.java.services.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica los GET condicionales de productos y categorías sobre H2: el ETag depende del formato negociado (JSON, CBOR o
+ * Smile) y Vary: Accept se envía en las respuestas 200 y 304. */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@ActiveProfiles("test")
+class ConditionalGetTests {
+	private static final String SMILE = "application/x-jackson-smile";
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private ProductService productService;
+
+	private String token;
+	private CategoryDTO category;
+	private ProductDTO product;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		token = TestUsers.register(restTemplate, objectMapper, "etag").token();
+		category = categoryService.createNewCategory(new CategoryDTO(null, "Etag " + UUID.randomUUID()));
+		product = productService.createProduct(new ProductDTO(null, "Producto etag " + UUID.randomUUID(), "GET condicional",
+				Money.valueOf("8.00"), category.getId(), 5, true));
+	}
+
+	@Test
+	void productEtagDependsOnTheNegotiatedFormat() {
+		String path = "/product/" + product.getId();
+		ResponseEntity<byte[]> json = get(path, MediaType.APPLICATION_JSON_VALUE, null);
+		ResponseEntity<byte[]> cbor = get(path, MediaType.APPLICATION_CBOR_VALUE, null);
+		ResponseEntity<byte[]> smile = get(path, SMILE, null);
+		assertOk(json, MediaType.APPLICATION_JSON);
+		assertOk(cbor, MediaType.APPLICATION_CBOR);
+		assertOk(smile, MediaType.valueOf(SMILE));
+		assertNotEquals(json.getHeaders().getETag(), cbor.getHeaders().getETag());
+		assertNotEquals(json.getHeaders().getETag(), smile.getHeaders().getETag());
+		assertNotEquals(cbor.getHeaders().getETag(), smile.getHeaders().getETag());
+
+		ResponseEntity<byte[]> notModified = get(path, MediaType.APPLICATION_CBOR_VALUE, cbor.getHeaders().getETag());
+		assertEquals(304, notModified.getStatusCode().value());
+		assertTrue(notModified.getHeaders().getVary().contains(HttpHeaders.ACCEPT));
+		assertEquals(200, get(path, MediaType.APPLICATION_CBOR_VALUE, json.getHeaders().getETag()).getStatusCode().value());	// La copia JSON no revalida la CBOR
+	}
+
+	@Test
+	void productListEtagDependsOnTheNegotiatedFormat() {
+		ResponseEntity<byte[]> json = get("/product", MediaType.APPLICATION_JSON_VALUE, null);
+		ResponseEntity<byte[]> cbor = get("/product", MediaType.APPLICATION_CBOR_VALUE + ", application/json;q=0.5", null);
+		assertOk(json, MediaType.APPLICATION_JSON);
+		assertOk(cbor, MediaType.APPLICATION_CBOR);
+		assertNotEquals(json.getHeaders().getETag(), cbor.getHeaders().getETag());
+		assertEquals(304, get("/product", MediaType.APPLICATION_JSON_VALUE, json.getHeaders().getETag()).getStatusCode().value());
+	}
+
+	@Test
+	void categoriesSendVaryAcceptOnOkAndNotModified() {
+		for (String path : new String[]{"/categories", "/categories/" + category.getId()}) {
+			ResponseEntity<byte[]> ok = get(path, MediaType.APPLICATION_JSON_VALUE, null);
+			assertOk(ok, MediaType.APPLICATION_JSON);
+			ResponseEntity<byte[]> notModified = get(path, MediaType.APPLICATION_JSON_VALUE, ok.getHeaders().getETag());
+			assertEquals(304, notModified.getStatusCode().value(), path);
+			assertTrue(notModified.getHeaders().getVary().contains(HttpHeaders.ACCEPT), path);
+		}
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private ResponseEntity<byte[]> get(String path, String accept, String ifNoneMatch) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBearerAuth(token);
+		headers.set(HttpHeaders.ACCEPT, accept);
+		if (ifNoneMatch != null) headers.setIfNoneMatch(ifNoneMatch);
+		return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+	}
+
+	private static void assertOk(ResponseEntity<byte[]> response, MediaType expected) {
+		assertEquals(200, response.getStatusCode().value());
+		assertNotNull(response.getHeaders().getETag());
+		assertTrue(expected.isCompatibleWith(response.getHeaders().getContentType()), () -> "Content-Type " + response.getHeaders().getContentType());
+		assertEquals(1, response.getHeaders().getVary().stream().filter(HttpHeaders.ACCEPT::equals).count());	// Sin duplicar Vary
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.api.java;
+
+import com.api.java.config.JacksonConfig;
+import com.api.java.config.MoneyJsonComponent;
+import com.api.java.dto.DetailOrderDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.dto.SparseListDTO;
+import com.api.java.models.Money;
+import com.api.java.models.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Verifica los serializadores escritos a mano: ProductDTO produce exactamente la salida del serializador por defecto y
+ * DetailOrderDTO el mismo contenido (también con campos null y en CBOR), y el listado con ?fields= escribe solo los campos pedidos, anidando los
+ * que tienen punto. */
+
+class DtoSerializerTests {
+	private static final ProductDTO PRODUCT = new ProductDTO(7L, "Auriculares \"Pro\" ñandú", "Con cancelación\nde ruido",
+			Money.valueOf("18999.5"), 3L, 25, true);
+	private static final ProductDTO EMPTY_PRODUCT = new ProductDTO(null, null, null, null, null, null, false);
+
+	private final ObjectMapper handWritten = mapper(new ObjectMapper(), true);
+	private final ObjectMapper reflective = mapper(new ObjectMapper(), false);
+
+	@Test
+	void productMatchesTheDefaultSerializer() throws Exception {
+		for (ProductDTO product : List.of(PRODUCT, EMPTY_PRODUCT)) {
+			String json = handWritten.writeValueAsString(product);
+			assertEquals(reflective.writeValueAsString(product), json);
+			assertEquals(product, handWritten.readValue(json, ProductDTO.class));
+		}
+		assertEquals(reflective.writeValueAsString(List.of(PRODUCT, EMPTY_PRODUCT)), handWritten.writeValueAsString(List.of(PRODUCT, EMPTY_PRODUCT)));
+	}
+
+	@Test
+	void detailOrderMatchesTheDefaultSerializer() throws Exception {
+		DetailOrderDTO detail = new DetailOrderDTO(11L, 42L, PRODUCT, 3, OrderStatus.PAID, "Auriculares", Money.valueOf("18999.50"));
+		DetailOrderDTO empty = new DetailOrderDTO(null, null, null, null, null, null, null);
+		for (DetailOrderDTO value : List.of(detail, empty)) {
+			assertEquals(reflective.readTree(reflective.writeValueAsString(value)), handWritten.readTree(handWritten.writeValueAsString(value)));	// Mismo contenido; userOrder va en el orden del DTO
+		}
+
+		ObjectMapper cbor = mapper(new ObjectMapper(new CBORFactory()), true);
+		ObjectMapper reflectiveCbor = mapper(new ObjectMapper(new CBORFactory()), false);
+		assertEquals(reflectiveCbor.readTree(reflectiveCbor.writeValueAsBytes(detail)), cbor.readTree(cbor.writeValueAsBytes(detail)));
+	}
+
+	@Test
+	void sparseListWritesOnlyTheRequestedFields() throws Exception {
+		SparseListDTO list = new SparseListDTO(List.of("id", "amount", "productOrder.id", "productOrder.priceProduct", "status"), Arrays.asList(
+				new Object[]{1L, 2, 7L, Money.valueOf("10.5"), OrderStatus.PENDING},
+				new Object[]{2L, null, 8L, null, null}));
+		assertEquals("[{\"id\":1,\"amount\":2,\"productOrder\":{\"id\":7,\"priceProduct\":10.50},\"status\":\"PENDING\"},"
+						+ "{\"id\":2,\"amount\":null,\"productOrder\":{\"id\":8,\"priceProduct\":null},\"status\":null}]",
+				handWritten.writeValueAsString(list));
+		assertEquals("[]", handWritten.writeValueAsString(new SparseListDTO(List.of("id"), List.of())));
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private static ObjectMapper mapper(ObjectMapper mapper, boolean handWritten) {
+		SimpleModule money = new SimpleModule();
+		money.addSerializer(Money.class, new MoneyJsonComponent.Serializer());
+		money.addDeserializer(Money.class, new MoneyJsonComponent.Deserializer());
+		mapper.registerModule(money);
+		if (handWritten) mapper.registerModule(new JacksonConfig().hotDtoModule());
+		return mapper;
+	}
+
+}
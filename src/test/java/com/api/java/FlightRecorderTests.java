@@ -0,0 +1,55 @@
+package com.api.java;
+
+import com.api.java.controllers.FlightRecorderController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/** Verifica el volcado de la grabación JFR: se descarga completo y el archivo temporal no queda en disco. */
+
+@SpringBootTest(properties = {"app.jfr.enabled=true", "app.jfr.max-age=1m", "app.jfr.max-size-mb=20", "app.jfr.dump-dir=target/test-data/jfr-dumps"})
+@ActiveProfiles("test")
+class FlightRecorderTests {
+	private static final Path DUMP_DIR = Paths.get("target/test-data/jfr-dumps");
+
+	@Autowired
+	private FlightRecorderController flightRecorderController;
+
+	@Test
+	void dumpIsStreamedAndThenDeleted() throws IOException {
+		ResponseEntity<StreamingResponseBody> response = flightRecorderController.dump();
+		assertEquals(1, dumps());	// El temporal existe hasta que se envía
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StreamingResponseBody body = response.getBody();
+		assertNotNull(body);
+		body.writeTo(out);
+
+		assertEquals(response.getHeaders().getContentLength(), out.size());
+		assertEquals("FLR\0", new String(out.toByteArray(), 0, 4, StandardCharsets.US_ASCII));	// Cabecera de un archivo JFR
+		assertEquals(0, dumps());
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private static long dumps() throws IOException {
+		try (Stream<Path> files = Files.list(DUMP_DIR)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".jfr")).count();
+		}
+	}
+
+}
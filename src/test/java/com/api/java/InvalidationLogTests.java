@@ -0,0 +1,108 @@
+package com.api.java;
+
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.dto.ProductSuggestionDTO;
+import com.api.java.models.Money;
+import com.api.java.services.CatalogSnapshotService;
+import com.api.java.services.CategoryService;
+import com.api.java.services.ProductService;
+import com.api.java.services.ProductSuggestService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica la invalidación entre instancias: dos contextos de la aplicación comparten una base H2 en memoria y las
+ * escrituras hechas en uno se reflejan en el snapshot del catálogo y el autocompletado del otro, sin broker. */
+
+class InvalidationLogTests {
+	private static final long DEADLINE_MS = 10_000;	// Demora máxima aceptada (el intervalo de lectura es de 100 ms)
+
+	@TempDir
+	static Path dir;
+
+	private static ConfigurableApplicationContext nodeA;
+	private static ConfigurableApplicationContext nodeB;
+
+	@BeforeAll
+	static void start() {
+		String url = "jdbc:h2:mem:invalidation-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=MySQL;NON_KEYWORDS=USER,VALUE";
+		nodeA = node(url, "a");
+		nodeB = node(url, "b");
+	}
+
+	@AfterAll
+	static void stop() {
+		if (nodeB != null) nodeB.close();
+		if (nodeA != null) nodeA.close();
+	}
+
+	@Test
+	void writesOnOneNodeReachTheOther() {
+		CategoryDTO category = nodeA.getBean(CategoryService.class).createNewCategory(new CategoryDTO(null, "Invalidación"));
+		ProductService products = nodeA.getBean(ProductService.class);
+		ProductDTO created = products.createProduct(new ProductDTO(null, "Zapatilla replicada", "Alta en el nodo A",
+				Money.valueOf("100.00"), category.getId(), 5, true));
+		Long id = created.getId();
+
+		CatalogSnapshotService catalogB = nodeB.getBean(CatalogSnapshotService.class);
+		ProductSuggestService suggestB = nodeB.getBean(ProductSuggestService.class);
+		awaitTrue("el alta no llegó al catálogo del nodo B", () -> browse(catalogB, category.getId()).contains(id));
+		awaitTrue("el alta no llegó al autocompletado del nodo B", () -> suggested(suggestB, "zapatilla").contains(id));
+
+		products.desactivateProdById(id);
+		awaitTrue("la desactivación no llegó al autocompletado del nodo B", () -> !suggested(suggestB, "zapatilla").contains(id));
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private static ConfigurableApplicationContext node(String url, String name) {
+		return new SpringApplicationBuilder(JavaApplication.class).run(	// Argumentos: tienen prioridad sobre las propiedades del sistema
+				"--spring.datasource.url=" + url,
+				"--spring.datasource.driver-class-name=org.h2.Driver",
+				"--spring.datasource.username=sa",
+				"--spring.datasource.password=",
+				"--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+				"--spring.jpa.hibernate.ddl-auto=update",
+				"--server.port=0",
+				"--management.server.port=0",
+				"--app.invalidation.node-id=" + name,
+				"--app.invalidation.poll-interval-ms=100",
+				"--app.best-sellers.checkpoint-path=" + dir.resolve(name + "-best-sellers.bin"),
+				"--app.catalog-disk-snapshot.path=" + dir.resolve(name + "-catalog.bin"),
+				"--app.jfr.enabled=false",
+				"--app.warmup.enabled=false");
+	}
+
+	private static List<Long> browse(CatalogSnapshotService catalog, Long categoryId) {
+		return catalog.browse(categoryId, 0, Long.MAX_VALUE, false, false, 0, 50).productIds();
+	}
+
+	private static List<Long> suggested(ProductSuggestService suggest, String prefix) {
+		return suggest.suggest(prefix, ProductSuggestService.TOP_K).stream().map(ProductSuggestionDTO::getId).toList();
+	}
+
+	private static void awaitTrue(String message, BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + DEADLINE_MS;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, message);
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+}
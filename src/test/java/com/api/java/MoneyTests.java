@@ -0,0 +1,87 @@
+package com.api.java;
+
+import com.api.java.config.MoneyJsonComponent;
+import com.api.java.models.Money;
+import com.api.java.models.MoneyConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Verifica el importe de punto fijo: lectura y escritura en texto sin BigDecimal (con redondeo HALF_UP al centavo),
+ * aritmética exacta con control de desbordamiento, el conversor JPA a DECIMAL y la serialización JSON y CBOR. */
+
+class MoneyTests {
+
+	@Test
+	void parsesAndFormatsDecimalText() {
+		assertEquals(1899950, Money.valueOf("18999.5").cents());
+		assertEquals(-300, Money.valueOf("-3").cents());
+		assertEquals(1000, Money.valueOf("+10.00").cents());
+		assertEquals(50, Money.valueOf(".5").cents());
+		assertEquals(13, Money.valueOf("0.125").cents());	// HALF_UP al centavo
+		assertEquals(12, Money.valueOf("0.1249").cents());	// Solo decide el primer dígito descartado
+		assertEquals("18999.50", Money.valueOf("18999.5").toString());
+		assertEquals("-0.05", Money.ofCents(-5).toString());
+		assertEquals("0.00", Money.ZERO.toString());
+		assertEquals("92233720368547758.07", Money.ofCents(Long.MAX_VALUE).toString());
+
+		for (String invalid : new String[]{"", "-", ".", "1,5", "1.2.3", "abc", "1e3"}) {
+			assertThrows(NumberFormatException.class, () -> Money.valueOf(invalid), invalid);
+		}
+		assertThrows(ArithmeticException.class, () -> Money.valueOf("92233720368547758.08"));
+	}
+
+	@Test
+	void arithmeticIsExact() {
+		Money price = Money.valueOf("0.10");
+		Money total = Money.ZERO;
+		for (int i = 0; i < 10; i++) total = total.plus(price);
+		assertEquals(Money.valueOf("1.00"), total);	// Sin el error de 0.1 en binario
+		assertEquals(Money.valueOf("56998.50"), Money.valueOf("18999.50").times(3));
+		assertEquals(Money.valueOf("-0.90"), price.minus(Money.valueOf("1")));
+		assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+		assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE / 2).times(3));
+	}
+
+	@Test
+	void converterMapsToDecimalWithScaleTwo() {
+		MoneyConverter converter = new MoneyConverter();
+		assertEquals(new BigDecimal("18999.50"), converter.convertToDatabaseColumn(Money.valueOf("18999.5")));
+		assertEquals(Money.ofCents(1235), converter.convertToEntityAttribute(new BigDecimal("12.345")));
+		assertEquals(Money.ofCents(-1235), converter.convertToEntityAttribute(new BigDecimal("-12.345")));	// HALF_UP se aleja del cero
+		assertNull(converter.convertToDatabaseColumn(null));
+		assertNull(converter.convertToEntityAttribute(null));
+	}
+
+	@Test
+	void jsonAndCborRoundTrip() throws Exception {
+		ObjectMapper json = mapper(new ObjectMapper());
+		assertEquals("18999.50", json.writeValueAsString(Money.valueOf("18999.5")));
+		assertEquals(Money.ofCents(1050), json.readValue("10.5", Money.class));
+		assertEquals(Money.ofCents(1000), json.readValue("10", Money.class));
+		assertEquals(Money.ofCents(1050), json.readValue("\"10.50\"", Money.class));
+		assertThrows(InvalidFormatException.class, () -> json.readValue("\"diez\"", Money.class));
+
+		ObjectMapper cbor = mapper(new ObjectMapper(new CBORFactory()));
+		Money value = Money.valueOf("-1234.56");
+		assertEquals(value, cbor.readValue(cbor.writeValueAsBytes(value), Money.class));
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private static ObjectMapper mapper(ObjectMapper mapper) {
+		SimpleModule module = new SimpleModule();
+		module.addSerializer(Money.class, new MoneyJsonComponent.Serializer());
+		module.addDeserializer(Money.class, new MoneyJsonComponent.Deserializer());
+		return mapper.registerModule(module);
+	}
+
+}
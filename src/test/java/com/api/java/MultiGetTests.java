@@ -0,0 +1,127 @@
+package com.api.java;
+
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.models.Money;
+import com.api.java.services.CategoryService;
+import com.api.java.services.MultiGet;
+import com.api.java.services.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Verifica la consulta de varios recursos por ID (?ids=) sobre H2: resultados en el orden pedido y sin repetir, IDs
+ * inexistentes informados aparte y 400 sin IDs o con más de {@link MultiGet#MAX_IDS}. */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@ActiveProfiles("test")
+class MultiGetTests {
+	private static final long MISSING_ID = 999_999_999L;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private ProductService productService;
+
+	private String token;
+
+	@BeforeEach
+	void login() throws Exception {
+		token = TestUsers.register(restTemplate, objectMapper, "multi").token();
+	}
+
+	@Test
+	void returnsProductsInRequestedOrder() throws Exception {
+		CategoryDTO category = categoryService.createNewCategory(new CategoryDTO(null, "Ids " + UUID.randomUUID()));
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			ids.add(productService.createProduct(new ProductDTO(null, "Ids " + UUID.randomUUID(), "Multi-get", Money.valueOf("1.00"),
+					category.getId(), 1, true)).getId());
+		}
+
+		ResponseEntity<String> response = get("/product?ids=" + ids.get(2) + "," + MISSING_ID + "," + ids.get(0) + "," + ids.get(2));
+		assertEquals(200, response.getStatusCode().value());
+		JsonNode result = objectMapper.readTree(response.getBody());
+		assertEquals(List.of(ids.get(2), ids.get(0)), idsOf(result.get("items")));	// Sin el repetido
+		assertEquals(List.of(MISSING_ID), longs(result.get("missing")));
+	}
+
+	@Test
+	void returnsCategoriesInRequestedOrder() throws Exception {
+		CategoryDTO first = categoryService.createNewCategory(new CategoryDTO(null, "Ids " + UUID.randomUUID()));
+		CategoryDTO second = categoryService.createNewCategory(new CategoryDTO(null, "Ids " + UUID.randomUUID()));
+
+		JsonNode result = objectMapper.readTree(get("/categories?ids=" + second.getId() + "," + first.getId()).getBody());
+		assertEquals(List.of(second.getId(), first.getId()), idsOf(result.get("items")));
+		assertEquals(0, result.get("missing").size());
+	}
+
+	@Test
+	void rejectsEmptyAndOversizedRequests() {
+		String tooMany = LongStream.rangeClosed(1, MultiGet.MAX_IDS + 1).mapToObj(Long::toString).collect(Collectors.joining(","));
+		assertEquals(400, get("/product?ids=" + tooMany).getStatusCode().value());
+		assertEquals(400, get("/categories?ids=" + tooMany).getStatusCode().value());
+		assertEquals(400, get("/product?ids=").getStatusCode().value());
+
+		String repeated = LongStream.rangeClosed(1, MultiGet.MAX_IDS + 1).mapToObj(i -> "1").collect(Collectors.joining(","));
+		assertEquals(200, get("/product?ids=" + repeated).getStatusCode().value());	// El límite cuenta IDs distintos
+	}
+
+	@Test
+	void invalidIdsAreRejectedEvenWhenTheETagMatches() {
+		String tooMany = LongStream.rangeClosed(1, MultiGet.MAX_IDS + 1).mapToObj(Long::toString).collect(Collectors.joining(","));
+		for (String path : List.of("/product", "/categories")) {
+			String etag = get(path).getHeaders().getETag();
+			assertEquals(304, get(path, etag).getStatusCode().value(), path);
+			assertEquals(400, get(path + "?ids=" + tooMany, etag).getStatusCode().value(), path);	// La validación va antes del 304
+			assertEquals(400, get(path + "?ids=", etag).getStatusCode().value(), path);
+		}
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private ResponseEntity<String> get(String path) {
+		return get(path, null);
+	}
+
+	private ResponseEntity<String> get(String path, String ifNoneMatch) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBearerAuth(token);
+		if (ifNoneMatch != null) headers.setIfNoneMatch(ifNoneMatch);
+		return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+	}
+
+	private static List<Long> idsOf(JsonNode items) {
+		List<Long> ids = new ArrayList<>();
+		for (JsonNode item : items) ids.add(item.get("id").asLong());
+		return ids;
+	}
+
+	private static List<Long> longs(JsonNode values) {
+		List<Long> result = new ArrayList<>();
+		for (JsonNode value : values) result.add(value.asLong());
+		return result;
+	}
+
+}
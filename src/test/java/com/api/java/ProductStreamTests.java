@@ -0,0 +1,178 @@
+package com.api.java;
+
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.globalException.InvalidRequestException;
+import com.api.java.models.Money;
+import com.api.java.services.CategoryService;
+import com.api.java.services.ProductService;
+import com.api.java.services.ProductStreamService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Verifica GET /product/stream sobre H2: el primer evento trae el estado actual de lo suscripto y los siguientes solo
+ * los cambios de esos productos o de esa categoría, uno por producto. */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@ActiveProfiles("test")
+class ProductStreamTests {
+	private static final long EVENT_TIMEOUT_MS = 10_000;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private ProductStreamService productStreamService;
+
+	private final HttpClient client = HttpClient.newHttpClient();
+	private String token;
+	private Thread reader;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		token = TestUsers.register(restTemplate, objectMapper, "sse").token();
+	}
+
+	@AfterEach
+	void closeStream() {
+		if (reader != null) reader.interrupt();
+	}
+
+	@Test
+	void categorySubscriberReceivesOnlyItsChanges() throws Exception {
+		CategoryDTO category = categoryService.createNewCategory(new CategoryDTO(null, "Stream " + UUID.randomUUID()));
+		CategoryDTO other = categoryService.createNewCategory(new CategoryDTO(null, "Stream " + UUID.randomUUID()));
+		ProductDTO first = product("Primero", "10.00", category);
+		ProductDTO second = product("Segundo", "20.00", category);
+		ProductDTO outside = product("Afuera", "30.00", other);
+
+		Subscription subscription = open("/product/stream?categoryId=" + category.getId());
+		Map<Long, JsonNode> initial = subscription.next();
+		assertEquals(Set.of(first.getId(), second.getId()), initial.keySet());
+		assertEquals(10.0, initial.get(first.getId()).get("priceProduct").asDouble());
+		assertEquals(20.0, initial.get(second.getId()).get("priceProduct").asDouble());
+
+		update(outside, "31.00", other);	// Otra categoría: no llega
+		update(first, "11.50", category);
+		subscription.await(first.getId(), delta -> delta.get("priceProduct").asDouble() == 11.5);
+		productService.desactivateProdById(second.getId());	// Sigue en la categoría aunque ya no esté a la venta
+		subscription.await(second.getId(), delta -> !delta.get("activo").asBoolean());
+		assertEquals(Set.of(first.getId(), second.getId()), subscription.received);
+	}
+
+	@Test
+	void productSubscriberReceivesOnlyTheRequestedIds() throws Exception {
+		CategoryDTO category = categoryService.createNewCategory(new CategoryDTO(null, "Stream " + UUID.randomUUID()));
+		ProductDTO followed = product("Seguido", "5.00", category);
+		ProductDTO ignored = product("Ignorado", "6.00", category);
+
+		Subscription subscription = open("/product/stream?ids=" + followed.getId() + ",999999999");
+		assertEquals(Set.of(followed.getId()), subscription.next().keySet());	// El ID inexistente no aparece
+
+		update(ignored, "6.50", category);
+		productService.desactivateProdById(followed.getId());
+		subscription.await(followed.getId(), delta -> !delta.get("activo").asBoolean());
+		assertEquals(Set.of(followed.getId()), subscription.received);
+	}
+
+	@Test
+	void subscriptionNeedsExactlyOneFilter() {
+		assertThrows(InvalidRequestException.class, () -> productStreamService.subscribe(null, null));
+		assertThrows(InvalidRequestException.class, () -> productStreamService.subscribe(1L, List.of(1L)));
+		assertThrows(InvalidRequestException.class, () -> productStreamService.subscribe(null, Arrays.asList((Long) null)));
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private ProductDTO product(String name, String price, CategoryDTO category) {
+		return productService.createProduct(new ProductDTO(null, name + " " + UUID.randomUUID(), "Stream", Money.valueOf(price), category.getId(), 5, true));
+	}
+
+	private void update(ProductDTO product, String price, CategoryDTO category) {
+		productService.updateProdById(product.getId(), new ProductDTO(null, product.getNameProduct(), product.getDescriptionProduct(),
+				Money.valueOf(price), category.getId(), product.getStockProduct(), true));
+	}
+
+	/** Abre el stream y deja sus líneas "data:" en una cola, leídas en un hilo aparte. */
+
+	private Subscription open(String path) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(restTemplate.getRootUri() + path))
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + token).header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE).build();
+		HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+		assertEquals(200, response.statusCode());
+		Subscription subscription = new Subscription();
+		reader = Thread.ofVirtual().start(() -> {
+			try (Stream<String> lines = response.body()) {
+				lines.filter(line -> line.startsWith("data:")).forEach(line -> subscription.events.add(line.substring("data:".length())));
+			} catch (UncheckedIOException e) {
+				// Conexión cerrada al terminar el test
+			}
+		});
+		return subscription;
+	}
+
+	/** Eventos recibidos de una conexión. Un cambio hecho antes de suscribirse puede llegar después del estado inicial,
+	 * así que las esperas miran el último estado de cada producto y no cuántos eventos llegaron. */
+
+	private final class Subscription {
+		private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+		private final Set<Long> received = new HashSet<>();	// Productos que aparecieron en algún evento
+
+		/** Espera el próximo evento y lo devuelve indexado por ID de producto. */
+
+		Map<Long, JsonNode> next() throws Exception {
+			String data = events.poll(EVENT_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			assertNotNull(data, "No llegó ningún evento");
+			Map<Long, JsonNode> byId = new HashMap<>();
+			for (JsonNode delta : objectMapper.readTree(data)) byId.put(delta.get("id").asLong(), delta);
+			received.addAll(byId.keySet());
+			return byId;
+		}
+
+		/** Lee eventos hasta que el producto llegue en el estado esperado. */
+
+		void await(long productId, Predicate<JsonNode> expected) throws Exception {
+			while (true) {
+				JsonNode delta = next().get(productId);
+				if (delta != null && expected.test(delta)) return;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+package com.api.java;
+
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.dto.ProductSuggestionDTO;
+import com.api.java.globalException.InvalidRequestException;
+import com.api.java.models.Money;
+import com.api.java.services.CategoryService;
+import com.api.java.services.ProductService;
+import com.api.java.services.ProductSuggestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica el autocompletado sobre el trie en memoria (H2): coincide por el inicio del nombre o de cualquier palabra, sin
+ * importar acentos ni mayúsculas, ordena por unidades vendidas, respeta y valida el límite y sigue altas, renombres y bajas. */
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSuggestTests {
+
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private ProductSuggestService suggestService;
+
+	private String prefix;	// Prefijo único por test: el índice es compartido con los demás tests del contexto
+	private CategoryDTO category;
+
+	@BeforeEach
+	void setUp() {
+		prefix = "zq" + Long.toString(ThreadLocalRandom.current().nextLong(1L << 40), 36);
+		category = categoryService.createNewCategory(new CategoryDTO(null, "Sugerencias " + prefix));
+	}
+
+	@Test
+	void matchesWordPrefixesIgnoringAccents() {
+		ProductDTO headphones = product(prefix + "ñandú Auriculares");
+		ProductDTO speaker = product("Parlante " + prefix + "Ñandú");
+
+		assertEquals(List.of(headphones.getId(), speaker.getId()), ids(prefix + "NAN", 10));	// Sin ventas: por orden de alta
+		assertEquals(List.of(headphones.getId()), ids(prefix + "nandu auri", 10));	// Prefijo del nombre completo
+		assertEquals(List.of(speaker.getId()), ids("parlante " + prefix, 10));
+		assertTrue(ids(prefix + "x", 10).isEmpty());
+		assertTrue(ids("   ", 10).isEmpty());
+	}
+
+	@Test
+	void ranksBySalesAndRespectsTheLimit() {
+		List<ProductDTO> products = List.of(product(prefix + " uno"), product(prefix + " dos"), product(prefix + " tres"));
+		suggestService.onSale(products.get(2).getId(), 5);
+		suggestService.onSale(products.get(0).getId(), 3);
+		assertEquals(List.of(products.get(2).getId(), products.get(0).getId(), products.get(1).getId()), ids(prefix, 10));
+		assertEquals(List.of(products.get(2).getId()), ids(prefix, 1));
+
+		suggestService.onSale(products.get(2).getId(), -4);	// Cancelación: baja en el ranking
+		assertEquals(List.of(products.get(0).getId(), products.get(2).getId(), products.get(1).getId()), ids(prefix, 10));
+	}
+
+	@Test
+	void rejectsLimitsOutOfRange() {
+		product(prefix + " uno");
+		for (int limit : new int[]{0, -1, ProductSuggestService.TOP_K + 1}) {
+			assertThrows(InvalidRequestException.class, () -> productService.suggest(prefix, limit), () -> "límite " + limit);
+		}
+		assertEquals(1, ids(prefix, ProductSuggestService.TOP_K).size());
+	}
+
+	@Test
+	void followsRenamesAndDeactivations() {
+		ProductDTO product = product(prefix + "antes");
+		productService.updateProdById(product.getId(), new ProductDTO(null, prefix + "despues", product.getDescriptionProduct(),
+				product.getPriceProduct(), category.getId(), product.getStockProduct(), true));
+		assertTrue(ids(prefix + "antes", 10).isEmpty());
+		assertEquals(List.of(product.getId()), ids(prefix + "desp", 10));
+
+		productService.desactivateProdById(product.getId());
+		assertTrue(ids(prefix, 10).isEmpty());
+		productService.activateProdById(product.getId());
+		assertEquals(List.of(product.getId()), ids(prefix, 10));
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private ProductDTO product(String name) {
+		return productService.createProduct(new ProductDTO(null, name, "Autocompletado", Money.valueOf("1.00"), category.getId(), 1, true));
+	}
+
+	private List<Long> ids(String query, int limit) {
+		return productService.suggest(query, limit).stream().map(ProductSuggestionDTO::getId).toList();
+	}
+
+}
@@ -0,0 +1,212 @@
+package com.api.java;
+
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.DetailOrderDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.dto.PurgeJobDTO;
+import com.api.java.dto.StockReservationDTO;
+import com.api.java.models.Money;
+import com.api.java.models.OrderStatus;
+import com.api.java.models.PurgeStatus;
+import com.api.java.models.PurgeTarget;
+import com.api.java.models.RollupDimension;
+import com.api.java.models.UserModel;
+import com.api.java.repositories.ICategoryRepository;
+import com.api.java.repositories.IDetailOrderRepository;
+import com.api.java.repositories.IProductRepository;
+import com.api.java.repositories.IPurgeJobRepository;
+import com.api.java.repositories.ISalesRollupRepository;
+import com.api.java.repositories.IStockReservationRepository;
+import com.api.java.repositories.IUserRepository;
+import com.api.java.services.CategoryService;
+import com.api.java.services.DetailOrderService;
+import com.api.java.services.ProductService;
+import com.api.java.services.PurgeService;
+import com.api.java.services.StockReservationService;
+import com.api.java.services.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica la purga en segundo plano sobre H2: la eliminación por bloques, la resta de los resúmenes de ventas solo por lo
+ * eliminado, la eliminación previa de las reservas de stock, la cancelación (o el cierre parcial, si ya eliminó productos) cuando una categoría recibió órdenes durante la purga y el reclamo de tareas entre instancias.
+ * El proceso periódico queda desactivado (intervalo de una hora) y cada test lo invoca a mano. */
+
+@SpringBootTest(properties = {"app.purge.chunk-size=2", "app.purge.pause-ms=0", "app.purge.poll-interval-ms=3600000"})
+@ActiveProfiles("test")
+class PurgeTests {
+
+	@Autowired
+	private PurgeService purgeService;
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private DetailOrderService detailOrderService;
+	@Autowired
+	private StockReservationService reservationService;
+	@Autowired
+	private IPurgeJobRepository purgeJobRepository;
+	@Autowired
+	private ICategoryRepository categoryRepository;
+	@Autowired
+	private IProductRepository productRepository;
+	@Autowired
+	private IDetailOrderRepository detailOrderRepository;
+	@Autowired
+	private IUserRepository userRepository;
+	@Autowired
+	private ISalesRollupRepository rollupRepository;
+	@Autowired
+	private IStockReservationRepository reservationRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	void categoryPurgeDeletesProductsInChunks() {
+		CategoryDTO category = category();
+		for (int i = 0; i < 5; i++) product(category, "3.00");
+
+		PurgeJobDTO job = categoryService.deleteCategoryById(category.getId());
+		assertEquals(5, job.getTotalRows());
+		purgeService.processPending();
+
+		PurgeJobDTO done = purgeService.getJob(job.getId());
+		assertEquals(PurgeStatus.COMPLETED, done.getStatus());
+		assertEquals(5, done.getDeletedRows());
+		assertEquals(0, productRepository.countByCategoryProduct_Id(category.getId()));
+		assertFalse(categoryRepository.existsById(category.getId()));
+	}
+
+	@Test
+	void userPurgeSubtractsOnlyDeletedOrdersFromRollups() {
+		ProductDTO product = product(category(), "2.50");
+		UserModel buyer = user();
+		UserModel other = user();
+		for (int i = 0; i < 3; i++) order(buyer, product, 2);
+		order(other, product, 1);
+		assertEquals(7L, paidUnits(product));
+
+		PurgeJobDTO job = userService.deleteById(buyer.getId());
+		purgeService.processPending();
+
+		assertEquals(PurgeStatus.COMPLETED, purgeService.getJob(job.getId()).getStatus());
+		assertEquals(0, detailOrderRepository.countByUserOrder_Id(buyer.getId()));
+		assertFalse(userRepository.existsById(buyer.getId()));
+		assertEquals(1L, paidUnits(product));	// Queda solo la venta del otro usuario
+	}
+
+	@Test
+	void purgesDeleteStockReservationsBeforeTheirParents() {
+		CategoryDTO category = category();
+		ProductDTO product = product(category, "6.00");
+		UserModel user = user();
+		StockReservationDTO reservation = reservationService.reserve(new StockReservationDTO(null, null, product.getId(), 2, 600, null, null, null), TestUsers.authenticate(user, "USER"));
+
+		PurgeJobDTO userJob = userService.deleteById(user.getId());
+		purgeService.processPending();
+		assertEquals(PurgeStatus.COMPLETED, purgeService.getJob(userJob.getId()).getStatus());
+		assertFalse(userRepository.existsById(user.getId()));
+
+		reservationService.reserve(new StockReservationDTO(null, null, product.getId(), 1, 600, null, null, null), TestUsers.authenticate(user(), "USER"));
+		PurgeJobDTO categoryJob = categoryService.deleteCategoryById(category.getId());
+		purgeService.processPending();
+		assertEquals(PurgeStatus.COMPLETED, purgeService.getJob(categoryJob.getId()).getStatus());
+		assertFalse(productRepository.existsById(product.getId()));
+		assertFalse(reservationRepository.existsById(reservation.getId()));
+	}
+
+	@Test
+	void categoryPurgeIsCancelledWhenItsProductsReceivedOrders() {
+		CategoryDTO category = category();
+		ProductDTO product = product(category, "1.00");
+		order(user(), product, 1);	// Orden confirmada entre la verificación y la purga: se encola la tarea a mano
+		PurgeJobDTO job = transactionTemplate.execute(status -> {
+			categoryRepository.findById(category.getId()).orElseThrow().setDeleting(true);
+			return purgeService.enqueue(PurgeTarget.CATEGORY, category.getId(), 1);
+		});
+
+		purgeService.processPending();
+
+		assertEquals(PurgeStatus.CANCELLED, purgeService.getJob(job.getId()).getStatus());
+		assertFalse(categoryRepository.findById(category.getId()).orElseThrow().isDeleting());
+		assertTrue(productRepository.existsById(product.getId()));
+	}
+
+	@Test
+	void categoryPurgeIsPartialWhenOrdersAppearAfterSomeProductsWereDeleted() {
+		CategoryDTO category = category();
+		product(category, "1.00");
+		product(category, "1.00");	// Primer bloque (chunk-size=2): sin órdenes, se elimina
+		ProductDTO sold = product(category, "1.00");
+		order(user(), sold, 1);	// Orden en el segundo bloque, confirmada tras la verificación: se encola la tarea a mano
+		PurgeJobDTO job = transactionTemplate.execute(status -> {
+			categoryRepository.findById(category.getId()).orElseThrow().setDeleting(true);
+			return purgeService.enqueue(PurgeTarget.CATEGORY, category.getId(), 3);
+		});
+
+		purgeService.processPending();
+
+		PurgeJobDTO stopped = purgeService.getJob(job.getId());
+		assertEquals(PurgeStatus.PARTIAL, stopped.getStatus());	// No se informa como una cancelación sin cambios
+		assertEquals(2, stopped.getDeletedRows());
+		assertEquals(1, productRepository.countByCategoryProduct_Id(category.getId()));
+		assertFalse(categoryRepository.findById(category.getId()).orElseThrow().isDeleting());
+	}
+
+	@Test
+	void jobClaimedByAnotherNodeIsSkippedUntilItsLeaseExpires() {
+		CategoryDTO category = category();
+		product(category, "4.00");
+		PurgeJobDTO job = categoryService.deleteCategoryById(category.getId());
+		Instant now = Instant.now();
+		assertEquals(1, (int) transactionTemplate.execute(status -> purgeJobRepository.claim(job.getId(), "otra-instancia", now, now.plusSeconds(60))));
+
+		purgeService.processPending();
+		assertEquals(PurgeStatus.RUNNING, purgeService.getJob(job.getId()).getStatus());
+		assertEquals(1, productRepository.countByCategoryProduct_Id(category.getId()));
+
+		transactionTemplate.executeWithoutResult(status -> purgeJobRepository.findById(job.getId()).orElseThrow().setLeaseUntil(now.minusSeconds(1)));	// La otra instancia se cayó
+		purgeService.processPending();
+		assertEquals(PurgeStatus.COMPLETED, purgeService.getJob(job.getId()).getStatus());
+		assertFalse(categoryRepository.existsById(category.getId()));
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private CategoryDTO category() {
+		return categoryService.createNewCategory(new CategoryDTO(null, "Purga " + UUID.randomUUID()));
+	}
+
+	private ProductDTO product(CategoryDTO category, String price) {
+		return productService.createProduct(new ProductDTO(null, "Producto purga " + UUID.randomUUID(), "Purga en segundo plano",
+				Money.valueOf(price), category.getId(), 100, true));
+	}
+
+	private UserModel user() {
+		return TestUsers.save(userRepository, "purge", "AR");
+	}
+
+	private void order(UserModel user, ProductDTO product, int amount) {
+		detailOrderService.newDetailOrder(new DetailOrderDTO(null, user.getId(), product, amount, OrderStatus.PAID, null, null));
+	}
+
+	private long paidUnits(ProductDTO product) {
+		List<Object[]> totals = rollupRepository.findTotals(RollupDimension.PRODUCT, product.getId().toString(), OrderStatus.PAID);
+		return totals.isEmpty() ? 0 : ((Number) totals.get(0)[0]).longValue();
+	}
+
+}
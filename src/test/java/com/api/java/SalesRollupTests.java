@@ -0,0 +1,210 @@
+package com.api.java;
+
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.DetailOrderDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.dto.RollupDriftDTO;
+import com.api.java.dto.SalesReportDTO;
+import com.api.java.models.Money;
+import com.api.java.models.OrderStatus;
+import com.api.java.models.RollupDimension;
+import com.api.java.models.SalesWindow;
+import com.api.java.models.UserModel;
+import com.api.java.repositories.ISalesRollupRepository;
+import com.api.java.repositories.IUserRepository;
+import com.api.java.services.BestSellerService;
+import com.api.java.services.CategoryService;
+import com.api.java.services.DetailOrderService;
+import com.api.java.services.ProductService;
+import com.api.java.services.SalesRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica los resúmenes de ventas sobre H2: el mantenimiento incremental, el recálculo por bloques (incluida la suma de
+ * ingresos sobre el precio convertido a Money), la corrección fila por fila, el upsert ante primeras ventas concurrentes
+ * que eliminar o cancelar un detalle pagado también lo reste del ranking de más vendidos, y que los resúmenes sigan
+ * usando la categoría y el país del momento de la venta aunque el producto o el usuario cambien. */
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SalesRollupTests {
+
+	@Autowired
+	private SalesRollupService rollupService;
+	@Autowired
+	private DetailOrderService detailOrderService;
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private IUserRepository userRepository;
+	@Autowired
+	private ISalesRollupRepository rollupRepository;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Autowired
+	private JdbcTemplate jdbc;
+	@Autowired
+	private BestSellerService bestSellerService;
+
+	@Test
+	void incrementalRollupsMatchRebuild() {
+		ProductDTO product = product("12.34");
+		UserModel user = user("AR");
+		order(user, product, 2, OrderStatus.PAID);
+		order(user, product, 3, OrderStatus.PAID);
+		order(user, product, 1, OrderStatus.PENDING);
+
+		SalesReportDTO paid = row(RollupDimension.PRODUCT, product.getId(), OrderStatus.PAID);
+		assertEquals(5, paid.getUnits());
+		assertEquals(Money.valueOf("61.70"), paid.getRevenue());
+		assertEquals(1, row(RollupDimension.PRODUCT, product.getId(), OrderStatus.PENDING).getUnits());
+
+		RollupDriftDTO drift = rollupService.rebuild(false);
+		assertEquals(0, drift.getMismatches(), () -> "Diferencias: " + drift.getSamples());
+	}
+
+	@Test
+	void repairCorrectsOnlyDriftedRows() {
+		ProductDTO product = product("5.00");
+		UserModel user = user("UY");
+		order(user, product, 4, OrderStatus.PAID);
+		String staleKey = String.valueOf(900_000_000L + product.getId());
+		jdbc.update("update sales_rollup set units = units + 7, revenue = revenue + 1.50 where dimension = 'PRODUCT' and dimension_key = ? and status = 'PAID'", product.getId().toString());
+		transactionTemplate.executeWithoutResult(status -> rollupRepository.upsert("PRODUCT", staleKey, "PAID", 3, Money.valueOf("9.99").toBigDecimal()));
+
+		RollupDriftDTO drift = rollupService.rebuild(true);
+		assertTrue(drift.getMismatches() >= 2, () -> "Diferencias: " + drift.getSamples());
+		assertTrue(drift.isRepaired());
+
+		assertEquals(0, rollupService.rebuild(false).getMismatches());
+		SalesReportDTO paid = row(RollupDimension.PRODUCT, product.getId(), OrderStatus.PAID);
+		assertEquals(4, paid.getUnits());
+		assertEquals(Money.valueOf("20.00"), paid.getRevenue());
+		assertTrue(rollupRepository.findTotals(RollupDimension.PRODUCT, staleKey, OrderStatus.PAID).isEmpty());
+	}
+
+	@Test
+	void concurrentFirstSalesOfTheSameKeyAreSummed() throws Exception {
+		String key = "CONCURRENT-" + UUID.randomUUID();
+		int writers = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(writers);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < writers; i++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					transactionTemplate.executeWithoutResult(status -> rollupService.onOrderChanged(null,
+							new SalesRollupService.SalesFact(null, null, key, OrderStatus.PAID, 2, Money.valueOf("1.25"))));
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) future.get();	// Ninguna escritura falla por la clave única
+
+			Object[] totals = rollupRepository.findTotals(RollupDimension.COUNTRY, key, OrderStatus.PAID).get(0);
+			assertEquals(2L * writers, totals[0]);
+			assertEquals(Money.valueOf("20.00"), totals[1]);
+		} finally {
+			pool.shutdownNow();
+			transactionTemplate.executeWithoutResult(status -> rollupRepository.deleteByKey(RollupDimension.COUNTRY, key, OrderStatus.PAID));
+		}
+	}
+
+	@Test
+	void deletedAndCancelledOrdersLeaveTheBestSellers() {
+		ProductDTO product = product("3.00");
+		UserModel user = user("AR");
+		long before = paidInRanking(product);	// El checkpoint de otra corrida puede traer ventas de un producto con el mismo ID
+		DetailOrderDTO first = order(user, product, 3, OrderStatus.PAID);
+		DetailOrderDTO second = order(user, product, 2, OrderStatus.PAID);
+		assertEquals(before + 5, paidInRanking(product));
+
+		detailOrderService.deleteById(first.getId());
+		assertEquals(2, row(RollupDimension.PRODUCT, product.getId(), OrderStatus.PAID).getUnits());
+		assertEquals(before + 2, paidInRanking(product));
+
+		detailOrderService.updateDetailById(second.getId(), new DetailOrderDTO(null, user.getId(), product, 2, OrderStatus.CANCELLED, null, null));
+		assertEquals(before, paidInRanking(product));
+	}
+
+	@Test
+	void rollupsKeepTheCategoryAndCountryOfTheSale() {
+		ProductDTO product = product("4.00");
+		Long soldIn = product.getCategoryId();
+		String country = "PAIS-" + UUID.randomUUID();
+		UserModel user = user(country);
+		DetailOrderDTO order = order(user, product, 3, OrderStatus.PAID);
+
+		CategoryDTO moved = categoryService.createNewCategory(new CategoryDTO(null, "Rollups destino " + UUID.randomUUID()));
+		jdbc.update("update product set category_id = ? where id = ?", moved.getId(), product.getId());	// El producto cambia de categoría
+		product.setCategoryId(moved.getId());	// El DTO de la actualización refleja la categoría actual
+		jdbc.update("update user set country = ? where id = ?", "PAIS-" + UUID.randomUUID(), user.getId());	// Y el usuario de país
+		RollupDriftDTO drift = rollupService.rebuild(false);
+		assertEquals(0, drift.getMismatches(), () -> "Diferencias: " + drift.getSamples());	// El recálculo agrupa por lo congelado en el detalle
+
+		detailOrderService.updateDetailById(order.getId(), new DetailOrderDTO(null, user.getId(), product, 3, OrderStatus.CANCELLED, null, null));
+		assertEquals(0, row(RollupDimension.CATEGORY, soldIn, OrderStatus.PAID).getUnits());	// Se resta de donde se sumó
+		assertEquals(3, row(RollupDimension.CATEGORY, soldIn, OrderStatus.CANCELLED).getUnits());
+		assertTrue(rollupService.getReport(RollupDimension.CATEGORY, null).stream().noneMatch(r -> r.getKey().equals(moved.getId().toString())));
+		assertEquals(0, units(RollupDimension.COUNTRY, country, OrderStatus.PAID));
+
+		detailOrderService.deleteById(order.getId());
+		assertEquals(0, units(RollupDimension.COUNTRY, country, OrderStatus.CANCELLED));
+		assertEquals(0, rollupService.rebuild(false).getMismatches());
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private ProductDTO product(String price) {
+		String suffix = UUID.randomUUID().toString();
+		CategoryDTO category = categoryService.createNewCategory(new CategoryDTO(null, "Rollups " + suffix));
+		return productService.createProduct(new ProductDTO(null, "Producto rollup " + suffix, "Resumen de ventas",
+				Money.valueOf(price), category.getId(), 100, true));
+	}
+
+	private UserModel user(String country) {
+		return TestUsers.save(userRepository, "rollup", country);
+	}
+
+	private DetailOrderDTO order(UserModel user, ProductDTO product, int amount, OrderStatus status) {
+		return detailOrderService.newDetailOrder(new DetailOrderDTO(null, user.getId(), product, amount, status, null, null));
+	}
+
+	private long paidInRanking(ProductDTO product) {
+		for (long[] entry : bestSellerService.top(SalesWindow.DAY, product.getCategoryId(), 50)) {
+			if (entry[0] == product.getId()) return entry[1];
+		}
+		return 0;
+	}
+
+	private SalesReportDTO row(RollupDimension dimension, Long key, OrderStatus status) {
+		return rollupService.getReport(dimension, status).stream()
+				.filter(row -> row.getKey().equals(key.toString()))
+				.findFirst().orElseThrow();
+	}
+
+	private long units(RollupDimension dimension, String key, OrderStatus status) {
+		return rollupService.getReport(dimension, status).stream()
+				.filter(row -> row.getKey().equals(key))
+				.mapToLong(SalesReportDTO::getUnits).sum();
+	}
+
+}
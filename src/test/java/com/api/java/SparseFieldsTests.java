@@ -0,0 +1,133 @@
+package com.api.java;
+
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.DetailOrderDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.dto.SparseListDTO;
+import com.api.java.globalException.InvalidRequestException;
+import com.api.java.models.Money;
+import com.api.java.models.OrderStatus;
+import com.api.java.models.UserModel;
+import com.api.java.repositories.IUserRepository;
+import com.api.java.services.CategoryService;
+import com.api.java.services.DetailOrderService;
+import com.api.java.services.ProductService;
+import com.api.java.services.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica los listados con ?fields= sobre H2: cada objeto trae solo los campos pedidos (en el orden del DTO), los campos
+ * anidados se agrupan, un prefijo incluye todo el objeto, los roles de usuario se cargan aparte y los campos desconocidos
+ * responden 400. */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@ActiveProfiles("test")
+class SparseFieldsTests {
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private DetailOrderService detailOrderService;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private IUserRepository userRepository;
+
+	private String token;
+	private UserModel user;
+	private ProductDTO product;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		TestUsers.Session session = TestUsers.register(restTemplate, objectMapper, "fields");
+		token = session.token();
+		user = userRepository.findByUsername(session.username()).orElseThrow();
+		CategoryDTO category = categoryService.createNewCategory(new CategoryDTO(null, "Campos " + UUID.randomUUID()));
+		product = productService.createProduct(new ProductDTO(null, "Campos " + UUID.randomUUID(), "Listado reducido",
+				Money.valueOf("12.5"), category.getId(), 10, true));
+	}
+
+	@Test
+	void productsIncludeOnlyTheRequestedFields() throws Exception {
+		ResponseEntity<String> response = get("/product?fields=priceProduct, id,priceProduct");	// Repetido y desordenado
+		assertEquals(200, response.getStatusCode().value());
+		JsonNode row = find(objectMapper.readTree(response.getBody()), product.getId());
+		assertEquals(List.of("id", "priceProduct"), names(row));	// Orden del DTO
+		assertTrue(response.getBody().contains("{\"id\":" + product.getId() + ",\"priceProduct\":12.50}"), response.getBody());
+
+		assertEquals(400, get("/product?fields=id,secret").getStatusCode().value());
+		assertEquals(400, get("/product?fields=,").getStatusCode().value());
+		assertEquals(400, get("/product?fields=id&ids=" + product.getId()).getStatusCode().value());
+	}
+
+	@Test
+	void detailOrdersNestTheProductFields() throws Exception {
+		DetailOrderDTO detail = detailOrderService.newDetailOrder(new DetailOrderDTO(null, user.getId(), product, 2, OrderStatus.PENDING, null, null));
+
+		JsonNode row = find(objectMapper.readTree(get("/detail-order?fields=amount,productOrder.nameProduct,id").getBody()), detail.getId());
+		assertEquals(List.of("id", "productOrder", "amount"), names(row));
+		assertEquals(List.of("nameProduct"), names(row.get("productOrder")));
+		assertEquals(product.getNameProduct(), row.get("productOrder").get("nameProduct").asText());
+		assertEquals(2, row.get("amount").asInt());
+
+		row = find(objectMapper.readTree(get("/detail-order?fields=id,productOrder").getBody()), detail.getId());	// Prefijo: todo el producto
+		assertEquals(List.of("id", "nameProduct", "descriptionProduct", "priceProduct", "categoryId", "stockProduct", "activo"),
+				names(row.get("productOrder")));
+	}
+
+	@Test
+	void userRolesAreLoadedSeparately() {
+		SparseListDTO users = userService.getUsers("username,role");
+		assertEquals(List.of("username", "role"), users.getFields());
+		Object[] row = users.getRows().stream().filter(values -> user.getUsername().equals(values[0])).findFirst().orElse(null);
+		assertNotNull(row);
+		assertEquals(Set.of("USER"), row[1]);
+		assertThrows(InvalidRequestException.class, () -> userService.getUsers("username,roles"));
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private ResponseEntity<String> get(String path) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.setBearerAuth(token);
+		return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+	}
+
+	private static JsonNode find(JsonNode rows, long id) {
+		for (JsonNode row : rows) if (row.get("id").asLong() == id) return row;
+		throw new AssertionError("Falta el ID " + id + " en el listado");
+	}
+
+	private static List<String> names(JsonNode object) {
+		List<String> names = new ArrayList<>();
+		object.fieldNames().forEachRemaining(names::add);
+		return names;
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.api.java;
+
+import com.api.java.dto.CategoryDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.dto.StockReservationDTO;
+import com.api.java.models.Money;
+import com.api.java.models.ReservationStatus;
+import com.api.java.models.UserModel;
+import com.api.java.repositories.IStockReservationRepository;
+import com.api.java.repositories.IUserRepository;
+import com.api.java.services.CategoryService;
+import com.api.java.services.ProductService;
+import com.api.java.services.StockReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.reset;
+
+/** Verifica las reservas de stock sobre H2: una reserva cuyo UPDATE a EXPIRED falla porque la base de datos no responde
+ * sigue seguida por la rueda de tiempo, se reintenta con espera creciente y se marca cuando la base vuelve; y solo su dueño
+ * (el usuario autenticado que la creó) o un ADMIN pueden consultarla, confirmarla o liberarla. */
+
+@SpringBootTest(properties = {"app.reservations.tick-ms=50", "app.reservations.max-retry-ms=200"})
+@ActiveProfiles("test")
+class StockReservationTests {
+
+	@Autowired
+	private StockReservationService reservationService;
+	@Autowired
+	private ProductService productService;
+	@Autowired
+	private CategoryService categoryService;
+	@Autowired
+	private IUserRepository userRepository;
+	@MockitoSpyBean
+	private IStockReservationRepository reservationRepository;
+
+	@Test
+	void failedExpirationIsRetriedUntilItCommits() throws InterruptedException {
+		doThrow(new CannotCreateTransactionException("Base de datos caída")).when(reservationRepository).expireByIds(anyCollection());
+		StockReservationDTO reservation = reservationService.reserve(new StockReservationDTO(null, null, product().getId(), 1, 1, null, null, null), TestUsers.authenticate(user(), "USER"));
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (expireCalls() < 3 && System.currentTimeMillis() < deadline) Thread.sleep(50);
+		assertTrue(expireCalls() >= 3, "El vencimiento fallido no se reintentó");
+		assertEquals(ReservationStatus.ACTIVE, status(reservation));
+
+		reset(reservationRepository);	// Vuelve la base de datos: el próximo reintento se confirma
+		while (status(reservation) == ReservationStatus.ACTIVE && System.currentTimeMillis() < deadline) Thread.sleep(50);
+		assertEquals(ReservationStatus.EXPIRED, status(reservation));
+	}
+
+	@Test
+	void onlyTheOwnerOrAnAdminCanUseAReservation() {
+		UserModel owner = user();
+		Authentication other = TestUsers.authenticate(user(), "USER");
+		StockReservationDTO reservation = reservationService.reserve(new StockReservationDTO(null, user().getId(), product().getId(), 1, 600, null, null, null),
+				TestUsers.authenticate(owner, "USER"));
+		assertEquals(owner.getId(), reservation.getUserId());	// El dueño es el autenticado, no el userId del cuerpo
+
+		assertThrows(AccessDeniedException.class, () -> reservationService.get(reservation.getId(), other));
+		assertThrows(AccessDeniedException.class, () -> reservationService.confirm(reservation.getId(), other));
+		assertThrows(AccessDeniedException.class, () -> reservationService.release(reservation.getId(), other));
+		assertEquals(ReservationStatus.ACTIVE, status(reservation));
+
+		assertEquals(owner.getId(), reservationService.get(reservation.getId(), TestUsers.authenticate(user(), "ADMIN")).getUserId());
+		assertEquals(ReservationStatus.RELEASED, reservationService.release(reservation.getId(), TestUsers.authenticate(owner, "USER")).getStatus());
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private long expireCalls() {
+		return mockingDetails(reservationRepository).getInvocations().stream()
+				.filter(invocation -> invocation.getMethod().getName().equals("expireByIds"))
+				.count();
+	}
+
+	private ReservationStatus status(StockReservationDTO reservation) {
+		return reservationRepository.findById(reservation.getId()).orElseThrow().getStatus();
+	}
+
+	private ProductDTO product() {
+		CategoryDTO category = categoryService.createNewCategory(new CategoryDTO(null, "Reservas " + UUID.randomUUID()));
+		return productService.createProduct(new ProductDTO(null, "Producto reserva " + UUID.randomUUID(), "Reservas de stock",
+				Money.valueOf("9.90"), category.getId(), 10, true));
+	}
+
+	private UserModel user() {
+		return TestUsers.save(userRepository, "reserva", "AR");
+	}
+
+}
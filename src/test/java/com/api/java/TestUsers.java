@@ -0,0 +1,71 @@
+package com.api.java;
+
+import com.api.java.models.UserModel;
+import com.api.java.repositories.IUserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Alta de usuarios de prueba compartida por los tests.
+ * Cada usuario recibe un DNI aleatorio para no chocar con los de otros tests en la base en memoria compartida. */
+
+final class TestUsers {
+
+	/** Usuario registrado por la API junto con su token JWT. */
+
+	record Session(String username, String token) {}
+
+	private TestUsers() {}
+
+	/** Registra un usuario por /auth/register y devuelve su token.
+	 * @param prefix prefijo del username y del email */
+
+	static Session register(TestRestTemplate restTemplate, ObjectMapper objectMapper, String prefix) throws Exception {
+		int dni = dni();
+		String username = prefix + dni;
+		String register = objectMapper.writeValueAsString(Map.of("dni", dni, "username", username, "lastname", "Prueba",
+				"firstname", "Prueba", "email", username + "@test.local", "password", "secret123", "country", "Argentina"));
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_JSON);
+		ResponseEntity<String> response = restTemplate.exchange("/auth/register", HttpMethod.POST, new HttpEntity<>(register, headers), String.class);
+		assertEquals(200, response.getStatusCode().value());
+		return new Session(username, objectMapper.readTree(response.getBody()).get("token").asText());
+	}
+
+	/** Guarda un usuario directamente en el repositorio, sin pasar por la API.
+	 * @param prefix  prefijo del username y del email
+	 * @param country país del usuario */
+
+	static UserModel save(IUserRepository userRepository, String prefix, String country) {
+		int dni = dni();
+		return userRepository.save(UserModel.builder().dni(dni).username(prefix + dni).lastname("Prueba").firstname("Prueba")
+				.email(prefix + dni + "@test.local").password("x" + dni).country(country).build());
+	}
+
+	/** Autenticación de un usuario guardado, como la que arma el filtro JWT, para llamar a los servicios que la piden.
+	 * @param role rol sin el prefijo ROLE_ (USER o ADMIN) */
+
+	static Authentication authenticate(UserModel user, String role) {
+		return new UsernamePasswordAuthenticationToken(user.getUsername(), null, List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+	}
+
+	// MÉTODOS AUXILIARES PRIVADOS
+
+	private static int dni() {
+		return ThreadLocalRandom.current().nextInt(10_000_000, 100_000_000);	// Hasta 8 dígitos
+	}
+
+}
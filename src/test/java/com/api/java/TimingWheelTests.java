@@ -0,0 +1,61 @@
+package com.api.java;
+
+import com.api.java.services.TimingWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica la rueda de tiempo de los vencimientos de reservas: cada clave vence en el primer tick que alcanza su momento,
+ * nunca antes, en todos los niveles y más allá del alcance de la rueda, y las canceladas no vencen. */
+
+class TimingWheelTests {
+	private static final long TICK_MS = 10;
+
+	@Test
+	void expiresEachKeyAtItsTickAcrossLevels() {
+		TimingWheel wheel = new TimingWheel(TICK_MS, 8, 3, 0);	// Alcance: 8^3 = 512 ticks
+		Map<Long, Long> deadlines = new HashMap<>();
+		List<TimingWheel.Timeout> cancelled = new ArrayList<>();
+		Random random = new Random(42);
+		for (long key = 0; key < 2000; key++) {
+			long deadline = 1 + random.nextLong(1200 * TICK_MS);	// Incluye vencimientos fuera del alcance
+			TimingWheel.Timeout timeout = wheel.schedule(key, deadline);
+			if (key % 5 == 0) cancelled.add(timeout);
+			else deadlines.put(key, deadline);
+		}
+		for (TimingWheel.Timeout timeout : cancelled) wheel.cancel(timeout);
+		assertEquals(deadlines.size(), wheel.size());
+
+		Map<Long, Long> expiredAt = new HashMap<>();
+		for (long now = 0; now <= 1300 * TICK_MS; now += TICK_MS) {
+			long at = now;
+			wheel.advance(now, key -> expiredAt.put(key, at));
+		}
+		assertEquals(deadlines.keySet(), expiredAt.keySet());
+		deadlines.forEach((key, deadline) -> {
+			long at = expiredAt.get(key);
+			assertTrue(at >= deadline && at < deadline + TICK_MS, "clave " + key + ": vence " + deadline + ", entregada en " + at);
+		});
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void pastDeadlineExpiresOnNextTick() {
+		TimingWheel wheel = new TimingWheel(TICK_MS, 8, 2, 1000);
+		wheel.advance(1500, key -> {
+		});
+		wheel.schedule(7, 100);
+		List<Long> expired = new ArrayList<>();
+		assertEquals(0, wheel.advance(1505, expired::add));
+		assertEquals(1, wheel.advance(1510, expired::add));
+		assertEquals(List.of(7L), expired);
+	}
+
+}
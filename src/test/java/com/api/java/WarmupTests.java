@@ -0,0 +1,48 @@
+package com.api.java;
+
+import com.api.java.services.ConcurrencyLimitService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Verifica que las requests del calentamiento no se registren en http.server.requests ni en los límites de concurrencia,
+ * mientras que las requests normales sí. */
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"management.server.port=0",
+		"app.warmup.enabled=true", "app.warmup.min-rounds=3", "app.warmup.target-p95-ms=10000", "app.warmup.budget-ms=20000"})
+@ActiveProfiles("test")
+class WarmupTests {
+
+	@Autowired
+	private ApplicationAvailability availability;
+	@Autowired
+	private MeterRegistry meterRegistry;
+	@Autowired
+	private ConcurrencyLimitService concurrencyLimitService;
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	void warmupRequestsAreNotMeasured() throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (availability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC && System.currentTimeMillis() < deadline) Thread.sleep(100);
+		assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+
+		assertTrue(meterRegistry.find("http.server.requests").timers().isEmpty(), "El calentamiento quedó en http.server.requests");
+		assertEquals(0, concurrencyLimitService.limiter(ConcurrencyLimitService.RouteClass.CATALOG_READ).getAccepted());
+
+		restTemplate.getForEntity("/product/browse", String.class);	// Sin JWT: 401, pero es una request normal
+		assertFalse(meterRegistry.find("http.server.requests").timers().isEmpty());
+		assertEquals(1, concurrencyLimitService.limiter(ConcurrencyLimitService.RouteClass.CATALOG_READ).getAccepted());
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.api.java.benchmark;
+
+import com.api.java.config.JacksonConfig;
+import com.api.java.config.MoneyJsonComponent;
+import com.api.java.dto.DetailOrderDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.models.Money;
+import com.api.java.models.OrderStatus;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Benchmark de los formatos de respuesta: compara JSON, CBOR y Smile para un catálogo (listado de ProductDTO)
+ * y un listado de órdenes (DetailOrderDTO). Informa el tamaño del payload y la velocidad de codificación y
+ * decodificación, con la misma configuración de módulos y serializadores que usa la aplicación.
+ * No es un test: se ejecuta a mano desde el IDE o con
+ * {@code mvn test-compile} y {@code java -cp target/classes:target/test-classes:<dependencias> com.api.java.benchmark.BinaryFormatBenchmark}. */
+
+public final class BinaryFormatBenchmark {
+    private static final int ROWS = 1_000;          // Filas por listado
+    private static final int WARMUP_ROUNDS = 2_000; // Iteraciones previas para que el JIT compile
+    private static final int ROUNDS = 3_000;        // Iteraciones medidas
+
+    public static void main(String[] args) throws IOException {
+        List<ProductDTO> products = new ArrayList<>(ROWS);
+        List<DetailOrderDTO> details = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            ProductDTO product = new ProductDTO((long) i, "Producto " + i, "Descripción del producto " + i,
+                    Money.ofCents(100_00L + i * 37L), (long) (i % 12), i % 50, i % 7 != 0);
+            products.add(product);
+            details.add(new DetailOrderDTO((long) i, (long) (i % 300), product, 1 + i % 4, OrderStatus.values()[i % 3],
+                    product.getNameProduct(), product.getPriceProduct()));
+        }
+
+        for (String format : List.of("JSON", "CBOR", "Smile")) {
+            ObjectMapper mapper = mapper(format);
+            run(format + " catálogo", mapper, products, new TypeReference<List<ProductDTO>>() { });
+            run(format + " órdenes ", mapper, details, new TypeReference<List<DetailOrderDTO>>() { });
+        }
+    }
+
+    private static <T> void run(String label, ObjectMapper mapper, List<T> rows, TypeReference<List<T>> type) throws IOException {
+        ObjectWriter writer = mapper.writer();
+        ObjectReader reader = mapper.readerFor(type);
+        byte[] payload = writer.writeValueAsBytes(rows);
+        if (!rows.equals(reader.readValue(payload))) {  // Los DTOs tienen equals de Lombok
+            throw new IllegalStateException(label + ": el payload decodificado no coincide con el original");
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) reader.readValue(writer.writeValueAsBytes(rows));
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) writer.writeValueAsBytes(rows);
+        long encode = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) reader.readValue(payload);
+        long decode = System.nanoTime() - start;
+
+        double totalRows = (double) ROUNDS * rows.size();
+        System.out.printf("%s: %,9d bytes (%5.1f/fila)  codificación %,11.0f filas/s  decodificación %,11.0f filas/s%n",
+                label, payload.length, (double) payload.length / rows.size(), totalRows / (encode / 1e9), totalRows / (decode / 1e9));
+    }
+
+    /** ObjectMapper equivalente al de la aplicación para el formato indicado. */
+
+    private static ObjectMapper mapper(String format) {
+        JsonFactory factory = switch (format) {
+            case "CBOR" -> new CBORFactory();
+            case "Smile" -> new SmileFactory();
+            default -> JacksonConfig.jsonFactory();
+        };
+        SimpleModule money = new SimpleModule("money")
+                .addSerializer(Money.class, new MoneyJsonComponent.Serializer())
+                .addDeserializer(Money.class, new MoneyJsonComponent.Deserializer());
+        return new ObjectMapper(factory).registerModules(new JavaTimeModule(), new ParameterNamesModule(), money,
+                new BlackbirdModule(), new JacksonConfig().hotDtoModule());
+    }
+}
@@ -0,0 +1,121 @@
+package com.api.java.benchmark;
+
+import com.api.java.JavaApplication;
+import com.api.java.services.CatalogSnapshotService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/** Benchmark de /product/browse: compara el snapshot columnar en memoria ({@link CatalogSnapshotService#browse}) con las
+ * consultas SQL equivalentes (total, página ordenada por precio, facet por categoría e histograma de precios) sobre la
+ * misma base. Levanta la aplicación con el perfil test (H2 en memoria) y carga productos sintéticos con JDBC.
+ * No es un test: se ejecuta a mano desde el IDE o con
+ * {@code mvn test-compile} y {@code java -cp target/classes:target/test-classes:<dependencias> com.api.java.benchmark.CatalogBrowseBenchmark [productos]}.
+ * Con una base MySQL real (pasando --spring.datasource.* después de la cantidad) la diferencia es mayor: H2 corre en el mismo proceso. */
+
+public final class CatalogBrowseBenchmark {
+    private static final int CATEGORIES = 40;
+    private static final int HISTOGRAM_BUCKETS = 10;    // Igual que el snapshot
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP_ROUNDS = 2_000;     // Búsquedas previas para que el JIT compile
+    private static final int ROUNDS = 2_000;            // Búsquedas medidas
+
+    private CatalogBrowseBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--management.server.port=0"));
+        for (int i = 1; i < args.length; i++) appArgs.add(args[i]);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JavaApplication.class)
+                .profiles("test").run(appArgs.toArray(String[]::new))) {
+            JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+            CatalogSnapshotService catalog = context.getBean(CatalogSnapshotService.class);
+            long firstCategory = seed(jdbc, products);
+            catalog.load();
+
+            Random random = new Random(7);
+            Query[] queries = new Query[256];
+            for (int i = 0; i < queries.length; i++) {
+                Long category = i % 4 == 0 ? null : firstCategory + random.nextInt(CATEGORIES);
+                long min = random.nextInt(50_000) * 100L;
+                queries[i] = new Query(category, min, min + 200_000 * 100L, i % 2 == 0, i % 3 == 0, random.nextInt(5));
+            }
+            for (Query query : queries) {
+                int expected = catalog.browse(query.category, query.minCents, query.maxCents, query.inStock, query.descending, query.page, PAGE_SIZE).total();
+                int actual = sql(jdbc, query).total();
+                if (expected != actual) throw new IllegalStateException("El snapshot y SQL devuelven totales distintos: " + expected + " / " + actual);
+            }
+
+            run("snapshot en memoria", queries, query -> catalog.browse(query.category, query.minCents, query.maxCents, query.inStock, query.descending, query.page, PAGE_SIZE).total());
+            run("consultas SQL      ", queries, query -> sql(jdbc, query).total());
+        }
+    }
+
+    private record Query(Long category, long minCents, long maxCents, boolean inStock, boolean descending, int page) {
+    }
+
+    private interface Browse {
+        int total(Query query);
+    }
+
+    private static void run(String label, Query[] queries, Browse browse) {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) sink += browse.total(queries[i % queries.length]);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) sink += browse.total(queries[i % queries.length]);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s: %,10.0f búsquedas/s  %8.1f µs/búsqueda  (%d)%n", label, ROUNDS / (elapsed / 1e9), elapsed / 1e3 / ROUNDS, sink);
+    }
+
+    /** Resultado de la variante SQL: total, IDs de la página, facet por categoría e histograma. */
+
+    private record SqlResult(int total, List<Long> ids, Map<Long, Integer> categoryCounts, int[] histogram) {
+    }
+
+    private static SqlResult sql(JdbcTemplate jdbc, Query query) {
+        String base = " from product where activo = true" + (query.inStock ? " and stock_product > 0" : "");
+        String price = " and price_product * 100 between ? and ?";
+        String category = query.category != null ? " and category_id = " + query.category : "";
+        Integer total = jdbc.queryForObject("select count(*)" + base + category + price, Integer.class, query.minCents, query.maxCents);
+        List<Long> ids = jdbc.queryForList("select id" + base + category + price + " order by price_product " + (query.descending ? "desc" : "asc") +
+                " limit " + PAGE_SIZE + " offset " + (long) query.page * PAGE_SIZE, Long.class, query.minCents, query.maxCents);
+        Map<Long, Integer> categoryCounts = new HashMap<>();
+        jdbc.query("select category_id, count(*)" + base + price + " group by category_id",
+                row -> { categoryCounts.put(row.getLong(1), row.getInt(2)); }, query.minCents, query.maxCents);
+        int[] histogram = new int[HISTOGRAM_BUCKETS];
+        Map<String, Object> range = jdbc.queryForMap("select min(price_product * 100) lo, max(price_product * 100) hi" + base + category);
+        if (range.get("lo") != null) {
+            long lo = ((Number) range.get("lo")).longValue();
+            long step = Math.max(1, (((Number) range.get("hi")).longValue() - lo) / HISTOGRAM_BUCKETS + 1);
+            jdbc.query("select least(floor((price_product * 100 - ?) / ?), " + (HISTOGRAM_BUCKETS - 1) + "), count(*)" + base + category + " group by 1",
+                    row -> { histogram[row.getInt(1)] += row.getInt(2); }, lo, step);   // least(): la división decimal puede redondear el máximo al intervalo siguiente
+        }
+        return new SqlResult(total != null ? total : 0, ids, categoryCounts, histogram);
+    }
+
+    /** Inserta categorías y productos sintéticos por lotes.
+     * @return ID de la primera categoría */
+
+    private static long seed(JdbcTemplate jdbc, int products) {
+        Random random = new Random(42);
+        List<Object[]> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) categories.add(new Object[]{"Categoría bench " + i});
+        jdbc.batchUpdate("insert into category (category_products, deleting, version) values (?, false, 0)", categories);
+        Long firstCategory = jdbc.queryForObject("select min(id) from category", Long.class);
+        List<Object[]> rows = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            rows.add(new Object[]{"Producto bench " + i, firstCategory + random.nextInt(CATEGORIES),
+                    BigDecimal.valueOf(random.nextInt(30_000_000), 2), random.nextInt(20), i % 10 != 0});
+        }
+        jdbc.batchUpdate("insert into product (name_product, category_id, price_product, stock_product, activo, version) values (?, ?, ?, ?, ?, 0)", rows);
+        return firstCategory;
+    }
+}
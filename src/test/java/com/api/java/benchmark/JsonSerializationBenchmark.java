@@ -0,0 +1,77 @@
+package com.api.java.benchmark;
+
+import com.api.java.config.JacksonConfig;
+import com.api.java.config.MoneyJsonComponent;
+import com.api.java.dto.DetailOrderDTO;
+import com.api.java.dto.ProductDTO;
+import com.api.java.models.Money;
+import com.api.java.models.OrderStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Benchmark de serialización JSON de listados de ProductDTO y DetailOrderDTO: compara el ObjectMapper por defecto
+ * (serializadores por reflexión) con la configuración de {@link JacksonConfig} (serializadores escritos a mano,
+ * Blackbird y pool de buffers compartido). Informa filas por segundo y bytes asignados por fila serializada.
+ * No es un test: se ejecuta a mano desde el IDE o con
+ * {@code mvn test-compile} y {@code java -cp target/classes:target/test-classes:<dependencias> com.api.java.benchmark.JsonSerializationBenchmark}. */
+
+public final class JsonSerializationBenchmark {
+    private static final int ROWS = 1_000;          // Filas por listado serializado
+    private static final int WARMUP_ROUNDS = 3_000; // Serializaciones previas para que el JIT compile
+    private static final int ROUNDS = 5_000;        // Serializaciones medidas
+
+    private static final OutputStream DISCARD = new OutputStream() {    // Destino sin costo, como un socket ya abierto
+        @Override public void write(int b) { }
+        @Override public void write(byte[] b, int off, int len) { }
+    };
+
+    public static void main(String[] args) throws IOException {
+        List<ProductDTO> products = new ArrayList<>(ROWS);
+        List<DetailOrderDTO> details = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            ProductDTO product = new ProductDTO((long) i, "Producto " + i, "Descripción del producto " + i,
+                    Money.ofCents(100_00L + i * 37L), (long) (i % 12), i % 50, i % 7 != 0);
+            products.add(product);
+            details.add(new DetailOrderDTO((long) i, (long) (i % 300), product, 1 + i % 4, OrderStatus.values()[i % 3],
+                    product.getNameProduct(), product.getPriceProduct()));
+        }
+
+        ObjectMapper baseline = new ObjectMapper().registerModules(new JavaTimeModule(), moneyModule());
+        ObjectMapper tuned = new ObjectMapper(JacksonConfig.jsonFactory())
+                .registerModules(new JavaTimeModule(), moneyModule(), new BlackbirdModule(), new JacksonConfig().hotDtoModule());
+
+        if (!baseline.readTree(baseline.writeValueAsBytes(details)).equals(tuned.readTree(tuned.writeValueAsBytes(details)))) {
+            throw new IllegalStateException("Los serializadores producen JSON distinto");
+        }
+
+        run("ProductDTO     por defecto", baseline.writer(), products);
+        run("ProductDTO     optimizado ", tuned.writer(), products);
+        run("DetailOrderDTO por defecto", baseline.writer(), details);
+        run("DetailOrderDTO optimizado ", tuned.writer(), details);
+    }
+
+    private static void run(String label, ObjectWriter writer, List<?> rows) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) writer.writeValue(DISCARD, rows);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) writer.writeValue(DISCARD, rows);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        double totalRows = (double) ROUNDS * rows.size();
+        System.out.printf("%s: %,12.0f filas/s  %8.1f bytes asignados/fila%n", label, totalRows / (elapsed / 1e9), allocated / totalRows);
+    }
+
+    private static SimpleModule moneyModule() {
+        return new SimpleModule("money").addSerializer(Money.class, new MoneyJsonComponent.Serializer());
+    }
+}
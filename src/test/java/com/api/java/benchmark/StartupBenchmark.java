@@ -0,0 +1,125 @@
+package com.api.java.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmark de arranque: lanza la aplicación varias veces y mide el tiempo hasta la primera respuesta HTTP y hasta el
+ * primer GET /product exitoso (200), que incluye obtener un token (registra el usuario de prueba si no existe).
+ * Sirve para detectar regresiones en el arranque y comparar el modo normal con el de arranque rápido (AOT y CDS).
+ * No es un test: se ejecuta a mano, pasando después de "--" el comando que arranca la aplicación, por ejemplo
+ * {@code java -cp target/test-classes:<dependencias> com.api.java.benchmark.StartupBenchmark 5 --
+ * java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar application.jar}.
+ * La base de datos debe estar disponible; el primer argumento (opcional) es la cantidad de arranques. */
+
+public final class StartupBenchmark {
+    private static final String BASE_URL = "http://localhost:8080";
+    private static final String USERNAME = "startup-bench";
+    private static final String PASSWORD = "startup-bench-1";
+    private static final long TIMEOUT_MS = 180_000;    // Tiempo máximo de un arranque
+    private static final long POLL_MS = 10;            // Espera entre intentos
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final HttpClient CLIENT = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int separator = Arrays.asList(args).indexOf("--");
+        if (separator < 0 || separator == args.length - 1) {
+            System.err.println("Uso: StartupBenchmark [arranques] -- <comando que inicia la aplicación>");
+            System.exit(2);
+        }
+        int runs = separator > 0 ? Integer.parseInt(args[0]) : 5;
+        List<String> command = List.of(Arrays.copyOfRange(args, separator + 1, args.length));
+
+        List<Long> firstResponse = new ArrayList<>();
+        List<Long> firstProducts = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            long[] times = startOnce(command, new File("startup-bench-" + run + ".log"));
+            firstResponse.add(times[0]);
+            firstProducts.add(times[1]);
+            System.out.printf(Locale.ROOT, "arranque %d: primera respuesta %6d ms, primer GET /product 200 %6d ms%n", run, times[0], times[1]);
+        }
+        System.out.printf(Locale.ROOT, "%nprimera respuesta       : mediana %6d ms, min %6d ms, max %6d ms%n",
+                median(firstResponse), Collections.min(firstResponse), Collections.max(firstResponse));
+        System.out.printf(Locale.ROOT, "primer GET /product 200 : mediana %6d ms, min %6d ms, max %6d ms%n",
+                median(firstProducts), Collections.min(firstProducts), Collections.max(firstProducts));
+    }
+
+    /** Arranca la aplicación, espera el primer GET /product exitoso y la detiene.
+     * @return milisegundos hasta la primera respuesta HTTP y hasta el primer GET /product con 200 */
+
+    private static long[] startOnce(List<String> command, File log) throws Exception {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+        try {
+            long firstResponse = -1;
+            String token = null;
+            while (elapsedMs(start) < TIMEOUT_MS) {
+                if (!process.isAlive()) throw new IllegalStateException("La aplicación terminó con código " + process.exitValue() + "; ver " + log);
+                try {
+                    if (token == null) token = token();
+                    if (firstResponse < 0) firstResponse = elapsedMs(start);
+                    if (token != null && send(HttpRequest.newBuilder(URI.create(BASE_URL + "/product"))
+                            .header("Authorization", "Bearer " + token).GET()).statusCode() == 200) {
+                        return new long[]{firstResponse, elapsedMs(start)};
+                    }
+                } catch (IOException e) {
+                    // Todavía no escucha en el puerto
+                }
+                Thread.sleep(POLL_MS);
+            }
+            throw new IllegalStateException("La aplicación no respondió GET /product en " + TIMEOUT_MS + " ms; ver " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) process.destroyForcibly().waitFor();
+        }
+    }
+
+    /** @return token del usuario de prueba (lo registra si el login falla), o null si la aplicación aún no lo entrega */
+
+    private static String token() throws IOException, InterruptedException {
+        HttpResponse<String> login = post("/auth/login", Map.of("username", USERNAME, "password", PASSWORD));
+        if (login.statusCode() == 200) return MAPPER.readTree(login.body()).path("token").asText(null);
+        if (login.statusCode() == 401) {
+            HttpResponse<String> register = post("/auth/register", Map.of("dni", 99999999, "username", USERNAME, "lastname", "Bench",
+                    "firstname", "Startup", "email", "startup-bench@example.com", "password", PASSWORD, "country", "Argentina"));
+            if (register.statusCode() == 200) return MAPPER.readTree(register.body()).path("token").asText(null);
+        }
+        return null;    // 503 por descarte de carga, contexto aún inicializando, etc.
+    }
+
+    private static HttpResponse<String> post(String path, Map<String, Object> body) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(BASE_URL + path)).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body))));
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return CLIENT.send(request.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}